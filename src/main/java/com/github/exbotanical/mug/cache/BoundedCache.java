@@ -0,0 +1,198 @@
+package com.github.exbotanical.mug.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, size-bounded cache with frequency-aware eviction.
+ *
+ * <p>
+ * Reads are lock-free: a lookup is a single ConcurrentHashMap read plus a bump of the entry's
+ * (saturating) frequency counter. Eviction is a CLOCK sweep over insertion order. Entries that
+ * have been read since the hand last passed them get a second chance and have their frequency
+ * decremented, whereas entries that were never read again (e.g. one-off paths from a crawler) are
+ * evicted first.
+ * </p>
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class BoundedCache<K, V> {
+  /**
+   * The default maximum number of entries.
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /**
+   * The ceiling for an entry's frequency counter. Bounding the counter bounds the number of passes
+   * the CLOCK hand may make before it finds a victim.
+   */
+  private static final int MAX_FREQUENCY = 3;
+
+  /**
+   * The maximum number of entries. A capacity of 0 disables the cache.
+   */
+  private final int capacity;
+
+  /**
+   * Thread-safe state mapping keys to their cached entries.
+   */
+  private final ConcurrentHashMap<K, Entry<V>> state;
+
+  /**
+   * The CLOCK; keys in insertion order, from which eviction candidates are drawn.
+   */
+  private final ConcurrentLinkedQueue<K> clock;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructor. Initialize a new cache.
+   *
+   * @param capacity The maximum number of entries. A capacity of 0 disables the cache.
+   */
+  public BoundedCache(final int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative");
+    }
+
+    this.capacity = capacity;
+    this.state = new ConcurrentHashMap<>();
+    this.clock = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * Retrieve the cached value for the given key.
+   *
+   * @param key The cache key.
+   * @return The cached value, or null if not extant.
+   */
+  public V get(final K key) {
+    final Entry<V> entry = state.get(key);
+
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    if (entry.frequency.get() < MAX_FREQUENCY) {
+      entry.frequency.incrementAndGet();
+    }
+
+    return entry.value;
+  }
+
+  /**
+   * Cache a value for the given key, evicting cold entries if the cache is over capacity.
+   *
+   * @param key   The cache key.
+   * @param value The value to cache.
+   */
+  public void put(final K key, final V value) {
+    if (capacity == 0) {
+      return;
+    }
+
+    // A replaced key is already on the clock.
+    if (state.put(key, new Entry<>(value)) == null) {
+      clock.offer(key);
+    }
+
+    evict();
+  }
+
+  /**
+   * Remove all entries. Counters are retained.
+   */
+  public void clear() {
+    // Clear the clock first: a key put concurrently may then be left on the clock without an
+    // entry, which `evict` skips, but never with an entry that the clock has lost.
+    clock.clear();
+    state.clear();
+  }
+
+  /**
+   * Retrieve the number of entries currently cached.
+   *
+   * @return The number of entries.
+   */
+  public int size() {
+    return state.size();
+  }
+
+  /**
+   * Retrieve the maximum number of entries.
+   *
+   * @return The cache capacity.
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Take a snapshot of the cache counters.
+   *
+   * @return A CacheStats record.
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), state.size());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("BoundedCache { capacity: %d, stats: %s }", capacity, stats());
+  }
+
+  /**
+   * Advance the CLOCK hand until the cache is within its capacity.
+   */
+  private void evict() {
+    while (state.size() > capacity) {
+      final K key = clock.poll();
+
+      if (key == null) {
+        return;
+      }
+
+      final Entry<V> entry = state.get(key);
+      // Already removed e.g. via `clear`.
+      if (entry == null) {
+        continue;
+      }
+
+      // Recently read; give it a second chance.
+      if (entry.frequency.get() > 0) {
+        entry.frequency.decrementAndGet();
+        clock.offer(key);
+        continue;
+      }
+
+      if (state.remove(key, entry)) {
+        evictions.increment();
+      } else {
+        // Replaced concurrently; keep the new entry on the clock.
+        clock.offer(key);
+      }
+    }
+  }
+
+  /**
+   * A cached value and its access frequency.
+   */
+  private static final class Entry<V> {
+    final V value;
+
+    final AtomicInteger frequency = new AtomicInteger();
+
+    Entry(final V value) {
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.github.exbotanical.mug.cache;
+
+/**
+ * A point-in-time snapshot of a BoundedCache's counters.
+ *
+ * @param hits      The number of lookups that resolved a cached value.
+ * @param misses    The number of lookups that did not resolve a cached value.
+ * @param evictions The number of entries evicted to keep the cache within its capacity.
+ * @param size      The number of entries currently cached.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+  /**
+   * Computes the ratio of hits to total lookups.
+   *
+   * @return The hit ratio, or 0 if no lookups have been made.
+   */
+  public double hitRatio() {
+    final long total = hits + misses;
+
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("CacheStats { hits: %d, misses: %d, evictions: %d, size: %d }",
+        hits, misses, evictions, size);
+  }
+}
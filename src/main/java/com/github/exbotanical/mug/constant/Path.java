@@ -19,6 +19,12 @@ public enum Path {
    */
   PARAMETER_DELIMITER(":"),
 
+  /**
+   * The character used to demarcate a catch-all key from the path e.g. `/static/*rest`. A
+   * catch-all must be the last segment of a path.
+   */
+  CATCH_ALL("*"),
+
   /**
    * The character used to mark the start of a pattern.
    */
@@ -29,6 +35,16 @@ public enum Path {
    */
   PATTERN_END("]"),
 
+  /**
+   * The character used to mark the start of a built-in parameter type.
+   */
+  TYPE_START("<"),
+
+  /**
+   * The character used to mark the end of a built-in parameter type.
+   */
+  TYPE_END(">"),
+
   /**
    * The character used to represent a wildcard / "any" parameter value.
    */
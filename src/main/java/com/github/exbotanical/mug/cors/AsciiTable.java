@@ -0,0 +1,163 @@
+package com.github.exbotanical.mug.cors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable-once-built, open-addressed hash table with ASCII case-insensitive String keys, which
+ * may be looked up by a region of a larger string, such that a lookup allocates nothing: neither a
+ * substring nor a lowercased copy.
+ *
+ * @param <V> The value type.
+ */
+final class AsciiTable<V> {
+  private String[] keys = new String[8];
+
+  private Object[] values = new Object[8];
+
+  private int size;
+
+  /**
+   * Insert or replace an entry. Not thread-safe; tables are built before they are shared.
+   *
+   * @param key   The key, matched without regard to ASCII case.
+   * @param value The value.
+   */
+  void put(final String key, final V value) {
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+
+    final String lower = lower(key);
+    final int mask = keys.length - 1;
+
+    for (int i = hash(lower, 0, lower.length()) & mask; ; i = (i + 1) & mask) {
+      if (keys[i] == null) {
+        keys[i] = lower;
+        values[i] = value;
+        size++;
+        return;
+      }
+
+      if (keys[i].equals(lower)) {
+        values[i] = value;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Look up the value keyed by a region of a string.
+   *
+   * @param s     The string.
+   * @param start The start of the region, inclusive.
+   * @param end   The end of the region, exclusive.
+   * @return The value, or null if absent.
+   */
+  @SuppressWarnings("unchecked")
+  V get(final String s, final int start, final int end) {
+    final int mask = keys.length - 1;
+    final int length = end - start;
+
+    for (int i = hash(s, start, end) & mask; keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i].length() == length && regionEquals(keys[i], s, start)) {
+        return (V) values[i];
+      }
+    }
+
+    return null;
+  }
+
+  boolean contains(final String s, final int start, final int end) {
+    return get(s, start, end) != null;
+  }
+
+  boolean contains(final String s) {
+    return get(s, 0, s.length()) != null;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * The keys, lowercased, in no particular order.
+   */
+  List<String> keys() {
+    final List<String> list = new ArrayList<>(size);
+    for (final String key : keys) {
+      if (key != null) {
+        list.add(key);
+      }
+    }
+
+    return list;
+  }
+
+  @Override
+  public String toString() {
+    return keys().toString();
+  }
+
+  /**
+   * Lowercase ASCII letters, leaving all else as is.
+   */
+  static char lower(final char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  static String lower(final String s) {
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c >= 'A' && c <= 'Z') {
+        final char[] chars = s.toCharArray();
+        for (int j = i; j < chars.length; j++) {
+          chars[j] = lower(chars[j]);
+        }
+
+        return new String(chars);
+      }
+    }
+
+    return s;
+  }
+
+  private static int hash(final String s, final int start, final int end) {
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + lower(s.charAt(i));
+    }
+
+    // Spread the high bits into the low, which alone select the slot.
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Whether `key`, which is lowercase, equals the region of `s` at `start` of the same length.
+   */
+  private static boolean regionEquals(final String key, final String s, final int start) {
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) != lower(s.charAt(start + i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resize() {
+    final String[] oldKeys = keys;
+    final Object[] oldValues = values;
+
+    keys = new String[oldKeys.length * 2];
+    values = new Object[oldKeys.length * 2];
+    size = 0;
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        put(oldKeys[i], (V) oldValues[i]);
+      }
+    }
+  }
+}
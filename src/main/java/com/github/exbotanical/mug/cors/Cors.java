@@ -1,22 +1,41 @@
 package com.github.exbotanical.mug.cors;
 
+import com.github.exbotanical.mug.cache.BoundedCache;
+import com.github.exbotanical.mug.cache.CacheStats;
 import com.github.exbotanical.mug.constant.Method;
 import com.github.exbotanical.mug.constant.Status;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A spec-compliant CORS middleware.
  */
 public class Cors {
   /**
-   * A list of allowed origins for CORS requests.
+   * The Vary value for Preflight responses, combined into one value rather than added thrice.
    */
-  private final List<String> allowedOrigins = new ArrayList<>();
+  private static final String PREFLIGHT_VARY = String.join(", ",
+      CommonHeader.ORIGIN.value,
+      CommonHeader.REQUEST_METHOD.value,
+      CommonHeader.REQUEST_HEADERS.value);
+
+  /**
+   * The outcome of a denied Preflight request.
+   */
+  private static final Map<String, String> PREFLIGHT_DENIED =
+      Map.of(CommonHeader.VARY.value, PREFLIGHT_VARY);
+
+  /**
+   * The allowed origins and wildcard-subdomain origin patterns for CORS requests.
+   */
+  private final OriginMatcher allowedOrigins = new OriginMatcher();
 
   /**
    * A list of allowed HTTP methods for CORS requests.
@@ -28,6 +47,11 @@ public class Cors {
    */
   private final List<String> allowedHeaders = new ArrayList<>();
 
+  /**
+   * The allowed non-simple headers, for lookup without regard to case.
+   */
+  private final transient AsciiTable<Boolean> allowedHeaderSet = new AsciiTable<>();
+
   /**
    * A list of non-simple headers that may be exposed to clients making CORS requests.
    */
@@ -63,6 +87,29 @@ public class Cors {
    */
   private boolean allowAllHeaders;
 
+  /**
+   * Preflight outcomes - the response headers to set - keyed by the origin, method and headers
+   * requested. Browsers send the same few combinations over and over, each of which is evaluated
+   * once.
+   */
+  private final transient BoundedCache<PreflightKey, Map<String, String>> preflightCache;
+
+  /**
+   * The Access-Control-Allow-Headers value. This, and the other static response header values, are
+   * computed once rather than per request.
+   */
+  private final transient String allowHeadersValue;
+
+  /**
+   * The Access-Control-Expose-Headers value, or null if no headers are exposed.
+   */
+  private final transient String exposeHeadersValue;
+
+  /**
+   * The Access-Control-Max-Age value, or null if no Max Age is set.
+   */
+  private final transient String maxAgeValue;
+
   /**
    * Initialize CORS middleware with the provided configurations.
    */
@@ -75,25 +122,27 @@ public class Cors {
     this.useOptionsPassthrough = builder.useOptionsPassthrough;
     this.maxAge = builder.maxAge;
     this.exposedHeaders = builder.exposeHeaders;
+    this.preflightCache = new BoundedCache<>(builder.preflightCacheCapacity);
 
     // Register origins: if no given origins, default to allow all e.g. "*".
     if (allowedOrigins.size() == 0) {
       this.allowAllOrigins = true;
     } else {
-      // For each origin, convert to lowercase and append.
       for (final String origin : allowedOrigins) {
-        final String normalizedOrigin = origin.toLowerCase();
         // If wildcard origin, override and set to allow all e.g. "*".
-        if ("*".equals(normalizedOrigin)) {
+        if ("*".equals(origin)) {
           this.allowAllOrigins = true;
           break;
-        } else {
-          // Append "null" to allow list to support testing / requests from files, redirects, etc.
-          // Note: Used for redirects because the browser should not expose the origin of the new
-          // server; redirects are followed automatically.
-          this.allowedOrigins.add("null");
-          this.allowedOrigins.add(normalizedOrigin);
         }
+
+        this.allowedOrigins.add(origin);
+      }
+
+      // Allow "null" to support testing / requests from files, redirects, etc.
+      // Note: Used for redirects because the browser should not expose the origin of the new
+      // server; redirects are followed automatically.
+      if (!this.allowAllOrigins) {
+        this.allowedOrigins.add("null");
       }
     }
 
@@ -115,6 +164,10 @@ public class Cors {
       }
     }
 
+    for (final String header : this.allowedHeaders) {
+      this.allowedHeaderSet.put(header, Boolean.TRUE);
+    }
+
     if (allowedMethods.size() == 0) {
       this.allowedMethods.addAll(Defaults.defaultAllowedMethods);
     } else {
@@ -122,6 +175,11 @@ public class Cors {
         this.allowedMethods.add(method.toString());
       }
     }
+
+    this.allowHeadersValue = String.join(", ", this.allowedHeaders);
+    this.exposeHeadersValue =
+        this.exposedHeaders.size() > 0 ? String.join(", ", this.exposedHeaders) : null;
+    this.maxAgeValue = this.maxAge > 0 ? String.valueOf(this.maxAge) : null;
   }
 
   @Override
@@ -137,6 +195,11 @@ public class Cors {
 
     // print field names paired with their values
     for (final Field field : fields) {
+      // Constants and state derived from the configuration are not part of it.
+      if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+        continue;
+      }
+
       result.append("  ");
       try {
         result.append(field.getName());
@@ -160,6 +223,9 @@ public class Cors {
    * @param handler A Router or HttpHandler intended to be used as the root context / handler for an
    *                HTTP server.
    * @return A modified HttpHandler wrapped in CORS processing logic.
+   * @implNote Unless `useOptionsPassthrough` is set, Preflight requests are answered with a 204 No
+   *     Content and the exchange closed, without ever invoking `handler`, thus sparing them route
+   *     resolution and any middleware.
    */
   public HttpHandler use(final HttpHandler handler) {
     return exchange -> {
@@ -172,14 +238,24 @@ public class Cors {
         }
 
         exchange.sendResponseHeaders(Status.NO_CONTENT.value, -1);
-      } else {
-        this.handleRequest(exchange);
+        exchange.close();
+        return;
       }
 
+      this.handleRequest(exchange);
       handler.handle(exchange);
     };
   }
 
+  /**
+   * Take a snapshot of the Preflight cache's hit, miss and eviction counters.
+   *
+   * @return A CacheStats record.
+   */
+  public CacheStats preflightCacheStats() {
+    return this.preflightCache.stats();
+  }
+
   /**
    * Determines whether the given origin is allowed per the user-defined allow list.
    *
@@ -191,15 +267,7 @@ public class Cors {
       return true;
     }
 
-    final String normalizedOrigin = origin.toLowerCase();
-    for (String allowedOrigin : this.allowedOrigins) {
-      // TODO: regex
-      if (normalizedOrigin.equals(allowedOrigin)) {
-        return true;
-      }
-    }
-
-    return false;
+    return this.allowedOrigins.matches(origin);
   }
 
   /**
@@ -235,22 +303,38 @@ public class Cors {
    * @return A boolean indicating whether the headers are allowed per the CORS impl.
    */
   public boolean areHeadersAllowed(final List<String> headers) {
-    if (this.allowAllHeaders || headers.size() == 0) {
+    if (this.allowAllHeaders) {
       return true;
     }
 
     for (final String header : headers) {
-      // TODO: canonicalize header
-      boolean allowsHeader = false;
-
-      for (final String allowedHeader : this.allowedHeaders) {
-        if (header.equals(allowedHeader)) {
-          allowsHeader = true;
-          break;
-        }
+      if (!this.allowedHeaderSet.contains(header)) {
+        return false;
       }
+    }
+
+    return true;
+  }
 
-      if (!allowsHeader) {
+  /**
+   * Determines whether the headers named in an Access-Control-Request-Headers value are allowed
+   * per the user-defined allow list. The value is parsed in place, without allocating.
+   *
+   * @param requestHeaders The Access-Control-Request-Headers value, or null.
+   * @return A boolean indicating whether the headers are allowed per the CORS impl.
+   */
+  boolean areHeadersAllowed(final String requestHeaders) {
+    if (this.allowAllHeaders) {
+      return true;
+    }
+
+    for (long token = CorsUtils.nextHeader(requestHeaders, 0);
+        token >= 0;
+        token = CorsUtils.nextHeader(requestHeaders, CorsUtils.tokenEnd(token))) {
+      final int start = CorsUtils.tokenStart(token);
+      final int end = CorsUtils.tokenEnd(token);
+
+      if (!this.allowedHeaderSet.contains(requestHeaders, start, end)) {
         return false;
       }
     }
@@ -259,7 +343,8 @@ public class Cors {
   }
 
   /**
-   * Handle Preflight requests.
+   * Handle Preflight requests, evaluating each distinct combination of origin, method and headers
+   * requested once and thereafter replaying the cached outcome.
    *
    * @param exchange The HttpExchange containing the Preflight request.
    */
@@ -267,67 +352,93 @@ public class Cors {
     final Headers reqHeaders = exchange.getRequestHeaders();
     final Headers resHeaders = exchange.getResponseHeaders();
 
-    // Set the "vary" header to prevent proxy servers from sending cached responses for one client
-    // to another.
-    resHeaders.add(CommonHeader.VARY.value, CommonHeader.ORIGIN.value);
-    resHeaders.add(CommonHeader.VARY.value, CommonHeader.REQUEST_METHOD.value);
-    resHeaders.add(CommonHeader.VARY.value, CommonHeader.REQUEST_HEADERS.value);
+    final PreflightKey key = new PreflightKey(
+        NullSafe.getFirst(reqHeaders, CommonHeader.ORIGIN.value),
+        NullSafe.getFirst(reqHeaders, CommonHeader.REQUEST_METHOD.value),
+        NullSafe.getFirst(reqHeaders, CommonHeader.REQUEST_HEADERS.value));
+
+    Map<String, String> preflight = this.preflightCache.get(key);
+    if (preflight == null) {
+      preflight = this.evaluatePreflightRequest(exchange);
+      this.preflightCache.put(key, preflight);
+    }
+
+    for (final Map.Entry<String, String> header : preflight.entrySet()) {
+      if (CommonHeader.VARY.value.equals(header.getKey())) {
+        // Vary is a list header; keep any values already set.
+        resHeaders.add(header.getKey(), header.getValue());
+      } else {
+        resHeaders.set(header.getKey(), header.getValue());
+      }
+    }
+  }
+
+  /**
+   * Evaluate a Preflight request.
+   *
+   * @param exchange The HttpExchange containing the Preflight request.
+   * @return The response headers the Preflight request warrants.
+   */
+  private Map<String, String> evaluatePreflightRequest(final HttpExchange exchange) {
+    final Headers reqHeaders = exchange.getRequestHeaders();
 
     final String origin = NullSafe.getFirst(reqHeaders, CommonHeader.ORIGIN.value);
     // If no origin was specified, this is not a valid CORS request.
     if (origin == null || "".equals(origin)) {
-      return;
+      return PREFLIGHT_DENIED;
     }
 
     // If the origin is not in the allow list, deny.
     if (!this.isOriginAllowed(origin)) {
-      return;
+      return PREFLIGHT_DENIED;
     }
 
     // Validate the method; this is the crux of the Preflight.
     final String requestMethod = NullSafe.getFirst(reqHeaders, CommonHeader.REQUEST_METHOD.value);
 
     if (!this.isMethodAllowed(requestMethod)) {
-      return;
+      return PREFLIGHT_DENIED;
     }
 
     // Validate request headers. Preflight requests are also used when requests include additional
     // headers from the client.
-    final List<String> requestHeaders = CorsUtils.deriveHeaders(exchange);
+    final String requestHeaders =
+        NullSafe.getFirst(reqHeaders, CommonHeader.REQUEST_HEADERS.value);
     if (!this.areHeadersAllowed(requestHeaders)) {
-      return;
+      return PREFLIGHT_DENIED;
     }
 
-    if (this.allowAllOrigins) {
-      // If all origins are allowed, use the wildcard value.
-      resHeaders.set(CommonHeader.ALLOW_ORIGINS.value, "*");
-    } else {
-      // Otherwise, set the origin to the request origin.
-      resHeaders.set(CommonHeader.ALLOW_ORIGINS.value, origin);
-    }
+    final Map<String, String> resHeaders = new HashMap<>(PREFLIGHT_DENIED);
+
+    // If all origins are allowed, use the wildcard value. Otherwise, set the origin to the request
+    // origin.
+    resHeaders.put(CommonHeader.ALLOW_ORIGINS.value,
+        this.allowAllOrigins ? "*" : origin);
 
     // Set the allowed methods, as a Preflight may have been sent if the client included non-simple
     // methods.
-    resHeaders.set(CommonHeader.ALLOW_METHODS.value, requestMethod);
+    resHeaders.put(CommonHeader.ALLOW_METHODS.value, requestMethod);
 
     // Set the allowed headers, as a Preflight may have been sent if the client included non-simple
     // headers.
-    if (requestHeaders.size() > 0) {
-      resHeaders.set(CommonHeader.ALLOW_HEADERS.value, String.join(", ", this.allowedHeaders));
+    if (CorsUtils.nextHeader(requestHeaders, 0) >= 0) {
+      resHeaders.put(CommonHeader.ALLOW_HEADERS.value, this.allowHeadersValue);
     }
 
     // Allow the client to send credentials. If making an XHR request, the client must set
     // `withCredentials` to `true`.
     if (this.allowCredentials) {
-      resHeaders.set(CommonHeader.ALLOW_CREDENTIALS.value, "true");
+      resHeaders.put(CommonHeader.ALLOW_CREDENTIALS.value, "true");
     }
 
     // Set the Max Age. This is only necessary for Preflights given the Max Age refers to
     // server-suggested duration, in seconds, a response should stay in the browser's cache before
     // another Preflight is made.
-    if (this.maxAge > 0) {
-      resHeaders.set(CommonHeader.MAX_AGE.value, String.valueOf(this.maxAge));
+    if (this.maxAgeValue != null) {
+      resHeaders.put(CommonHeader.MAX_AGE.value, this.maxAgeValue);
     }
+
+    return Map.copyOf(resHeaders);
   }
 
   /**
@@ -366,8 +477,8 @@ public class Cors {
     // If we've exposed headers, set them.
     // If the consumer specified headers that are exposed by default, we'll still include them -
     // this is spec compliant.
-    if (this.exposedHeaders.size() > 0) {
-      resHeaders.set(CommonHeader.EXPOSE_HEADERS.value, String.join(", ", this.exposedHeaders));
+    if (this.exposeHeadersValue != null) {
+      resHeaders.set(CommonHeader.EXPOSE_HEADERS.value, this.exposeHeadersValue);
     }
 
     // Allow the client to send credentials. If making an XHR request, the client must set
@@ -377,6 +488,16 @@ public class Cors {
     }
   }
 
+  /**
+   * The aspects of a Preflight request that determine its outcome.
+   *
+   * @param origin         The Origin header.
+   * @param method         The Access-Control-Request-Method header.
+   * @param requestHeaders The Access-Control-Request-Headers header, as is.
+   */
+  private record PreflightKey(String origin, String method, String requestHeaders) {
+  }
+
   /**
    * A builder for Cors middleware.
    */
@@ -395,11 +516,15 @@ public class Cors {
 
     int maxAge;
 
+    int preflightCacheCapacity = BoundedCache.DEFAULT_CAPACITY;
+
     Builder() {
     }
 
     /**
-     * Add a list of allowed origins for CORS requests.
+     * Add a list of allowed origins for CORS requests. An origin may be a wildcard-subdomain
+     * pattern e.g. "https://*.example.com", which matches any subdomain of example.com, at any
+     * depth, but not example.com itself.
      */
     public Builder allowedOrigins(final String... allowedOrigins) {
       this.allowedOrigins = List.of(allowedOrigins);
@@ -457,10 +582,21 @@ public class Cors {
       return this;
     }
 
+    /**
+     * Set the maximum number of Preflight outcomes to cache. Each distinct combination of origin,
+     * method and headers requested counts as one entry. A capacity of 0 disables the cache.
+     */
+    public Builder preflightCacheCapacity(final int preflightCacheCapacity) {
+      this.preflightCacheCapacity = preflightCacheCapacity;
+      return this;
+    }
+
     /**
      * Build the Cors instance with the provided options.
      *
      * @return Cors instance.
+     * @throws IllegalArgumentException If an allowed origin is a malformed wildcard pattern, or
+     *                                  the Preflight cache capacity is negative.
      */
     public Cors build() {
       return new Cors(this);
@@ -3,9 +3,6 @@ package com.github.exbotanical.mug.cors;
 import com.github.exbotanical.mug.constant.Method;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Common utilities for use with CORS impl.
@@ -48,48 +45,64 @@ class CorsUtils {
   }
 
   /**
-   * Extracts headers from a given request's Access-Control-Request-Headers header.
+   * Find the next header name in an Access-Control-Request-Headers value, without allocating.
    *
-   * @param exchange The HttpExchange containing the request.
-   * @return A list of requested headers.
+   * <p>
+   * Names are separated by commas and optional whitespace. The name is not copied, nor lowercased;
+   * rather, its offsets into `headers` are returned, to be compared without regard to case e.g.
+   * via an AsciiTable.
+   * </p>
+   *
+   * @param headers The Access-Control-Request-Headers value, or null.
+   * @param from    The offset from which to search e.g. the end of the previous name.
+   * @return The name's start and end offsets, packed via `token`, or -1 if there are no more.
    */
-  static List<String> deriveHeaders(final HttpExchange exchange) {
-    // TODO: evaluate whether `getRequestHeaders` needs to be null-checked
-    final String headersStr =
-        NullSafe.getFirst(exchange.getRequestHeaders(), CommonHeader.REQUEST_HEADERS.value);
-    final List<String> headers = new ArrayList<>();
-
-    if (headersStr == null || "".equals(headersStr)) {
-      return headers;
+  static long nextHeader(final String headers, final int from) {
+    if (headers == null) {
+      return -1;
     }
 
-    final int len = headersStr.length();
-    final List<Character> tmp = new ArrayList<>();
+    final int len = headers.length();
+    int start = from;
 
-    for (int i = 0; i < headersStr.length(); i++) {
-      char c = headersStr.charAt(i);
+    while (start < len && isSeparator(headers.charAt(start))) {
+      start++;
+    }
 
-      if ((c >= 'a' && c <= 'z') || c == '_' || c == '-' || c == '.' || (c >= '0' && c <= '9')) {
-        tmp.add(c);
-      }
+    if (start == len) {
+      return -1;
+    }
 
-      if (c >= 'A' && c <= 'Z') {
-        tmp.add(Character.toLowerCase(c));
-      }
+    int end = start + 1;
+    while (end < len && !isSeparator(headers.charAt(end))) {
+      end++;
+    }
+
+    return token(start, end);
+  }
 
-      if (c == ' ' || c == ',' || i == len - 1) {
-        if (tmp.size() > 0) {
-          String b = tmp.stream()
-              .map(Object::toString)
-              .collect(Collectors.joining());
+  /**
+   * Pack a header name's start and end offsets into a long.
+   */
+  static long token(final int start, final int end) {
+    return (long) start << 32 | end;
+  }
 
-          headers.add(b);
+  /**
+   * The start offset, inclusive, of a header name found via `nextHeader`.
+   */
+  static int tokenStart(final long token) {
+    return (int) (token >>> 32);
+  }
 
-          tmp.clear();
-        }
-      }
-    }
+  /**
+   * The end offset, exclusive, of a header name found via `nextHeader`.
+   */
+  static int tokenEnd(final long token) {
+    return (int) token;
+  }
 
-    return headers;
+  private static boolean isSeparator(final char c) {
+    return c == ',' || c == ' ' || c == '\t';
   }
 }
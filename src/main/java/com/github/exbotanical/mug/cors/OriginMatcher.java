@@ -0,0 +1,213 @@
+package com.github.exbotanical.mug.cors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches request origins against an allow list of exact origins e.g. "https://app.example.com"
+ * and wildcard-subdomain patterns e.g. "https://*.example.com".
+ *
+ * <p>Exact origins are kept in a case-insensitive hash set. Patterns are compiled into a trie of
+ * their host labels in reverse - "com", then "example" - which is walked from the end of the
+ * request origin, such that a match costs one probe per label and neither lowercases nor
+ * substrings the origin.
+ *
+ * <p>A wildcard matches one or more leading labels, so "https://*.example.com" matches
+ * "https://a.example.com" and "https://a.b.example.com", but not "https://example.com" itself.
+ * The scheme and port, if any, must match exactly.
+ */
+final class OriginMatcher {
+  private static final String SCHEME_SEPARATOR = "://";
+
+  private static final String WILDCARD_PREFIX = "*.";
+
+  /**
+   * Exact origins, keyed without regard to case.
+   */
+  private final AsciiTable<Boolean> exact = new AsciiTable<>();
+
+  /**
+   * The root of the reversed-label trie, or null if there are no patterns.
+   */
+  private Node root;
+
+  /**
+   * The configured origins and patterns, lowercased, in the order they were added.
+   */
+  private final List<String> origins = new ArrayList<>();
+
+  /**
+   * Add an exact origin or a wildcard-subdomain pattern.
+   *
+   * @param origin The origin or pattern.
+   * @throws IllegalArgumentException If the origin contains a wildcard other than as the sole
+   *                                  leading label of the host in a "scheme://*.host[:port]"
+   *                                  pattern.
+   */
+  void add(final String origin) {
+    final String normalizedOrigin = AsciiTable.lower(origin);
+
+    if (normalizedOrigin.indexOf('*') < 0) {
+      if (!exact.contains(normalizedOrigin)) {
+        exact.put(normalizedOrigin, Boolean.TRUE);
+        origins.add(normalizedOrigin);
+      }
+
+      return;
+    }
+
+    final int schemeEnd = normalizedOrigin.indexOf(SCHEME_SEPARATOR);
+    final int hostStart = schemeEnd + SCHEME_SEPARATOR.length();
+
+    if (schemeEnd <= 0
+        || !normalizedOrigin.startsWith(WILDCARD_PREFIX, hostStart)
+        || normalizedOrigin.indexOf('*', hostStart + 1) >= 0) {
+      throw new IllegalArgumentException(
+          String.format("invalid origin pattern '%s'; expected 'scheme://*.host[:port]'", origin));
+    }
+
+    final int hostEnd = hostEnd(normalizedOrigin, hostStart);
+    final int domainStart = hostStart + WILDCARD_PREFIX.length();
+
+    if (domainStart >= hostEnd) {
+      throw new IllegalArgumentException(
+          String.format("invalid origin pattern '%s'; expected a domain after '*.'", origin));
+    }
+
+    if (root == null) {
+      root = new Node();
+    }
+
+    Node node = root;
+    int end = hostEnd;
+
+    while (end > domainStart) {
+      final int start = Math.max(normalizedOrigin.lastIndexOf('.', end - 1) + 1, domainStart);
+      node = node.child(normalizedOrigin.substring(start, end));
+      end = start - 1;
+    }
+
+    node.accept(normalizedOrigin.substring(0, schemeEnd), normalizedOrigin.substring(hostEnd));
+    origins.add(normalizedOrigin);
+  }
+
+  /**
+   * Determines whether the given origin is in the allow list.
+   *
+   * @param origin The request origin.
+   * @return A boolean indicating whether the origin matches an exact origin or pattern.
+   */
+  boolean matches(final String origin) {
+    if (exact.contains(origin)) {
+      return true;
+    }
+
+    if (root == null) {
+      return false;
+    }
+
+    final int schemeEnd = origin.indexOf(SCHEME_SEPARATOR);
+    if (schemeEnd <= 0) {
+      return false;
+    }
+
+    final int hostStart = schemeEnd + SCHEME_SEPARATOR.length();
+    final int hostEnd = hostEnd(origin, hostStart);
+
+    Node node = root;
+    int end = hostEnd;
+
+    while (end > hostStart) {
+      final int start = Math.max(origin.lastIndexOf('.', end - 1) + 1, hostStart);
+      if (start == end || node.children == null) {
+        return false;
+      }
+
+      node = node.children.get(origin, start, end);
+      if (node == null) {
+        return false;
+      }
+
+      // The separating dot; a pattern matches only if at least one label precedes it.
+      end = start - 1;
+      if (end > hostStart && node.accepts(origin, schemeEnd, hostEnd)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return origins.toString();
+  }
+
+  /**
+   * The end of the host in an origin, which is the start of its port, if any.
+   */
+  private static int hostEnd(final String origin, final int hostStart) {
+    for (int i = origin.length() - 1; i >= hostStart; i--) {
+      final char c = origin.charAt(i);
+
+      if (c == ':') {
+        return i;
+      }
+
+      if (c < '0' || c > '9') {
+        break;
+      }
+    }
+
+    return origin.length();
+  }
+
+  /**
+   * A host label in the trie, which terminates the patterns whose scheme and port it records.
+   */
+  private static final class Node {
+    private AsciiTable<Node> children;
+
+    private final List<String> schemes = new ArrayList<>(1);
+
+    /**
+     * Ports, each with its leading colon, or empty if the pattern specifies none.
+     */
+    private final List<String> ports = new ArrayList<>(1);
+
+    Node child(final String label) {
+      if (children == null) {
+        children = new AsciiTable<>();
+      }
+
+      Node child = children.get(label, 0, label.length());
+      if (child == null) {
+        child = new Node();
+        children.put(label, child);
+      }
+
+      return child;
+    }
+
+    void accept(final String scheme, final String port) {
+      schemes.add(scheme);
+      ports.add(port);
+    }
+
+    boolean accepts(final String origin, final int schemeEnd, final int hostEnd) {
+      for (int i = 0; i < schemes.size(); i++) {
+        final String scheme = schemes.get(i);
+        final String port = ports.get(i);
+
+        if (scheme.length() == schemeEnd
+            && port.length() == origin.length() - hostEnd
+            && origin.regionMatches(true, 0, scheme, 0, schemeEnd)
+            && origin.startsWith(port, hostEnd)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+  }
+}
@@ -0,0 +1,358 @@
+package com.github.exbotanical.mug.files;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.RouteContext;
+import com.github.exbotanical.mug.router.RouteHandler;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A RouteHandler serving the files beneath a directory from memory, to be registered for GET and
+ * HEAD on a catch-all route, e.g. `/assets/*path`.
+ *
+ * <p>
+ * Upon construction, each file of up to `maxAssetSize` bytes is read into memory, along with a
+ * gzip-compressed variant where its type is compressible and compression makes it smaller. Requests
+ * accepting gzip, per `Accept-Encoding`, are served the compressed variant, such that nothing is
+ * read or compressed per request. Larger files, and paths not in the cache, are served from disk by
+ * a StaticFileHandler.
+ * </p>
+ *
+ * <p>
+ * The directory is watched for changes: files created or modified are reloaded, and files deleted
+ * are evicted, one at a time. Call `close` to stop watching.
+ * </p>
+ */
+public final class AssetCache implements RouteHandler, AutoCloseable {
+  /**
+   * The default maximum size of a cached file.
+   */
+  public static final int DEFAULT_MAX_ASSET_SIZE = 1024 * 1024;
+
+  private static final System.Logger LOGGER = System.getLogger(AssetCache.class.getName());
+
+  /**
+   * A cached file.
+   *
+   * @param identity     The file's bytes.
+   * @param gzip         The file's bytes, gzip-compressed, or null if not worth compressing.
+   * @param contentType  The file's media type.
+   * @param lastModified The file's modification time, in seconds since the epoch.
+   * @param httpDate     The file's modification time, formatted as an HTTP date.
+   */
+  record Asset(byte[] identity, byte[] gzip, String contentType, long lastModified,
+               String httpDate) {
+  }
+
+  private final Path root;
+
+  private final String param;
+
+  private final int maxAssetSize;
+
+  private final StaticFileHandler fallback;
+
+  /**
+   * Cached files, keyed by their path relative to the root, with `/` separators.
+   */
+  private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+
+  private final WatchService watcher;
+
+  /**
+   * Watched directories, by their watch key.
+   */
+  private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor. Load the files beneath a directory of up to `DEFAULT_MAX_ASSET_SIZE` bytes, and
+   * watch it for changes.
+   *
+   * @param root  The directory.
+   * @param param The name of the route's catch-all parameter, e.g. `path` for `/assets/*path`.
+   * @throws IOException The directory could not be read or watched.
+   */
+  public AssetCache(final Path root, final String param) throws IOException {
+    this(root, param, DEFAULT_MAX_ASSET_SIZE);
+  }
+
+  /**
+   * Constructor. Load the files beneath a directory, and watch it for changes.
+   *
+   * @param root         The directory.
+   * @param param        The name of the route's catch-all parameter, e.g. `path` for
+   *                     `/assets/*path`.
+   * @param maxAssetSize The maximum size of a cached file; larger files are served from disk.
+   * @throws IOException The directory could not be read or watched.
+   */
+  public AssetCache(final Path root, final String param, final int maxAssetSize)
+      throws IOException {
+    this.root = root.toAbsolutePath().normalize();
+    this.param = param;
+    this.maxAssetSize = maxAssetSize;
+    this.fallback = new StaticFileHandler(this.root, param);
+    this.watcher = FileSystems.getDefault().newWatchService();
+
+    try {
+      // Register before loading, such that no change goes unseen.
+      watchTree(this.root);
+      loadTree(this.root);
+    } catch (IOException e) {
+      watcher.close();
+      throw e;
+    } catch (UncheckedIOException e) {
+      watcher.close();
+      throw e.getCause();
+    }
+
+    final Thread thread = new Thread(this::watch, "mug-asset-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void handle(final HttpExchange exchange, final RouteContext context) throws IOException {
+    final String path = context.param(param);
+    final Asset asset = path == null ? null : assets.get(path);
+
+    if (asset == null) {
+      fallback.handle(exchange, context);
+      return;
+    }
+
+    final Headers headers = exchange.getResponseHeaders();
+    headers.set("Last-Modified", asset.httpDate());
+    if (asset.gzip() != null) {
+      headers.set("Vary", "Accept-Encoding");
+    }
+
+    final long ifModifiedSince =
+        HttpDates.parse(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+    if (ifModifiedSince >= 0 && asset.lastModified() <= ifModifiedSince) {
+      exchange.sendResponseHeaders(Status.NOT_MODIFIED.value, -1);
+      return;
+    }
+
+    headers.set("Content-Type", asset.contentType());
+
+    final byte[] body;
+    if (asset.gzip() != null
+        && ContentEncoding.acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+      headers.set("Content-Encoding", "gzip");
+      body = asset.gzip();
+    } else {
+      body = asset.identity();
+    }
+
+    if ("HEAD".equals(exchange.getRequestMethod()) || body.length == 0) {
+      headers.set("Content-Length", Integer.toString(body.length));
+      exchange.sendResponseHeaders(Status.OK.value, -1);
+      return;
+    }
+
+    exchange.sendResponseHeaders(Status.OK.value, body.length);
+    exchange.getResponseBody().write(body);
+  }
+
+  /**
+   * Retrieve a cached file.
+   *
+   * @param path The file's path relative to the root, with `/` separators.
+   * @return The cached file, or null if not cached.
+   */
+  Asset get(final String path) {
+    return assets.get(path);
+  }
+
+  /**
+   * Count the cached files.
+   *
+   * @return The number of cached files.
+   */
+  public int size() {
+    return assets.size();
+  }
+
+  /**
+   * Stop watching the directory. Cached files continue to be served.
+   *
+   * @throws IOException The watch service could not be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    watcher.close();
+  }
+
+  private void watch() {
+    while (true) {
+      final WatchKey key;
+      try {
+        key = watcher.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+
+      final Path directory = directories.get(key);
+
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        try {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+            // Events were lost; start over.
+            assets.clear();
+            loadTree(root);
+            continue;
+          }
+
+          final Path file = directory.resolve((Path) event.context());
+          if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+            evict(file);
+          } else if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+            watchTree(file);
+            loadTree(file);
+          } else {
+            load(file);
+          }
+        } catch (IOException | UncheckedIOException e) {
+          LOGGER.log(System.Logger.Level.WARNING, "failed to refresh assets", e);
+        } catch (ClosedWatchServiceException e) {
+          return;
+        }
+      }
+
+      if (!key.reset()) {
+        directories.remove(key);
+      }
+    }
+  }
+
+  private void watchTree(final Path directory) throws IOException {
+    try (Stream<Path> tree = Files.walk(directory)) {
+      tree.filter(dir -> Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)).forEach(dir -> {
+        try {
+          directories.put(dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), dir);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  private void loadTree(final Path directory) throws IOException {
+    try (Stream<Path> tree = Files.walk(directory)) {
+      tree.filter(Files::isRegularFile).forEach(file -> {
+        try {
+          load(file);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  /**
+   * Load a file into the cache, or evict it if no longer cacheable.
+   */
+  private void load(final Path file) throws IOException {
+    final String key = key(file);
+
+    // As served from disk, a file is cached only if its real path lies beneath the root's.
+    final Path real = fallback.confine(file);
+    if (real == null) {
+      assets.remove(key);
+      return;
+    }
+
+    final BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(real, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      assets.remove(key);
+      return;
+    }
+
+    if (!attributes.isRegularFile() || attributes.size() > maxAssetSize) {
+      assets.remove(key);
+      return;
+    }
+
+    final byte[] identity;
+    try {
+      identity = Files.readAllBytes(real);
+    } catch (NoSuchFileException e) {
+      assets.remove(key);
+      return;
+    }
+
+    final String contentType = MimeTypes.lookup(key);
+    final long lastModified = attributes.lastModifiedTime().to(TimeUnit.SECONDS);
+
+    final byte[] gzip = MimeTypes.isCompressible(contentType) ? gzip(identity) : null;
+
+    assets.put(key,
+        new Asset(identity, gzip, contentType, lastModified, HttpDates.format(lastModified)));
+  }
+
+  /**
+   * Evict a file from the cache, or all files beneath it if a directory.
+   */
+  private void evict(final Path file) {
+    final String key = key(file);
+
+    assets.remove(key);
+    assets.keySet().removeIf(path -> path.startsWith(key + "/"));
+  }
+
+  private String key(final Path file) {
+    final String key = root.relativize(file).toString();
+
+    return file.getFileSystem().getSeparator().equals("/")
+        ? key
+        : key.replace(file.getFileSystem().getSeparator(), "/");
+  }
+
+  /**
+   * Compress bytes with gzip.
+   *
+   * @return The compressed bytes, or null if no smaller.
+   */
+  private static byte[] gzip(final byte[] bytes) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+
+    try (GZIPOutputStream gzip = new BestCompressionGzipOutputStream(out)) {
+      gzip.write(bytes);
+    }
+
+    return out.size() < bytes.length ? out.toByteArray() : null;
+  }
+
+  /**
+   * A GZIPOutputStream compressing at the best, slowest level, as assets are compressed once.
+   */
+  private static final class BestCompressionGzipOutputStream extends GZIPOutputStream {
+    BestCompressionGzipOutputStream(final ByteArrayOutputStream out) throws IOException {
+      super(out);
+      def.setLevel(Deflater.BEST_COMPRESSION);
+    }
+  }
+}
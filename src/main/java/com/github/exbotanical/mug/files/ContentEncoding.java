@@ -0,0 +1,87 @@
+package com.github.exbotanical.mug.files;
+
+/**
+ * Content coding negotiation, per the `Accept-Encoding` request header (RFC 9110, 12.5.3).
+ */
+public final class ContentEncoding {
+  /**
+   * Whether an `Accept-Encoding` header value accepts gzip, either by name or by `*`, with a
+   * non-zero quality.
+   *
+   * @param header The header value; may be null.
+   * @return true if gzip is acceptable.
+   */
+  public static boolean acceptsGzip(final String header) {
+    if (header == null) {
+      return false;
+    }
+
+    boolean wildcard = false;
+
+    for (int start = 0; start < header.length(); ) {
+      int end = header.indexOf(',', start);
+      if (end < 0) {
+        end = header.length();
+      }
+
+      final int nameStart = skipSpaces(header, start, end);
+      int nameEnd = nameStart;
+      while (nameEnd < end && header.charAt(nameEnd) != ';' && header.charAt(nameEnd) != ' ') {
+        nameEnd++;
+      }
+
+      final boolean gzip = nameEnd - nameStart == 4
+          && header.regionMatches(true, nameStart, "gzip", 0, 4);
+      final boolean any = nameEnd - nameStart == 1 && header.charAt(nameStart) == '*';
+
+      if (gzip) {
+        return !isZeroQuality(header, nameEnd, end);
+      }
+
+      if (any) {
+        wildcard = !isZeroQuality(header, nameEnd, end);
+      }
+
+      start = end + 1;
+    }
+
+    return wildcard;
+  }
+
+  /**
+   * Whether the parameters of an `Accept-Encoding` element declare a quality of zero.
+   */
+  private static boolean isZeroQuality(final String header, final int from, final int end) {
+    final int q = header.indexOf("q=", from);
+    if (q < 0 || q >= end) {
+      return false;
+    }
+
+    // A quality of zero is written `0`, optionally followed by a point and up to three zeros.
+    int i = skipSpaces(header, q + 2, end);
+    if (i >= end || header.charAt(i) != '0') {
+      return false;
+    }
+
+    for (i++; i < end; i++) {
+      final char c = header.charAt(i);
+      if (c != '.' && c != '0' && c != ' ') {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static int skipSpaces(final String s, int i, final int end) {
+    while (i < end && (s.charAt(i) == ' ' || s.charAt(i) == '\t')) {
+      i++;
+    }
+
+    return i;
+  }
+
+  private ContentEncoding() {
+    throw new AssertionError("Non-instantiable");
+  }
+}
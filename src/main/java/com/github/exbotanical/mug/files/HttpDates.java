@@ -0,0 +1,49 @@
+package com.github.exbotanical.mug.files;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Formats and parses HTTP dates (RFC 9110, 5.6.7).
+ */
+final class HttpDates {
+  private static final DateTimeFormatter FORMAT =
+      DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+          .withZone(ZoneOffset.UTC);
+
+  /**
+   * Format a time as an HTTP date.
+   *
+   * @param epochSecond The time, in seconds since the epoch.
+   * @return The formatted date.
+   */
+  static String format(final long epochSecond) {
+    return FORMAT.format(Instant.ofEpochSecond(epochSecond));
+  }
+
+  /**
+   * Parse an HTTP date.
+   *
+   * @param date The date, e.g. the value of an `If-Modified-Since` header; may be null.
+   * @return The time, in seconds since the epoch, or -1 if the date is absent or malformed.
+   */
+  static long parse(final String date) {
+    if (date == null) {
+      return -1;
+    }
+
+    try {
+      return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  private HttpDates() {
+    throw new AssertionError("Non-instantiable");
+  }
+}
@@ -0,0 +1,127 @@
+package com.github.exbotanical.mug.files;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves the media type of a file from its extension, by way of a table built once.
+ */
+public final class MimeTypes {
+  /**
+   * The media type of files of unknown type.
+   */
+  public static final String DEFAULT = "application/octet-stream";
+
+  /**
+   * Media types by lowercase file extension. Textual types declare UTF-8.
+   */
+  private static final Map<String, String> TYPES = new HashMap<>();
+
+  /**
+   * Compressible media types outside of `text/*`.
+   */
+  private static final String[] COMPRESSIBLE = {
+      "application/json", "application/javascript", "application/xml", "application/wasm",
+      "image/x-icon", "image/bmp",
+  };
+
+  static {
+    final String[][] types = {
+        {"html", "text/html; charset=utf-8"},
+        {"htm", "text/html; charset=utf-8"},
+        {"css", "text/css; charset=utf-8"},
+        {"js", "text/javascript; charset=utf-8"},
+        {"mjs", "text/javascript; charset=utf-8"},
+        {"json", "application/json"},
+        {"map", "application/json"},
+        {"webmanifest", "application/manifest+json"},
+        {"txt", "text/plain; charset=utf-8"},
+        {"csv", "text/csv; charset=utf-8"},
+        {"md", "text/markdown; charset=utf-8"},
+        {"xml", "application/xml"},
+        {"svg", "image/svg+xml"},
+        {"png", "image/png"},
+        {"jpg", "image/jpeg"},
+        {"jpeg", "image/jpeg"},
+        {"gif", "image/gif"},
+        {"webp", "image/webp"},
+        {"avif", "image/avif"},
+        {"ico", "image/x-icon"},
+        {"bmp", "image/bmp"},
+        {"woff", "font/woff"},
+        {"woff2", "font/woff2"},
+        {"ttf", "font/ttf"},
+        {"otf", "font/otf"},
+        {"wasm", "application/wasm"},
+        {"pdf", "application/pdf"},
+        {"zip", "application/zip"},
+        {"gz", "application/gzip"},
+        {"tar", "application/x-tar"},
+        {"mp3", "audio/mpeg"},
+        {"ogg", "audio/ogg"},
+        {"wav", "audio/wav"},
+        {"mp4", "video/mp4"},
+        {"webm", "video/webm"},
+    };
+
+    for (final String[] type : types) {
+      TYPES.put(type[0], type[1]);
+    }
+  }
+
+  /**
+   * Resolve the media type of a file.
+   *
+   * @param filename The file's name or path.
+   * @return The media type, or `DEFAULT` if the extension is unknown.
+   */
+  public static String lookup(final String filename) {
+    final int dot = filename.lastIndexOf('.');
+    if (dot < 0 || dot < filename.lastIndexOf('/')) {
+      return DEFAULT;
+    }
+
+    final String extension = filename.substring(dot + 1);
+    String type = TYPES.get(extension);
+    if (type == null) {
+      // Extensions are conventionally lowercase; only allocate for the rest.
+      type = TYPES.get(extension.toLowerCase(Locale.ROOT));
+    }
+
+    return type == null ? DEFAULT : type;
+  }
+
+  /**
+   * Whether content of a media type is worth compressing: text, and textual application formats.
+   * Most image, audio, video and font formats, and archives, are compressed already.
+   *
+   * @param type The media type, with or without parameters; may be null.
+   * @return true if the type is compressible.
+   */
+  public static boolean isCompressible(final String type) {
+    if (type == null) {
+      return false;
+    }
+
+    if (type.regionMatches(true, 0, "text/", 0, 5)) {
+      return true;
+    }
+
+    final int end = type.indexOf(';') < 0 ? type.length() : type.indexOf(';');
+    for (final String compressible : COMPRESSIBLE) {
+      if (end == compressible.length()
+          && type.regionMatches(true, 0, compressible, 0, compressible.length())) {
+        return true;
+      }
+    }
+
+    // Structured syntax suffixes e.g. `application/ld+json`, `image/svg+xml`.
+    return type.regionMatches(true, end - 5, "+json", 0, 5)
+        || type.regionMatches(true, end - 4, "+xml", 0, 4);
+  }
+
+  private MimeTypes() {
+    throw new AssertionError("Non-instantiable");
+  }
+}
@@ -0,0 +1,214 @@
+package com.github.exbotanical.mug.files;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.RouteContext;
+import com.github.exbotanical.mug.router.RouteHandler;
+import com.github.exbotanical.mug.server.FileTransferExchange;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A RouteHandler serving the files beneath a directory, to be registered for GET and HEAD on a
+ * catch-all route, e.g. `/static/*path`. The catch-all parameter is resolved against the
+ * directory; paths resolving outside of it, whether by `..` segments or by symbolic links, are not
+ * found.
+ *
+ * <p>
+ * Where the exchange is a FileTransferExchange, as on the NIO engine, the file is written with
+ * `FileChannel.transferTo`, without passing through the JVM. Otherwise, it is copied to the
+ * response body through pooled buffers.
+ * </p>
+ *
+ * <p>
+ * Responses carry `Content-Length`, `Content-Type`, per the extension, and `Last-Modified`;
+ * requests with a satisfied `If-Modified-Since` are answered with 304 Not Modified.
+ * </p>
+ */
+public final class StaticFileHandler implements RouteHandler {
+  /**
+   * The size of the buffers through which files are copied.
+   */
+  static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The maximum number of idle copy buffers retained.
+   */
+  private static final int COPY_BUFFER_POOL_SIZE = 16;
+
+  private final Path root;
+
+  /**
+   * The root with all symbolic links resolved, once it has been.
+   */
+  private volatile Path realRoot;
+
+  private final String param;
+
+  private final ArrayBlockingQueue<ByteBuffer> buffers =
+      new ArrayBlockingQueue<>(COPY_BUFFER_POOL_SIZE);
+
+  /**
+   * Constructor. Initialize a handler serving the files beneath a directory.
+   *
+   * @param root  The directory.
+   * @param param The name of the route's catch-all parameter, e.g. `path` for `/static/*path`.
+   */
+  public StaticFileHandler(final Path root, final String param) {
+    this.root = root.toAbsolutePath().normalize();
+    this.param = param;
+  }
+
+  @Override
+  public void handle(final HttpExchange exchange, final RouteContext context) throws IOException {
+    final Path requested = resolve(context.param(param));
+    final Path file = confine(requested);
+
+    // The real path is free of links, and is opened as such, lest one be swapped in meanwhile.
+    final BasicFileAttributes attributes;
+    try {
+      attributes = file == null
+          ? null
+          : Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      notFound(exchange);
+      return;
+    }
+
+    if (attributes == null || !attributes.isRegularFile()) {
+      notFound(exchange);
+      return;
+    }
+
+    final long size = attributes.size();
+    final long lastModified = attributes.lastModifiedTime().to(TimeUnit.SECONDS);
+
+    final Headers headers = exchange.getResponseHeaders();
+    headers.set("Last-Modified", HttpDates.format(lastModified));
+
+    final long ifModifiedSince =
+        HttpDates.parse(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+    if (ifModifiedSince >= 0 && lastModified <= ifModifiedSince) {
+      exchange.sendResponseHeaders(Status.NOT_MODIFIED.value, -1);
+      return;
+    }
+
+    headers.set("Content-Type", MimeTypes.lookup(requested.getFileName().toString()));
+
+    if ("HEAD".equals(exchange.getRequestMethod()) || size == 0) {
+      headers.set("Content-Length", Long.toString(size));
+      exchange.sendResponseHeaders(Status.OK.value, -1);
+      return;
+    }
+
+    final FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS);
+    try {
+      exchange.sendResponseHeaders(Status.OK.value, size);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+
+    if (exchange instanceof FileTransferExchange transfer && transfer.canTransferFile()) {
+      // The exchange closes the channel.
+      transfer.transferFile(channel, 0, size);
+      return;
+    }
+
+    try (channel) {
+      copy(channel, size, exchange.getResponseBody());
+    }
+  }
+
+  /**
+   * Resolve a request path against the root directory.
+   *
+   * @param path The request path, relative to the root.
+   * @return The file, or null if the path is absent or resolves outside of the root.
+   */
+  Path resolve(final String path) {
+    if (path == null || path.indexOf('\0') >= 0) {
+      return null;
+    }
+
+    final Path file;
+    try {
+      file = root.resolve(path).normalize();
+    } catch (InvalidPathException e) {
+      return null;
+    }
+
+    return file.startsWith(root) && !file.equals(root) ? file : null;
+  }
+
+  /**
+   * Resolve the real path of a file beneath the root, following any symbolic links.
+   *
+   * @param file The file, as resolved by `resolve`.
+   * @return The real path, or null if the file is absent, cannot be resolved, or lies outside of
+   *     the real root.
+   */
+  Path confine(final Path file) {
+    if (file == null) {
+      return null;
+    }
+
+    try {
+      Path base = realRoot;
+      if (base == null) {
+        base = root.toRealPath();
+        realRoot = base;
+      }
+
+      final Path real = file.toRealPath();
+
+      return real.startsWith(base) && !real.equals(base) ? real : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void copy(final FileChannel channel, long remaining, final OutputStream out)
+      throws IOException {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+    }
+
+    try {
+      while (remaining > 0) {
+        buffer.clear();
+        if (buffer.remaining() > remaining) {
+          buffer.limit((int) remaining);
+        }
+
+        final int n = channel.read(buffer);
+        if (n < 0) {
+          throw new IOException("file truncated");
+        }
+
+        out.write(buffer.array(), 0, n);
+        remaining -= n;
+      }
+    } finally {
+      buffers.offer(buffer);
+    }
+  }
+
+  private static void notFound(final HttpExchange exchange) throws IOException {
+    exchange.sendResponseHeaders(Status.NOT_FOUND.value, -1);
+  }
+}
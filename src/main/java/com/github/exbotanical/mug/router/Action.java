@@ -1,11 +1,223 @@
 package com.github.exbotanical.mug.router;
 
+import com.github.exbotanical.mug.router.middleware.AsyncMiddleware;
 import com.github.exbotanical.mug.router.middleware.Middleware;
+import com.github.exbotanical.mug.server.ForwardingExchange;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Represents a handler or sequence of handlers to be invoked upon a route
  * match.
  */
-record Action(RouteHandler handler, List<Middleware> middlewares) {
+final class Action {
+  /**
+   * The route handler.
+   */
+  private final RouteHandler handler;
+
+  /**
+   * The middlewares to be invoked, in order, before the route handler.
+   */
+  private final List<Middleware> middlewares;
+
+  /**
+   * The route handler wrapped in each of the middlewares. The chain is composed once, when the
+   * Action is created, so that dispatching a request is a single call into the prebuilt chain.
+   * Where the handler and middlewares are all synchronous, the chain completes before returning.
+   */
+  private final AsyncRouteHandler chain;
+
+  /**
+   * The time by which the chain must send the response headers, or null to defer to the Router's
+   * default timeout. Zero disables the timeout.
+   */
+  private final Duration timeout;
+
+  /**
+   * Action constructor.
+   *
+   * @param handler     The route handler.
+   * @param middlewares The middlewares to be invoked, in order, before the route handler.
+   */
+  Action(final RouteHandler handler, final List<Middleware> middlewares) {
+    this(handler, middlewares, null);
+  }
+
+  /**
+   * Action constructor.
+   *
+   * @param handler     The route handler.
+   * @param middlewares The middlewares to be invoked, in order, before the route handler.
+   * @param timeout     The time by which the chain must send the response headers, or null to
+   *                    defer to the Router's default. Zero disables the timeout.
+   */
+  Action(final RouteHandler handler, final List<Middleware> middlewares, final Duration timeout) {
+    this.handler = handler;
+    this.timeout = timeout;
+    // Snapshot the middlewares so the chain cannot drift from the list it was composed from.
+    this.middlewares = List.copyOf(middlewares);
+    this.chain = compose(handler, this.middlewares);
+  }
+
+  /**
+   * Wrap a handler in a sequence of middlewares such that the first middleware is the outermost.
+   *
+   * <p>
+   * Synchronous middlewares are composed as they are until the first AsyncRouteHandler or
+   * AsyncMiddleware is met, beyond which the chain is asynchronous. A synchronous middleware
+   * wrapping an asynchronous chain resumes once the chain has returned its stage, not once the
+   * stage has completed.
+   * </p>
+   *
+   * @param handler     The route handler.
+   * @param middlewares The middlewares to wrap the handler in.
+   * @return The composed handler.
+   */
+  private static AsyncRouteHandler compose(final RouteHandler handler,
+                                           final List<Middleware> middlewares) {
+    RouteHandler sync = handler instanceof AsyncRouteHandler ? null : handler;
+    AsyncRouteHandler async = sync == null ? (AsyncRouteHandler) handler : null;
+
+    for (int i = middlewares.size() - 1; i >= 0; i--) {
+      final Middleware middleware = middlewares.get(i);
+
+      if (sync != null && !(middleware instanceof AsyncMiddleware)) {
+        sync = middleware.handle(sync);
+        continue;
+      }
+
+      if (async == null) {
+        async = AsyncRouteHandler.of(sync);
+        sync = null;
+      }
+
+      async = middleware instanceof AsyncMiddleware am
+          ? am.handleAsync(async)
+          : wrap(middleware, async);
+    }
+
+    return async != null ? async : AsyncRouteHandler.of(sync);
+  }
+
+  /**
+   * Wrap an asynchronous handler in a synchronous middleware. The middleware is composed once; for
+   * each request, the stage of `handler` is handed back through a Pending exchange.
+   *
+   * @param middleware The synchronous middleware.
+   * @param handler    The asynchronous handler.
+   * @return The composed handler, returning the stage of `handler`, or a completed stage if the
+   *     middleware did not invoke it.
+   */
+  private static AsyncRouteHandler wrap(final Middleware middleware,
+                                        final AsyncRouteHandler handler) {
+    final RouteHandler wrapped = middleware.handle(new Next(handler));
+
+    return (exchange, context) -> {
+      final Pending pending = new Pending(exchange);
+      wrapped.handle(pending, context);
+
+      return pending.stage();
+    };
+  }
+
+  /**
+   * Invokes an asynchronous handler on behalf of a synchronous middleware, handing its stage to the
+   * request's Pending exchange. The middleware may invoke it on any thread, so long as it does so
+   * before returning. Where the middleware has hidden the Pending exchange behind one that does
+   * not forward to it, the stage is awaited instead.
+   */
+  private static final class Next implements RouteHandler {
+    private final AsyncRouteHandler handler;
+
+    private Next(final AsyncRouteHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void handle(final HttpExchange exchange, final RouteContext context)
+        throws IOException {
+      final Pending pending = Pending.find(exchange);
+      if (pending == null) {
+        handler.handle(exchange, context);
+        return;
+      }
+
+      pending.stage = handler.handleAsync(exchange, context);
+    }
+  }
+
+  /**
+   * An exchange holding the stage of the asynchronous handler beneath a synchronous middleware,
+   * for a single request.
+   */
+  private static final class Pending extends ForwardingExchange {
+    private volatile CompletionStage<Void> stage;
+
+    private Pending(final HttpExchange exchange) {
+      super(exchange);
+    }
+
+    private static Pending find(final HttpExchange exchange) {
+      HttpExchange current = exchange;
+      while (current instanceof ForwardingExchange forwarding) {
+        if (forwarding instanceof Pending pending) {
+          return pending;
+        }
+
+        current = forwarding.unwrap();
+      }
+
+      return null;
+    }
+
+    private CompletionStage<Void> stage() {
+      final CompletionStage<Void> stage = this.stage;
+      return stage != null ? stage : AsyncRouteHandler.COMPLETED;
+    }
+  }
+
+  RouteHandler handler() {
+    return handler;
+  }
+
+  List<Middleware> middlewares() {
+    return middlewares;
+  }
+
+  AsyncRouteHandler chain() {
+    return chain;
+  }
+
+  Duration timeout() {
+    return timeout;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final Action that = (Action) o;
+    return Objects.equals(handler, that.handler) && Objects.equals(middlewares, that.middlewares)
+        && Objects.equals(timeout, that.timeout);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(handler, middlewares, timeout);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Action { handler: %s, middlewares: %s, timeout: %s }",
+        handler, middlewares, timeout);
+  }
 }
@@ -0,0 +1,95 @@
+package com.github.exbotanical.mug.router;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An asynchronous handler for a given route. Rather than completing the response before it
+ * returns, the handler returns a CompletionStage that completes once the response has been
+ * written, freeing the calling thread in the interim. The Router closes the exchange upon the
+ * stage's completion.
+ *
+ * <p>
+ * Being a RouteHandler, an AsyncRouteHandler is registered as any other, and may share a Router
+ * with synchronous handlers.
+ * </p>
+ */
+@FunctionalInterface
+public interface AsyncRouteHandler extends RouteHandler {
+  /**
+   * A stage that has already completed, for handlers that finish synchronously.
+   */
+  CompletionStage<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+  /**
+   * Implements a functional interface for the handler.
+   *
+   * @param exchange An HttpExchange object containing the request and response objects.
+   * @param context  A context object containing metadata and parameter matches for the route.
+   * @return A CompletionStage that completes once the response has been written, or completes
+   *     exceptionally if it could not be.
+   * @throws IOException Exchange read/write exceptions, prior to returning the stage.
+   */
+  CompletionStage<Void> handleAsync(HttpExchange exchange, RouteContext context)
+      throws IOException;
+
+  /**
+   * Invoke the handler and block until its stage completes. The Router never calls this method;
+   * it exists such that the handler may be called wherever a RouteHandler is expected.
+   */
+  @Override
+  default void handle(final HttpExchange exchange, final RouteContext context)
+      throws IOException {
+    await(handleAsync(exchange, context));
+  }
+
+  /**
+   * Adapt a RouteHandler to an AsyncRouteHandler. A synchronous handler is invoked on the calling
+   * thread, and its stage is complete by the time it returns.
+   *
+   * @param handler The handler to adapt.
+   * @return The handler itself, if asynchronous already, else an adapter.
+   */
+  static AsyncRouteHandler of(final RouteHandler handler) {
+    if (handler instanceof AsyncRouteHandler async) {
+      return async;
+    }
+
+    return (exchange, context) -> {
+      handler.handle(exchange, context);
+      return COMPLETED;
+    };
+  }
+
+  /**
+   * Block until a stage completes, rethrowing its failure.
+   *
+   * @param stage The stage.
+   * @throws IOException The stage failed with an IOException.
+   */
+  static void await(final CompletionStage<Void> stage) throws IOException {
+    try {
+      stage.toCompletableFuture().join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException io) {
+        throw io;
+      }
+      if (cause instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      if (cause instanceof RuntimeException re) {
+        throw re;
+      }
+      if (cause instanceof Error err) {
+        throw err;
+      }
+
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.server.ForwardingExchange;
+import com.github.exbotanical.mug.timer.Timeout;
+import com.github.exbotanical.mug.timer.TimingWheel;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An HttpExchange subject to a deadline by which the handler must send the response headers.
+ *
+ * <p>
+ * If the deadline passes first, the exchange is answered with a 503 Service Unavailable and
+ * closed, the thread running the handler is interrupted if it belongs to the server's executor,
+ * and the handler's stage, if any, is cancelled; the handler's own attempt to send headers
+ * thereafter fails with an IOException. A handler that has sent its headers by the deadline is
+ * left to finish the response.
+ * </p>
+ *
+ * <p>
+ * Until then, the handler writes its response headers to a copy of the exchange's, such that the
+ * timeout response is built without touching headers the handler may be writing. The copy is
+ * written back when the handler sends its headers.
+ * </p>
+ */
+final class DeadlineExchange extends ForwardingExchange {
+  private static final int PENDING = 0;
+
+  private static final int COMMITTED = 1;
+
+  private static final int TIMED_OUT = 2;
+
+  /**
+   * The package of the JDK server, which, when started without an executor, installs its own that
+   * runs requests on the dispatcher thread.
+   */
+  private static final String JDK_SERVER_PACKAGE = "sun.net.httpserver.";
+
+  private final AtomicInteger state = new AtomicInteger(PENDING);
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  /**
+   * The handler's response headers, until they are sent.
+   */
+  private final Headers headers = new Headers();
+
+  /**
+   * Whether the handler runs on a thread of the server's executor, and may thus be interrupted.
+   * Otherwise, it runs on a thread of the server's own, e.g. the JDK server's dispatcher.
+   */
+  private final boolean interruptible;
+
+  private volatile Timeout timeout;
+
+  /**
+   * The thread running the handler, while it runs and if interruptible. Guarded by `this`.
+   */
+  private Thread thread;
+
+  /**
+   * The handler's stage, once returned. Guarded by `this`.
+   */
+  private CompletionStage<Void> stage;
+
+  /**
+   * Constructor. The handler is taken to run on the calling thread.
+   *
+   * @param exchange The exchange.
+   */
+  DeadlineExchange(final HttpExchange exchange) {
+    super(exchange);
+    copy(exchange.getResponseHeaders(), headers);
+
+    this.interruptible = runsOnExecutor(exchange);
+    this.thread = interruptible ? Thread.currentThread() : null;
+  }
+
+  /**
+   * Schedule the deadline.
+   *
+   * @param wheel    The wheel on which to schedule it.
+   * @param deadline The time from now by which the response headers must be sent.
+   */
+  void start(final TimingWheel wheel, final Duration deadline) {
+    timeout = wheel.schedule(this::expire, deadline);
+  }
+
+  @Override
+  public Headers getResponseHeaders() {
+    return headers;
+  }
+
+  @Override
+  public void sendResponseHeaders(final int status, final long responseLength)
+      throws IOException {
+    if (state.compareAndSet(PENDING, COMMITTED)) {
+      cancel();
+
+      final Headers committed = exchange.getResponseHeaders();
+      committed.clear();
+      copy(headers, committed);
+    } else if (state.get() == TIMED_OUT) {
+      throw new IOException("request timed out");
+    }
+
+    super.sendResponseHeaders(status, responseLength);
+  }
+
+  /**
+   * Close the exchange, unless the deadline has passed, in which case it is closed upon the
+   * timeout response.
+   */
+  @Override
+  public void close() {
+    if (state.compareAndSet(PENDING, COMMITTED) || state.get() == COMMITTED) {
+      closeExchange();
+    }
+  }
+
+  boolean timedOut() {
+    return state.get() == TIMED_OUT;
+  }
+
+  /**
+   * Record that the handler has returned, such that its thread is no longer interrupted.
+   *
+   * @param returned The handler's stage, to be cancelled upon the deadline; or null if the handler
+   *                 threw.
+   */
+  void returned(final CompletionStage<Void> returned) {
+    synchronized (this) {
+      thread = null;
+      stage = returned;
+    }
+
+    if (timedOut()) {
+      // Clear an interrupt delivered before the handler returned, lest it fail the thread's next
+      // task, and cancel a stage returned only after the deadline.
+      if (interruptible) {
+        Thread.interrupted();
+      }
+      cancelStage();
+    }
+  }
+
+  private void closeExchange() {
+    if (closed.compareAndSet(false, true)) {
+      cancel();
+      super.close();
+    }
+  }
+
+  private void cancel() {
+    final Timeout scheduled = timeout;
+    if (scheduled != null) {
+      scheduled.cancel();
+    }
+  }
+
+  private void expire() {
+    if (!state.compareAndSet(PENDING, TIMED_OUT)) {
+      return;
+    }
+
+    try {
+      exchange.getResponseHeaders().set("Connection", "close");
+      exchange.sendResponseHeaders(Status.SERVICE_UNAVAILABLE.value, -1);
+    } catch (IOException e) {
+      // The exchange is closed regardless.
+    }
+
+    closeExchange();
+
+    synchronized (this) {
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+
+    cancelStage();
+  }
+
+  /**
+   * Determine whether the exchange's server runs requests on threads of an executor set for it,
+   * rather than on threads of its own.
+   */
+  private static boolean runsOnExecutor(final HttpExchange exchange) {
+    final HttpContext context = exchange.getHttpContext();
+    if (context == null) {
+      return false;
+    }
+
+    final Executor executor = context.getServer().getExecutor();
+    return executor != null && !executor.getClass().getName().startsWith(JDK_SERVER_PACKAGE);
+  }
+
+  private static void copy(final Headers from, final Headers to) {
+    from.forEach((name, values) -> to.put(name, new ArrayList<>(values)));
+  }
+
+  private void cancelStage() {
+    final CompletionStage<Void> returned;
+    synchronized (this) {
+      returned = stage;
+    }
+
+    if (returned != null) {
+      try {
+        returned.toCompletableFuture().cancel(true);
+      } catch (UnsupportedOperationException e) {
+        // The stage cannot be cancelled; its completion is ignored.
+      }
+    }
+  }
+}
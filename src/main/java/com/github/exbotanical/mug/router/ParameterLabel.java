@@ -0,0 +1,91 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Path;
+
+/**
+ * A parameter segment label, parsed once upon route registration so that matching a request
+ * segment against it requires no string parsing.
+ *
+ * <p>
+ * e.g. :id[^\d+$] => key: id, matcher: ^\d+$ e.g. :id&lt;int&gt; => key: id, matcher: INT
+ * </p>
+ *
+ * @param label   The label, as registered.
+ * @param key     The parameter key.
+ * @param matcher The constraint a segment must satisfy.
+ */
+record ParameterLabel(String label, String key, ParameterMatcher matcher) {
+
+  /**
+   * Determine whether the given path segment is a parameter label.
+   *
+   * @param segment A path segment.
+   * @return A boolean indicating whether `segment` is a parameter label.
+   */
+  static boolean isParameter(final String segment) {
+    return segment.startsWith(Path.PARAMETER_DELIMITER.value);
+  }
+
+  /**
+   * Determine whether the given path segment is a catch-all label.
+   *
+   * @param segment A path segment.
+   * @return A boolean indicating whether `segment` is a catch-all label.
+   */
+  static boolean isCatchAll(final String segment) {
+    return segment.startsWith(Path.CATCH_ALL.value);
+  }
+
+  /**
+   * Parse a catch-all label. A catch-all accepts the remainder of the path, however many segments
+   * it spans.
+   *
+   * @param label A catch-all label e.g. `*rest`.
+   * @return The parsed ParameterLabel.
+   */
+  static ParameterLabel parseCatchAll(final String label) {
+    return new ParameterLabel(label, label.substring(Path.CATCH_ALL.value.length()),
+        ParameterType.ANY);
+  }
+
+  /**
+   * Parse a parameter label. Built-in types and the default wildcard are matched without regular
+   * expressions; any other pattern is compiled via the given cache.
+   *
+   * @param label A parameter label e.g. `:id[^\d+$]` or `:id&lt;int&gt;`.
+   * @param cache A cache from which to retrieve compiled patterns.
+   * @return The parsed ParameterLabel.
+   * @throws IllegalArgumentException The label declares an unknown type.
+   */
+  static ParameterLabel parse(final String label, final RegexCache cache) {
+    final String key = PathUtils.deriveParameterKey(label);
+
+    final String typeName = PathUtils.deriveLabelType(label);
+    if (typeName != null) {
+      final ParameterType type = ParameterType.of(typeName);
+      if (type == null) {
+        throw new IllegalArgumentException(
+            String.format("unknown parameter type '%s' in label %s", typeName, label));
+      }
+
+      return new ParameterLabel(label, key, type);
+    }
+
+    final String pattern = PathUtils.deriveLabelPattern(label);
+    if (Path.PATTERN_WILDCARD.value.equals(pattern)) {
+      return new ParameterLabel(label, key, ParameterType.ANY);
+    }
+
+    return new ParameterLabel(label, key, new PatternMatcher(cache.get(pattern)));
+  }
+
+  /**
+   * Determine whether a path segment satisfies this parameter's constraint.
+   *
+   * @param value A path segment.
+   * @return A boolean indicating whether `value` matches.
+   */
+  boolean matches(final String value) {
+    return matcher.matches(value);
+  }
+}
@@ -0,0 +1,27 @@
+package com.github.exbotanical.mug.router;
+
+/**
+ * Decides whether a path segment satisfies a parameter's constraint.
+ */
+interface ParameterMatcher {
+  /**
+   * The specificity of arbitrary regular expression constraints. They rank below every built-in
+   * type, save for the wildcard, since nothing is known of the segments they accept.
+   */
+  int PATTERN_SPECIFICITY = 10;
+
+  /**
+   * Rank this constraint among its siblings; those with greater specificity are tried first.
+   *
+   * @return The constraint's specificity.
+   */
+  int specificity();
+
+  /**
+   * Determine whether a path segment satisfies this constraint.
+   *
+   * @param value A path segment.
+   * @return A boolean indicating whether `value` matches.
+   */
+  boolean matches(String value);
+}
@@ -0,0 +1,178 @@
+package com.github.exbotanical.mug.router;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The parameter children of a node, kept in the order in which they are offered a segment: by
+ * descending specificity, then by registration order. Built-in types thus precede arbitrary
+ * regular expressions, which precede the wildcard.
+ *
+ * <p>
+ * Sibling regular expressions are additionally combined into a single alternation, such that a
+ * segment none of them accepts is rejected in one scan rather than one per sibling.
+ * </p>
+ *
+ * @param <N> The node type.
+ */
+final class ParameterSiblings<N> {
+  /**
+   * Matches a backreference, which would refer to the wrong group once combined.
+   */
+  private static final Pattern BACKREFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+  private final List<N> nodes = new ArrayList<>();
+
+  private final List<ParameterLabel> labels = new ArrayList<>();
+
+  /**
+   * The alternation of the regular expression siblings, or null if there are fewer than two or
+   * they cannot be combined.
+   */
+  private Pattern combined;
+
+  /**
+   * The index of the first regular expression sibling.
+   */
+  private int patternStart;
+
+  /**
+   * For each regular expression sibling, the group that captures its alternative in `combined`.
+   */
+  private int[] groups;
+
+  /**
+   * Retrieve the sibling with the given label.
+   *
+   * @param label A parameter label.
+   * @return The sibling node, or null if not extant.
+   */
+  N get(final String label) {
+    for (int i = 0; i < labels.size(); i++) {
+      if (labels.get(i).label().equals(label)) {
+        return nodes.get(i);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Add a sibling, after any siblings of equal or greater specificity.
+   *
+   * @param parameter The sibling's parsed parameter label.
+   * @param node      The sibling node.
+   */
+  void add(final ParameterLabel parameter, final N node) {
+    final int specificity = parameter.matcher().specificity();
+
+    int i = 0;
+    while (i < labels.size() && labels.get(i).matcher().specificity() >= specificity) {
+      i++;
+    }
+
+    labels.add(i, parameter);
+    nodes.add(i, node);
+
+    combine();
+  }
+
+  boolean isEmpty() {
+    return nodes.isEmpty();
+  }
+
+  N node(final int i) {
+    return nodes.get(i);
+  }
+
+  ParameterLabel label(final int i) {
+    return labels.get(i);
+  }
+
+  /**
+   * Find the first sibling, at or after the given index, whose constraint the segment satisfies.
+   *
+   * @param segment A path segment.
+   * @param from    The index at which to begin.
+   * @return The index of the matching sibling, or -1 if there is none.
+   */
+  int match(final String segment, final int from) {
+    for (int i = from; i < labels.size(); i++) {
+      if (i == patternStart && combined != null) {
+        final Matcher matcher = combined.matcher(segment);
+        if (!matcher.matches()) {
+          // None of the regular expression siblings accepts the segment; skip them all.
+          i += groups.length - 1;
+          continue;
+        }
+
+        // Alternatives are attempted in order, so the first to participate is the first match.
+        for (int k = 0; k < groups.length; k++) {
+          if (matcher.start(groups[k]) != -1) {
+            return i + k;
+          }
+        }
+      }
+
+      if (labels.get(i).matches(segment)) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Rebuild the alternation of the regular expression siblings, which are contiguous given that
+   * they share a specificity.
+   */
+  private void combine() {
+    combined = null;
+    patternStart = -1;
+
+    final List<Pattern> patterns = new ArrayList<>();
+    for (int i = 0; i < labels.size(); i++) {
+      if (labels.get(i).matcher() instanceof PatternMatcher matcher) {
+        if (patterns.isEmpty()) {
+          patternStart = i;
+        }
+
+        patterns.add(matcher.pattern());
+      }
+    }
+
+    if (patterns.size() < 2) {
+      return;
+    }
+
+    final StringBuilder alternation = new StringBuilder();
+    final int[] nextGroups = new int[patterns.size()];
+
+    int group = 1;
+    for (int k = 0; k < patterns.size(); k++) {
+      final Pattern pattern = patterns.get(k);
+      if (BACKREFERENCE.matcher(pattern.pattern()).find()) {
+        return;
+      }
+
+      if (k > 0) {
+        alternation.append('|');
+      }
+      alternation.append('(').append(pattern.pattern()).append(')');
+
+      nextGroups[k] = group;
+      group += 1 + pattern.matcher("").groupCount();
+    }
+
+    try {
+      combined = Pattern.compile(alternation.toString());
+      groups = nextGroups;
+    } catch (PatternSyntaxException e) {
+      // e.g. siblings declare the same named group; match them one by one instead.
+      combined = null;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.github.exbotanical.mug.router;
+
+/**
+ * Built-in parameter constraints, declared by name e.g. `:id&lt;int&gt;`, and matched by scanning
+ * the segment's characters directly rather than via `java.util.regex`.
+ *
+ * <p>
+ * Each type accepts exactly the segments its `regex` does; the expression is kept for reference
+ * and benchmarking only.
+ * </p>
+ */
+enum ParameterType implements ParameterMatcher {
+  /**
+   * Any non-empty segment. This is the constraint for parameters declared without one e.g. `:id`.
+   */
+  ANY("any", 0, "(.+)") {
+    @Override
+    public boolean matches(final String value) {
+      final int len = value.length();
+      if (len == 0) {
+        return false;
+      }
+
+      // `.` matches anything but a line terminator.
+      for (int i = 0; i < len; i++) {
+        final char c = value.charAt(i);
+        if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028'
+            || c == '\u2029') {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  },
+
+  /**
+   * A decimal integer, optionally negative e.g. `:id&lt;int&gt;`.
+   */
+  INT("int", 40, "-?[0-9]+") {
+    @Override
+    public boolean matches(final String value) {
+      final int len = value.length();
+      final int start = len > 0 && value.charAt(0) == '-' ? 1 : 0;
+      if (start == len) {
+        return false;
+      }
+
+      for (int i = start; i < len; i++) {
+        if (!isDigit(value.charAt(i))) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  },
+
+  /**
+   * A UUID in its canonical 8-4-4-4-12 hexadecimal form, in either case e.g. `:id&lt;uuid&gt;`.
+   */
+  UUID("uuid", 50,
+      "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}") {
+    @Override
+    public boolean matches(final String value) {
+      if (value.length() != 36) {
+        return false;
+      }
+
+      for (int i = 0; i < 36; i++) {
+        final char c = value.charAt(i);
+
+        if (i == 8 || i == 13 || i == 18 || i == 23) {
+          if (c != '-') {
+            return false;
+          }
+        } else if (!isHexDigit(c)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  },
+
+  /**
+   * One or more ASCII letters or digits e.g. `:code&lt;alnum&gt;`.
+   */
+  ALNUM("alnum", 30, "[0-9a-zA-Z]+") {
+    @Override
+    public boolean matches(final String value) {
+      final int len = value.length();
+      if (len == 0) {
+        return false;
+      }
+
+      for (int i = 0; i < len; i++) {
+        if (!isAlnum(value.charAt(i))) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  },
+
+  /**
+   * One or more ASCII letters, digits, hyphens or underscores e.g. `:slug&lt;slug&gt;`.
+   */
+  SLUG("slug", 20, "[0-9a-zA-Z_-]+") {
+    @Override
+    public boolean matches(final String value) {
+      final int len = value.length();
+      if (len == 0) {
+        return false;
+      }
+
+      for (int i = 0; i < len; i++) {
+        final char c = value.charAt(i);
+        if (!isAlnum(c) && c != '-' && c != '_') {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  };
+
+  /**
+   * The name by which the type is declared in a route path.
+   */
+  final String label;
+
+  /**
+   * The rank of this type among sibling parameters. Narrower types rank higher, such that a segment
+   * is offered to e.g. `uuid` before `slug`, both of which accept it.
+   */
+  private final int specificity;
+
+  /**
+   * A regular expression accepting exactly the segments this type does.
+   */
+  final String regex;
+
+  ParameterType(final String label, final int specificity, final String regex) {
+    this.label = label;
+    this.specificity = specificity;
+    this.regex = regex;
+  }
+
+  @Override
+  public int specificity() {
+    return specificity;
+  }
+
+  /**
+   * Retrieve the ParameterType declared by the given name.
+   *
+   * @param label The type name e.g. `int`.
+   * @return The corresponding ParameterType, or null if there is none.
+   */
+  static ParameterType of(final String label) {
+    for (final ParameterType type : values()) {
+      if (type.label.equals(label)) {
+        return type;
+      }
+    }
+
+    return null;
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isHexDigit(final char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean isAlnum(final char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+}
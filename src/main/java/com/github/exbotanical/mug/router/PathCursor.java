@@ -0,0 +1,125 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Path;
+
+/**
+ * A cursor over the segments of a path, delimited by `Path.PATH_DELIMITER`. Segments are
+ * represented as index ranges into the path such that a path can be walked without allocating
+ * substrings or matching it against a regular expression. Empty segments (e.g. from leading,
+ * trailing or repeated delimiters) are skipped.
+ *
+ * <p>
+ * e.g. /api//users/ => [1, 4), [6, 11)
+ * </p>
+ */
+final class PathCursor {
+  private static final char DELIMITER = Path.PATH_DELIMITER.value.charAt(0);
+
+  /**
+   * The path being walked.
+   */
+  private final String path;
+
+  /**
+   * The inclusive start index of the current segment.
+   */
+  private int start;
+
+  /**
+   * The exclusive end index of the current segment.
+   */
+  private int end;
+
+  /**
+   * The hash of the current segment; equal to the `hashCode` of the segment as a String.
+   */
+  private int hash;
+
+  PathCursor(final String path) {
+    this.path = path;
+  }
+
+  /**
+   * Advance the cursor to the next non-empty segment.
+   *
+   * @return A boolean indicating whether there was a next segment.
+   */
+  boolean next() {
+    final int len = path.length();
+    int i = end;
+
+    while (i < len && path.charAt(i) == DELIMITER) {
+      i++;
+    }
+
+    if (i == len) {
+      start = len;
+      end = len;
+      return false;
+    }
+
+    start = i;
+
+    int h = 0;
+    char c;
+    while (i < len && (c = path.charAt(i)) != DELIMITER) {
+      h = 31 * h + c;
+      i++;
+    }
+
+    end = i;
+    hash = h;
+
+    return true;
+  }
+
+  /**
+   * Rewind (or advance) the cursor such that the next call to `next` yields the first segment at or
+   * after the given index e.g. the `end` of a previous segment, to backtrack to the segment that
+   * followed it.
+   *
+   * @param position An index into the path.
+   */
+  void reset(final int position) {
+    start = position;
+    end = position;
+  }
+
+  /**
+   * Determine whether the current segment is equal to the given label.
+   *
+   * @param label A path label.
+   * @return A boolean indicating whether the current segment is equal to `label`.
+   */
+  boolean matches(final String label) {
+    final int len = end - start;
+
+    return label.length() == len && path.regionMatches(start, label, 0, len);
+  }
+
+  /**
+   * Materialize the current segment. This allocates; reserve it for values that must outlive the
+   * search e.g. parameter values.
+   *
+   * @return The current segment as a String.
+   */
+  String segment() {
+    return path.substring(start, end);
+  }
+
+  String path() {
+    return path;
+  }
+
+  int start() {
+    return start;
+  }
+
+  int end() {
+    return end;
+  }
+
+  int hash() {
+    return hash;
+  }
+}
@@ -11,16 +11,29 @@ public class PathHashKey {
 
   private final String method;
 
+  /**
+   * The precomputed hash; keys are probed against the search result cache on every request.
+   */
+  private final int hash;
+
+  /**
+   * PathHashKey constructor.
+   *
+   * @param path   The search path.
+   * @param method The HTTP method name.
+   */
   public PathHashKey(final String path, final String method) {
     this.path = path;
     this.method = method;
-  }
 
-  @Override
-  public int hashCode() {
     int hash = 17;
     hash = hash * 31 + path.hashCode();
     hash = hash * 31 + method.hashCode();
+    this.hash = hash;
+  }
+
+  @Override
+  public int hashCode() {
     return hash;
   }
 
@@ -1,40 +1,70 @@
 package com.github.exbotanical.mug.router;
 
+import com.github.exbotanical.mug.cache.BoundedCache;
+import com.github.exbotanical.mug.cache.CacheStats;
 import com.github.exbotanical.mug.constant.Method;
-import com.github.exbotanical.mug.constant.Path;
-import com.github.exbotanical.mug.router.errors.MethodNotAllowedException;
-import com.github.exbotanical.mug.router.errors.NotFoundException;
 import com.github.exbotanical.mug.router.middleware.Middleware;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * A trie data structure used to resolve paths to their corresponding route records.
+ * A trie data structure used to resolve paths to their corresponding route records. Records are
+ * stored in a RouteTree, and resolved search results are cached.
  */
 class PathTrie {
 
   /**
-   * The trie root node. This should be the `Path.ROOT`.
+   * The tree in which route records are stored.
    */
-  private final PathTrieNode root;
+  private final RouteTree tree;
 
   /**
-   * A cache for compiled regular expression matchers.
+   * A bounded cache of resolved search results, keyed by the concrete search path and method.
    */
-  private final RegexCache cache;
+  private final BoundedCache<PathHashKey, Cached> pathCache;
 
-  private final HashMap<PathHashKey, SearchResult> pathCache;
+  /**
+   * The number of inserts so far. Cached results are tagged with the generation they were
+   * resolved in, and those of an earlier generation are ignored.
+   */
+  private final AtomicLong generation = new AtomicLong();
 
   PathTrie() {
-    root = new PathTrieNode("", new HashMap<>(), new HashMap<>());
-    cache = new RegexCache();
-    pathCache = new HashMap<>();
+    this(BoundedCache.DEFAULT_CAPACITY);
   }
 
   /**
-   * Insert a new route record into the PathTrie.
+   * PathTrie constructor.
+   *
+   * @param cacheCapacity The maximum number of resolved search results to cache.
+   */
+  PathTrie(final int cacheCapacity) {
+    this(RouteTreeType.TRIE, cacheCapacity);
+  }
+
+  /**
+   * PathTrie constructor.
+   *
+   * @param treeType      The type of tree in which to store route records.
+   * @param cacheCapacity The maximum number of resolved search results to cache.
+   */
+  PathTrie(final RouteTreeType treeType, final int cacheCapacity) {
+    tree = treeType == RouteTreeType.RADIX ? new RadixTree() : new SegmentTree();
+    pathCache = new BoundedCache<>(cacheCapacity);
+  }
+
+  /**
+   * Take a snapshot of the search result cache counters.
+   *
+   * @return A CacheStats record.
+   */
+  CacheStats cacheStats() {
+    return pathCache.stats();
+  }
+
+  /**
+   * Insert a new route record into the PathTrie, deferring to the Router's default timeout.
    *
    * @param methods A list of the HTTP methods to which the handler should be correlated.
    * @param path    The path at which this record will match.
@@ -43,46 +73,29 @@ class PathTrie {
    */
   void insert(final List<Method> methods, final String path, final RouteHandler handler,
               final List<Middleware> middlewares) {
-    // Handle root path registration.
-    if (Path.ROOT.value.equals(path)) {
-      root.label = path;
-      methods.forEach(method -> {
-        final PathHashKey hashKey = new PathHashKey(path, method.name());
-        pathCache.remove(hashKey);
-        root.actions.put(method, new Action(handler, middlewares));
-      });
-
-      return;
-    }
-
-    PathTrieNode curr = root;
-
-    final List<String> paths = PathUtils.expandPath(path);
-    for (int i = 0; i < paths.size(); i++) {
-      final PathTrieNode next = curr.children.get(paths.get(i));
-      if (next != null) {
-        curr = next;
-      } else {
-        PathTrieNode newNode = new PathTrieNode(paths.get(i), new HashMap<>(), new HashMap<>());
-        curr.children.put(paths.get(i), newNode);
-
-        curr = newNode;
-      }
-
-      // Overwrite existing data on last path.
-      if (i == paths.size() - 1) {
-        curr.label = paths.get(i);
-
-        for (final Method method : methods) {
-          final PathHashKey hashKey = new PathHashKey(path, method.name());
-          pathCache.remove(hashKey);
-
-          curr.actions.put(method, new Action(handler, middlewares));
-        }
+    insert(methods, path, handler, middlewares, null);
+  }
 
-        break;
-      }
-    }
+  /**
+   * Insert a new route record into the PathTrie.
+   *
+   * @param methods A list of the HTTP methods to which the handler should be correlated.
+   * @param path    The path at which this record will match.
+   * @param handler The RouteHandler function to be invoked upon a routing match to the given path
+   *                `path`.
+   * @param timeout The time by which the handler must send the response headers, or null to defer
+   *                to the Router's default.
+   */
+  void insert(final List<Method> methods, final String path, final RouteHandler handler,
+              final List<Middleware> middlewares, final Duration timeout) {
+    // Compose the middleware chain once; it is shared by each of the given methods.
+    tree.insert(methods, path, new Action(handler, middlewares, timeout));
+
+    // A new record may shadow or be shadowed by any number of cached paths e.g. a parameter route
+    // matches every concrete path previously resolved against its siblings; start over. Bumping
+    // the generation also discards results a concurrent search resolved against the old tree.
+    generation.incrementAndGet();
+    pathCache.clear();
   }
 
   /**
@@ -90,81 +103,29 @@ class PathTrie {
    *
    * @param method     The HTTP method for the matching route record.
    * @param searchPath The path to search.
-   * @return A SearchResult record containing the matched route handler and any matching parameters.
-   * @throws NotFoundException         A route match was not found.
-   * @throws MethodNotAllowedException A route match was found, but not for the specified HTTP
-   *                                   method.
+   * @return A SearchResult record containing the matched route handler and any matching parameters,
+   *     or the shared `SearchResult.NOT_FOUND` or `SearchResult.METHOD_NOT_ALLOWED` result.
    */
-  SearchResult search(final Method method, final String searchPath)
-      throws NotFoundException, MethodNotAllowedException {
+  SearchResult search(final Method method, final String searchPath) {
+    final long current = generation.get();
     final PathHashKey hashKey = new PathHashKey(searchPath, method.name());
-    if (pathCache.containsKey(new PathHashKey(searchPath, method.name()))) {
-      return pathCache.get(hashKey);
+    final Cached cached = pathCache.get(hashKey);
+    if (cached != null && cached.generation() == current) {
+      return cached.result();
     }
 
-    final List<Parameter> params = new ArrayList<>();
-
-    PathTrieNode curr = root;
-
-    for (final String path : PathUtils.expandPath(searchPath)) {
-      final PathTrieNode next = curr.children.get(path);
-
-      if (next != null) {
-        curr = next;
-        continue;
-      }
-
-      if (curr.children.size() == 0) {
-        if (!path.equals(curr.label)) {
-          throw new NotFoundException("No matching route result found");
-        }
-        break;
-      }
-
-      boolean isParamMatch = false;
-      for (final String childKey : curr.children.keySet()) {
-        // is delimiter
-        if (Path.PARAMETER_DELIMITER.value.equals(String.valueOf(childKey.charAt(0)))) {
-          final String pattern = PathUtils.deriveLabelPattern(childKey);
-          final Pattern regex = cache.get(pattern);
-
-          if (regex.matcher(path).matches()) {
-            String param = PathUtils.deriveParameterKey(childKey);
-
-            params.add(new Parameter(param, path));
-
-            curr = curr.children.get(childKey);
-            isParamMatch = true;
-
-            break;
-          }
-
-          // No parameter match.
-          throw new NotFoundException("No parameter match");
-        }
-      }
-
-      // No parameter match.
-      if (!isParamMatch) {
-        throw new NotFoundException("No parameter match");
-      }
-    }
-
-    if (Path.ROOT.equals(searchPath)) {
-      // No matching handler.
-      if (curr.actions.size() == 0) {
-        throw new NotFoundException("No matching handler");
-      }
+    final SearchResult searchResult = tree.search(method, searchPath);
+    // Only cache matches; misses from scanners and bots would otherwise evict real routes.
+    if (searchResult.found()) {
+      pathCache.put(hashKey, new Cached(searchResult, current));
     }
 
-    final Action matchedAction = curr.actions.get(method);
-    // No matching handler.
-    if (matchedAction == null) {
-      throw new MethodNotAllowedException("No matching handler");
-    }
-
-    final SearchResult searchResult = new SearchResult(matchedAction, params);
-    pathCache.put(hashKey, searchResult);
     return searchResult;
   }
+
+  /**
+   * A cached search result and the generation of the tree it was resolved against.
+   */
+  private record Cached(SearchResult result, long generation) {
+  }
 }
@@ -14,13 +14,30 @@ class PathTrieNode {
   String label;
 
   /**
-   * The node's children, represented as subsequent paths.
+   * The node's static children, represented as subsequent paths.
    *
    * <p>
    * e.g. paths = /api/resource, /api/user root = api children { resource, user }
    * </p>
    */
-  final Map<String, PathTrieNode> children;
+  final SegmentMap<PathTrieNode> children;
+
+  /**
+   * The node's parameter children, in the order in which they are tried. These are kept apart from
+   * the static children so that resolving a parameter never requires scanning the static
+   * children's labels.
+   */
+  final ParameterSiblings<PathTrieNode> params = new ParameterSiblings<>();
+
+  /**
+   * The node's catch-all child, which is tried last and always a leaf; or null.
+   */
+  PathTrieNode catchAll;
+
+  /**
+   * The parsed parameter label, if this is a parameter or catch-all node; otherwise, null.
+   */
+  final ParameterLabel parameter;
 
   /**
    * Actions associated with the path `label`.
@@ -34,10 +51,24 @@ class PathTrieNode {
    * @param children The node's children, represented as subsequent paths.
    * @param actions Actions associated with the path `label`.
    */
-  PathTrieNode(final String label, final Map<String, PathTrieNode> children,
+  PathTrieNode(final String label, final SegmentMap<PathTrieNode> children,
       final Map<Method, Action> actions) {
+    this(label, children, actions, null);
+  }
+
+  /**
+   * PathTrieNode constructor.
+   *
+   * @param label The node value, represented as a path.
+   * @param children The node's children, represented as subsequent paths.
+   * @param actions Actions associated with the path `label`.
+   * @param parameter The parsed parameter label, if this is a parameter node.
+   */
+  PathTrieNode(final String label, final SegmentMap<PathTrieNode> children,
+      final Map<Method, Action> actions, final ParameterLabel parameter) {
     this.label = label;
     this.children = children;
     this.actions = actions;
+    this.parameter = parameter;
   }
 }
@@ -17,15 +17,61 @@ final class PathUtils {
   static List<String> expandPath(final String path) {
     final List<String> r = new ArrayList<>();
 
-    for (final String str : path.split(Path.PATH_DELIMITER.value)) {
-      if (!"".equals(str)) {
-        r.add(str);
-      }
+    final PathCursor cursor = new PathCursor(path);
+    while (cursor.next()) {
+      r.add(cursor.segment());
     }
 
     return r;
   }
 
+  /**
+   * Extracts the remainder of a path from the given index, excluding any trailing
+   * `Path.PATH_DELIMITER`, as captured by a catch-all.
+   *
+   * <p>
+   * e.g. (/static/css//main.css/, 8) => css//main.css
+   * </p>
+   *
+   * @param path  A path.
+   * @param start The index at which the remainder begins.
+   * @return The remainder of the path.
+   */
+  static String remainder(final String path, final int start) {
+    final char delimiter = Path.PATH_DELIMITER.value.charAt(0);
+
+    int end = path.length();
+    while (end > start && path.charAt(end - 1) == delimiter) {
+      end--;
+    }
+
+    return path.substring(start, end);
+  }
+
+  /**
+   * Validates the placement of a catch-all segment upon insertion.
+   *
+   * @param path     The path being inserted.
+   * @param label    The catch-all label.
+   * @param last     Whether the label is the last segment of the path.
+   * @param existing The catch-all already registered at the same position, or null.
+   * @throws IllegalArgumentException The catch-all is not the last segment, or conflicts with the
+   *                                  existing catch-all.
+   */
+  static void checkCatchAll(final String path, final String label, final boolean last,
+                            final ParameterLabel existing) {
+    if (!last) {
+      throw new IllegalArgumentException(
+          String.format("catch-all %s must be the last segment of path %s", label, path));
+    }
+
+    if (existing != null && !existing.label().equals(label)) {
+      throw new IllegalArgumentException(
+          String.format("catch-all %s in path %s conflicts with catch-all %s", label, path,
+              existing.label()));
+    }
+  }
+
   /**
    * Derives from a given label a regex pattern.
    *
@@ -48,11 +94,37 @@ final class PathUtils {
     return label.substring(start + 1, end);
   }
 
+  /**
+   * Derives from a given label the name of a built-in parameter type. Labels bearing a pattern are
+   * never typed, so that a pattern may itself contain `Path.TYPE_START`.
+   *
+   * <p>
+   * e.g. :id&lt;int&gt; => int e.g. :id => null
+   * </p>
+   *
+   * @param label A label from which to derive a type name.
+   * @return The derived type name, or null if the label is untyped.
+   */
+  static String deriveLabelType(final String label) {
+    if (label.contains(Path.PATTERN_START.value)) {
+      return null;
+    }
+
+    final int start = label.indexOf(Path.TYPE_START.value);
+    final int end = label.indexOf(Path.TYPE_END.value, start + 1);
+
+    if (start == -1 || end == -1) {
+      return null;
+    }
+
+    return label.substring(start + 1, end);
+  }
+
   /**
    * Derives from a given label a regex pattern's key.
    *
    * <p>
-   * e.g. :id[^\d+$] → id e.g. :id → id
+   * e.g. :id[^\d+$] → id e.g. :id&lt;int&gt; → id e.g. :id → id
    * </p>
    *
    * @param label A string entity that represents a key/value pattern pair.
@@ -62,6 +134,11 @@ final class PathUtils {
     final int start = label.indexOf(Path.PARAMETER_DELIMITER.value);
     int end = label.indexOf(Path.PATTERN_START.value);
 
+    final int typeStart = label.indexOf(Path.TYPE_START.value);
+    if (end == -1 || (typeStart != -1 && typeStart < end)) {
+      end = typeStart;
+    }
+
     if (end == -1) {
       end = label.length();
     }
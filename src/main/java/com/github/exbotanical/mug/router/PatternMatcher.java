@@ -0,0 +1,21 @@
+package com.github.exbotanical.mug.router;
+
+import java.util.regex.Pattern;
+
+/**
+ * A ParameterMatcher backed by an arbitrary regular expression e.g. `:id[^\d+$]`.
+ *
+ * @param pattern The compiled pattern a segment must match in its entirety.
+ */
+record PatternMatcher(Pattern pattern) implements ParameterMatcher {
+
+  @Override
+  public int specificity() {
+    return PATTERN_SPECIFICITY;
+  }
+
+  @Override
+  public boolean matches(final String value) {
+    return pattern.matcher(value).matches();
+  }
+}
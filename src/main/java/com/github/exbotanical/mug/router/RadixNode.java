@@ -0,0 +1,127 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A RadixTree node.
+ */
+final class RadixNode {
+  /**
+   * Below this many children, a linear scan over the first characters beats a binary search.
+   */
+  private static final int LINEAR_SCAN_THRESHOLD = 8;
+
+  private static final char[] NO_INDICES = new char[0];
+
+  private static final RadixNode[] NO_CHILDREN = new RadixNode[0];
+
+  /**
+   * The static characters matched by the edge into this node. May span several path segments,
+   * including their delimiters.
+   *
+   * <p>
+   * e.g. paths = /api/v1/users, /api/v1/teams root = "" children { "api/v1/" children { "users",
+   * "teams" } }
+   * </p>
+   */
+  String prefix;
+
+  /**
+   * The parsed parameter or catch-all label matched by the edge into this node e.g. `:id[^\d+$]`,
+   * or null if this is a static node.
+   */
+  final ParameterLabel parameter;
+
+  /**
+   * The first character of each static child's prefix, sorted. `indices[i]` dispatches to
+   * `children[i]`.
+   */
+  char[] indices = NO_INDICES;
+
+  /**
+   * The static children, sorted by the first character of their prefix.
+   */
+  RadixNode[] children = NO_CHILDREN;
+
+  /**
+   * The parameter children, in the order in which they are tried.
+   */
+  final ParameterSiblings<RadixNode> params = new ParameterSiblings<>();
+
+  /**
+   * The catch-all child, which is tried last and always a leaf; or null.
+   */
+  RadixNode catchAll;
+
+  /**
+   * Actions associated with the path ending at this node.
+   */
+  Map<Method, Action> actions = new EnumMap<>(Method.class);
+
+  /**
+   * RadixNode constructor.
+   *
+   * @param prefix     The static characters matched by the edge into this node.
+   * @param parameter  The parsed parameter label matched by the edge into this node, or null.
+   */
+  RadixNode(final String prefix, final ParameterLabel parameter) {
+    this.prefix = prefix;
+    this.parameter = parameter;
+  }
+
+  /**
+   * Retrieve the static child whose prefix begins with the given character.
+   *
+   * @param c The first character of the child's prefix.
+   * @return The child node, or null if not extant.
+   */
+  RadixNode child(final char c) {
+    final char[] indices = this.indices;
+
+    if (indices.length < LINEAR_SCAN_THRESHOLD) {
+      for (int i = 0; i < indices.length; i++) {
+        if (indices[i] == c) {
+          return children[i];
+        }
+      }
+
+      return null;
+    }
+
+    final int i = Arrays.binarySearch(indices, c);
+    return i < 0 ? null : children[i];
+  }
+
+  /**
+   * Add a static child, or replace the existing child whose prefix begins with the same character.
+   *
+   * @param child The child node.
+   */
+  void putChild(final RadixNode child) {
+    final char c = child.prefix.charAt(0);
+    int i = Arrays.binarySearch(indices, c);
+
+    if (i >= 0) {
+      children[i] = child;
+      return;
+    }
+
+    i = -(i + 1);
+
+    final char[] nextIndices = new char[indices.length + 1];
+    final RadixNode[] nextChildren = new RadixNode[children.length + 1];
+
+    System.arraycopy(indices, 0, nextIndices, 0, i);
+    System.arraycopy(children, 0, nextChildren, 0, i);
+    nextIndices[i] = c;
+    nextChildren[i] = child;
+    System.arraycopy(indices, i, nextIndices, i + 1, indices.length - i);
+    System.arraycopy(children, i, nextChildren, i + 1, children.length - i);
+
+    children = nextChildren;
+    indices = nextIndices;
+  }
+}
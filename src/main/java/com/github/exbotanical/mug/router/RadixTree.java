@@ -0,0 +1,256 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Path;
+import java.util.List;
+
+/**
+ * A compressed radix tree used to resolve paths to their corresponding route records.
+ *
+ * <p>
+ * Routes are stored in their canonical form: segments joined by `Path.PATH_DELIMITER`, without
+ * leading, trailing or repeated delimiters. Runs of static segments are merged into a single edge
+ * and only split where routes diverge, so resolving a static path costs one first-character
+ * dispatch and one region comparison per edge rather than one hash lookup per segment. Search
+ * paths are compared against edges in place, skipping redundant delimiters as they go, without
+ * being split or normalized up front.
+ * </p>
+ */
+final class RadixTree implements RouteTree {
+  private static final char DELIMITER = Path.PATH_DELIMITER.value.charAt(0);
+
+  /**
+   * The tree root node. Its prefix is empty; a route at `Path.ROOT` is stored on the root itself.
+   */
+  private final RadixNode root;
+
+  /**
+   * A cache for compiled regular expression matchers, consulted upon insertion.
+   */
+  private final RegexCache cache;
+
+  RadixTree() {
+    root = new RadixNode("", null);
+    cache = new RegexCache();
+  }
+
+  @Override
+  public void insert(final List<Method> methods, final String path, final Action action) {
+    RadixNode curr = root;
+
+    // Accumulate static segments into a single run until a parameter segment is reached.
+    final StringBuilder run = new StringBuilder();
+    final List<String> segments = PathUtils.expandPath(path);
+
+    for (int i = 0; i < segments.size(); i++) {
+      if (i > 0) {
+        run.append(DELIMITER);
+      }
+
+      final String segment = segments.get(i);
+      if (ParameterLabel.isCatchAll(segment)) {
+        curr = insertStatic(curr, run.toString());
+        run.setLength(0);
+
+        PathUtils.checkCatchAll(path, segment, i == segments.size() - 1,
+            curr.catchAll == null ? null : curr.catchAll.parameter);
+
+        if (curr.catchAll == null) {
+          curr.catchAll = new RadixNode("", ParameterLabel.parseCatchAll(segment));
+        }
+
+        curr = curr.catchAll;
+        continue;
+      }
+
+      if (!ParameterLabel.isParameter(segment)) {
+        run.append(segment);
+        continue;
+      }
+
+      curr = insertStatic(curr, run.toString());
+      run.setLength(0);
+
+      RadixNode param = curr.params.get(segment);
+      if (param == null) {
+        // Parse the label now so that searches need not.
+        final ParameterLabel parameter = ParameterLabel.parse(segment, cache);
+        param = new RadixNode("", parameter);
+        curr.params.add(parameter, param);
+      }
+
+      curr = param;
+    }
+
+    curr = insertStatic(curr, run.toString());
+
+    for (final Method method : methods) {
+      curr.actions.put(method, action);
+    }
+  }
+
+  @Override
+  public SearchResult search(final Method method, final String searchPath) {
+    final RouteMatch match = new RouteMatch(method);
+
+    return match.result(find(root, searchPath, skipDelimiters(searchPath, 0), match));
+  }
+
+  /**
+   * Insert a run of static segments beneath the given node, splitting existing edges as needed.
+   *
+   * @param node The node beneath which to insert.
+   * @param run  The static segments, joined by `Path.PATH_DELIMITER`.
+   * @return The node at which the run ends.
+   */
+  private static RadixNode insertStatic(RadixNode node, String run) {
+    while (!run.isEmpty()) {
+      RadixNode child = node.child(run.charAt(0));
+
+      if (child == null) {
+        final RadixNode leaf = new RadixNode(run, null);
+        node.putChild(leaf);
+
+        return leaf;
+      }
+
+      final int common = commonPrefixLength(child.prefix, run);
+
+      // The run diverges partway along the child's edge; split the edge at the divergence.
+      if (common < child.prefix.length()) {
+        final RadixNode split = new RadixNode(child.prefix.substring(0, common), null);
+        child.prefix = child.prefix.substring(common);
+        split.putChild(child);
+        node.putChild(split);
+
+        child = split;
+      }
+
+      node = child;
+      run = run.substring(common);
+    }
+
+    return node;
+  }
+
+  /**
+   * Resolve the action for the remainder of the search path, descending the static edge, then each
+   * parameter in turn, then the catch-all, backtracking when a branch yields no match.
+   *
+   * @param node  The current node, whose edge has been consumed.
+   * @param path  The search path.
+   * @param i     The index into `path` at which the remainder of the path begins.
+   * @param match The search state.
+   * @return The matched action, or null if no route beneath `node` matches.
+   */
+  private static Action find(final RadixNode node, final String path, final int i,
+                             final RouteMatch match) {
+    final int len = path.length();
+
+    if (skipDelimiters(path, i) == len) {
+      return match.accept(node.actions);
+    }
+
+    final RadixNode child = node.child(path.charAt(i));
+    if (child != null) {
+      final int next = matchPrefix(child.prefix, path, i);
+
+      if (next >= 0) {
+        final Action action = find(child, path, next, match);
+        if (action != null) {
+          return action;
+        }
+      }
+    }
+
+    if (!node.params.isEmpty()) {
+      // Parameters span exactly one segment.
+      int end = i;
+      while (end < len && path.charAt(end) != DELIMITER) {
+        end++;
+      }
+
+      final String segment = path.substring(i, end);
+
+      for (int k = node.params.match(segment, 0); k >= 0; k = node.params.match(segment, k + 1)) {
+        final RadixNode param = node.params.node(k);
+        match.push(param.parameter.key(), segment);
+
+        final Action action = find(param, path, end, match);
+        if (action != null) {
+          return action;
+        }
+
+        match.pop();
+      }
+    }
+
+    // The catch-all takes the rest of the path as it stands, without walking its segments.
+    if (node.catchAll != null) {
+      return match.acceptCatchAll(node.catchAll.parameter, node.catchAll.actions, path,
+          skipDelimiters(path, i));
+    }
+
+    return null;
+  }
+
+  /**
+   * Compare an edge prefix against the search path, treating any run of delimiters in the path as
+   * a single delimiter.
+   *
+   * @param prefix The edge prefix, in canonical form.
+   * @param path   The search path.
+   * @param i      The index into `path` at which to begin the comparison.
+   * @return The index into `path` following the matched prefix, or -1 if it did not match.
+   */
+  private static int matchPrefix(final String prefix, final String path, int i) {
+    final int len = path.length();
+
+    for (int k = 0; k < prefix.length(); k++) {
+      if (i >= len) {
+        return -1;
+      }
+
+      final char c = path.charAt(i);
+
+      if (c == DELIMITER) {
+        if (prefix.charAt(k) != DELIMITER) {
+          return -1;
+        }
+
+        i = skipDelimiters(path, i);
+        // Trailing delimiters do not separate segments.
+        if (i == len) {
+          return -1;
+        }
+      } else {
+        if (prefix.charAt(k) != c) {
+          return -1;
+        }
+
+        i++;
+      }
+    }
+
+    return i;
+  }
+
+  private static int skipDelimiters(final String path, int i) {
+    while (i < path.length() && path.charAt(i) == DELIMITER) {
+      i++;
+    }
+
+    return i;
+  }
+
+  private static int commonPrefixLength(final String a, final String b) {
+    final int max = Math.min(a.length(), b.length());
+
+    int i = 0;
+    while (i < max && a.charAt(i) == b.charAt(i)) {
+      i++;
+    }
+
+    return i;
+  }
+}
@@ -20,10 +20,14 @@ class RegexCache {
    * Retrieve the compiled regex for a given string pattern. Subsequent invocations of this method
    * with the same input will yield a cached value.
    *
+   * <p>
+   * No external locking is needed; `computeIfAbsent` compiles each pattern atomically.
+   * </p>
+   *
    * @param pattern A string pattern and valid regular expression.
    * @return A compiled regex Pattern.
    */
-  synchronized Pattern get(final String pattern) {
+  Pattern get(final String pattern) {
     return this.state.computeIfAbsent(pattern, Pattern::compile);
   }
 }
@@ -7,6 +7,22 @@ import java.util.List;
  */
 public record RouteContext(List<Parameter> params) {
 
+  /**
+   * Retrieve the value of a matched route parameter.
+   *
+   * @param key The parameter's name, without its `:` or `*` prefix.
+   * @return The matched value, or null if the route has no such parameter.
+   */
+  public String param(final String key) {
+    for (final Parameter param : params) {
+      if (param.key().equals(key)) {
+        return param.value();
+      }
+    }
+
+    return null;
+  }
+
   @Override
   public String toString() {
     return String.format("RouteContext { params: %s }", params);
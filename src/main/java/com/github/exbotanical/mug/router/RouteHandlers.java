@@ -0,0 +1,161 @@
+package com.github.exbotanical.mug.router;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Binds annotated route handler methods to RouteHandler implementations once, upon registration,
+ * such that dispatching a request costs an interface call rather than a reflective one.
+ */
+final class RouteHandlers {
+  /**
+   * The erased signature of `RouteHandler.handle`.
+   */
+  private static final MethodType HANDLE_TYPE =
+      MethodType.methodType(void.class, HttpExchange.class, RouteContext.class);
+
+  /**
+   * The erased signature of `AsyncRouteHandler.handleAsync`.
+   */
+  private static final MethodType HANDLE_ASYNC_TYPE =
+      MethodType.methodType(CompletionStage.class, HttpExchange.class, RouteContext.class);
+
+  /**
+   * Bind a route handler method to a RouteHandler. The method must accept an HttpExchange and a
+   * RouteContext, in that order. If it returns a CompletionStage, it is bound to an
+   * AsyncRouteHandler.
+   *
+   * <p>
+   * Where the handler's class grants private access to this one and the method throws no checked
+   * exceptions other than IOException, the RouteHandler is spun by `LambdaMetafactory` and calls
+   * the method directly, exactly as a method reference would. Otherwise, it delegates to a bound
+   * MethodHandle, which wraps undeclared checked exceptions in an UndeclaredThrowableException.
+   * </p>
+   *
+   * @param instance The instance on which to invoke the method; ignored if the method is static.
+   * @param method   The route handler method, which must be accessible.
+   * @return A RouteHandler that invokes `method`.
+   * @throws IllegalAccessException The method is not accessible.
+   */
+  static RouteHandler bind(final Object instance, final Method method)
+      throws IllegalAccessException {
+    if (throwsUndeclared(method)) {
+      return bindMethodHandle(instance, method);
+    }
+
+    try {
+      final MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+
+      return metafactory(lookup, instance, method);
+    } catch (IllegalAccessException | LambdaConversionException e) {
+      return bindMethodHandle(instance, method);
+    }
+  }
+
+  /**
+   * Bind a route handler method to a RouteHandler that delegates to a bound MethodHandle.
+   *
+   * @param instance The instance on which to invoke the method; ignored if the method is static.
+   * @param method   The route handler method, which must be accessible.
+   * @return A RouteHandler that invokes `method`.
+   * @throws IllegalAccessException The method is not accessible.
+   */
+  static RouteHandler bindMethodHandle(final Object instance, final Method method)
+      throws IllegalAccessException {
+    MethodHandle target = MethodHandles.lookup().unreflect(method);
+    if (!Modifier.isStatic(method.getModifiers())) {
+      target = target.bindTo(instance);
+    }
+
+    if (isAsync(method)) {
+      final MethodHandle handle = target.asType(HANDLE_ASYNC_TYPE);
+
+      return (AsyncRouteHandler) (exchange, context) -> {
+        try {
+          return (CompletionStage<Void>) handle.invokeExact(exchange, context);
+        } catch (IOException | RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      };
+    }
+
+    final MethodHandle handle = target.asType(HANDLE_TYPE);
+
+    return (exchange, context) -> {
+      try {
+        handle.invokeExact(exchange, context);
+      } catch (IOException | RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    };
+  }
+
+  private static RouteHandler metafactory(final MethodHandles.Lookup lookup,
+                                          final Object instance, final Method method)
+      throws IllegalAccessException, LambdaConversionException {
+    final boolean isStatic = Modifier.isStatic(method.getModifiers());
+    final boolean isAsync = isAsync(method);
+    final Class<?> type = isAsync ? AsyncRouteHandler.class : RouteHandler.class;
+    final MethodType handleType = isAsync ? HANDLE_ASYNC_TYPE : HANDLE_TYPE;
+
+    final MethodType factoryType = isStatic
+        ? MethodType.methodType(type)
+        : MethodType.methodType(type, method.getDeclaringClass());
+
+    final CallSite site = LambdaMetafactory.metafactory(
+        lookup,
+        isAsync ? "handleAsync" : "handle",
+        factoryType,
+        handleType,
+        lookup.unreflect(method),
+        MethodType.methodType(method.getReturnType(), HttpExchange.class, RouteContext.class));
+
+    try {
+      return isStatic
+          ? (RouteHandler) site.getTarget().invoke()
+          : (RouteHandler) site.getTarget().invoke(instance);
+    } catch (Throwable e) {
+      // The factory merely captures its argument.
+      throw new LambdaConversionException(e);
+    }
+  }
+
+  /**
+   * Determine whether a method declares checked exceptions that RouteHandler does not, which a
+   * spun implementation would throw unwrapped.
+   */
+  private static boolean throwsUndeclared(final Method method) {
+    for (final Class<?> thrown : method.getExceptionTypes()) {
+      if (!IOException.class.isAssignableFrom(thrown)
+          && !RuntimeException.class.isAssignableFrom(thrown)
+          && !Error.class.isAssignableFrom(thrown)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isAsync(final Method method) {
+    return CompletionStage.class.isAssignableFrom(method.getReturnType());
+  }
+
+  private RouteHandlers() {
+    throw new AssertionError("Non-instantiable");
+  }
+}
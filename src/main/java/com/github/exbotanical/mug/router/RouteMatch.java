@@ -0,0 +1,97 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of a single route search, shared across the branches a RouteTree backtracks through.
+ */
+final class RouteMatch {
+  /**
+   * The HTTP method being searched.
+   */
+  private final Method method;
+
+  /**
+   * The parameters matched along the current branch.
+   */
+  final List<Parameter> params = new ArrayList<>();
+
+  /**
+   * Whether any branch matched the path, whether or not for the HTTP method.
+   */
+  private boolean pathMatched;
+
+  RouteMatch(final Method method) {
+    this.method = method;
+  }
+
+  /**
+   * Consider the actions registered at a node at which the path ends.
+   *
+   * @param actions The node's actions.
+   * @return The action for the HTTP method, or null if there is none.
+   */
+  Action accept(final Map<Method, Action> actions) {
+    if (actions.isEmpty()) {
+      return null;
+    }
+
+    pathMatched = true;
+    return actions.get(method);
+  }
+
+  /**
+   * Consider a catch-all, which accepts the remainder of the path from the given index.
+   *
+   * @param parameter The catch-all label.
+   * @param actions   The catch-all node's actions.
+   * @param path      The search path.
+   * @param start     The index at which the remainder begins; a segment must begin there.
+   * @return The action for the HTTP method, or null if there is none.
+   */
+  Action acceptCatchAll(final ParameterLabel parameter, final Map<Method, Action> actions,
+                        final String path, final int start) {
+    push(parameter.key(), PathUtils.remainder(path, start));
+
+    final Action action = accept(actions);
+    if (action == null) {
+      pop();
+    }
+
+    return action;
+  }
+
+  /**
+   * Record a parameter matched along the current branch.
+   *
+   * @param key   The parameter key.
+   * @param value The matched segment.
+   */
+  void push(final String key, final String value) {
+    params.add(new Parameter(key, value));
+  }
+
+  /**
+   * Discard the parameter most recently matched, upon backtracking.
+   */
+  void pop() {
+    params.remove(params.size() - 1);
+  }
+
+  /**
+   * Build the result of the search.
+   *
+   * @param action The matched action, or null if no branch matched both the path and the method.
+   * @return A SearchResult record.
+   */
+  SearchResult result(final Action action) {
+    if (action != null) {
+      return new SearchResult(action, params);
+    }
+
+    return pathMatched ? SearchResult.METHOD_NOT_ALLOWED : SearchResult.NOT_FOUND;
+  }
+}
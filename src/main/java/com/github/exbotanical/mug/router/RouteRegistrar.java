@@ -0,0 +1,34 @@
+package com.github.exbotanical.mug.router;
+
+/**
+ * Registers the `@Route` annotated handlers of a routes class with a Router, without reflection.
+ * Implementations are generated at compile time by the RouteProcessor, one per routes class, and
+ * are picked up by `Router.use` when present.
+ *
+ * <p>
+ * e.g. routes class com.example.Api.Users => registrar com.example.Api$$Users_MugRoutes
+ * </p>
+ *
+ * @param <T> The routes class.
+ */
+public interface RouteRegistrar<T> {
+  /**
+   * The suffix appended to the routes class's flattened name to form the registrar's name.
+   */
+  String SUFFIX = "_MugRoutes";
+
+  /**
+   * Instantiate the routes class.
+   *
+   * @return A new instance of the routes class.
+   */
+  T newInstance();
+
+  /**
+   * Register the routes class's handlers.
+   *
+   * @param router The Router with which to register the handlers.
+   * @param routes The routes class instance on which to invoke the handlers.
+   */
+  void register(Router router, T routes);
+}
@@ -0,0 +1,28 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import java.util.List;
+
+/**
+ * A tree data structure used by a PathTrie to store and resolve route records.
+ */
+interface RouteTree {
+  /**
+   * Insert a new route record.
+   *
+   * @param methods A list of the HTTP methods to which the action should be correlated.
+   * @param path    The path at which this record will match.
+   * @param action  The action to be invoked upon a routing match to the given path `path`.
+   */
+  void insert(List<Method> methods, String path, Action action);
+
+  /**
+   * Search for a route record at the provided HTTP method and search path.
+   *
+   * @param method     The HTTP method for the matching route record.
+   * @param searchPath The path to search.
+   * @return A SearchResult record containing the matched action and any matching parameters, or
+   *     the shared `SearchResult.NOT_FOUND` or `SearchResult.METHOD_NOT_ALLOWED` result.
+   */
+  SearchResult search(Method method, String searchPath);
+}
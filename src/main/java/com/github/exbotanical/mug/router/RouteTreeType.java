@@ -0,0 +1,19 @@
+package com.github.exbotanical.mug.router;
+
+/**
+ * The data structures a Router may use to store and resolve its routes.
+ */
+public enum RouteTreeType {
+  /**
+   * A trie with one node per path segment, where each node maps its children by segment. This is
+   * the default.
+   */
+  TRIE,
+
+  /**
+   * A compressed radix tree. Chains of static segments with a single child are merged into one
+   * edge, and children are stored in arrays sorted by, and dispatched on, their first character.
+   * This uses considerably less memory and fewer lookups than `TRIE` for large route tables.
+   */
+  RADIX
+}
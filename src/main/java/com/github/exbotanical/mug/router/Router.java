@@ -1,25 +1,35 @@
 package com.github.exbotanical.mug.router;
 
+import com.github.exbotanical.mug.cache.BoundedCache;
+import com.github.exbotanical.mug.cache.CacheStats;
 import com.github.exbotanical.mug.constant.Method;
 import com.github.exbotanical.mug.constant.Status;
 import com.github.exbotanical.mug.router.annotations.Route;
 import com.github.exbotanical.mug.router.errors.InvalidRouteClassException;
-import com.github.exbotanical.mug.router.errors.MethodNotAllowedException;
-import com.github.exbotanical.mug.router.errors.NotFoundException;
 import com.github.exbotanical.mug.router.middleware.Middleware;
+import com.github.exbotanical.mug.timer.TimingWheel;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 /**
  * An HTTP router / multiplexer.
  */
 public class Router implements HttpHandler {
+  private static final System.Logger LOGGER = System.getLogger(Router.class.getName());
+
+  /**
+   * The time by which a handler must send the response headers, unless its route sets its own.
+   * Null or zero disables the timeout.
+   */
+  private volatile Duration defaultTimeout;
 
   /**
    * The route trie.
@@ -45,9 +55,59 @@ public class Router implements HttpHandler {
   private RouteHandler methodNotAllowedHandler = (exchange, context) -> {
     exchange.sendResponseHeaders(Status.METHOD_NOT_ALLOWED.value, -1);
   };
+  /**
+   * The SearchResult resolved when a route match is not found. Built once per fallback handler so
+   * that misses allocate nothing.
+   */
+  private SearchResult notFoundResult = fallback(notFoundHandler);
+  /**
+   * The SearchResult resolved when a route match for the specific HTTP method is not found.
+   */
+  private SearchResult methodNotAllowedResult = fallback(methodNotAllowedHandler);
 
   public Router() {
-    trie = new PathTrie();
+    this(BoundedCache.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor. Initialize a new Router with a route resolution cache of the given capacity.
+   *
+   * @param cacheCapacity The maximum number of resolved routes to cache. Each distinct concrete
+   *                      path and method counts as one entry e.g. `/users/1` and `/users/2` are
+   *                      cached separately. A capacity of 0 disables the cache.
+   */
+  public Router(final int cacheCapacity) {
+    this(RouteTreeType.TRIE, cacheCapacity);
+  }
+
+  /**
+   * Constructor. Initialize a new Router that stores its routes in the given type of tree.
+   *
+   * @param treeType The type of tree in which to store routes.
+   */
+  public Router(final RouteTreeType treeType) {
+    this(treeType, BoundedCache.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor. Initialize a new Router that stores its routes in the given type of tree, with a
+   * route resolution cache of the given capacity.
+   *
+   * @param treeType      The type of tree in which to store routes.
+   * @param cacheCapacity The maximum number of resolved routes to cache. A capacity of 0 disables
+   *                      the cache.
+   */
+  public Router(final RouteTreeType treeType, final int cacheCapacity) {
+    trie = new PathTrie(treeType, cacheCapacity);
+  }
+
+  /**
+   * Take a snapshot of the route resolution cache's hit, miss and eviction counters.
+   *
+   * @return A CacheStats record.
+   */
+  public CacheStats cacheStats() {
+    return trie.cacheStats();
   }
 
   /**
@@ -72,7 +132,7 @@ public class Router implements HttpHandler {
       IllegalAccessException {
     final String name = routesClass.getName();
 
-    T instance = (T) routesClassCache.get(name);
+    T instance = routesClass.cast(routesClassCache.get(name));
 
     if (instance == null) {
       Constructor<T> constructor = routesClass.getDeclaredConstructor();
@@ -96,6 +156,7 @@ public class Router implements HttpHandler {
    */
   public void handleNotFoundWith(final RouteHandler handler) {
     notFoundHandler = handler;
+    notFoundResult = fallback(handler);
   }
 
   /**
@@ -106,12 +167,40 @@ public class Router implements HttpHandler {
    */
   public void handleMethodNotAllowedWith(final RouteHandler handler) {
     methodNotAllowedHandler = handler;
+    methodNotAllowedResult = fallback(handler);
+  }
+
+  /**
+   * Set the default timeout: the time from dispatch by which a route's handler must send the
+   * response headers, for routes registered without a timeout of their own.
+   *
+   * <p>
+   * Upon the timeout, the request is answered with a 503 Service Unavailable, the thread running
+   * the handler is interrupted if it belongs to the server's executor, and the stage of an
+   * AsyncRouteHandler is cancelled. A handler that has sent the response headers by then is left
+   * to finish the response.
+   * </p>
+   *
+   * @param timeout The timeout, or null or zero to disable it.
+   * @implNote Deadlines are tracked on a shared hashed timing wheel with a 10ms tick, such that
+   *     each costs O(1) to schedule and cancel, however many are in flight.
+   */
+  public void setDefaultTimeout(final Duration timeout) {
+    if (timeout != null && timeout.isNegative()) {
+      throw new IllegalArgumentException("timeout must not be negative; got " + timeout);
+    }
+
+    defaultTimeout = timeout;
   }
 
   /**
    * Implements the HttpHandler `handle` method. This allows the Router to be
    * passed directly into
    * the HttpServer.createContext method.
+   *
+   * @implNote Where the matched chain includes an AsyncRouteHandler, this method may return before
+   *     the response is complete; the exchange is closed once the handler's stage completes. If
+   *     the stage fails before the response headers are sent, a 500 Internal Server Error is sent.
    */
   @Override
   public void handle(final HttpExchange exchange) throws IOException {
@@ -119,21 +208,107 @@ public class Router implements HttpHandler {
     final SearchResult result = resolve(Method.valueOf(exchange.getRequestMethod()),
         path);
 
-    final List<Middleware> mws = result.action().middlewares();
-    RouteHandler handler = result.action().handler();
+    final Action action = result.action();
+    final Duration timeout = action.timeout() != null ? action.timeout() : defaultTimeout;
+    if (timeout != null && !timeout.isZero()) {
+      handleWithDeadline(exchange, action, result, timeout);
+      return;
+    }
+
+    // The handler and any registered Middlewares were composed into a chain upon registration.
+    final CompletionStage<Void> stage =
+        action.chain().handleAsync(exchange, new RouteContext(result.parameters()));
+
+    if (stage == AsyncRouteHandler.COMPLETED) {
+      exchange.close();
+      return;
+    }
+
+    stage.whenComplete((ignored, e) -> complete(exchange, e));
+  }
+
+  /**
+   * Handle an exchange subject to a timeout.
+   *
+   * @param exchange The exchange.
+   * @param action   The matched Action.
+   * @param result   The SearchResult, for its parameters.
+   * @param timeout  The time by which the response headers must be sent.
+   */
+  private static void handleWithDeadline(final HttpExchange exchange, final Action action,
+                                         final SearchResult result, final Duration timeout)
+      throws IOException {
+    final DeadlineExchange deadline = new DeadlineExchange(exchange);
+    deadline.start(Deadlines.WHEEL, timeout);
+
+    final CompletionStage<Void> stage;
+    try {
+      stage = action.chain().handleAsync(deadline, new RouteContext(result.parameters()));
+    } catch (IOException | RuntimeException | Error e) {
+      deadline.returned(null);
+
+      // Once timed out, the exchange was answered; the failure is most likely the interrupt's.
+      if (deadline.timedOut()) {
+        return;
+      }
+
+      throw e;
+    }
+
+    deadline.returned(stage);
 
-    // If there are any registered Middlewares, create a request chain.
-    // TODO: relocate so invoked once - prob cache it and use a hash key computed from path+method
-    for (int i = 0; i < mws.size(); i++) {
-      final Middleware next = mws.get(mws.size() - 1 - i);
-      handler = next.handle(handler);
+    if (stage == AsyncRouteHandler.COMPLETED) {
+      deadline.close();
+      return;
     }
 
-    handler.handle(exchange, new RouteContext(result.parameters()));
+    stage.whenComplete((ignored, e) -> complete(deadline, deadline.timedOut() ? null : e));
+  }
+
+  /**
+   * Close the exchange of an asynchronous handler upon the completion of its stage.
+   *
+   * @param exchange The exchange.
+   * @param failure  The stage's failure, or null if it completed normally.
+   */
+  private static void complete(final HttpExchange exchange, final Throwable failure) {
+    if (failure != null) {
+      LOGGER.log(System.Logger.Level.WARNING, "asynchronous route handler failed", failure);
+
+      if (exchange.getResponseCode() < 0) {
+        try {
+          exchange.sendResponseHeaders(Status.INTERNAL_SERVER_ERROR.value, -1);
+        } catch (IOException e) {
+          // The exchange is closed regardless.
+        }
+      }
+    }
 
     exchange.close();
   }
 
+  /**
+   * Register a new route handler for each of the given HTTP methods at the provided path, with a
+   * timeout of its own.
+   *
+   * @param methods     A list of HTTP methods at which the handler should be registered.
+   * @param path        The route path at which the handler should be registered.
+   * @param handler     A handler that is invoked to process HTTP exchanges.
+   * @param middlewares A list of middleware handlers that are invoked in sequence.
+   * @param timeout     The time by which the handler must send the response headers, overriding
+   *                    the Router's default; zero disables the timeout for this route.
+   * @see #setDefaultTimeout(Duration)
+   */
+  public void register(final List<Method> methods, final String path, final RouteHandler handler,
+                       final List<Middleware> middlewares, final Duration timeout) {
+    if (timeout == null || timeout.isNegative()) {
+      throw new IllegalArgumentException("timeout must not be null or negative; got " + timeout);
+    }
+
+    trie.insert(methods, path, handler,
+        middlewares == null ? new ArrayList<>() : middlewares, timeout);
+  }
+
   /**
    * Register a new route handler for each of the given HTTP methods at the
    * provided path.
@@ -149,7 +324,9 @@ public class Router implements HttpHandler {
    *                    handle and close the HttpExchange.
    * @implNote The route handler must implement the RouteHandler interface.
    * @implNote If provided a handler for an existing route (both path and method),
-   * the existing handler will be overridden with the provided handler.
+   *     the existing handler will be overridden with the provided handler.
+   * @implNote Each middleware's `handle` method is invoked once, at registration, to compose
+   *     the request chain; the composed chain is then reused for every request.
    */
   public void register(final List<Method> methods, final String path, final RouteHandler handler,
                        List<Middleware> middlewares) {
@@ -171,9 +348,27 @@ public class Router implements HttpHandler {
    * @throws InvalidRouteClassException Unchecked RuntimeException.
    * @implNote If the provided class is an inner class, it must be static.
    * @implNote If provided a handler for an existing route (both path and method),
-   * the existing handler will be overridden with the provided handler.
+   *     the existing handler will be overridden with the provided handler.
+   * @implNote Each handler method is bound to a RouteHandler once, at registration, and invoked
+   *     directly thereafter; exceptions it throws propagate as they would from any RouteHandler.
+   * @implNote If the RouteProcessor generated a RouteRegistrar for the class at compile time, it
+   *     is used in lieu of reflection.
    */
   public <T> void use(final Class<T> routesClass) throws InvalidRouteClassException {
+    final RouteRegistrar<T> registrar = getRegistrar(routesClass);
+    if (registrar != null) {
+      final String name = routesClass.getName();
+
+      T instance = routesClass.cast(routesClassCache.get(name));
+      if (instance == null) {
+        instance = registrar.newInstance();
+        routesClassCache.put(name, instance);
+      }
+
+      registrar.register(this, instance);
+      return;
+    }
+
     for (java.lang.reflect.Method method : routesClass.getMethods()) {
       final Route[] annotations = method.getAnnotationsByType(Route.class);
 
@@ -190,24 +385,23 @@ public class Router implements HttpHandler {
             break;
           }
 
-          final RouteHandler handler = (exchange, context) -> {
-            try {
-              maybeHandler.invoke(instance, exchange, context);
-            } catch (InvocationTargetException e) {
-              // TODO: handle
-              e.printStackTrace();
-              exchange.close();
-            } catch (IllegalAccessException e) {
-              e.printStackTrace();
-              exchange.close();
-            }
-          };
-
-          register(
-              List.of(annotation.method()),
-              annotation.path(),
-              handler,
-              new ArrayList<>());
+          // Bind the method once; requests are then dispatched without reflection.
+          final RouteHandler handler = RouteHandlers.bind(instance, maybeHandler);
+
+          if (annotation.timeoutMillis() >= 0) {
+            register(
+                List.of(annotation.method()),
+                annotation.path(),
+                handler,
+                new ArrayList<>(),
+                Duration.ofMillis(annotation.timeoutMillis()));
+          } else {
+            register(
+                List.of(annotation.method()),
+                annotation.path(),
+                handler,
+                new ArrayList<>());
+          }
         } catch (NoSuchMethodException
                  | SecurityException
                  | InvocationTargetException
@@ -220,26 +414,74 @@ public class Router implements HttpHandler {
   }
 
   /**
-   * Resolves a SearchResult for the given HTTP method and path, defaulting to the
-   * `notFoundHandler`
-   * or `methodNotAllowedHandler` contingent on the type of exception propagated
-   * by the PathTrie's search method.
+   * Retrieve the RouteRegistrar generated at compile time for the provided routes class, if any.
+   *
+   * @param <T>         The routes class type.
+   * @param routesClass The routes class.
+   * @return The RouteRegistrar, or null if none was generated.
+   * @throws InvalidRouteClassException The RouteRegistrar could not be instantiated.
+   */
+  private static <T> RouteRegistrar<T> getRegistrar(final Class<T> routesClass) {
+    final String packageName = routesClass.getPackageName();
+    final String binaryName = routesClass.getName();
+
+    // e.g. com.example.Api$Users => com.example.Api$$Users_MugRoutes
+    final String simpleName = packageName.isEmpty()
+        ? binaryName
+        : binaryName.substring(packageName.length() + 1);
+    final String registrarName = (packageName.isEmpty() ? "" : packageName + ".")
+        + simpleName.replace("$", "$$") + RouteRegistrar.SUFFIX;
+
+    try {
+      final Class<?> registrarClass =
+          Class.forName(registrarName, true, routesClass.getClassLoader());
+
+      // The registrar generated for a class is, by construction, a RouteRegistrar of that class.
+      @SuppressWarnings("unchecked")
+      final RouteRegistrar<T> registrar =
+          (RouteRegistrar<T>) registrarClass.getDeclaredConstructor().newInstance();
+
+      return registrar;
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (ReflectiveOperationException e) {
+      throw new InvalidRouteClassException(e);
+    }
+  }
+
+  /**
+   * Resolves a SearchResult for the given HTTP method and path, defaulting to the shared
+   * `notFoundResult` or `methodNotAllowedResult` contingent on the status of the PathTrie's search
+   * result.
    *
    * @param method The HTTP method to search.
    * @param path   The path to search.
    * @return A SearchResult record.
    */
   private SearchResult resolve(final Method method, final String path) {
-    try {
-      return trie.search(method, path);
-    } catch (NotFoundException e) {
-      return new SearchResult(new Action(notFoundHandler, new ArrayList<>()),
-          new ArrayList<>());
-    } catch (MethodNotAllowedException e) {
-      return new SearchResult(new Action(methodNotAllowedHandler, new ArrayList<>()),
-          new ArrayList<>());
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    final SearchResult result = trie.search(method, path);
+
+    return switch (result.status()) {
+      case FOUND -> result;
+      case NOT_FOUND -> notFoundResult;
+      case METHOD_NOT_ALLOWED -> methodNotAllowedResult;
+    };
+  }
+
+  /**
+   * Build the shared SearchResult for a fallback handler.
+   *
+   * @param handler The fallback RouteHandler.
+   * @return A SearchResult record with no parameters.
+   */
+  private static SearchResult fallback(final RouteHandler handler) {
+    return new SearchResult(new Action(handler, List.of()), List.of());
+  }
+
+  /**
+   * Holds the timing wheel on which deadlines are scheduled, started upon the first.
+   */
+  private static final class Deadlines {
+    static final TimingWheel WHEEL = new TimingWheel("mug-deadlines", Duration.ofMillis(10), 512);
   }
 }
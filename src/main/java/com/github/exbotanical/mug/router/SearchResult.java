@@ -4,6 +4,41 @@ import java.util.List;
 
 /**
  * A route match result containing that route's registered action and matching parameters.
+ *
+ * <p>
+ * Misses are reported by status rather than by exception, so that resolving a path no route
+ * matches costs no more than resolving one that does. Trees report misses via the shared
+ * `NOT_FOUND` and `METHOD_NOT_ALLOWED` instances, which carry no action.
+ * </p>
  */
-record SearchResult(Action action, List<Parameter> parameters) {
+record SearchResult(SearchStatus status, Action action, List<Parameter> parameters) {
+  /**
+   * The shared result for a path no route matches.
+   */
+  static final SearchResult NOT_FOUND = new SearchResult(SearchStatus.NOT_FOUND, null, List.of());
+
+  /**
+   * The shared result for a path a route matches, but not for the HTTP method.
+   */
+  static final SearchResult METHOD_NOT_ALLOWED =
+      new SearchResult(SearchStatus.METHOD_NOT_ALLOWED, null, List.of());
+
+  /**
+   * Constructor for a successful match.
+   *
+   * @param action     The matched route's action.
+   * @param parameters The matching parameters.
+   */
+  SearchResult(final Action action, final List<Parameter> parameters) {
+    this(SearchStatus.FOUND, action, parameters);
+  }
+
+  /**
+   * Determine whether a route matched the path and the HTTP method.
+   *
+   * @return A boolean indicating whether the status is `FOUND`.
+   */
+  boolean found() {
+    return status == SearchStatus.FOUND;
+  }
 }
@@ -0,0 +1,21 @@
+package com.github.exbotanical.mug.router;
+
+/**
+ * The outcome of a route search.
+ */
+enum SearchStatus {
+  /**
+   * A route matched the path and the HTTP method.
+   */
+  FOUND,
+
+  /**
+   * No route matched the path.
+   */
+  NOT_FOUND,
+
+  /**
+   * A route matched the path, but not for the HTTP method.
+   */
+  METHOD_NOT_ALLOWED
+}
@@ -0,0 +1,171 @@
+package com.github.exbotanical.mug.router;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An open-addressing map of path segment labels to values. Unlike a HashMap, entries can be
+ * retrieved by the segment a PathCursor currently points at, without materializing the segment as
+ * a String.
+ *
+ * <p>
+ * Writes are expected only at route registration. As with the HashMap this replaces, registering
+ * routes while requests are being served is not supported.
+ * </p>
+ *
+ * @param <V> The value type.
+ */
+final class SegmentMap<V> {
+  private static final int INITIAL_CAPACITY = 4;
+
+  /**
+   * Labels and values, interleaved such that the label for slot `i` is at index `2i` and its value
+   * at `2i + 1`. A single array means a resize can never be observed half-applied.
+   */
+  private Object[] table = new Object[INITIAL_CAPACITY * 2];
+
+  private int size;
+
+  /**
+   * Retrieve the value for the given label.
+   *
+   * @param label A path segment label.
+   * @return The value, or null if not extant.
+   */
+  @SuppressWarnings("unchecked")
+  V get(final String label) {
+    final Object[] table = this.table;
+    final int mask = (table.length >> 1) - 1;
+
+    for (int i = spread(label.hashCode()) & mask; table[i << 1] != null; i = (i + 1) & mask) {
+      if (label.equals(table[i << 1])) {
+        return (V) table[(i << 1) + 1];
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Retrieve the value for the segment the given cursor currently points at.
+   *
+   * @param cursor A PathCursor.
+   * @return The value, or null if not extant.
+   */
+  @SuppressWarnings("unchecked")
+  V get(final PathCursor cursor) {
+    final Object[] table = this.table;
+    final int mask = (table.length >> 1) - 1;
+
+    Object label;
+    for (int i = spread(cursor.hash()) & mask; (label = table[i << 1]) != null;
+        i = (i + 1) & mask) {
+      if (cursor.matches((String) label)) {
+        return (V) table[(i << 1) + 1];
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Associate a value with the given label, replacing any existing value.
+   *
+   * @param label A path segment label.
+   * @param value The value.
+   */
+  void put(final String label, final V value) {
+    // Keep the load factor at or below 0.5 so probe sequences stay short.
+    if ((size + 1) * 4 > table.length) {
+      resize();
+    }
+
+    if (insert(table, label, value)) {
+      size++;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Retrieve the labels in this map.
+   *
+   * @return A list of labels, in no particular order.
+   */
+  List<String> labels() {
+    final List<String> r = new ArrayList<>(size);
+
+    for (int i = 0; i < table.length; i += 2) {
+      if (table[i] != null) {
+        r.add((String) table[i]);
+      }
+    }
+
+    return r;
+  }
+
+  /**
+   * Retrieve the values in this map.
+   *
+   * @return A list of values, in no particular order.
+   */
+  @SuppressWarnings("unchecked")
+  List<V> values() {
+    final List<V> r = new ArrayList<>(size);
+
+    for (int i = 0; i < table.length; i += 2) {
+      if (table[i] != null) {
+        r.add((V) table[i + 1]);
+      }
+    }
+
+    return r;
+  }
+
+  /**
+   * Double the number of slots, rehashing each entry into a new table.
+   */
+  private void resize() {
+    final Object[] next = new Object[table.length * 2];
+
+    for (int i = 0; i < table.length; i += 2) {
+      if (table[i] != null) {
+        insert(next, (String) table[i], table[i + 1]);
+      }
+    }
+
+    table = next;
+  }
+
+  /**
+   * Insert or replace an entry in the given table.
+   *
+   * @return A boolean indicating whether a new slot was occupied.
+   */
+  private static boolean insert(final Object[] table, final String label, final Object value) {
+    final int mask = (table.length >> 1) - 1;
+    int i = spread(label.hashCode()) & mask;
+
+    for (; table[i << 1] != null; i = (i + 1) & mask) {
+      if (label.equals(table[i << 1])) {
+        table[(i << 1) + 1] = value;
+        return false;
+      }
+    }
+
+    // Publish the value before the label, which readers probe for.
+    table[(i << 1) + 1] = value;
+    table[i << 1] = label;
+
+    return true;
+  }
+
+  /**
+   * Mix the high bits of a hash into the low bits, which select the slot.
+   */
+  private static int spread(final int h) {
+    return h ^ (h >>> 16);
+  }
+}
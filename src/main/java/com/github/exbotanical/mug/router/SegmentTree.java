@@ -0,0 +1,166 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Path;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A trie with one node per path segment, used to resolve paths to their corresponding route
+ * records.
+ */
+final class SegmentTree implements RouteTree {
+
+  /**
+   * The trie root node. This should be the `Path.ROOT`.
+   */
+  private final PathTrieNode root;
+
+  /**
+   * A cache for compiled regular expression matchers, consulted upon insertion.
+   */
+  private final RegexCache cache;
+
+  SegmentTree() {
+    root = new PathTrieNode("", new SegmentMap<>(), new HashMap<>());
+    cache = new RegexCache();
+  }
+
+  @Override
+  public void insert(final List<Method> methods, final String path, final Action action) {
+    // Handle root path registration.
+    if (Path.ROOT.value.equals(path)) {
+      root.label = path;
+      methods.forEach(method -> root.actions.put(method, action));
+
+      return;
+    }
+
+    PathTrieNode curr = root;
+
+    final List<String> paths = PathUtils.expandPath(path);
+    for (int i = 0; i < paths.size(); i++) {
+      final String label = paths.get(i);
+
+      if (ParameterLabel.isCatchAll(label)) {
+        PathUtils.checkCatchAll(path, label, i == paths.size() - 1,
+            curr.catchAll == null ? null : curr.catchAll.parameter);
+
+        if (curr.catchAll == null) {
+          curr.catchAll = new PathTrieNode(label, new SegmentMap<>(), new HashMap<>(),
+              ParameterLabel.parseCatchAll(label));
+        }
+
+        curr = curr.catchAll;
+      } else {
+        curr = insertSegment(curr, label);
+      }
+
+      // Overwrite existing data on last path.
+      if (i == paths.size() - 1) {
+        curr.label = paths.get(i);
+
+        for (final Method method : methods) {
+          curr.actions.put(method, action);
+        }
+
+        break;
+      }
+    }
+  }
+
+  /**
+   * Retrieve the static or parameter child of a node for the given label, creating it if it does
+   * not yet exist.
+   *
+   * @param node  The parent node.
+   * @param label The child's label.
+   * @return The child node.
+   */
+  private PathTrieNode insertSegment(final PathTrieNode node, final String label) {
+    final boolean isParameter = ParameterLabel.isParameter(label);
+
+    final PathTrieNode next = isParameter ? node.params.get(label) : node.children.get(label);
+    if (next != null) {
+      return next;
+    }
+
+    if (isParameter) {
+      // Parse the label now so that searches need not.
+      final ParameterLabel parameter = ParameterLabel.parse(label, cache);
+      final PathTrieNode newNode =
+          new PathTrieNode(label, new SegmentMap<>(), new HashMap<>(), parameter);
+      node.params.add(parameter, newNode);
+
+      return newNode;
+    }
+
+    final PathTrieNode newNode = new PathTrieNode(label, new SegmentMap<>(), new HashMap<>());
+    node.children.put(label, newNode);
+
+    return newNode;
+  }
+
+  @Override
+  public SearchResult search(final Method method, final String searchPath) {
+    final RouteMatch match = new RouteMatch(method);
+
+    // Walk the search path segment by segment, by index, rather than expanding it into substrings.
+    return match.result(find(root, new PathCursor(searchPath), match));
+  }
+
+  /**
+   * Resolve the action for the remainder of the search path, descending the static child, then
+   * each parameter child in turn, then the catch-all, backtracking when a branch yields no match.
+   *
+   * @param node   The current node, whose segment has been consumed.
+   * @param cursor A cursor positioned at the segment consumed by `node`.
+   * @param match  The search state.
+   * @return The matched action, or null if no route beneath `node` matches.
+   */
+  private static Action find(final PathTrieNode node, final PathCursor cursor,
+                             final RouteMatch match) {
+    if (!cursor.next()) {
+      return match.accept(node.actions);
+    }
+
+    final int start = cursor.start();
+
+    final PathTrieNode child = node.children.get(cursor);
+    if (child != null) {
+      final Action action = find(child, cursor, match);
+      if (action != null) {
+        return action;
+      }
+
+      cursor.reset(start);
+      cursor.next();
+    }
+
+    if (!node.params.isEmpty()) {
+      final String segment = cursor.segment();
+      final int end = cursor.end();
+
+      for (int i = node.params.match(segment, 0); i >= 0; i = node.params.match(segment, i + 1)) {
+        final PathTrieNode param = node.params.node(i);
+        match.push(param.parameter.key(), segment);
+
+        final Action action = find(param, cursor, match);
+        if (action != null) {
+          return action;
+        }
+
+        match.pop();
+        cursor.reset(end);
+      }
+    }
+
+    // The catch-all takes the rest of the path as it stands, without walking its segments.
+    if (node.catchAll != null) {
+      return match.acceptCatchAll(node.catchAll.parameter, node.catchAll.actions, cursor.path(),
+          start);
+    }
+
+    return null;
+  }
+}
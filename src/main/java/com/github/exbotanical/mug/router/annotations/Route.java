@@ -26,4 +26,10 @@ public @interface Route {
    * The route path.
    */
   String path() default "/";
+
+  /**
+   * The time, in milliseconds, by which the handler must send the response headers. Zero
+   * disables the timeout for this route; a negative value defers to the Router's default timeout.
+   */
+  long timeoutMillis() default -1;
 }
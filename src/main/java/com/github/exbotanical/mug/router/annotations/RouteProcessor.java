@@ -0,0 +1,328 @@
+package com.github.exbotanical.mug.router.annotations;
+
+import com.github.exbotanical.mug.router.RouteRegistrar;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a RouteRegistrar for each class declaring `@Route` annotated handlers, such that
+ * `Router.use` can register them via direct method references rather than discovering and invoking
+ * them reflectively.
+ *
+ * <p>
+ * A registrar is generated only where it would register exactly what `Router.use` would discover
+ * at runtime: the class's public, annotated handler methods. Classes the generated code cannot
+ * reach or instantiate (e.g. private or non-static nested classes, or those with a private
+ * constructor), or whose handlers cannot be referenced as a RouteHandler, are left to the
+ * reflective path, with a warning.
+ * </p>
+ */
+@SupportedAnnotationTypes({
+    "com.github.exbotanical.mug.router.annotations.Route",
+    "com.github.exbotanical.mug.router.annotations.Routes"
+})
+public class RouteProcessor extends AbstractProcessor {
+  private static final String EXCHANGE_TYPE = "com.sun.net.httpserver.HttpExchange";
+
+  private static final String CONTEXT_TYPE = "com.github.exbotanical.mug.router.RouteContext";
+
+  private static final String STAGE_TYPE = "java.util.concurrent.CompletionStage";
+
+  private static final String ASYNC_HANDLER_TYPE =
+      "com.github.exbotanical.mug.router.AsyncRouteHandler";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations,
+                         final RoundEnvironment roundEnv) {
+    final Set<Element> annotated = new LinkedHashSet<>();
+    annotated.addAll(roundEnv.getElementsAnnotatedWith(Route.class));
+    annotated.addAll(roundEnv.getElementsAnnotatedWith(Routes.class));
+
+    final Set<TypeElement> routesClasses = new LinkedHashSet<>();
+    for (final Element element : annotated) {
+      if (element.getKind() == ElementKind.METHOD
+          && element.getEnclosingElement() instanceof TypeElement routesClass) {
+        routesClasses.add(routesClass);
+      }
+    }
+
+    for (final TypeElement routesClass : routesClasses) {
+      // Register in declaration order, as written.
+      final List<ExecutableElement> handlers = new ArrayList<>();
+      for (final ExecutableElement method :
+          ElementFilter.methodsIn(routesClass.getEnclosedElements())) {
+        if (isHandler(method)) {
+          handlers.add(method);
+        }
+      }
+
+      final String reason = ineligibility(routesClass, handlers);
+      if (reason != null) {
+        // Falling back is supported, not a defect; keep the build warning-clean.
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+            String.format("not generating a RouteRegistrar for %s (%s); Router.use will fall back"
+                + " to reflection", routesClass.getQualifiedName(), reason), routesClass);
+        continue;
+      }
+
+      try {
+        generate(routesClass, handlers);
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+            "failed to write RouteRegistrar: " + e.getMessage(), routesClass);
+      }
+    }
+
+    // Leave the annotations to any other processors.
+    return false;
+  }
+
+  /**
+   * Determine why a registrar cannot be generated for a routes class, if at all.
+   *
+   * @param routesClass The routes class.
+   * @param handlers    The routes class's public, annotated methods.
+   * @return A description of the reason, or null if a registrar can be generated.
+   */
+  private String ineligibility(final TypeElement routesClass,
+                               final List<ExecutableElement> handlers) {
+    if (routesClass.getKind() != ElementKind.CLASS
+        || routesClass.getModifiers().contains(Modifier.ABSTRACT)) {
+      return "not a concrete class";
+    }
+
+    if (!routesClass.getTypeParameters().isEmpty()) {
+      return "generic class";
+    }
+
+    // The generated registrar shares the routes class's package; every enclosing class must be
+    // reachable from there, and nested classes must be static to be instantiated.
+    for (Element e = routesClass; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)) {
+        return "private class";
+      }
+
+      if (e.getEnclosingElement() instanceof TypeElement
+          && !e.getModifiers().contains(Modifier.STATIC)) {
+        return "non-static nested class";
+      }
+    }
+
+    if (!hasAccessibleConstructor(routesClass)) {
+      return "no accessible no-argument constructor";
+    }
+
+    // Router.use discovers public methods only, including those inherited, which it then fails to
+    // find declared on the routes class; leave such classes to fail as they would.
+    TypeMirror superclass = routesClass.getSuperclass();
+    while (superclass.getKind() == TypeKind.DECLARED) {
+      final TypeElement type = (TypeElement) ((DeclaredType) superclass).asElement();
+      for (final ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+        if (isHandler(method)) {
+          return "inherits route handlers";
+        }
+      }
+
+      superclass = type.getSuperclass();
+    }
+
+    for (final ExecutableElement handler : handlers) {
+      if (!hasHandlerSignature(handler)) {
+        return handler.getSimpleName() + " does not accept an HttpExchange and a RouteContext";
+      }
+
+      if (!throwsOnlyIoExceptions(handler)) {
+        return handler.getSimpleName() + " throws checked exceptions other than IOException";
+      }
+    }
+
+    return null;
+  }
+
+  private static boolean isHandler(final ExecutableElement method) {
+    return method.getModifiers().contains(Modifier.PUBLIC)
+        && method.getAnnotationsByType(Route.class).length > 0;
+  }
+
+  private static boolean hasAccessibleConstructor(final TypeElement routesClass) {
+    for (final ExecutableElement constructor :
+        ElementFilter.constructorsIn(routesClass.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()) {
+        return !constructor.getModifiers().contains(Modifier.PRIVATE);
+      }
+    }
+
+    return false;
+  }
+
+  private boolean hasHandlerSignature(final ExecutableElement handler) {
+    final List<? extends VariableElement> parameters = handler.getParameters();
+    if (parameters.size() != 2) {
+      return false;
+    }
+
+    return isType(parameters.get(0).asType(), EXCHANGE_TYPE)
+        && isType(parameters.get(1).asType(), CONTEXT_TYPE);
+  }
+
+  private boolean throwsOnlyIoExceptions(final ExecutableElement handler) {
+    final Types types = processingEnv.getTypeUtils();
+    final Elements elements = processingEnv.getElementUtils();
+
+    final TypeMirror io = elements.getTypeElement(IOException.class.getName()).asType();
+    final TypeMirror runtime = elements.getTypeElement(RuntimeException.class.getName()).asType();
+    final TypeMirror error = elements.getTypeElement(Error.class.getName()).asType();
+
+    for (final TypeMirror thrown : handler.getThrownTypes()) {
+      if (!types.isAssignable(thrown, io)
+          && !types.isAssignable(thrown, runtime)
+          && !types.isAssignable(thrown, error)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isType(final TypeMirror type, final String name) {
+    final TypeElement element = processingEnv.getElementUtils().getTypeElement(name);
+
+    return element != null
+        && processingEnv.getTypeUtils().isSameType(
+            processingEnv.getTypeUtils().erasure(type), element.asType());
+  }
+
+  private boolean isSubtype(final TypeMirror type, final String name) {
+    final TypeElement element = processingEnv.getElementUtils().getTypeElement(name);
+
+    return element != null
+        && processingEnv.getTypeUtils().isAssignable(
+            processingEnv.getTypeUtils().erasure(type),
+            processingEnv.getTypeUtils().erasure(element.asType()));
+  }
+
+  /**
+   * Write the registrar for a routes class.
+   *
+   * @param routesClass The routes class.
+   * @param handlers    The routes class's public, annotated methods.
+   * @throws IOException The source file could not be written.
+   */
+  private void generate(final TypeElement routesClass, final List<ExecutableElement> handlers)
+      throws IOException {
+    final Elements elements = processingEnv.getElementUtils();
+
+    final PackageElement pkg = elements.getPackageOf(routesClass);
+    final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    final String simpleName = registrarSimpleName(routesClass);
+    final String qualifiedName =
+        packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    final String type = routesClass.getQualifiedName().toString();
+
+    final StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+
+    source
+        .append("/**\n")
+        .append(" * Registers the routes declared in ").append(type).append(".\n")
+        .append(" */\n")
+        .append("@javax.annotation.processing.Generated(\"")
+        .append(RouteProcessor.class.getName()).append("\")\n")
+        .append("public final class ").append(simpleName)
+        .append(" implements ").append(RouteRegistrar.class.getName())
+        .append('<').append(type).append("> {\n")
+        .append("  @Override\n")
+        .append("  public ").append(type).append(" newInstance() {\n")
+        .append("    return new ").append(type).append("();\n")
+        .append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public void register(final com.github.exbotanical.mug.router.Router router,\n")
+        .append("                       final ").append(type).append(" routes) {\n");
+
+    for (final ExecutableElement handler : handlers) {
+      String reference = handler.getModifiers().contains(Modifier.STATIC)
+          ? type + "::" + handler.getSimpleName()
+          : "routes::" + handler.getSimpleName();
+
+      // A handler returning a CompletionStage would otherwise bind to RouteHandler, discarding it.
+      if (isSubtype(handler.getReturnType(), STAGE_TYPE)) {
+        reference = "(" + ASYNC_HANDLER_TYPE + ") " + reference;
+      }
+
+      for (final Route route : handler.getAnnotationsByType(Route.class)) {
+        source
+            .append("    router.register(java.util.List.of(")
+            .append(com.github.exbotanical.mug.constant.Method.class.getName())
+            .append('.').append(route.method().name()).append("), ")
+            .append(elements.getConstantExpression(route.path())).append(", ")
+            .append(reference).append(", java.util.List.of()");
+
+        if (route.timeoutMillis() >= 0) {
+          source.append(", java.time.Duration.ofMillis(").append(route.timeoutMillis())
+              .append("L)");
+        }
+
+        source.append(");\n");
+      }
+    }
+
+    source.append("  }\n").append("}\n");
+
+    try (Writer writer = processingEnv.getFiler()
+        .createSourceFile(qualifiedName, routesClass).openWriter()) {
+      writer.write(source.toString());
+    }
+  }
+
+  /**
+   * Derive the registrar's simple name from the routes class's, flattening any enclosing classes.
+   * Enclosing classes are joined by `$$`, which no class name written by hand contains, such that
+   * a nested Api.Users and a top-level Api_Users map to distinct registrars.
+   *
+   * <p>
+   * e.g. Api.Users => Api$$Users_MugRoutes
+   * </p>
+   *
+   * @param routesClass The routes class.
+   * @return The registrar's simple name.
+   */
+  private static String registrarSimpleName(final TypeElement routesClass) {
+    final StringBuilder name = new StringBuilder(routesClass.getSimpleName());
+
+    for (Element e = routesClass.getEnclosingElement(); e instanceof TypeElement;
+        e = e.getEnclosingElement()) {
+      name.insert(0, "$$").insert(0, e.getSimpleName());
+    }
+
+    return name.append(RouteRegistrar.SUFFIX).toString();
+  }
+}
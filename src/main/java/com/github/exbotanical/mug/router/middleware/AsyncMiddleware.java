@@ -0,0 +1,37 @@
+package com.github.exbotanical.mug.router.middleware;
+
+import com.github.exbotanical.mug.router.AsyncRouteHandler;
+import com.github.exbotanical.mug.router.RouteHandler;
+
+/**
+ * A Middleware over asynchronous handlers. Its post-processing is chained onto the next handler's
+ * CompletionStage, rather than run as soon as the next handler returns, and so sees the response
+ * once it is complete.
+ *
+ * <p>
+ * Being a Middleware, an AsyncMiddleware is registered as any other, and may be mixed with
+ * synchronous middlewares and handlers. The Router composes every chain with `handleAsync`;
+ * synchronous handlers are adapted to complete their stage before returning.
+ * </p>
+ */
+@FunctionalInterface
+public interface AsyncMiddleware extends Middleware {
+  /**
+   * Wrap the next handler in the chain.
+   *
+   * @param handler The next handler.
+   * @return The wrapped handler.
+   */
+  AsyncRouteHandler handleAsync(AsyncRouteHandler handler);
+
+  /**
+   * Wrap a synchronous handler, blocking until the wrapped chain completes. The Router never calls
+   * this method; it exists such that the middleware may be composed by hand.
+   */
+  @Override
+  default RouteHandler handle(final RouteHandler handler) {
+    final AsyncRouteHandler composed = handleAsync(AsyncRouteHandler.of(handler));
+
+    return (exchange, context) -> AsyncRouteHandler.await(composed.handleAsync(exchange, context));
+  }
+}
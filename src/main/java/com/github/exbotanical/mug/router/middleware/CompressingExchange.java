@@ -0,0 +1,275 @@
+package com.github.exbotanical.mug.router.middleware;
+
+import com.github.exbotanical.mug.files.ContentEncoding;
+import com.github.exbotanical.mug.server.ForwardingExchange;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An HttpExchange that gzip-compresses its response body where the client accepts gzip and the
+ * CompressionMiddleware's content-type allowlist and size threshold allow, delegating all else to
+ * the exchange it wraps.
+ *
+ * <p>
+ * The decision is made upon `sendResponseHeaders`. A response of known length is compressed if at
+ * least the threshold in length. A response of unknown length is held in a buffer of the
+ * threshold's size: if it overflows, or is flushed, the response is compressed; if it does not, the
+ * response is sent as-is, with its length now known.
+ * </p>
+ *
+ * <p>
+ * The wrapped exchange's response body stream is replaced with this exchange's, such that closing
+ * either exchange completes the response.
+ * </p>
+ */
+final class CompressingExchange extends ForwardingExchange {
+  private static final String CONTENT_ENCODING = "Content-Encoding";
+
+  private static final String VARY = "Vary";
+
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+  private final CompressionMiddleware middleware;
+
+  private final boolean acceptsGzip;
+
+  /**
+   * The wrapped exchange's original response body stream.
+   */
+  private final OutputStream raw;
+
+  private final Body body = new Body();
+
+  private int responseCode = -1;
+
+  CompressingExchange(final HttpExchange exchange, final CompressionMiddleware middleware) {
+    super(exchange);
+    this.middleware = middleware;
+    this.acceptsGzip =
+        ContentEncoding.acceptsGzip(exchange.getRequestHeaders().getFirst(ACCEPT_ENCODING));
+    this.raw = exchange.getResponseBody();
+
+    exchange.setStreams(null, body);
+  }
+
+  @Override
+  public void sendResponseHeaders(final int status, final long responseLength)
+      throws IOException {
+    if (responseCode >= 0) {
+      throw new IOException("headers already sent");
+    }
+
+    responseCode = status;
+
+    if (!isCompressible(status, responseLength)) {
+      body.mode = Mode.IDENTITY;
+      exchange.sendResponseHeaders(status, responseLength);
+      return;
+    }
+
+    addVary();
+
+    if (!acceptsGzip || responseLength > 0 && responseLength < middleware.minSize()) {
+      body.mode = Mode.IDENTITY;
+      exchange.sendResponseHeaders(status, responseLength);
+    } else if (responseLength > 0) {
+      body.compress();
+    } else {
+      body.mode = Mode.BUFFERING;
+    }
+  }
+
+  /**
+   * Complete the response body, sending any response held in the buffer, without closing the
+   * underlying stream.
+   */
+  void finish() throws IOException {
+    body.finish();
+  }
+
+  /**
+   * Release the resources held for the response body, without completing it.
+   */
+  void abandon() {
+    body.abandon();
+  }
+
+  /**
+   * Whether the response is a candidate for compression, regardless of whether the client accepts
+   * it: it has a body, is not already encoded, and is of an allowed content type.
+   */
+  private boolean isCompressible(final int status, final long responseLength) {
+    if (responseLength < 0 || status < 200 || status == 204 || status == 304
+        || "HEAD".equals(exchange.getRequestMethod())) {
+      return false;
+    }
+
+    final Headers headers = exchange.getResponseHeaders();
+
+    return !headers.containsKey(CONTENT_ENCODING)
+        && middleware.isCompressible(headers.getFirst("Content-Type"));
+  }
+
+  private void addVary() {
+    final Headers headers = exchange.getResponseHeaders();
+    final String vary = headers.getFirst(VARY);
+
+    if (vary == null) {
+      headers.set(VARY, ACCEPT_ENCODING);
+    } else if (!vary.equals("*") && !vary.toLowerCase().contains("accept-encoding")) {
+      headers.set(VARY, vary + ", " + ACCEPT_ENCODING);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      body.finish();
+    } catch (IOException e) {
+      body.abandon();
+    }
+
+    exchange.close();
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  /**
+   * A transferred file would bypass compression.
+   */
+  @Override
+  public boolean canTransferFile() {
+    return false;
+  }
+
+  private enum Mode {
+    /**
+     * Headers are yet to be sent.
+     */
+    NONE,
+
+    /**
+     * A response of unknown length is held until it exceeds the threshold.
+     */
+    BUFFERING,
+
+    IDENTITY,
+
+    COMPRESSING,
+
+    FINISHED
+  }
+
+  private final class Body extends OutputStream {
+    private Mode mode = Mode.NONE;
+
+    private byte[] buffer;
+
+    private int count;
+
+    private GzipStream gzip;
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      switch (mode) {
+        case BUFFERING -> {
+          if (buffer == null) {
+            buffer = new byte[middleware.minSize()];
+          }
+
+          if (len <= buffer.length - count) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+          } else {
+            compress();
+            gzip.write(b, off, len);
+          }
+        }
+        case COMPRESSING -> gzip.write(b, off, len);
+        case FINISHED -> throw new IOException("stream closed");
+        default -> raw.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (mode == Mode.BUFFERING) {
+        if (count == 0) {
+          return;
+        }
+
+        compress();
+      }
+
+      if (mode == Mode.COMPRESSING) {
+        gzip.flush();
+      } else {
+        raw.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        finish();
+      } finally {
+        raw.close();
+      }
+    }
+
+    /**
+     * Send the response headers for a compressed body, followed by anything buffered so far.
+     */
+    void compress() throws IOException {
+      final Headers headers = exchange.getResponseHeaders();
+      headers.set(CONTENT_ENCODING, "gzip");
+      headers.remove("Content-Length");
+
+      exchange.sendResponseHeaders(responseCode, 0);
+      gzip = new GzipStream(raw, middleware.pool());
+      mode = Mode.COMPRESSING;
+
+      if (count > 0) {
+        gzip.write(buffer, 0, count);
+        count = 0;
+      }
+    }
+
+    void finish() throws IOException {
+      switch (mode) {
+        case BUFFERING -> {
+          mode = Mode.FINISHED;
+          exchange.sendResponseHeaders(responseCode, count == 0 ? -1 : count);
+          if (count > 0) {
+            raw.write(buffer, 0, count);
+          }
+        }
+        case COMPRESSING -> {
+          mode = Mode.FINISHED;
+          gzip.finish();
+        }
+        case IDENTITY -> mode = Mode.FINISHED;
+        default -> {
+        }
+      }
+    }
+
+    void abandon() {
+      if (gzip != null) {
+        gzip.abandon();
+      }
+
+      mode = Mode.FINISHED;
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package com.github.exbotanical.mug.router.middleware;
+
+import com.github.exbotanical.mug.files.MimeTypes;
+import com.github.exbotanical.mug.router.AsyncRouteHandler;
+import com.github.exbotanical.mug.router.RouteHandler;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.Deflater;
+
+/**
+ * A Middleware that gzip-compresses response bodies for clients whose `Accept-Encoding` allows it.
+ *
+ * <p>
+ * Only responses of an allowed content type, and at least `minSize` bytes in length, are
+ * compressed. Compressed output is streamed as the handler writes it, in chunked transfer-coding:
+ * no more than `minSize` bytes of a response are held at once, and only while its length is yet
+ * unknown. Responses that already carry a `Content-Encoding` are left as they are, as are HEAD
+ * requests.
+ * </p>
+ *
+ * <p>
+ * Deflaters are reused from a bounded pool, rather than allocated and finalized per response.
+ * </p>
+ *
+ * <p>
+ * Around an AsyncRouteHandler, the response is completed once the handler's stage completes.
+ * </p>
+ */
+public final class CompressionMiddleware implements AsyncMiddleware {
+  private final int minSize;
+
+  /**
+   * The allowed media types, lowercased; those ending in `/*` match a whole top-level type. If
+   * null, MimeTypes.isCompressible decides.
+   */
+  private final String[] contentTypes;
+
+  private final DeflaterPool pool;
+
+  private CompressionMiddleware(final Builder builder) {
+    if (builder.minSize < 1) {
+      throw new IllegalArgumentException("minSize must be positive; got " + builder.minSize);
+    }
+
+    if (builder.level < Deflater.BEST_SPEED || builder.level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("level must be between 1 and 9; got " + builder.level);
+    }
+
+    if (builder.poolSize < 1) {
+      throw new IllegalArgumentException("poolSize must be positive; got " + builder.poolSize);
+    }
+
+    this.minSize = builder.minSize;
+    this.contentTypes = builder.contentTypes;
+    this.pool = new DeflaterPool(builder.level, builder.poolSize);
+  }
+
+  @Override
+  public RouteHandler handle(final RouteHandler handler) {
+    return (exchange, context) -> {
+      final CompressingExchange compressing = new CompressingExchange(exchange, this);
+
+      try {
+        handler.handle(compressing, context);
+      } catch (Throwable e) {
+        compressing.abandon();
+        throw e;
+      }
+
+      compressing.finish();
+    };
+  }
+
+  @Override
+  public AsyncRouteHandler handleAsync(final AsyncRouteHandler handler) {
+    return (exchange, context) -> {
+      final CompressingExchange compressing = new CompressingExchange(exchange, this);
+
+      final CompletionStage<Void> stage;
+      try {
+        stage = handler.handleAsync(compressing, context);
+      } catch (Throwable e) {
+        compressing.abandon();
+        throw e;
+      }
+
+      if (stage == AsyncRouteHandler.COMPLETED) {
+        compressing.finish();
+        return stage;
+      }
+
+      final CompletableFuture<Void> finished = new CompletableFuture<>();
+      stage.whenComplete((ignored, e) -> {
+        if (e != null) {
+          compressing.abandon();
+          finished.completeExceptionally(e);
+          return;
+        }
+
+        try {
+          compressing.finish();
+          finished.complete(null);
+        } catch (IOException io) {
+          compressing.abandon();
+          finished.completeExceptionally(io);
+        }
+      });
+
+      return finished;
+    };
+  }
+
+  int minSize() {
+    return minSize;
+  }
+
+  DeflaterPool pool() {
+    return pool;
+  }
+
+  /**
+   * Whether responses of the given content type may be compressed.
+   *
+   * @param type The media type, with or without parameters; may be null.
+   */
+  boolean isCompressible(final String type) {
+    if (contentTypes == null) {
+      return MimeTypes.isCompressible(type);
+    }
+
+    if (type == null) {
+      return false;
+    }
+
+    int end = type.indexOf(';');
+    if (end < 0) {
+      end = type.length();
+    }
+    while (end > 0 && type.charAt(end - 1) == ' ') {
+      end--;
+    }
+
+    for (final String allowed : contentTypes) {
+      if (allowed.endsWith("/*")) {
+        if (type.regionMatches(true, 0, allowed, 0, allowed.length() - 1)) {
+          return true;
+        }
+      } else if (end == allowed.length() && type.regionMatches(true, 0, allowed, 0, end)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Builds a CompressionMiddleware.
+   */
+  public static class Builder {
+    int minSize = 1024;
+
+    String[] contentTypes;
+
+    int level = 6;
+
+    int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+    public Builder() {
+    }
+
+    /**
+     * Set the minimum length, in bytes, of a response to be compressed. Defaults to 1024.
+     */
+    public Builder minSize(final int minSize) {
+      this.minSize = minSize;
+      return this;
+    }
+
+    /**
+     * Set the media types of the responses to be compressed, e.g. `application/json`, or `text/*`
+     * for all text types. Defaults to text, and those of MimeTypes.isCompressible.
+     */
+    public Builder contentTypes(final String... contentTypes) {
+      this.contentTypes = new String[contentTypes.length];
+      for (int i = 0; i < contentTypes.length; i++) {
+        this.contentTypes[i] = contentTypes[i].trim().toLowerCase(Locale.ROOT);
+      }
+
+      return this;
+    }
+
+    /**
+     * Set the compression level, from 1 (fastest) to 9 (smallest). Defaults to 6.
+     */
+    public Builder level(final int level) {
+      this.level = level;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of idle Deflaters retained for reuse. Defaults to twice the number of
+     * processors.
+     */
+    public Builder poolSize(final int poolSize) {
+      this.poolSize = poolSize;
+      return this;
+    }
+
+    /**
+     * Build the CompressionMiddleware instance with the provided options.
+     *
+     * @return CompressionMiddleware instance.
+     * @throws IllegalArgumentException The options are out of range.
+     */
+    public CompressionMiddleware build() {
+      return new CompressionMiddleware(this);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.github.exbotanical.mug.router.middleware;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of raw (`nowrap`) Deflaters at a fixed compression level. Each Deflater holds
+ * several hundred kilobytes of native zlib state, which is costly both to allocate and, absent an
+ * explicit `end`, to reclaim; pooling them bounds that cost to the pool's capacity.
+ */
+final class DeflaterPool {
+  private final int level;
+
+  private final ArrayBlockingQueue<Deflater> idle;
+
+  /**
+   * Constructor.
+   *
+   * @param level    The compression level of the pooled Deflaters.
+   * @param capacity The maximum number of idle Deflaters retained.
+   */
+  DeflaterPool(final int level, final int capacity) {
+    this.level = level;
+    this.idle = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /**
+   * Take an idle Deflater, or create one if none is idle.
+   */
+  Deflater acquire() {
+    final Deflater deflater = idle.poll();
+
+    return deflater != null ? deflater : new Deflater(level, true);
+  }
+
+  /**
+   * Reset a Deflater and return it to the pool, or free it if the pool is full.
+   */
+  void release(final Deflater deflater) {
+    deflater.reset();
+
+    if (!idle.offer(deflater)) {
+      deflater.end();
+    }
+  }
+
+  /**
+   * The number of idle Deflaters in the pool.
+   */
+  int idle() {
+    return idle.size();
+  }
+}
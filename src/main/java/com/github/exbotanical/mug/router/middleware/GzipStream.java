@@ -0,0 +1,110 @@
+package com.github.exbotanical.mug.router.middleware;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A gzip (RFC 1952) stream over a Deflater borrowed from a DeflaterPool, which is returned once the
+ * stream is finished or abandoned. `flush` emits all input written so far (a zlib sync flush), so
+ * streamed responses reach the client as they are written.
+ */
+final class GzipStream extends DeflaterOutputStream {
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  /**
+   * The member header: magic, the deflate method, no flags, no modification time, no extra flags
+   * and an unknown operating system.
+   */
+  private static final byte[] HEADER = {
+      0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+  };
+
+  private final DeflaterPool pool;
+
+  private final CRC32 crc = new CRC32();
+
+  private boolean finished;
+
+  GzipStream(final OutputStream out, final DeflaterPool pool) throws IOException {
+    super(out, pool.acquire(), BUFFER_SIZE, true);
+    this.pool = pool;
+
+    try {
+      out.write(HEADER);
+    } catch (IOException e) {
+      abandon();
+      throw e;
+    }
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if (finished) {
+      throw new IOException("stream finished");
+    }
+
+    super.write(b, off, len);
+    crc.update(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (finished) {
+      out.flush();
+      return;
+    }
+
+    super.flush();
+  }
+
+  /**
+   * Write the remaining compressed data and the trailer, and return the Deflater to the pool,
+   * without closing the underlying stream.
+   */
+  @Override
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+
+    try {
+      super.finish();
+      writeTrailer();
+    } finally {
+      abandon();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Return the Deflater to the pool without completing the stream, e.g. once the response has
+   * failed.
+   */
+  void abandon() {
+    if (!finished) {
+      finished = true;
+      pool.release(def);
+    }
+  }
+
+  private void writeTrailer() throws IOException {
+    final long checksum = crc.getValue();
+    final long size = def.getBytesRead();
+
+    out.write(new byte[] {
+        (byte) checksum, (byte) (checksum >> 8), (byte) (checksum >> 16), (byte) (checksum >> 24),
+        (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+    });
+  }
+}
@@ -0,0 +1,18 @@
+package com.github.exbotanical.mug.server;
+
+/**
+ * A point-in-time snapshot of a ConcurrencyLimiter's state.
+ *
+ * @param limit      The current limit on requests in flight.
+ * @param inFlight   The number of admitted requests not yet completed, including those queued.
+ * @param queueDepth The number of admitted requests waiting on the server's executor.
+ * @param shed       The number of requests rejected with 503 Service Unavailable.
+ */
+public record AdmissionStats(int limit, int inFlight, int queueDepth, long shed) {
+
+  @Override
+  public String toString() {
+    return String.format("AdmissionStats { limit: %d, inFlight: %d, queueDepth: %d, shed: %d }",
+        limit, inFlight, queueDepth, shed);
+  }
+}
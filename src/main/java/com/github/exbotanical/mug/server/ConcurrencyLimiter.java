@@ -0,0 +1,386 @@
+package com.github.exbotanical.mug.server;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * An admission filter that bounds the number of requests in flight, shedding the excess with an
+ * immediate 503 Service Unavailable rather than letting it queue.
+ *
+ * <p>
+ * Added to a Server, the limiter admits each request as the server accepts it, before it is handed
+ * to the executor: requests waiting on the executor count towards the limit, and those shed never
+ * join its queue, but are answered on the accepting thread. A request is in flight, and its latency
+ * measured, from its acceptance until its exchange is closed, such that the response of an
+ * asynchronous handler counts until its stage completes. Used as a Filter by itself, the limiter
+ * admits requests as they reach it instead.
+ * </p>
+ *
+ * <p>
+ * The limit adapts to observed latency by additive increase, multiplicative decrease (AIMD): each
+ * request that completes within `latencyThreshold` while the server is at least half-utilized
+ * raises the limit by one, whereas a request that exceeds it cuts the limit by `backoffRatio`. As
+ * with TCP's congestion window, the limit is cut at most once per round trip: a slow request
+ * admitted before the last cut reflects the limit before it, and is not counted again. When a
+ * downstream slows, the limit thus contracts toward the concurrency it can actually sustain, and
+ * recovers as latency does.
+ * </p>
+ */
+public class ConcurrencyLimiter extends Filter {
+  /**
+   * Marks a request accepted in excess of the limit, to be shed upon reaching the filter.
+   */
+  private static final Permit SHED = new Permit(0, 0);
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final double backoffRatio;
+
+  private final long latencyThresholdNanos;
+
+  /**
+   * The current limit.
+   */
+  private final AtomicInteger limit;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final LongAdder shed = new LongAdder();
+
+  /**
+   * The time at which the limit was last cut.
+   */
+  private final AtomicLong lastBackoff = new AtomicLong(System.nanoTime());
+
+  /**
+   * The permit of the request whose task is running on the current thread, until the filter
+   * claims it.
+   */
+  private final ThreadLocal<Permit> accepted = new ThreadLocal<>();
+
+  /**
+   * Resolves the number of requests accepted by the server but waiting on its executor. Installed
+   * by the Server to which this limiter is added.
+   */
+  private volatile IntSupplier queueDepth = () -> 0;
+
+  private ConcurrencyLimiter(final Builder builder) {
+    if (builder.minLimit < 1 || builder.maxLimit < builder.minLimit
+        || builder.initialLimit < builder.minLimit || builder.initialLimit > builder.maxLimit) {
+      throw new IllegalArgumentException(String.format(
+          "limits must satisfy 1 <= min <= initial <= max; got min: %d, initial: %d, max: %d",
+          builder.minLimit, builder.initialLimit, builder.maxLimit));
+    }
+
+    if (!(builder.backoffRatio > 0 && builder.backoffRatio < 1)) {
+      throw new IllegalArgumentException(
+          "backoffRatio must be between 0 and 1 exclusive; got " + builder.backoffRatio);
+    }
+
+    if (builder.latencyThreshold.isNegative() || builder.latencyThreshold.isZero()) {
+      throw new IllegalArgumentException(
+          "latencyThreshold must be positive; got " + builder.latencyThreshold);
+    }
+
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.backoffRatio = builder.backoffRatio;
+    this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+    this.limit = new AtomicInteger(builder.initialLimit);
+  }
+
+  @Override
+  public void doFilter(final HttpExchange exchange, final Chain chain) throws IOException {
+    final Permit permit = claim();
+    if (permit == null) {
+      exchange.sendResponseHeaders(Status.SERVICE_UNAVAILABLE.value, -1);
+      exchange.close();
+
+      return;
+    }
+
+    boolean returned = false;
+
+    try {
+      chain.doFilter(new LimitedExchange(exchange, permit));
+      returned = true;
+    } finally {
+      // A request that failed says nothing of the server's capacity.
+      if (!returned) {
+        release(permit, false);
+      }
+    }
+  }
+
+  @Override
+  public String description() {
+    return "ConcurrencyLimiter";
+  }
+
+  /**
+   * Take a snapshot of the limiter's state.
+   *
+   * @return An AdmissionStats record.
+   */
+  public AdmissionStats stats() {
+    return new AdmissionStats(limit.get(), inFlight.get(), queueDepth.getAsInt(), shed.sum());
+  }
+
+  void setQueueDepth(final IntSupplier queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+
+  /**
+   * Wrap a server's executor such that requests are admitted as they are accepted. A request in
+   * excess of the limit is not handed to the executor, but run on the calling thread, to be shed
+   * upon reaching this filter.
+   *
+   * @param executor The executor, or null where the server runs requests on its own thread.
+   * @return The admitting executor, or null if `executor` is null, in which case requests are
+   *     admitted upon reaching this filter.
+   */
+  Executor admit(final Executor executor) {
+    if (executor == null) {
+      return null;
+    }
+
+    return task -> {
+      final Permit permit = tryAcquire();
+      if (permit == null) {
+        shed.increment();
+        run(task, SHED);
+
+        return;
+      }
+
+      try {
+        executor.execute(() -> run(task, permit));
+      } catch (RejectedExecutionException e) {
+        release(permit, false);
+        throw e;
+      }
+    };
+  }
+
+  /**
+   * Run an accepted request's task, making its permit available to the filter. A permit the filter
+   * did not claim, e.g. where the request was malformed or matched no context, is released.
+   */
+  private void run(final Runnable task, final Permit permit) {
+    accepted.set(permit);
+
+    try {
+      task.run();
+    } finally {
+      final Permit unclaimed = accepted.get();
+      accepted.remove();
+
+      if (unclaimed != null && unclaimed != SHED) {
+        release(unclaimed, false);
+      }
+    }
+  }
+
+  /**
+   * Claim the permit of the request accepted on the current thread, or, where it was not accepted
+   * through `admit`, admit it now.
+   *
+   * @return The permit, or null if the request is to be shed.
+   */
+  private Permit claim() {
+    final Permit permit = accepted.get();
+    if (permit == null) {
+      final Permit admitted = tryAcquire();
+      if (admitted == null) {
+        shed.increment();
+      }
+
+      return admitted;
+    }
+
+    accepted.remove();
+
+    return permit == SHED ? null : permit;
+  }
+
+  /**
+   * Admit a request if the number in flight is below the limit.
+   *
+   * @return The request's permit, or null if it was not admitted.
+   */
+  private Permit tryAcquire() {
+    while (true) {
+      final int current = inFlight.get();
+      if (current >= limit.get()) {
+        return null;
+      }
+
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return new Permit(System.nanoTime(), current + 1);
+      }
+    }
+  }
+
+  /**
+   * Release a request's permit, once only.
+   *
+   * @param permit    The permit.
+   * @param completed Whether the request completed, such that its latency is to be sampled.
+   */
+  private void release(final Permit permit, final boolean completed) {
+    if (!permit.released.compareAndSet(false, true)) {
+      return;
+    }
+
+    inFlight.decrementAndGet();
+
+    if (completed) {
+      onSample(permit);
+    }
+  }
+
+  /**
+   * Adjust the limit for a completed request.
+   *
+   * @param permit The request's permit.
+   */
+  private void onSample(final Permit permit) {
+    final long now = System.nanoTime();
+
+    if (now - permit.start > latencyThresholdNanos) {
+      // Requests admitted before the last cut were slowed under the limit preceding it.
+      final long last = lastBackoff.get();
+      if (permit.start - last >= 0 && lastBackoff.compareAndSet(last, now)) {
+        limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+      }
+    } else {
+      // Only grow a limit that is being exercised, lest an idle server drift to the maximum.
+      limit.updateAndGet(current -> permit.inFlight * 2 >= current
+          ? Math.min(maxLimit, current + 1)
+          : current);
+    }
+  }
+
+  /**
+   * An admitted request's claim on the limit.
+   */
+  private static final class Permit {
+    /**
+     * The time at which the request was admitted.
+     */
+    final long start;
+
+    /**
+     * The number in flight upon its admission, including the request.
+     */
+    final int inFlight;
+
+    final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(final long start, final int inFlight) {
+      this.start = start;
+      this.inFlight = inFlight;
+    }
+  }
+
+  /**
+   * An HttpExchange that releases its request's permit once closed.
+   */
+  private final class LimitedExchange extends ForwardingExchange {
+    private final Permit permit;
+
+    LimitedExchange(final HttpExchange exchange, final Permit permit) {
+      super(exchange);
+      this.permit = permit;
+    }
+
+    @Override
+    public void close() {
+      try {
+        super.close();
+      } finally {
+        release(permit, true);
+      }
+    }
+  }
+
+  /**
+   * A builder for ConcurrencyLimiter.
+   */
+  public static class Builder {
+    int initialLimit = 20;
+
+    int minLimit = 1;
+
+    int maxLimit = 1000;
+
+    double backoffRatio = 0.9;
+
+    Duration latencyThreshold = Duration.ofSeconds(1);
+
+    public Builder() {
+    }
+
+    /**
+     * Set the limit with which to start. Defaults to 20.
+     */
+    public Builder initialLimit(final int initialLimit) {
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    /**
+     * Set the floor below which the limit will not decrease. Defaults to 1.
+     */
+    public Builder minLimit(final int minLimit) {
+      this.minLimit = minLimit;
+      return this;
+    }
+
+    /**
+     * Set the ceiling above which the limit will not increase. Defaults to 1000.
+     */
+    public Builder maxLimit(final int maxLimit) {
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    /**
+     * Set the factor by which to cut the limit upon a slow request. Defaults to 0.9.
+     */
+    public Builder backoffRatio(final double backoffRatio) {
+      this.backoffRatio = backoffRatio;
+      return this;
+    }
+
+    /**
+     * Set the latency beyond which a request is considered slow. Defaults to 1 second.
+     */
+    public Builder latencyThreshold(final Duration latencyThreshold) {
+      this.latencyThreshold = latencyThreshold;
+      return this;
+    }
+
+    /**
+     * Build the ConcurrencyLimiter instance with the provided options.
+     *
+     * @return ConcurrencyLimiter instance.
+     * @throws IllegalArgumentException The options are inconsistent.
+     */
+    public ConcurrencyLimiter build() {
+      return new ConcurrencyLimiter(this);
+    }
+  }
+}
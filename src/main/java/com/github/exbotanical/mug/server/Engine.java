@@ -0,0 +1,41 @@
+package com.github.exbotanical.mug.server;
+
+import com.github.exbotanical.mug.server.nio.NioHttpServer;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * The HTTP server implementations on which a Server may run.
+ */
+public enum Engine {
+  /**
+   * The JDK's built-in `com.sun.net.httpserver` implementation.
+   */
+  JDK {
+    @Override
+    HttpServer create(final InetSocketAddress address) throws IOException {
+      return HttpServer.create(address, 0);
+    }
+  },
+
+  /**
+   * A NioHttpServer: an HTTP/1.1 implementation multiplexing keep-alive connections over a few
+   * selector threads.
+   */
+  NIO {
+    @Override
+    HttpServer create(final InetSocketAddress address) throws IOException {
+      return NioHttpServer.create(address, 0);
+    }
+  };
+
+  /**
+   * Create an HttpServer bound to the given address.
+   *
+   * @param address The address at which to listen.
+   * @return The bound, unstarted HttpServer.
+   * @throws IOException The address could not be bound.
+   */
+  abstract HttpServer create(InetSocketAddress address) throws IOException;
+}
@@ -0,0 +1,27 @@
+package com.github.exbotanical.mug.server;
+
+import java.time.Duration;
+
+/**
+ * A point-in-time snapshot of a Server's request execution counters.
+ *
+ * @param virtualThreads        Whether requests run on virtual threads.
+ * @param maxConcurrentRequests The maximum number of requests handled at once, or 0 if unbounded.
+ * @param active                The number of requests currently being handled.
+ * @param queued                The number of requests waiting for capacity.
+ * @param completed             The number of requests handled.
+ * @param pinnedEvents          The number of times a virtual thread blocked while pinned to its
+ *                              carrier thread for longer than 20ms.
+ * @param pinnedTime            The total duration of those pinned events.
+ */
+public record ExecutionStats(boolean virtualThreads, int maxConcurrentRequests, int active,
+                             int queued, long completed, long pinnedEvents, Duration pinnedTime) {
+
+  @Override
+  public String toString() {
+    return String.format(
+        "ExecutionStats { virtualThreads: %b, maxConcurrentRequests: %d, active: %d, queued: %d,"
+            + " completed: %d, pinnedEvents: %d, pinnedTime: %s }",
+        virtualThreads, maxConcurrentRequests, active, queued, completed, pinnedEvents, pinnedTime);
+  }
+}
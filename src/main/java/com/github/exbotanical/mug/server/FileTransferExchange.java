@@ -0,0 +1,33 @@
+package com.github.exbotanical.mug.server;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Implemented by HttpExchanges able to write a file to the response body with
+ * `FileChannel.transferTo`, such that its bytes pass from the file system to the socket without
+ * being copied through the JVM (e.g. via `sendfile` on Linux).
+ */
+public interface FileTransferExchange {
+  /**
+   * Whether `transferFile` may be used. It may not where a filter has replaced the response body
+   * stream, e.g. to compress the body, as the file's bytes would bypass it.
+   *
+   * @return true if the response body is written directly to the connection.
+   */
+  boolean canTransferFile();
+
+  /**
+   * Write a region of a file to the response body, after any bytes already written to the response
+   * body stream. The response headers must have been sent with a fixed length accommodating the
+   * region. The exchange takes ownership of the file, and closes it once written, or if the
+   * transfer fails.
+   *
+   * @param file     The file.
+   * @param position The position in the file at which the region starts.
+   * @param count    The length of the region.
+   * @throws IOException The response headers were not sent with a fixed length, the region
+   *                     exceeds it, or the connection is closed.
+   */
+  void transferFile(FileChannel file, long position, long count) throws IOException;
+}
@@ -0,0 +1,139 @@
+package com.github.exbotanical.mug.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+
+/**
+ * An HttpExchange that forwards every method to another, for filters and middlewares that wrap an
+ * exchange to intercept some of them. Where the wrapped exchange is a FileTransferExchange, so is
+ * this one.
+ */
+public abstract class ForwardingExchange extends HttpExchange implements FileTransferExchange {
+  /**
+   * The wrapped exchange.
+   */
+  protected final HttpExchange exchange;
+
+  protected ForwardingExchange(final HttpExchange exchange) {
+    this.exchange = exchange;
+  }
+
+  /**
+   * Retrieve the wrapped exchange.
+   *
+   * @return The exchange to which this one forwards.
+   */
+  public HttpExchange unwrap() {
+    return exchange;
+  }
+
+  @Override
+  public boolean canTransferFile() {
+    return exchange instanceof FileTransferExchange transfer && transfer.canTransferFile();
+  }
+
+  @Override
+  public void transferFile(final FileChannel file, final long position, final long count)
+      throws IOException {
+    if (!(exchange instanceof FileTransferExchange transfer)) {
+      file.close();
+      throw new IOException("file transfer unsupported");
+    }
+
+    transfer.transferFile(file, position, count);
+  }
+
+  @Override
+  public Headers getRequestHeaders() {
+    return exchange.getRequestHeaders();
+  }
+
+  @Override
+  public Headers getResponseHeaders() {
+    return exchange.getResponseHeaders();
+  }
+
+  @Override
+  public URI getRequestURI() {
+    return exchange.getRequestURI();
+  }
+
+  @Override
+  public String getRequestMethod() {
+    return exchange.getRequestMethod();
+  }
+
+  @Override
+  public HttpContext getHttpContext() {
+    return exchange.getHttpContext();
+  }
+
+  @Override
+  public void close() {
+    exchange.close();
+  }
+
+  @Override
+  public InputStream getRequestBody() {
+    return exchange.getRequestBody();
+  }
+
+  @Override
+  public OutputStream getResponseBody() {
+    return exchange.getResponseBody();
+  }
+
+  @Override
+  public void sendResponseHeaders(final int status, final long responseLength)
+      throws IOException {
+    exchange.sendResponseHeaders(status, responseLength);
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() {
+    return exchange.getRemoteAddress();
+  }
+
+  @Override
+  public int getResponseCode() {
+    return exchange.getResponseCode();
+  }
+
+  @Override
+  public InetSocketAddress getLocalAddress() {
+    return exchange.getLocalAddress();
+  }
+
+  @Override
+  public String getProtocol() {
+    return exchange.getProtocol();
+  }
+
+  @Override
+  public Object getAttribute(final String name) {
+    return exchange.getAttribute(name);
+  }
+
+  @Override
+  public void setAttribute(final String name, final Object value) {
+    exchange.setAttribute(name, value);
+  }
+
+  @Override
+  public void setStreams(final InputStream i, final OutputStream o) {
+    exchange.setStreams(i, o);
+  }
+
+  @Override
+  public HttpPrincipal getPrincipal() {
+    return exchange.getPrincipal();
+  }
+}
@@ -0,0 +1,123 @@
+package com.github.exbotanical.mug.server;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Counts the occasions on which one of a server's virtual threads blocked while pinned to its
+ * carrier thread (e.g. inside a `synchronized` block), as reported by the JDK Flight Recorder's
+ * `jdk.VirtualThreadPinned` event.
+ *
+ * <p>
+ * The event is emitted for every virtual thread in the JVM; only those of threads whose names
+ * bear the server's prefix are counted.
+ * </p>
+ *
+ * <p>
+ * This class references `jdk.jfr`, which a runtime image may omit; resolve it only via `start`.
+ * </p>
+ */
+final class PinnedThreadMonitor implements AutoCloseable {
+  /**
+   * The JFR event emitted when a pinned virtual thread parks.
+   */
+  static final String EVENT = "jdk.VirtualThreadPinned";
+
+  /**
+   * The minimum duration for which a virtual thread must be pinned to be counted. This is the JDK's
+   * own default for the event.
+   */
+  static final Duration THRESHOLD = Duration.ofMillis(20);
+
+  private final RecordingStream stream;
+
+  /**
+   * The name prefix of the threads whose pinning is counted.
+   */
+  private final String prefix;
+
+  private final LongAdder events = new LongAdder();
+
+  private final LongAdder nanos = new LongAdder();
+
+  private PinnedThreadMonitor(final RecordingStream stream, final String prefix) {
+    this.stream = stream;
+    this.prefix = prefix;
+  }
+
+  /**
+   * Start monitoring pinned virtual threads.
+   *
+   * @param prefix The name prefix of the threads whose pinning is to be counted.
+   * @return The monitor, or null if the Flight Recorder is unavailable.
+   */
+  static PinnedThreadMonitor start(final String prefix) {
+    // Check for the module before this class's references to it are resolved; a runtime image
+    // need not include it.
+    if (ModuleLayer.boot().findModule("jdk.jfr").isEmpty()) {
+      return null;
+    }
+
+    try {
+      return startStream(prefix);
+    } catch (Exception | LinkageError e) {
+      // e.g. a security manager forbidding the recording.
+      return null;
+    }
+  }
+
+  private static PinnedThreadMonitor startStream(final String prefix) {
+    final RecordingStream stream = new RecordingStream();
+    final PinnedThreadMonitor monitor = new PinnedThreadMonitor(stream, prefix);
+
+    stream.enable(EVENT).withThreshold(THRESHOLD);
+    stream.onEvent(EVENT, event -> {
+      final RecordedThread thread = event.getThread();
+
+      monitor.record(thread == null ? null : thread.getJavaName(), event.getDuration());
+    });
+    stream.startAsync();
+
+    return monitor;
+  }
+
+  /**
+   * Count a pinned event, if it occurred on one of the monitored threads.
+   *
+   * @param threadName The name of the thread that was pinned, or null if unknown.
+   * @param duration   The duration for which the thread was pinned.
+   */
+  void record(final String threadName, final Duration duration) {
+    if (threadName == null || !threadName.startsWith(prefix)) {
+      return;
+    }
+
+    events.increment();
+    nanos.add(duration.toNanos());
+  }
+
+  /**
+   * The number of pinned events observed.
+   *
+   * @return The event count.
+   */
+  long events() {
+    return events.sum();
+  }
+
+  /**
+   * The total time for which virtual threads were observed pinned.
+   *
+   * @return The total duration.
+   */
+  Duration duration() {
+    return Duration.ofNanos(nanos.sum());
+  }
+
+  @Override
+  public void close() {
+    stream.close();
+  }
+}
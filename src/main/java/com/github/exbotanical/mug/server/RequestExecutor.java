@@ -0,0 +1,180 @@
+package com.github.exbotanical.mug.server;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The executor on which a Server handles requests: one virtual thread per request where the
+ * runtime supports it, or else a pool of platform threads, optionally capped to a maximum number of
+ * concurrent requests.
+ */
+final class RequestExecutor implements Executor {
+  /**
+   * Denotes no limit on the number of concurrent requests.
+   */
+  static final int UNBOUNDED = 0;
+
+  /**
+   * Numbers each RequestExecutor, such that each names its threads distinctly.
+   */
+  private static final AtomicInteger EXECUTORS = new AtomicInteger();
+
+  private final ExecutorService delegate;
+
+  private final boolean virtual;
+
+  private final int maxConcurrentRequests;
+
+  /**
+   * Permits for concurrent requests, or null if the delegate itself bounds them (or they are
+   * unbounded).
+   */
+  private final Semaphore permits;
+
+  /**
+   * The pinned virtual thread monitor, or null if not monitoring.
+   */
+  private final PinnedThreadMonitor pinned;
+
+  private final AtomicInteger active = new AtomicInteger();
+
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final LongAdder completed = new LongAdder();
+
+  RequestExecutor(final ExecutorService delegate, final boolean virtual,
+                  final int maxConcurrentRequests, final PinnedThreadMonitor pinned) {
+    this.delegate = delegate;
+    this.virtual = virtual;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.pinned = pinned;
+    // Virtual threads are started unconditionally and cheaply, so they wait for a permit; a
+    // platform pool is instead sized to the limit and queues the excess itself.
+    this.permits = virtual && maxConcurrentRequests != UNBOUNDED
+        ? new Semaphore(maxConcurrentRequests)
+        : null;
+  }
+
+  /**
+   * Create a RequestExecutor, preferring virtual threads.
+   *
+   * @param maxConcurrentRequests The maximum number of requests to handle at once, or `UNBOUNDED`.
+   * @return The RequestExecutor.
+   * @throws IllegalArgumentException The maximum is negative.
+   */
+  static RequestExecutor create(final int maxConcurrentRequests) {
+    if (maxConcurrentRequests < 0) {
+      throw new IllegalArgumentException(
+          "maxConcurrentRequests must not be negative; got " + maxConcurrentRequests);
+    }
+
+    final String prefix = "mug-request-" + EXECUTORS.incrementAndGet() + "-";
+    final ExecutorService virtual = VirtualThreads.newExecutor(prefix);
+    if (virtual != null) {
+      return new RequestExecutor(virtual, true, maxConcurrentRequests, monitorPinning(prefix));
+    }
+
+    final ExecutorService platform = maxConcurrentRequests == UNBOUNDED
+        ? Executors.newCachedThreadPool()
+        : Executors.newFixedThreadPool(maxConcurrentRequests);
+
+    return new RequestExecutor(platform, false, maxConcurrentRequests, null);
+  }
+
+  /**
+   * Start monitoring the pinning of the threads with the given name prefix.
+   *
+   * @return The monitor, or null if the Flight Recorder is unavailable.
+   */
+  private static PinnedThreadMonitor monitorPinning(final String prefix) {
+    try {
+      return PinnedThreadMonitor.start(prefix);
+    } catch (LinkageError e) {
+      // The monitor, or the jdk.jfr classes it references, could not be resolved; go without.
+      return null;
+    }
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    queued.incrementAndGet();
+
+    try {
+      delegate.execute(() -> run(task));
+    } catch (RejectedExecutionException e) {
+      queued.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void run(final Runnable task) {
+    if (permits != null) {
+      permits.acquireUninterruptibly();
+    }
+
+    queued.decrementAndGet();
+    active.incrementAndGet();
+
+    try {
+      task.run();
+    } finally {
+      active.decrementAndGet();
+      completed.increment();
+
+      if (permits != null) {
+        permits.release();
+      }
+    }
+  }
+
+  /**
+   * Whether requests run on virtual threads.
+   *
+   * @return true if the delegate starts a virtual thread per request.
+   */
+  boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * The number of requests waiting for capacity.
+   *
+   * @return The number of queued requests.
+   */
+  int queued() {
+    return queued.get();
+  }
+
+  /**
+   * Take a snapshot of the executor's counters.
+   *
+   * @return An ExecutionStats record.
+   */
+  ExecutionStats stats() {
+    return new ExecutionStats(
+        virtual,
+        maxConcurrentRequests,
+        active.get(),
+        queued.get(),
+        completed.sum(),
+        pinned == null ? 0 : pinned.events(),
+        pinned == null ? Duration.ZERO : pinned.duration());
+  }
+
+  /**
+   * Stop accepting requests and release the executor's threads once those in flight complete.
+   */
+  void shutdown() {
+    delegate.shutdown();
+
+    if (pinned != null) {
+      pinned.close();
+    }
+  }
+}
@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * An HTTP server.
@@ -26,6 +27,26 @@ public class Server {
    */
   private final HttpContext ctx;
 
+  /**
+   * The executor created by `useVirtualThreads`, if any; the Server shuts it down upon `stop`.
+   */
+  private RequestExecutor requestExecutor;
+
+  /**
+   * The executor on which the engine handles requests where none is set, if it has one.
+   */
+  private final Executor engineExecutor;
+
+  /**
+   * The executor set on which requests are handled, or null for the engine's default.
+   */
+  private volatile Executor executor;
+
+  /**
+   * The ConcurrencyLimiter admitting requests to the executor, if any.
+   */
+  private ConcurrencyLimiter limiter;
+
   /**
    * Constructor. Initialize a new server.
    *
@@ -34,7 +55,21 @@ public class Server {
    * @throws IOException Server initialization failed.
    */
   public Server(final int port, final HttpHandler rootHandler) throws IOException {
-    this.instance = HttpServer.create(new InetSocketAddress(port), 0);
+    this(port, rootHandler, Engine.JDK);
+  }
+
+  /**
+   * Constructor. Initialize a new server on the given engine.
+   *
+   * @param port        The port number at which the server will listen.
+   * @param rootHandler The root HttpHandler to register.
+   * @param engine      The HTTP server implementation on which to run.
+   * @throws IOException Server initialization failed.
+   */
+  public Server(final int port, final HttpHandler rootHandler, final Engine engine)
+      throws IOException {
+    this.instance = engine.create(new InetSocketAddress(port));
+    this.engineExecutor = this.instance.getExecutor();
 
     this.ctx = this.instance.createContext(Path.ROOT.value, rootHandler);
   }
@@ -66,15 +101,138 @@ public class Server {
     filters.add(f);
   }
 
+  /**
+   * Register a global ConcurrencyLimiter to admit requests to all registered routes, shedding those
+   * in excess of its limit with 503 Service Unavailable. Requests are admitted as they are
+   * accepted, before they are handed to the executor, and the limiter precedes any other filter.
+   *
+   * @param limiter The ConcurrencyLimiter.
+   * @throws IllegalStateException The server has already been started.
+   * @implNote Requests waiting on the server's executor are reported in the limiter's queue depth
+   *     where the executor is that created by `useVirtualThreads`, or a ThreadPoolExecutor.
+   */
+  public void withConcurrencyLimit(final ConcurrencyLimiter limiter) {
+    this.instance.setExecutor(limiter.admit(executor != null ? executor : engineExecutor));
+
+    final List<Filter> filters = this.ctx.getFilters();
+    if (this.limiter != null) {
+      filters.remove(this.limiter);
+    }
+
+    limiter.setQueueDepth(this::queueDepth);
+    filters.add(0, limiter);
+    this.limiter = limiter;
+  }
+
+  /**
+   * Set the executor on which requests are handled. By default, the JDK engine handles requests on
+   * its single dispatcher thread, and the NIO engine on a pool of threads of its own.
+   *
+   * @param executor The executor.
+   * @throws IllegalStateException The server has already been started.
+   */
   public void setExecutor(final Executor executor) {
-    this.instance.setExecutor(executor);
+    this.instance.setExecutor(limiter == null
+        ? executor
+        : limiter.admit(executor != null ? executor : engineExecutor));
+    this.executor = executor;
+    releaseRequestExecutor();
+  }
+
+  /**
+   * Handle each request on its own virtual thread, without limiting the number of requests handled
+   * at once.
+   *
+   * @return true if virtual threads are in use, or false if the runtime does not support them.
+   * @see #useVirtualThreads(int)
+   */
+  public boolean useVirtualThreads() {
+    return useVirtualThreads(RequestExecutor.UNBOUNDED);
+  }
+
+  /**
+   * Handle each request on its own virtual thread, with at most `maxConcurrentRequests` handled at
+   * once; the rest wait, parked, for a request to complete. Virtual threads suit handlers that
+   * spend most of their time blocked on I/O, which then no longer hold a platform thread.
+   *
+   * @param maxConcurrentRequests The maximum number of requests to handle at once, or 0 for no
+   *                              limit.
+   * @return true if virtual threads are in use, or false if the runtime does not support them.
+   * @throws IllegalArgumentException The maximum is negative.
+   * @throws IllegalStateException    The server has already been started.
+   * @implNote Virtual threads require Java 21 (or 19 with `--enable-preview`). On earlier runtimes
+   *     requests are handled on a pool of platform threads, sized to `maxConcurrentRequests` if
+   *     given.
+   * @implNote Where virtual threads are in use, the JDK Flight Recorder is used to count virtual
+   *     threads that block while pinned to their carrier, as reported by `executionStats`.
+   */
+  public boolean useVirtualThreads(final int maxConcurrentRequests) {
+    final RequestExecutor executor = RequestExecutor.create(maxConcurrentRequests);
+
+    try {
+      setExecutor(executor);
+    } catch (RuntimeException e) {
+      executor.shutdown();
+      throw e;
+    }
+
+    requestExecutor = executor;
+
+    return executor.isVirtual();
+  }
+
+  /**
+   * Take a snapshot of the request execution counters.
+   *
+   * @return An ExecutionStats record, or null if the server is not using an executor created by
+   *     `useVirtualThreads`.
+   */
+  public ExecutionStats executionStats() {
+    return requestExecutor == null ? null : requestExecutor.stats();
+  }
+
+  /**
+   * Retrieve the address at which the server listens. This resolves the actual port where the
+   * server was created with port 0.
+   *
+   * @return The bound address.
+   */
+  public InetSocketAddress getAddress() {
+    return this.instance.getAddress();
   }
 
   public void start() {
     this.instance.start();
   }
 
+  /**
+   * Stop the server, waiting up to `delay` seconds for in-flight exchanges to complete.
+   *
+   * @param delay The maximum time in seconds to wait.
+   */
   public void stop(final int delay) {
     this.instance.stop(delay);
+    releaseRequestExecutor();
+  }
+
+  private int queueDepth() {
+    final Executor executor = this.executor;
+
+    if (executor instanceof RequestExecutor requestExecutor) {
+      return requestExecutor.queued();
+    }
+
+    if (executor instanceof ThreadPoolExecutor pool) {
+      return pool.getQueue().size();
+    }
+
+    return 0;
+  }
+
+  private void releaseRequestExecutor() {
+    if (requestExecutor != null) {
+      requestExecutor.shutdown();
+      requestExecutor = null;
+    }
   }
 }
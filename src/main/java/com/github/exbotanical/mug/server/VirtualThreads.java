@@ -0,0 +1,90 @@
+package com.github.exbotanical.mug.server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runtime access to virtual threads, which Mug cannot reference directly while it targets Java 17.
+ */
+final class VirtualThreads {
+  /**
+   * A handle to a method that, given a thread name prefix, creates an executor that starts a new
+   * virtual thread, so named, for each task; or null if the runtime does not support virtual
+   * threads.
+   */
+  private static final MethodHandle FACTORY = resolve();
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Determine whether the runtime supports virtual threads i.e. Java 21 or later, or Java 19 and 20
+   * with `--enable-preview`.
+   *
+   * @return true if `newExecutor` will succeed.
+   */
+  static boolean isSupported() {
+    return FACTORY != null;
+  }
+
+  /**
+   * Create an executor that starts a new virtual thread for each task.
+   *
+   * @param prefix The prefix of each thread's name, which is suffixed with a counter.
+   * @return The executor, or null if the runtime does not support virtual threads.
+   */
+  static ExecutorService newExecutor(final String prefix) {
+    if (FACTORY == null) {
+      return null;
+    }
+
+    try {
+      return (ExecutorService) FACTORY.invokeExact(prefix);
+    } catch (Throwable e) {
+      return null;
+    }
+  }
+
+  /**
+   * Resolve, in effect, `prefix -> Executors.newThreadPerTaskExecutor(
+   * Thread.ofVirtual().name(prefix, 0).factory())`.
+   */
+  private static MethodHandle resolve() {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      final Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+
+      final MethodHandle newBuilder =
+          lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtual));
+      final MethodHandle name = lookup.findVirtual(builder, "name",
+          MethodType.methodType(builder, String.class, long.class));
+      final MethodHandle factory =
+          lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+      final MethodHandle newExecutor = lookup.findStatic(Executors.class,
+          "newThreadPerTaskExecutor",
+          MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+
+      // (String) -> ExecutorService, composed inside out.
+      MethodHandle handle = MethodHandles.filterReturnValue(
+          MethodHandles.insertArguments(name, 2, 0L), factory.asType(
+              MethodType.methodType(ThreadFactory.class, builder)));
+      handle = MethodHandles.filterReturnValue(handle, newExecutor);
+      handle = MethodHandles.foldArguments(handle,
+          newBuilder.asType(MethodType.methodType(builder)));
+      handle = handle.asType(MethodType.methodType(ExecutorService.class, String.class));
+
+      // The API is a preview in Java 19 and 20, and throws unless previews are enabled; probe it
+      // once.
+      ((ExecutorService) handle.invokeExact("mug-probe-")).shutdown();
+
+      return handle;
+    } catch (Throwable e) {
+      return null;
+    }
+  }
+}
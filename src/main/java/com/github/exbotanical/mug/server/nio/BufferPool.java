@@ -0,0 +1,97 @@
+package com.github.exbotanical.mug.server.nio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of equally sized direct ByteBuffers, shared by a server's connections for reading
+ * requests and writing responses.
+ *
+ * <p>
+ * Direct buffers are costly to allocate and are only reclaimed by the garbage collector, but are
+ * read into and written from by the channel without an intermediate copy; pooling them retains
+ * the latter without the former. Buffers released beyond the pool's capacity are left to the
+ * garbage collector.
+ * </p>
+ */
+final class BufferPool {
+  /**
+   * The default size of each buffer.
+   */
+  static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+  /**
+   * The default maximum number of idle buffers retained.
+   */
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private final int bufferSize;
+
+  private final int capacity;
+
+  private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The number of idle buffers in the pool. Tracked separately, as `ConcurrentLinkedQueue.size` is
+   * linear.
+   */
+  private final AtomicInteger idle = new AtomicInteger();
+
+  BufferPool() {
+    this(DEFAULT_BUFFER_SIZE, DEFAULT_CAPACITY);
+  }
+
+  BufferPool(final int bufferSize, final int capacity) {
+    this.bufferSize = bufferSize;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Take a cleared buffer from the pool, allocating one if the pool is empty.
+   *
+   * @return A buffer of `bufferSize` bytes.
+   */
+  ByteBuffer acquire() {
+    final ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    idle.decrementAndGet();
+
+    return buffer.clear();
+  }
+
+  /**
+   * Return a buffer to the pool. The caller must not use the buffer thereafter.
+   *
+   * @param buffer A buffer previously acquired from this pool.
+   */
+  void release(final ByteBuffer buffer) {
+    if (idle.incrementAndGet() > capacity) {
+      idle.decrementAndGet();
+      return;
+    }
+
+    buffers.offer(buffer);
+  }
+
+  /**
+   * The size of each buffer.
+   *
+   * @return The buffer size in bytes.
+   */
+  int bufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * The number of idle buffers in the pool.
+   *
+   * @return The idle buffer count.
+   */
+  int idle() {
+    return idle.get();
+  }
+}
@@ -0,0 +1,684 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.github.exbotanical.mug.constant.Status;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A client connection, owned by a single IoWorker. Reading, decoding and writing happen on the
+ * worker's thread; any thread may hand the connection response bytes, which the worker writes in
+ * order.
+ *
+ * <p>
+ * Requests are pipelined: the connection reads and decodes ahead of the requests being handled, up
+ * to `MAX_PIPELINE_DEPTH` outstanding responses. Each request is given a Response, into which its
+ * handler writes; Responses are written to the socket strictly in request order, such that a later
+ * response completed first waits for those before it.
+ * </p>
+ *
+ * <p>
+ * Consecutive requests with safe methods (RFC 9110, 9.2.1) are dispatched at once, and so run
+ * concurrently given an executor. Any other request waits for those before it to be handled, and
+ * those after it wait in turn, lest a handler observe the effects of a later request.
+ * </p>
+ */
+final class Connection {
+  /**
+   * The maximum number of requests read ahead of their responses being written.
+   */
+  static final int MAX_PIPELINE_DEPTH = 32;
+
+  private static final byte[] CONTINUE =
+      "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+  /**
+   * The number of queued bytes of a response above which a writer other than the worker waits for
+   * the queue to drain, and below which it resumes.
+   */
+  private static final int HIGH_WATER = 1024 * 1024;
+
+  private static final int LOW_WATER = HIGH_WATER / 4;
+
+  /**
+   * The maximum number of buffers written in one gathering write.
+   */
+  private static final int MAX_GATHER = 16;
+
+  private final SocketChannel channel;
+
+  private final IoWorker worker;
+
+  private final NioHttpServer server;
+
+  private final BufferPool pool;
+
+  private final RequestDecoder decoder;
+
+  private final InetSocketAddress remoteAddress;
+
+  private final InetSocketAddress localAddress;
+
+  private SelectionKey key;
+
+  // Used on the worker thread only.
+
+  /**
+   * Received bytes not yet decoded, in write mode; held only while there are any.
+   */
+  private ByteBuffer readBuffer;
+
+  /**
+   * Responses not yet written in full, in request order.
+   */
+  private final ArrayDeque<Response> responses = new ArrayDeque<>();
+
+  /**
+   * Decoded requests awaiting dispatch, in request order.
+   */
+  private final ArrayDeque<Response> held = new ArrayDeque<>();
+
+  /**
+   * The number of requests dispatched but not yet handled.
+   */
+  private int handling;
+
+  /**
+   * Whether the request being handled has an unsafe method.
+   */
+  private boolean handlingUnsafe;
+
+  /**
+   * The response opened early, to carry a `100 Continue`, for the request under decoding.
+   */
+  private Response continued;
+
+  /**
+   * Whether no further requests are to be read, the client having asked to close the connection,
+   * sent a malformed request or shut down its output.
+   */
+  private boolean halted;
+
+  private long lastActive = System.nanoTime();
+
+  /**
+   * Whether part of a request has been received, while the connection is reading.
+   */
+  private boolean receiving;
+
+  /**
+   * The time at which the connection began receiving the request, if `receiving`.
+   */
+  private long receivingSince;
+
+  /**
+   * Scratch space for gathering writes.
+   */
+  private final ByteBuffer[] batch = new ByteBuffer[MAX_GATHER];
+
+  private final Response[] owners = new Response[MAX_GATHER];
+
+  private final long[] sizes = new long[MAX_GATHER];
+
+  // Guarded by `this`, along with each Response's queue.
+
+  private boolean closed;
+
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  /**
+   * The response to a single request, queuing its bytes until they may be written.
+   */
+  final class Response {
+    /**
+     * The ByteBuffers and FileRegions to be written, in order.
+     */
+    private final ArrayDeque<Object> items = new ArrayDeque<>();
+
+    /**
+     * The number of queued ByteBuffer bytes not yet written.
+     */
+    private long pending;
+
+    private boolean ended;
+
+    private boolean keepAlive;
+
+    // Used on the worker thread only.
+
+    private Request request;
+
+    private boolean dispatched;
+
+    private Response() {
+    }
+
+    Connection connection() {
+      return Connection.this;
+    }
+
+    /**
+     * Queue bytes to be written. Any thread may call this; a thread other than the worker's waits
+     * while too many of this response's bytes are queued.
+     *
+     * @param buffer The bytes, in read mode. A direct buffer is returned to the pool once written.
+     * @throws IOException The connection is closed.
+     */
+    void send(final ByteBuffer buffer) throws IOException {
+      synchronized (Connection.this) {
+        if (closed) {
+          recycle(buffer);
+          throw new IOException("connection closed");
+        }
+
+        items.add(buffer);
+        pending += buffer.remaining();
+      }
+
+      scheduleFlush();
+
+      if (!worker.inWorkerThread()) {
+        synchronized (Connection.this) {
+          if (pending <= HIGH_WATER) {
+            return;
+          }
+
+          while (pending > LOW_WATER && !closed) {
+            try {
+              Connection.this.wait();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new IOException("interrupted awaiting write");
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Queue a region of a file to be written, after all bytes queued thus far. Any thread may call
+     * this.
+     *
+     * @param file     The file, which is closed once written or discarded.
+     * @param position The position in the file at which the region starts.
+     * @param count    The length of the region.
+     * @throws IOException The connection is closed.
+     */
+    void sendFile(final FileChannel file, final long position, final long count)
+        throws IOException {
+      final FileRegion region = new FileRegion(file, position, count);
+
+      synchronized (Connection.this) {
+        if (closed) {
+          region.close();
+          throw new IOException("connection closed");
+        }
+
+        items.add(region);
+      }
+
+      scheduleFlush();
+    }
+
+    /**
+     * Mark the end of the response, after all bytes queued thus far.
+     *
+     * @param keepAlive Whether the connection may be reused thereafter.
+     */
+    void end(final boolean keepAlive) {
+      synchronized (Connection.this) {
+        if (closed) {
+          return;
+        }
+
+        this.ended = true;
+        this.keepAlive = keepAlive;
+      }
+
+      worker.execute(() -> onHandled(this));
+      scheduleFlush();
+    }
+  }
+
+  Connection(final SocketChannel channel, final IoWorker worker, final NioHttpServer server,
+             final BufferPool pool, final int maxBodySize) throws IOException {
+    this.channel = channel;
+    this.worker = worker;
+    this.server = server;
+    this.pool = pool;
+    this.decoder = new RequestDecoder(maxBodySize);
+    this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+    this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+  }
+
+  InetSocketAddress remoteAddress() {
+    return remoteAddress;
+  }
+
+  InetSocketAddress localAddress() {
+    return localAddress;
+  }
+
+  /**
+   * Register with the worker's selector. Called on the worker thread.
+   */
+  void register() throws IOException {
+    key = channel.register(worker.selector(), SelectionKey.OP_READ, this);
+  }
+
+  /**
+   * Read and decode what the client has sent. Called on the worker thread.
+   */
+  void onReadable() {
+    if (readBuffer == null) {
+      readBuffer = pool.acquire();
+    }
+
+    final int n;
+    try {
+      n = channel.read(readBuffer);
+    } catch (IOException e) {
+      close();
+      return;
+    }
+
+    if (n < 0) {
+      // The client may shut down its output having pipelined its last request; answer what it
+      // sent before closing.
+      halted = true;
+      if (responses.isEmpty()) {
+        close();
+      } else {
+        setInterest(SelectionKey.OP_READ, false);
+      }
+
+      return;
+    }
+
+    lastActive = System.nanoTime();
+    decode();
+  }
+
+  /**
+   * Decode requests from the received bytes, dispatching each that may be, until the bytes are
+   * exhausted or the pipeline is full.
+   */
+  private void decode() {
+    if (readBuffer != null) {
+      readBuffer.flip();
+
+      try {
+        while (!halted && responses.size() < MAX_PIPELINE_DEPTH) {
+          final Request request = decoder.decode(readBuffer, worker.scratch());
+
+          if (decoder.shouldContinue()) {
+            continued = open();
+            continued.send(ByteBuffer.wrap(CONTINUE));
+          }
+
+          if (request == null) {
+            break;
+          }
+
+          final Response response = continued == null ? open() : continued;
+          continued = null;
+          response.request = request;
+          receiving = false;
+
+          if (!request.keepAlive()) {
+            halted = true;
+          }
+
+          if (held.isEmpty() && canDispatch(request)) {
+            dispatch(response);
+          } else {
+            held.add(response);
+          }
+        }
+      } catch (MalformedRequestException e) {
+        reject(e.status);
+      } catch (IOException e) {
+        close();
+      } finally {
+        if (readBuffer != null) {
+          if (readBuffer.hasRemaining()) {
+            readBuffer.compact();
+          } else {
+            pool.release(readBuffer);
+            readBuffer = null;
+          }
+        }
+      }
+    }
+
+    final boolean reading = !halted && responses.size() < MAX_PIPELINE_DEPTH;
+
+    // Time the request from the read that began it, or from reading resuming, if it was paused.
+    if (!reading || readBuffer == null && decoder.isIdle()) {
+      receiving = false;
+    } else if (!receiving) {
+      receiving = true;
+      receivingSince = System.nanoTime();
+    }
+
+    setInterest(SelectionKey.OP_READ, reading);
+  }
+
+  private Response open() {
+    final Response response = new Response();
+    responses.add(response);
+
+    return response;
+  }
+
+  private boolean canDispatch(final Request request) {
+    return handling == 0 || (!handlingUnsafe && isSafe(request.method()));
+  }
+
+  private void dispatch(final Response response) {
+    handling++;
+    handlingUnsafe = !isSafe(response.request.method());
+    response.dispatched = true;
+
+    server.dispatch(response.request, response);
+  }
+
+  /**
+   * Account for a request having been handled, and dispatch those held behind it. Called on the
+   * worker thread.
+   */
+  private void onHandled(final Response response) {
+    if (!response.dispatched) {
+      return;
+    }
+
+    handling--;
+    if (handling == 0) {
+      handlingUnsafe = false;
+    }
+
+    while (!closed && !held.isEmpty() && canDispatch(held.peek().request)) {
+      dispatch(held.poll());
+    }
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduled.compareAndSet(false, true)) {
+      worker.execute(() -> {
+        flushScheduled.set(false);
+        flush();
+      });
+    }
+  }
+
+  /**
+   * Write as many queued bytes as the socket accepts, in request order. Called on the worker
+   * thread.
+   */
+  void flush() {
+    boolean completed = false;
+
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+
+      boolean drained = true;
+      while (true) {
+        // Retire the written items, and the responses written in full.
+        while (!responses.isEmpty()) {
+          final Response head = responses.peek();
+          while (!head.items.isEmpty() && isDone(head.items.peek())) {
+            discard(head.items.poll());
+          }
+
+          if (!head.ended || !head.items.isEmpty()) {
+            break;
+          }
+
+          responses.poll();
+          completed = true;
+
+          if (!head.keepAlive) {
+            closeNow();
+            return;
+          }
+        }
+
+        notifyAll();
+
+        final Object next = responses.isEmpty() ? null : responses.peek().items.peek();
+        if (!drained || next == null) {
+          break;
+        }
+
+        try {
+          if (next instanceof FileRegion region) {
+            region.transferTo(channel);
+            drained = region.isDone();
+          } else {
+            drained = writeBatch();
+          }
+        } catch (IOException e) {
+          closeNow();
+          return;
+        }
+      }
+
+      // Await writability if the socket did not accept everything.
+      setInterest(SelectionKey.OP_WRITE, !drained);
+    }
+
+    if (completed) {
+      onResponsesWritten();
+    }
+  }
+
+  /**
+   * Write the ByteBuffers next in line in a single gathering write: those of the first response,
+   * and of each following response once all those before it have ended, up to the next
+   * FileRegion.
+   *
+   * @return true if the buffers were written in full.
+   */
+  private boolean writeBatch() throws IOException {
+    int count = 0;
+
+    gather:
+    for (final Response response : responses) {
+      for (final Object item : response.items) {
+        if (!(item instanceof ByteBuffer buffer) || count == MAX_GATHER) {
+          break gather;
+        }
+
+        batch[count] = buffer;
+        owners[count] = response;
+        sizes[count] = buffer.remaining();
+        count++;
+      }
+
+      if (!response.ended) {
+        break;
+      }
+    }
+
+    try {
+      channel.write(batch, 0, count);
+
+      for (int i = 0; i < count; i++) {
+        owners[i].pending -= sizes[i] - batch[i].remaining();
+      }
+
+      return !batch[count - 1].hasRemaining();
+    } finally {
+      Arrays.fill(batch, 0, count, null);
+      Arrays.fill(owners, 0, count, null);
+    }
+  }
+
+  /**
+   * Read further requests now that responses have been written, or close the connection if none
+   * are to come. Called on the worker thread.
+   */
+  private void onResponsesWritten() {
+    lastActive = System.nanoTime();
+
+    if (halted && responses.isEmpty()) {
+      close();
+      return;
+    }
+
+    // Decode any requests the client sent ahead before reading further.
+    decode();
+  }
+
+  /**
+   * Respond to a malformed request with an empty-bodied error after those before it, then close
+   * the connection.
+   */
+  private void reject(final int status) {
+    halted = true;
+
+    final Response response = continued == null ? open() : continued;
+    continued = null;
+
+    final byte[] head = ResponseHead.statusLine(status);
+    final byte[] rest = "Content-Length: 0\r\nConnection: close\r\n\r\n"
+        .getBytes(StandardCharsets.ISO_8859_1);
+    final ByteBuffer bytes = ByteBuffer.allocate(head.length + rest.length);
+    bytes.put(head).put(rest).flip();
+
+    try {
+      response.send(bytes);
+      response.end(false);
+    } catch (IOException e) {
+      close();
+    }
+  }
+
+  /**
+   * Whether the connection has been idle, with no response outstanding, for longer than the given
+   * timeout. A client that stops midway through sending a request is considered idle too. Called
+   * on the worker thread.
+   */
+  boolean isIdle(final long now, final long timeoutNanos) {
+    return responses.isEmpty() && now - lastActive > timeoutNanos;
+  }
+
+  /**
+   * Whether the connection has been receiving a request for longer than the given timeout, as when
+   * a client sends it a byte at a time. Called on the worker thread.
+   */
+  boolean isStalled(final long now, final long timeoutNanos) {
+    return receiving && now - receivingSince > timeoutNanos;
+  }
+
+  /**
+   * Reject the request under receipt with 408 Request Timeout, after those before it, then close
+   * the connection. Called on the worker thread.
+   */
+  void timeOut() {
+    receiving = false;
+    reject(Status.REQUEST_TIMEOUT.value);
+    setInterest(SelectionKey.OP_READ, false);
+  }
+
+  /**
+   * Close the connection, discarding anything unwritten. Any thread may call this.
+   */
+  void close() {
+    if (worker.inWorkerThread()) {
+      closeNow();
+    } else {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+      }
+
+      worker.execute(this::closeNow);
+    }
+  }
+
+  private void closeNow() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+
+      for (final Response response : responses) {
+        for (final Object item : response.items) {
+          discard(item);
+        }
+
+        response.items.clear();
+        response.pending = 0;
+      }
+
+      notifyAll();
+    }
+
+    responses.clear();
+    held.clear();
+
+    if (readBuffer != null) {
+      pool.release(readBuffer);
+      readBuffer = null;
+    }
+
+    if (key != null) {
+      key.cancel();
+    }
+
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing more to be done.
+    }
+  }
+
+  private void setInterest(final int op, final boolean on) {
+    if (key == null || !key.isValid()) {
+      return;
+    }
+
+    final int ops = key.interestOps();
+    key.interestOps(on ? ops | op : ops & ~op);
+  }
+
+  private void recycle(final ByteBuffer buffer) {
+    if (buffer.isDirect()) {
+      pool.release(buffer);
+    }
+  }
+
+  private static boolean isDone(final Object item) {
+    return item instanceof FileRegion region
+        ? region.isDone()
+        : !((ByteBuffer) item).hasRemaining();
+  }
+
+  private void discard(final Object item) {
+    if (item instanceof FileRegion region) {
+      region.close();
+    } else {
+      recycle((ByteBuffer) item);
+    }
+  }
+
+  private static boolean isSafe(final String method) {
+    return switch (method) {
+      case "GET", "HEAD", "OPTIONS", "TRACE" -> true;
+      default -> false;
+    };
+  }
+}
@@ -0,0 +1,57 @@
+package com.github.exbotanical.mug.server.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A region of a file queued as part of a response, written to the socket with
+ * `FileChannel.transferTo` such that its bytes need not pass through the JVM. The region owns the
+ * file, closing it once written or discarded.
+ */
+final class FileRegion {
+  private final FileChannel file;
+
+  private long position;
+
+  private final long end;
+
+  FileRegion(final FileChannel file, final long position, final long count) {
+    this.file = file;
+    this.position = position;
+    this.end = position + count;
+  }
+
+  /**
+   * Write as much of the region as the target accepts.
+   *
+   * @param target The socket.
+   * @return The number of bytes written.
+   * @throws IOException The file or target could not be read or written, or the file was truncated
+   *                     short of the region.
+   */
+  long transferTo(final WritableByteChannel target) throws IOException {
+    final long n = file.transferTo(position, end - position, target);
+
+    // `transferTo` answers 0 both where the target is full and where the file ends early.
+    if (n == 0 && position >= file.size()) {
+      throw new IOException("file truncated");
+    }
+
+    position += n;
+
+    return n;
+  }
+
+  boolean isDone() {
+    return position >= end;
+  }
+
+  void close() {
+    try {
+      file.close();
+    } catch (IOException e) {
+      // Nothing more to be done.
+    }
+  }
+}
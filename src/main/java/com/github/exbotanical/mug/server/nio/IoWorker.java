@@ -0,0 +1,195 @@
+package com.github.exbotanical.mug.server.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An I/O thread multiplexing a share of a NioHttpServer's connections over its own Selector. Other
+ * threads interact with its connections by submitting tasks, which run on this thread between
+ * selections.
+ */
+final class IoWorker implements Runnable {
+  /**
+   * The interval at which idle and stalled connections are swept.
+   */
+  private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+  private final Selector selector;
+
+  private final Thread thread;
+
+  private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+  private final long idleTimeoutNanos;
+
+  private final long requestTimeoutNanos;
+
+  /**
+   * Scratch space for decoding request heads, shared by this worker's connections.
+   */
+  private final byte[] scratch = new byte[RequestDecoder.MAX_HEAD_SIZE];
+
+  private volatile boolean running = true;
+
+  IoWorker(final String name, final long idleTimeoutMillis, final long requestTimeoutMillis)
+      throws IOException {
+    this.selector = Selector.open();
+    this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+    this.thread = new Thread(this, name);
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  Selector selector() {
+    return selector;
+  }
+
+  byte[] scratch() {
+    return scratch;
+  }
+
+  boolean inWorkerThread() {
+    return Thread.currentThread() == thread;
+  }
+
+  /**
+   * Run a task on this worker's thread, after the current selection.
+   *
+   * @param task The task.
+   */
+  void execute(final Runnable task) {
+    tasks.add(task);
+
+    if (!inWorkerThread()) {
+      selector.wakeup();
+    }
+  }
+
+  /**
+   * Adopt a connection, registering it for reads.
+   *
+   * @param connection The connection.
+   */
+  void adopt(final Connection connection) {
+    execute(() -> {
+      try {
+        connection.register();
+      } catch (IOException e) {
+        connection.close();
+      }
+    });
+  }
+
+  @Override
+  public void run() {
+    long nextSweep = System.currentTimeMillis() + SWEEP_INTERVAL_MILLIS;
+
+    try {
+      while (running) {
+        if (tasks.isEmpty()) {
+          selector.select(SWEEP_INTERVAL_MILLIS);
+        } else {
+          selector.selectNow();
+        }
+
+        runTasks();
+        processSelectedKeys();
+
+        final long now = System.currentTimeMillis();
+        if (now >= nextSweep) {
+          sweep();
+          nextSweep = now + SWEEP_INTERVAL_MILLIS;
+        }
+      }
+    } catch (IOException e) {
+      // The selector failed; the connections go with it.
+    } finally {
+      runTasks();
+      closeAll();
+    }
+  }
+
+  /**
+   * Stop the worker, closing its connections.
+   */
+  void shutdown() {
+    running = false;
+    selector.wakeup();
+  }
+
+  /**
+   * Await the worker's termination.
+   *
+   * @throws InterruptedException The current thread was interrupted.
+   */
+  void join() throws InterruptedException {
+    thread.join();
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+    }
+  }
+
+  private void processSelectedKeys() {
+    final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+    while (keys.hasNext()) {
+      final SelectionKey key = keys.next();
+      keys.remove();
+
+      final Connection connection = (Connection) key.attachment();
+      try {
+        if (key.isWritable()) {
+          connection.flush();
+        }
+
+        if (key.isValid() && key.isReadable()) {
+          connection.onReadable();
+        }
+      } catch (CancelledKeyException e) {
+        connection.close();
+      }
+    }
+  }
+
+  private void sweep() {
+    final long now = System.nanoTime();
+
+    for (final SelectionKey key : selector.keys()) {
+      final Connection connection = (Connection) key.attachment();
+      if (!key.isValid()) {
+        continue;
+      }
+
+      if (connection.isIdle(now, idleTimeoutNanos)) {
+        connection.close();
+      } else if (connection.isStalled(now, requestTimeoutNanos)) {
+        connection.timeOut();
+      }
+    }
+  }
+
+  private void closeAll() {
+    for (final SelectionKey key : selector.keys()) {
+      ((Connection) key.attachment()).close();
+    }
+
+    try {
+      selector.close();
+    } catch (IOException e) {
+      // Nothing more to be done.
+    }
+  }
+}
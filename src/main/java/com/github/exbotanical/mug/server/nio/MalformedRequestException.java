@@ -0,0 +1,20 @@
+package com.github.exbotanical.mug.server.nio;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request cannot be decoded, carrying the status with which to reject it.
+ */
+final class MalformedRequestException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The status code with which to respond before closing the connection.
+   */
+  final int status;
+
+  MalformedRequestException(final int status, final String message) {
+    super(message);
+    this.status = status;
+  }
+}
@@ -0,0 +1,83 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An HttpContext of a NioHttpServer: a handler mapped to a path prefix, and its filters.
+ */
+final class NioContext extends HttpContext {
+  private final String path;
+
+  private final NioHttpServer server;
+
+  private final List<Filter> filters = new CopyOnWriteArrayList<>();
+
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+  private volatile HttpHandler handler;
+
+  NioContext(final String path, final HttpHandler handler, final NioHttpServer server) {
+    this.path = path;
+    this.handler = handler;
+    this.server = server;
+  }
+
+  @Override
+  public HttpHandler getHandler() {
+    return handler;
+  }
+
+  @Override
+  public void setHandler(final HttpHandler handler) {
+    if (handler == null) {
+      throw new NullPointerException("null handler");
+    }
+
+    if (this.handler != null) {
+      throw new IllegalArgumentException("handler already set");
+    }
+
+    this.handler = handler;
+  }
+
+  @Override
+  public String getPath() {
+    return path;
+  }
+
+  @Override
+  public HttpServer getServer() {
+    return server;
+  }
+
+  @Override
+  public Map<String, Object> getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public List<Filter> getFilters() {
+    return filters;
+  }
+
+  /**
+   * Unsupported; authenticate requests with a Filter instead.
+   */
+  @Override
+  public Authenticator setAuthenticator(final Authenticator auth) {
+    throw new UnsupportedOperationException("authenticators are not supported; use a Filter");
+  }
+
+  @Override
+  public Authenticator getAuthenticator() {
+    return null;
+  }
+}
@@ -0,0 +1,248 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.server.FileTransferExchange;
+import com.github.exbotanical.mug.server.nio.ResponseStream.Framing;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An HttpExchange over a NioHttpServer connection. The request, body included, has been received
+ * in full by the time the exchange is dispatched; the response is streamed as it is written.
+ */
+final class NioExchange extends HttpExchange implements FileTransferExchange {
+  private final Connection connection;
+
+  private final HttpContext context;
+
+  private final Request request;
+
+  private final Headers responseHeaders = new Headers();
+
+  private final ResponseStream response;
+
+  private InputStream in;
+
+  private OutputStream out;
+
+  private int responseCode = -1;
+
+  private Map<String, Object> attributes;
+
+  private boolean closed;
+
+  NioExchange(final Connection.Response slot, final HttpContext context, final Request request,
+              final BufferPool pool) {
+    this.connection = slot.connection();
+    this.context = context;
+    this.request = request;
+    this.response = new ResponseStream(slot, pool);
+    this.in = new ByteArrayInputStream(request.body(), 0, request.bodyLength());
+    this.out = response;
+  }
+
+  @Override
+  public Headers getRequestHeaders() {
+    return request.headers();
+  }
+
+  @Override
+  public Headers getResponseHeaders() {
+    return responseHeaders;
+  }
+
+  @Override
+  public URI getRequestURI() {
+    return request.uri();
+  }
+
+  @Override
+  public String getRequestMethod() {
+    return request.method();
+  }
+
+  @Override
+  public HttpContext getHttpContext() {
+    return context;
+  }
+
+  /**
+   * Complete the exchange. If the response headers were never sent, the request is answered with a
+   * 500 Internal Server Error on the handler's behalf, and the connection closed thereafter. Either
+   * way, the responses to earlier pipelined requests are written first.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+
+    if (!response.isCommitted()) {
+      try {
+        responseHeaders.clear();
+        responseHeaders.set("Connection", "close");
+        sendResponseHeaders(Status.INTERNAL_SERVER_ERROR.value, -1);
+        response.close();
+      } catch (IOException e) {
+        response.abort();
+      }
+
+      return;
+    }
+
+    try {
+      // Close the outermost stream, such that any filter wrapping it may finish its output.
+      out.close();
+    } catch (IOException e) {
+      response.abort();
+    }
+  }
+
+  @Override
+  public InputStream getRequestBody() {
+    return in;
+  }
+
+  @Override
+  public OutputStream getResponseBody() {
+    return out;
+  }
+
+  @Override
+  public void sendResponseHeaders(final int status, final long responseLength) throws IOException {
+    if (responseCode >= 0) {
+      throw new IOException("headers already sent");
+    }
+
+    responseCode = status;
+
+    final boolean head = "HEAD".equals(request.method());
+    final boolean bodiless = status < 200 || status == 204 || status == 304;
+
+    final Framing framing;
+    if (responseLength < 0) {
+      framing = Framing.NONE;
+      // A HEAD response may declare the length of the body it omits.
+      if (!bodiless && !(head && responseHeaders.containsKey("Content-Length"))) {
+        responseHeaders.set("Content-Length", "0");
+      }
+    } else if (responseLength == 0) {
+      if (head || bodiless) {
+        framing = head ? Framing.DISCARD : Framing.NONE;
+      } else {
+        framing = Framing.CHUNKED;
+        responseHeaders.set("Transfer-Encoding", "chunked");
+      }
+    } else {
+      framing = head ? Framing.DISCARD : Framing.FIXED;
+      responseHeaders.set("Content-Length", Long.toString(responseLength));
+    }
+
+    // The handler may itself ask for the connection to be closed.
+    final boolean keepAlive = request.keepAlive()
+        && !"close".equalsIgnoreCase(responseHeaders.getFirst("Connection"));
+    if (!keepAlive) {
+      responseHeaders.set("Connection", "close");
+    } else if (!"HTTP/1.1".equals(request.protocol())) {
+      responseHeaders.set("Connection", "keep-alive");
+    }
+
+    if (!responseHeaders.containsKey("Date")) {
+      responseHeaders.set("Date", ResponseHead.date());
+    }
+
+    response.begin(status, responseHeaders, framing, responseLength, keepAlive);
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() {
+    return connection.remoteAddress();
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  @Override
+  public InetSocketAddress getLocalAddress() {
+    return connection.localAddress();
+  }
+
+  @Override
+  public String getProtocol() {
+    return request.protocol();
+  }
+
+  @Override
+  public Object getAttribute(final String name) {
+    return attributes == null ? null : attributes.get(name);
+  }
+
+  @Override
+  public void setAttribute(final String name, final Object value) {
+    if (attributes == null) {
+      attributes = new HashMap<>();
+    }
+
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public void setStreams(final InputStream i, final OutputStream o) {
+    if (i != null) {
+      in = i;
+    }
+
+    if (o != null) {
+      out = o;
+    }
+  }
+
+  @Override
+  public HttpPrincipal getPrincipal() {
+    return null;
+  }
+
+  @Override
+  public boolean canTransferFile() {
+    return out == response;
+  }
+
+  @Override
+  public void transferFile(final FileChannel file, final long position, final long count)
+      throws IOException {
+    if (!canTransferFile()) {
+      file.close();
+      throw new IOException("response body stream replaced");
+    }
+
+    response.transfer(file, position, count);
+  }
+
+  /**
+   * Whether the response headers have been sent.
+   *
+   * @return true if `sendResponseHeaders` has been called.
+   */
+  boolean isCommitted() {
+    return responseCode >= 0;
+  }
+}
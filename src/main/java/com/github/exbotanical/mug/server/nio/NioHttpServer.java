@@ -0,0 +1,440 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An HTTP/1.1 server built on `java.nio` selectors, as an alternative to the JDK's built-in
+ * `com.sun.net.httpserver` implementation behind the same HttpServer API.
+ *
+ * <p>
+ * An acceptor thread accepts connections and deals them round-robin to a small, fixed set of I/O
+ * workers, each multiplexing its connections over its own Selector. Connections are kept alive
+ * between requests, and requests are read into, and responses written from, pooled direct buffers.
+ * Requests are handled on the executor if one is set, or else on a default pool of daemon threads
+ * that grows with the number of requests being handled at once, such that a blocking handler never
+ * stalls an I/O worker. An executor that runs tasks on the calling thread defeats this, and is not
+ * to be set.
+ * </p>
+ *
+ * <p>
+ * Request bodies are received in full before a request is dispatched, up to `maxBodySize` bytes.
+ * A request must be received, head and body, within `requestTimeoutMillis` of its first byte, such
+ * that a client trickling bytes cannot hold a connection open indefinitely. Authenticators are not
+ * supported; use a Filter instead.
+ * </p>
+ */
+public final class NioHttpServer extends HttpServer {
+  /**
+   * The default maximum size of a request body.
+   */
+  public static final int DEFAULT_MAX_BODY_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * The default duration for which an idle connection is kept open.
+   */
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30_000;
+
+  /**
+   * The default duration within which a request, head and body, must be received in full.
+   */
+  public static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 30_000;
+
+  private static final System.Logger LOGGER = System.getLogger(NioHttpServer.class.getName());
+
+  private final int workerCount;
+
+  private final int maxBodySize;
+
+  private final long idleTimeoutMillis;
+
+  private final long requestTimeoutMillis;
+
+  private final BufferPool pool = new BufferPool();
+
+  private final List<NioContext> contexts = new CopyOnWriteArrayList<>();
+
+  /**
+   * The number of requests dispatched but not yet handled.
+   */
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * The executor used where none is set.
+   */
+  private final ExecutorService defaultExecutor =
+      Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable task) {
+          final Thread thread = new Thread(task, "mug-nio-handler-" + count.getAndIncrement());
+          thread.setDaemon(true);
+
+          return thread;
+        }
+      });
+
+  private ServerSocketChannel serverChannel;
+
+  private IoWorker[] workers;
+
+  private Thread acceptor;
+
+  private volatile Executor executor = defaultExecutor;
+
+  private volatile boolean started;
+
+  /**
+   * Constructor. Initialize an unbound server with one I/O worker per available processor.
+   */
+  public NioHttpServer() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_BODY_SIZE,
+        DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_REQUEST_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Constructor. Initialize an unbound server.
+   *
+   * @param workerCount       The number of I/O worker threads.
+   * @param maxBodySize       The maximum size of a request body; larger requests are rejected
+   *                          with 413 Request Entity Too Large.
+   * @param idleTimeoutMillis The duration for which an idle connection is kept open.
+   */
+  public NioHttpServer(final int workerCount, final int maxBodySize,
+                       final long idleTimeoutMillis) {
+    this(workerCount, maxBodySize, idleTimeoutMillis, DEFAULT_REQUEST_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Constructor. Initialize an unbound server.
+   *
+   * @param workerCount          The number of I/O worker threads.
+   * @param maxBodySize          The maximum size of a request body; larger requests are rejected
+   *                             with 413 Request Entity Too Large.
+   * @param idleTimeoutMillis    The duration for which an idle connection is kept open.
+   * @param requestTimeoutMillis The duration, from its first byte, within which a request must be
+   *                             received in full; slower requests are rejected with 408 Request
+   *                             Timeout.
+   */
+  public NioHttpServer(final int workerCount, final int maxBodySize,
+                       final long idleTimeoutMillis, final long requestTimeoutMillis) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("workerCount must be positive; got " + workerCount);
+    }
+
+    if (requestTimeoutMillis <= 0) {
+      throw new IllegalArgumentException(
+          "requestTimeoutMillis must be positive; got " + requestTimeoutMillis);
+    }
+
+    this.workerCount = workerCount;
+    this.maxBodySize = maxBodySize;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.requestTimeoutMillis = requestTimeoutMillis;
+  }
+
+  /**
+   * Create a server bound to the given address, with the default options.
+   *
+   * @param address The address at which to listen.
+   * @param backlog The maximum number of pending connections, or 0 for the system default.
+   * @return The bound, unstarted server.
+   * @throws IOException The address could not be bound.
+   */
+  public static NioHttpServer create(final InetSocketAddress address, final int backlog)
+      throws IOException {
+    final NioHttpServer server = new NioHttpServer();
+    server.bind(address, backlog);
+
+    return server;
+  }
+
+  @Override
+  public void bind(final InetSocketAddress addr, final int backlog) throws IOException {
+    if (serverChannel != null) {
+      throw new IllegalStateException("server already bound");
+    }
+
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(addr, backlog);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (serverChannel == null) {
+      throw new IllegalStateException("server not bound");
+    }
+
+    if (started) {
+      throw new IllegalStateException("server already started");
+    }
+
+    started = true;
+
+    workers = new IoWorker[workerCount];
+    try {
+      for (int i = 0; i < workerCount; i++) {
+        workers[i] =
+            new IoWorker("mug-nio-worker-" + i, idleTimeoutMillis, requestTimeoutMillis);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("failed to open selector", e);
+    }
+
+    for (final IoWorker worker : workers) {
+      worker.start();
+    }
+
+    acceptor = new Thread(this::accept, "mug-nio-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Set the executor on which requests are handled.
+   *
+   * @param executor The executor, or null to restore the default pool.
+   * @throws IllegalStateException The server has already been started.
+   */
+  @Override
+  public void setExecutor(final Executor executor) {
+    if (started) {
+      throw new IllegalStateException("server already started");
+    }
+
+    this.executor = executor == null ? defaultExecutor : executor;
+  }
+
+  /**
+   * Retrieve the executor on which requests are handled.
+   *
+   * @return The executor set, or the default pool if none is.
+   */
+  @Override
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Stop the server. Stops accepting connections, waits up to `delay` seconds for requests being
+   * handled to complete, then closes all connections.
+   *
+   * @param delay The maximum time in seconds to wait.
+   */
+  @Override
+  public synchronized void stop(final int delay) {
+    if (delay < 0) {
+      throw new IllegalArgumentException("negative delay parameter");
+    }
+
+    try {
+      serverChannel.close();
+    } catch (IOException e) {
+      // Nothing more to be done.
+    }
+
+    if (!started) {
+      defaultExecutor.shutdown();
+      return;
+    }
+
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+    try {
+      while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      acceptor.join();
+
+      for (final IoWorker worker : workers) {
+        worker.shutdown();
+      }
+
+      for (final IoWorker worker : workers) {
+        worker.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      defaultExecutor.shutdown();
+    }
+  }
+
+  @Override
+  public HttpContext createContext(final String path, final HttpHandler handler) {
+    if (path == null || !path.startsWith("/")) {
+      throw new IllegalArgumentException("invalid path: " + path);
+    }
+
+    final NioContext context = new NioContext(path, handler, this);
+    synchronized (contexts) {
+      for (final NioContext existing : contexts) {
+        if (existing.getPath().equals(path)) {
+          throw new IllegalArgumentException("cannot add context to list");
+        }
+      }
+
+      contexts.add(context);
+    }
+
+    return context;
+  }
+
+  @Override
+  public HttpContext createContext(final String path) {
+    return createContext(path, null);
+  }
+
+  @Override
+  public void removeContext(final String path) {
+    if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+      throw new IllegalArgumentException("cannot remove element from list");
+    }
+  }
+
+  @Override
+  public void removeContext(final HttpContext context) {
+    if (!contexts.remove(context)) {
+      throw new IllegalArgumentException("cannot remove element from list");
+    }
+  }
+
+  @Override
+  public InetSocketAddress getAddress() {
+    try {
+      return (InetSocketAddress) serverChannel.getLocalAddress();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Dispatch a decoded request to its context's filters and handler, on the executor. Called on
+   * the connection's I/O worker.
+   *
+   * @param request  The request.
+   * @param response The connection's Response for the request.
+   */
+  void dispatch(final Request request, final Connection.Response response) {
+    final NioContext context = findContext(request.uri().getPath());
+    final NioExchange exchange = new NioExchange(response, context, request, pool);
+
+    inFlight.incrementAndGet();
+
+    try {
+      executor.execute(() -> handle(exchange));
+    } catch (RejectedExecutionException e) {
+      inFlight.decrementAndGet();
+      respond(exchange, Status.SERVICE_UNAVAILABLE.value);
+    }
+  }
+
+  private void handle(final NioExchange exchange) {
+    try {
+      final HttpContext context = exchange.getHttpContext();
+      if (context == null || context.getHandler() == null) {
+        respond(exchange, Status.NOT_FOUND.value);
+        return;
+      }
+
+      new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+    } catch (Exception | Error e) {
+      LOGGER.log(System.Logger.Level.WARNING, "exception handling request", e);
+
+      if (exchange.isCommitted()) {
+        exchange.close();
+      } else {
+        respond(exchange, Status.INTERNAL_SERVER_ERROR.value);
+      }
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * Respond with an empty-bodied status, on behalf of the server.
+   */
+  private static void respond(final NioExchange exchange, final int status) {
+    try {
+      exchange.getResponseHeaders().set("Connection", "close");
+      exchange.sendResponseHeaders(status, -1);
+    } catch (IOException e) {
+      // The connection is closed regardless.
+    }
+
+    exchange.close();
+  }
+
+  /**
+   * Resolve the context with the longest path prefixing the given path.
+   */
+  private NioContext findContext(final String path) {
+    NioContext match = null;
+
+    for (final NioContext context : contexts) {
+      final String prefix = context.getPath();
+      if (path != null && path.startsWith(prefix)
+          && (match == null || prefix.length() > match.getPath().length())) {
+        match = context;
+      }
+    }
+
+    return match;
+  }
+
+  private void accept() {
+    int next = 0;
+
+    while (true) {
+      final SocketChannel channel;
+      try {
+        channel = serverChannel.accept();
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        // e.g. too many open files; back off rather than spin.
+        LOGGER.log(System.Logger.Level.WARNING, "failed to accept connection", e);
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        continue;
+      }
+
+      final IoWorker worker = workers[next];
+      next = (next + 1) % workers.length;
+
+      try {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        worker.adopt(new Connection(channel, worker, this, pool, maxBodySize));
+      } catch (IOException e) {
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+          // Nothing more to be done.
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import java.net.URI;
+
+/**
+ * A decoded HTTP/1.1 request.
+ *
+ * @param method     The request method e.g. `GET`.
+ * @param uri        The request target.
+ * @param protocol   The protocol version e.g. `HTTP/1.1`.
+ * @param headers    The request headers.
+ * @param body       The request body, of which the first `bodyLength` bytes are significant.
+ * @param bodyLength The length of the request body.
+ * @param keepAlive  Whether the connection may be reused after the response.
+ */
+record Request(String method, URI uri, String protocol, Headers headers, byte[] body,
+               int bodyLength, boolean keepAlive) {
+
+}
@@ -0,0 +1,483 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.sun.net.httpserver.Headers;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An incremental HTTP/1.1 request decoder. Each connection owns one, into which it feeds bytes as
+ * they arrive; a request may span any number of reads, and a read may hold any number of requests.
+ */
+final class RequestDecoder {
+  /**
+   * The maximum size of the request line and headers.
+   */
+  static final int MAX_HEAD_SIZE = 8 * 1024;
+
+  /**
+   * The maximum length of a chunk-size or trailer line.
+   */
+  private static final int MAX_LINE_SIZE = 1024;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private enum State {
+    HEAD, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS
+  }
+
+  private final int maxBodySize;
+
+  private State state = State.HEAD;
+
+  // The request under decoding, once its head is complete.
+
+  private String method;
+
+  private URI uri;
+
+  private String protocol;
+
+  private Headers headers;
+
+  private boolean keepAlive;
+
+  private boolean expectContinue;
+
+  private byte[] body;
+
+  private int bodyLength;
+
+  /**
+   * The bytes of the body, or of the current chunk, not yet received.
+   */
+  private long remaining;
+
+  /**
+   * Accumulates a chunk-size or trailer line across reads.
+   */
+  private byte[] line;
+
+  private int lineLength;
+
+  /**
+   * Whether `line` holds a complete line, to be discarded upon reading the next.
+   */
+  private boolean lineComplete;
+
+  RequestDecoder(final int maxBodySize) {
+    this.maxBodySize = maxBodySize;
+  }
+
+  /**
+   * Consume bytes from `in` until a request is complete, or `in` is exhausted. Bytes beyond the end
+   * of a complete request are left in `in`.
+   *
+   * @param in      The received bytes, in read mode.
+   * @param scratch A buffer of at least `MAX_HEAD_SIZE` bytes, into which to copy the head.
+   * @return The request, or null if more bytes are needed.
+   * @throws MalformedRequestException The request is malformed, or exceeds a limit.
+   */
+  Request decode(final ByteBuffer in, final byte[] scratch) throws MalformedRequestException {
+    while (true) {
+      switch (state) {
+        case HEAD -> {
+          if (!decodeHead(in, scratch)) {
+            return null;
+          }
+        }
+        case BODY -> {
+          remaining -= copyBody(in, remaining);
+          if (remaining > 0) {
+            return null;
+          }
+
+          return complete();
+        }
+        case CHUNK_SIZE -> {
+          if (!readLine(in)) {
+            return null;
+          }
+
+          remaining = parseChunkSize();
+          state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+        }
+        case CHUNK_DATA -> {
+          if (bodyLength + remaining > maxBodySize) {
+            throw new MalformedRequestException(Status.REQUEST_ENTITY_TOO_LARGE.value,
+                "request body exceeds " + maxBodySize + " bytes");
+          }
+
+          ensureBodyCapacity((int) (bodyLength + remaining));
+          remaining -= copyBody(in, remaining);
+          if (remaining > 0) {
+            return null;
+          }
+
+          state = State.CHUNK_END;
+        }
+        case CHUNK_END -> {
+          if (!readLine(in)) {
+            return null;
+          }
+
+          if (lineLength != 0) {
+            throw badRequest("malformed chunk");
+          }
+
+          state = State.CHUNK_SIZE;
+        }
+        case TRAILERS -> {
+          if (!readLine(in)) {
+            return null;
+          }
+
+          // Trailers are discarded; the blank line ends the request.
+          if (lineLength == 0) {
+            return complete();
+          }
+        }
+        default -> throw new IllegalStateException();
+      }
+    }
+  }
+
+  /**
+   * Whether the client awaits a `100 Continue` before sending the body of the request under
+   * decoding. Answers true at most once per request.
+   *
+   * @return true if the connection should send `100 Continue` now.
+   */
+  boolean shouldContinue() {
+    if (expectContinue && state != State.HEAD) {
+      expectContinue = false;
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Whether the decoder is between requests, having consumed no bytes of the next.
+   *
+   * @return true if idle.
+   */
+  boolean isIdle() {
+    return state == State.HEAD;
+  }
+
+  private boolean decodeHead(final ByteBuffer in, final byte[] scratch)
+      throws MalformedRequestException {
+    // Ignore empty lines preceding the request line.
+    while (in.hasRemaining() && (in.get(in.position()) == '\r' || in.get(in.position()) == '\n')) {
+      in.get();
+    }
+
+    final int start = in.position();
+    final int end = indexOfHeadEnd(in, start);
+
+    if (end < 0) {
+      if (in.remaining() >= MAX_HEAD_SIZE) {
+        throw new MalformedRequestException(Status.REQUEST_HEADER_FIELDS_TOO_LARGE.value,
+            "request head exceeds " + MAX_HEAD_SIZE + " bytes");
+      }
+
+      return false;
+    }
+
+    // Copy the head, excluding the final empty line, in one bulk get.
+    final int length = end + 2 - start;
+    if (length > MAX_HEAD_SIZE) {
+      throw new MalformedRequestException(Status.REQUEST_HEADER_FIELDS_TOO_LARGE.value,
+          "request head exceeds " + MAX_HEAD_SIZE + " bytes");
+    }
+
+    in.get(scratch, 0, length);
+    in.position(end + 4);
+
+    parseHead(scratch, length);
+
+    return true;
+  }
+
+  private void parseHead(final byte[] head, final int length) throws MalformedRequestException {
+    final int lineEnd = indexOf(head, 0, length, '\r');
+
+    // Bare line feeds are rejected outright, lest an intermediary read them as line breaks.
+    if (indexOf(head, 0, lineEnd, '\n') >= 0) {
+      throw badRequest("malformed line break");
+    }
+
+    final int methodEnd = indexOf(head, 0, lineEnd, ' ');
+    final int targetEnd = methodEnd < 0 ? -1 : indexOf(head, methodEnd + 1, lineEnd, ' ');
+    if (methodEnd <= 0 || targetEnd <= methodEnd + 1) {
+      throw badRequest("malformed request line");
+    }
+
+    method = ascii(head, 0, methodEnd);
+    protocol = ascii(head, targetEnd + 1, lineEnd);
+    if (!protocol.startsWith("HTTP/1.")) {
+      throw new MalformedRequestException(Status.HTTP_VERSION_NOT_SUPPORTED.value,
+          "unsupported protocol " + protocol);
+    }
+
+    try {
+      uri = new URI(ascii(head, methodEnd + 1, targetEnd));
+    } catch (URISyntaxException e) {
+      throw badRequest("malformed request target");
+    }
+
+    headers = new Headers();
+    for (int i = lineEnd + 2; i < length; ) {
+      final int end = indexOf(head, i, length, '\r');
+      if (indexOf(head, i, end, '\n') >= 0) {
+        throw badRequest("malformed line break");
+      }
+
+      final int colon = indexOf(head, i, end, ':');
+
+      // Neither obsolete line folding nor whitespace before the colon is permitted.
+      if (colon <= i || head[i] == ' ' || head[i] == '\t' || head[colon - 1] == ' ') {
+        throw badRequest("malformed header");
+      }
+
+      int valueStart = colon + 1;
+      int valueEnd = end;
+      while (valueStart < valueEnd && (head[valueStart] == ' ' || head[valueStart] == '\t')) {
+        valueStart++;
+      }
+      while (valueEnd > valueStart && (head[valueEnd - 1] == ' ' || head[valueEnd - 1] == '\t')) {
+        valueEnd--;
+      }
+
+      headers.add(ascii(head, i, colon), ascii(head, valueStart, valueEnd));
+      i = end + 2;
+    }
+
+    final boolean http11 = "HTTP/1.1".equals(protocol);
+    final String connection = headers.getFirst("Connection");
+    keepAlive = http11
+        ? !hasToken(connection, "close")
+        : hasToken(connection, "keep-alive");
+    expectContinue = http11 && "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+
+    body = EMPTY;
+    bodyLength = 0;
+
+    final List<String> transferEncodings = headers.get("Transfer-Encoding");
+    if (transferEncodings != null) {
+      // A message framed both ways may be framed differently by an intermediary, and the request
+      // smuggled past it (RFC 9112, 6.3).
+      if (headers.containsKey("Content-Length")) {
+        throw badRequest("both Transfer-Encoding and Content-Length");
+      }
+
+      if (!isChunkedOnly(transferEncodings)) {
+        throw new MalformedRequestException(Status.NOT_IMPLEMENTED.value,
+            "unsupported transfer encoding " + String.join(", ", transferEncodings));
+      }
+
+      body = new byte[Math.min(maxBodySize, 1024)];
+      state = State.CHUNK_SIZE;
+
+      return;
+    }
+
+    remaining = contentLength();
+    if (remaining > maxBodySize) {
+      throw new MalformedRequestException(Status.REQUEST_ENTITY_TOO_LARGE.value,
+          "request body exceeds " + maxBodySize + " bytes");
+    }
+
+    if (remaining > 0) {
+      body = new byte[(int) remaining];
+    }
+
+    state = State.BODY;
+  }
+
+  private long contentLength() throws MalformedRequestException {
+    final String value = headers.getFirst("Content-Length");
+    if (value == null) {
+      return 0;
+    }
+
+    for (final String other : headers.get("Content-Length")) {
+      if (!other.equals(value)) {
+        throw badRequest("conflicting Content-Length");
+      }
+    }
+
+    // RFC 9110 admits 1*DIGIT only; no sign, as Long.parseLong would accept.
+    if (value.isEmpty()) {
+      throw badRequest("malformed Content-Length");
+    }
+
+    long length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        throw badRequest("malformed Content-Length");
+      }
+      if (length > (Long.MAX_VALUE - (c - '0')) / 10) {
+        throw badRequest("Content-Length too large");
+      }
+
+      length = length * 10 + (c - '0');
+    }
+
+    return length;
+  }
+
+  private long parseChunkSize() throws MalformedRequestException {
+    long size = 0;
+    int i = 0;
+
+    for (; i < lineLength && line[i] != ';' && line[i] != ' ' && line[i] != '\t'; i++) {
+      final int digit = Character.digit(line[i], 16);
+      if (digit < 0 || size > (Integer.MAX_VALUE >> 4)) {
+        throw badRequest("malformed chunk size");
+      }
+
+      size = (size << 4) + digit;
+    }
+
+    if (i == 0) {
+      throw badRequest("malformed chunk size");
+    }
+
+    return size;
+  }
+
+  /**
+   * Accumulate a CRLF-terminated line from `in`, excluding the terminator.
+   *
+   * @return true if the line is complete.
+   */
+  private boolean readLine(final ByteBuffer in) throws MalformedRequestException {
+    if (line == null) {
+      line = new byte[MAX_LINE_SIZE];
+    }
+
+    if (lineComplete) {
+      lineLength = 0;
+      lineComplete = false;
+    }
+
+    while (in.hasRemaining()) {
+      final byte b = in.get();
+
+      if (b == '\n') {
+        if (lineLength > 0 && line[lineLength - 1] == '\r') {
+          lineLength--;
+        }
+
+        lineComplete = true;
+
+        return true;
+      }
+
+      if (lineLength == MAX_LINE_SIZE) {
+        throw badRequest("line exceeds " + MAX_LINE_SIZE + " bytes");
+      }
+
+      line[lineLength++] = b;
+    }
+
+    return false;
+  }
+
+  private int copyBody(final ByteBuffer in, final long wanted) {
+    final int n = (int) Math.min(wanted, in.remaining());
+    in.get(body, bodyLength, n);
+    bodyLength += n;
+
+    return n;
+  }
+
+  private void ensureBodyCapacity(final int capacity) {
+    if (capacity > body.length) {
+      body = Arrays.copyOf(body, Math.min(maxBodySize, Math.max(capacity, body.length * 2)));
+    }
+  }
+
+  private Request complete() {
+    final Request request =
+        new Request(method, uri, protocol, headers, body, bodyLength, keepAlive);
+
+    state = State.HEAD;
+    headers = null;
+    body = null;
+    expectContinue = false;
+    lineLength = 0;
+    lineComplete = false;
+
+    return request;
+  }
+
+  private static int indexOfHeadEnd(final ByteBuffer in, final int from) {
+    for (int i = from, limit = in.limit() - 3; i < limit; i++) {
+      if (in.get(i) == '\r' && in.get(i + 1) == '\n' && in.get(i + 2) == '\r'
+          && in.get(i + 3) == '\n') {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static int indexOf(final byte[] bytes, final int from, final int to, final char c) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] == c) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static String ascii(final byte[] bytes, final int from, final int to) {
+    return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+  }
+
+  private static boolean hasToken(final String value, final String token) {
+    if (value == null) {
+      return false;
+    }
+
+    for (final String part : value.split(",")) {
+      if (part.trim().equalsIgnoreCase(token)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Whether the Transfer-Encoding field lines, taken together as one list, name `chunked` alone.
+   * No other coding is supported, and so neither is any list in which `chunked` is not the sole
+   * token.
+   */
+  private static boolean isChunkedOnly(final List<String> values) {
+    int codings = 0;
+
+    for (final String value : values) {
+      for (final String coding : value.split(",", -1)) {
+        if (++codings > 1 || !coding.trim().equalsIgnoreCase("chunked")) {
+          return false;
+        }
+      }
+    }
+
+    return codings == 1;
+  }
+
+  private static MalformedRequestException badRequest(final String message) {
+    return new MalformedRequestException(Status.BAD_REQUEST.value, message);
+  }
+}
@@ -0,0 +1,98 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.github.exbotanical.mug.constant.Status;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Precomputed pieces of response heads: a status line per known status code, and the `Date` header
+ * value, formatted at most once per second.
+ */
+final class ResponseHead {
+  private static final String PROTOCOL = "HTTP/1.1 ";
+
+  private static final DateTimeFormatter DATE_FORMAT =
+      DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+          .withZone(ZoneOffset.UTC);
+
+  /**
+   * Status lines, including the trailing CRLF, indexed by status code.
+   */
+  private static final byte[][] STATUS_LINES = new byte[600][];
+
+  static {
+    for (final Status status : Status.values()) {
+      STATUS_LINES[status.value] = (PROTOCOL + status.value + " " + reason(status) + "\r\n")
+          .getBytes(StandardCharsets.ISO_8859_1);
+    }
+  }
+
+  /**
+   * The formatted `Date` value and the second to which it corresponds.
+   */
+  private static volatile CachedDate date = new CachedDate(0, "");
+
+  private ResponseHead() {
+  }
+
+  /**
+   * Retrieve the status line for a status code.
+   *
+   * @param status The status code.
+   * @return The status line, including the trailing CRLF.
+   */
+  static byte[] statusLine(final int status) {
+    if (status >= 0 && status < STATUS_LINES.length && STATUS_LINES[status] != null) {
+      return STATUS_LINES[status];
+    }
+
+    // The reason phrase may be empty.
+    return (PROTOCOL + status + " \r\n").getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Format the current time as a `Date` header value.
+   *
+   * @return The current date.
+   */
+  static String date() {
+    final long second = System.currentTimeMillis() / 1000;
+
+    CachedDate current = date;
+    if (current.second != second) {
+      current = new CachedDate(second,
+          DATE_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC).withNano(0)));
+      date = current;
+    }
+
+    return current.value;
+  }
+
+  /**
+   * Derive a reason phrase from a Status' name e.g. `NOT_FOUND` => `Not Found`.
+   */
+  private static String reason(final Status status) {
+    final StringBuilder reason = new StringBuilder();
+
+    for (final String word : status.name().split("_")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+
+      if (reason.length() > 0) {
+        reason.append(' ');
+      }
+
+      reason.append(word.charAt(0)).append(word.substring(1).toLowerCase(Locale.ROOT));
+    }
+
+    return reason.toString();
+  }
+
+  private record CachedDate(long second, String value) {
+
+  }
+}
@@ -0,0 +1,379 @@
+package com.github.exbotanical.mug.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The response body stream of a NioExchange. The response head and body are written into pooled
+ * buffers, each handed to the connection's Response as it fills, such that a small response is
+ * written to the socket in a single buffer.
+ *
+ * <p>
+ * Chunked bodies are framed in place: each buffer reserves room for a fixed-width chunk header and
+ * its trailing CRLF, which are filled in when the buffer is handed off.
+ * </p>
+ */
+final class ResponseStream extends OutputStream {
+  /**
+   * The body framing, as determined by `sendResponseHeaders`.
+   */
+  enum Framing {
+    /**
+     * There is no body; writes fail.
+     */
+    NONE,
+    /**
+     * There is no body, as the request was HEAD; writes are discarded.
+     */
+    DISCARD,
+    /**
+     * The body is of a declared Content-Length.
+     */
+    FIXED,
+    /**
+     * The body is of unknown length, and chunked.
+     */
+    CHUNKED
+  }
+
+  /**
+   * Room for a chunk header: four hexadecimal digits, which suffice for a buffer of up to 64KiB,
+   * and a CRLF. Leading zeros are permitted in a chunk size.
+   */
+  private static final int CHUNK_HEADER = 6;
+
+  /**
+   * Room for the CRLF ending a chunk.
+   */
+  private static final int CHUNK_TRAILER = 2;
+
+  private static final byte[] LAST_CHUNK = {'0', '\r', '\n', '\r', '\n'};
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private final Connection.Response response;
+
+  private final BufferPool pool;
+
+  private Framing framing;
+
+  /**
+   * The number of bytes remaining of a FIXED body.
+   */
+  private long remaining;
+
+  private ByteBuffer buffer;
+
+  /**
+   * The position of the current chunk's header in `buffer`, or -1 if none has been reserved.
+   */
+  private int chunkStart = -1;
+
+  /**
+   * Whether the connection may be reused after the response.
+   */
+  private boolean keepAlive;
+
+  private boolean closed;
+
+  ResponseStream(final Connection.Response response, final BufferPool pool) {
+    this.response = response;
+    this.pool = pool;
+  }
+
+  /**
+   * Write the response head, and set the body's framing.
+   *
+   * @param status    The status code.
+   * @param headers   The response headers.
+   * @param framing   The body framing.
+   * @param length    The Content-Length of a FIXED body.
+   * @param keepAlive Whether the connection may be reused after the response.
+   * @throws IOException The connection was closed.
+   */
+  void begin(final int status, final Headers headers, final Framing framing, final long length,
+             final boolean keepAlive) throws IOException {
+    put(ResponseHead.statusLine(status));
+
+    for (final Map.Entry<String, List<String>> header : headers.entrySet()) {
+      for (final String value : header.getValue()) {
+        putAscii(header.getKey());
+        put((byte) ':');
+        put((byte) ' ');
+        putAscii(value);
+        put((byte) '\r');
+        put((byte) '\n');
+      }
+    }
+
+    put((byte) '\r');
+    put((byte) '\n');
+
+    this.framing = framing;
+    this.remaining = length;
+    this.keepAlive = keepAlive;
+  }
+
+  /**
+   * Whether the response head has been written.
+   *
+   * @return true if `begin` has been called.
+   */
+  boolean isCommitted() {
+    return framing != null;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    if (checkWrite(1)) {
+      reserve();
+      buffer.put((byte) b);
+    }
+  }
+
+  @Override
+  public void write(final byte[] b, int off, int len) throws IOException {
+    if (!checkWrite(len)) {
+      return;
+    }
+
+    while (len > 0) {
+      final int n = Math.min(len, reserve());
+      buffer.put(b, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Hand any buffered bytes to the connection.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (closed) {
+      throw new IOException("stream closed");
+    }
+
+    handOff();
+  }
+
+  /**
+   * Complete the response, handing any buffered bytes to the connection.
+   *
+   * @throws IOException Fewer bytes were written than the declared Content-Length.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+
+    if (framing == Framing.FIXED && remaining > 0) {
+      // The client learns of the shortfall from the connection closing after what was written.
+      handOff();
+      release();
+      response.end(false);
+      throw new IOException("insufficient bytes written to stream");
+    }
+
+    if (framing == Framing.CHUNKED) {
+      endChunk();
+      put(LAST_CHUNK);
+    }
+
+    handOff();
+    release();
+    response.end(keepAlive);
+  }
+
+  /**
+   * Append a region of a file to a FIXED body, after the bytes written thus far.
+   *
+   * @param file     The file, which is closed once written or discarded.
+   * @param position The position in the file at which the region starts.
+   * @param count    The length of the region.
+   * @throws IOException The body is not FIXED, or the region exceeds its remaining length.
+   */
+  void transfer(final FileChannel file, final long position, final long count)
+      throws IOException {
+    try {
+      if (framing == Framing.CHUNKED) {
+        throw new IOException("file transfer requires a fixed-length response");
+      }
+
+      if (!checkWrite(count)) {
+        file.close();
+        return;
+      }
+    } catch (IOException e) {
+      file.close();
+      throw e;
+    }
+
+    handOff();
+    response.sendFile(file, position, count);
+  }
+
+  /**
+   * End the response where it stands, after any bytes already handed to the connection, such that
+   * the connection is closed once it and those before it are written. Does nothing if the stream
+   * is already closed.
+   */
+  void abort() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    release();
+    response.end(false);
+  }
+
+  /**
+   * Release the buffer without handing it off.
+   */
+  private void release() {
+    if (buffer != null) {
+      pool.release(buffer);
+      buffer = null;
+    }
+  }
+
+  /**
+   * Validate a write of `len` bytes against the framing.
+   *
+   * @return true if the bytes should be buffered, or false if discarded.
+   */
+  private boolean checkWrite(final long len) throws IOException {
+    if (closed) {
+      throw new IOException("stream closed");
+    }
+
+    if (framing == null) {
+      throw new IOException("response headers not sent yet");
+    }
+
+    switch (framing) {
+      case NONE:
+        throw new IOException("response has no body");
+      case DISCARD:
+        return false;
+      case FIXED:
+        if (len > remaining) {
+          throw new IOException("too many bytes to write to stream");
+        }
+
+        remaining -= len;
+        return true;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Ensure there is room in `buffer` for body bytes, handing it off and acquiring another if not.
+   *
+   * @return The number of body bytes that fit.
+   */
+  private int reserve() throws IOException {
+    while (true) {
+      if (buffer == null) {
+        buffer = pool.acquire();
+      }
+
+      if (framing == Framing.CHUNKED) {
+        if (chunkStart < 0) {
+          if (buffer.remaining() < CHUNK_HEADER + CHUNK_TRAILER + 1) {
+            handOff();
+            continue;
+          }
+
+          chunkStart = buffer.position();
+          buffer.position(chunkStart + CHUNK_HEADER);
+        }
+
+        final int room = buffer.remaining() - CHUNK_TRAILER;
+        if (room > 0) {
+          return room;
+        }
+      } else if (buffer.hasRemaining()) {
+        return buffer.remaining();
+      }
+
+      handOff();
+    }
+  }
+
+  /**
+   * Fill in the header and trailer of the current chunk, if any.
+   */
+  private void endChunk() {
+    if (chunkStart < 0) {
+      return;
+    }
+
+    final int size = buffer.position() - chunkStart - CHUNK_HEADER;
+    if (size == 0) {
+      // Retract the empty chunk, lest it read as the last.
+      buffer.position(chunkStart);
+    } else {
+      buffer.put(chunkStart, HEX[(size >> 12) & 0xf]);
+      buffer.put(chunkStart + 1, HEX[(size >> 8) & 0xf]);
+      buffer.put(chunkStart + 2, HEX[(size >> 4) & 0xf]);
+      buffer.put(chunkStart + 3, HEX[size & 0xf]);
+      buffer.put(chunkStart + 4, (byte) '\r');
+      buffer.put(chunkStart + 5, (byte) '\n');
+      buffer.put((byte) '\r');
+      buffer.put((byte) '\n');
+    }
+
+    chunkStart = -1;
+  }
+
+  private void handOff() throws IOException {
+    if (buffer == null) {
+      return;
+    }
+
+    endChunk();
+
+    if (buffer.position() == 0) {
+      return;
+    }
+
+    final ByteBuffer full = buffer.flip();
+    buffer = null;
+    response.send(full);
+  }
+
+  private void put(final byte b) throws IOException {
+    if (buffer == null) {
+      buffer = pool.acquire();
+    } else if (!buffer.hasRemaining()) {
+      handOff();
+      buffer = pool.acquire();
+    }
+
+    buffer.put(b);
+  }
+
+  private void put(final byte[] bytes) throws IOException {
+    for (final byte b : bytes) {
+      put(b);
+    }
+  }
+
+  private void putAscii(final String s) throws IOException {
+    for (int i = 0; i < s.length(); i++) {
+      put((byte) s.charAt(i));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.exbotanical.mug.timer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A task scheduled on a TimingWheel.
+ */
+public final class Timeout {
+  private static final int SCHEDULED = 0;
+
+  private static final int CANCELLED = 1;
+
+  private static final int EXPIRED = 2;
+
+  private static final VarHandle STATE;
+
+  static {
+    try {
+      STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final TimingWheel wheel;
+
+  private final Runnable task;
+
+  /**
+   * The time at which the task is due, in nanoseconds since the wheel started.
+   */
+  final long deadline;
+
+  /**
+   * Updated via STATE, rather than held in an AtomicInteger, to spare an allocation per timeout.
+   */
+  private volatile int state = SCHEDULED;
+
+  /**
+   * The number of full revolutions of the wheel remaining before the task is due. Accessed by the
+   * wheel's worker only.
+   */
+  long remainingRounds;
+
+  /**
+   * The bucket in which the timeout is linked, and its neighbours therein. Accessed by the wheel's
+   * worker only.
+   */
+  TimingWheel.Bucket bucket;
+
+  Timeout next;
+
+  Timeout prev;
+
+  Timeout(final TimingWheel wheel, final Runnable task, final long deadline) {
+    this.wheel = wheel;
+    this.task = task;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Cancel the task, if it has neither run nor been cancelled already.
+   *
+   * @return true if the task was cancelled by this call.
+   */
+  public boolean cancel() {
+    if (!STATE.compareAndSet(this, SCHEDULED, CANCELLED)) {
+      return false;
+    }
+
+    // Unlinking is left to the worker, which owns the buckets.
+    wheel.cancelled();
+    return true;
+  }
+
+  public boolean isCancelled() {
+    return state == CANCELLED;
+  }
+
+  public boolean isExpired() {
+    return state == EXPIRED;
+  }
+
+  /**
+   * Run the task, if not cancelled.
+   */
+  void expire() {
+    if (STATE.compareAndSet(this, SCHEDULED, EXPIRED)) {
+      wheel.expired();
+      task.run();
+    }
+  }
+}
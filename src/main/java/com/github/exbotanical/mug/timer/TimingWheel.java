@@ -0,0 +1,241 @@
+package com.github.exbotanical.mug.timer;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel (Varghese and Lauck), for scheduling large numbers of short, mostly
+ * cancelled timeouts, such as request deadlines.
+ *
+ * <p>
+ * The wheel is a ring of buckets, each spanning one tick. A task is hashed to the bucket its
+ * deadline falls in, along with the number of revolutions remaining before it is due, such that
+ * scheduling and cancelling a task are O(1) regardless of how many are pending. A single worker
+ * thread advances the wheel one bucket per tick and runs the tasks due; tasks thus run up to one
+ * tick late, and should be brief, as they hold up those due after them.
+ * </p>
+ *
+ * <p>
+ * Tasks are scheduled through a lock-free queue, which the worker drains once per tick; the
+ * buckets themselves are touched by the worker alone. Cancelling a task merely marks it, and the
+ * worker unlinks it upon next visiting its bucket, within one revolution.
+ * </p>
+ */
+public final class TimingWheel implements AutoCloseable {
+  private static final System.Logger LOGGER = System.getLogger(TimingWheel.class.getName());
+
+  /**
+   * The maximum number of newly scheduled tasks moved into buckets per tick, such that a burst of
+   * scheduling cannot stall the wheel.
+   */
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+  private final long tickNanos;
+
+  private final Bucket[] buckets;
+
+  private final int mask;
+
+  private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+  private final AtomicLong pending = new AtomicLong();
+
+  private final long startTime = System.nanoTime();
+
+  private final Thread worker;
+
+  private volatile boolean closed;
+
+  /**
+   * The number of ticks elapsed. Accessed by the worker only.
+   */
+  private long tick;
+
+  /**
+   * Constructor. Initialize and start a wheel.
+   *
+   * @param name       The name of the worker thread.
+   * @param tick       The span of each bucket, and so the precision with which tasks are run.
+   * @param wheelSize  The number of buckets, rounded up to a power of two. Tasks due further out
+   *                   than `tick * wheelSize` wait out the difference in revolutions.
+   */
+  public TimingWheel(final String name, final Duration tick, final int wheelSize) {
+    if (tick.isNegative() || tick.isZero()) {
+      throw new IllegalArgumentException("tick must be positive; got " + tick);
+    }
+
+    if (wheelSize < 1 || wheelSize > 1 << 30) {
+      throw new IllegalArgumentException("wheelSize must be between 1 and 2^30; got " + wheelSize);
+    }
+
+    this.tickNanos = tick.toNanos();
+    this.buckets = new Bucket[wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1];
+    this.mask = buckets.length - 1;
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+
+    this.worker = new Thread(this::run, name);
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * Schedule a task to run once a delay has elapsed.
+   *
+   * @param task  The task, run on the wheel's worker thread.
+   * @param delay The delay.
+   * @return A Timeout by which the task may be cancelled.
+   * @throws IllegalStateException The wheel is closed.
+   */
+  public Timeout schedule(final Runnable task, final Duration delay) {
+    if (closed) {
+      throw new IllegalStateException("timing wheel closed");
+    }
+
+    final long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+    final Timeout timeout = new Timeout(this, task, deadline);
+
+    pending.incrementAndGet();
+    scheduled.add(timeout);
+
+    return timeout;
+  }
+
+  /**
+   * The number of tasks neither run nor cancelled.
+   */
+  public long pending() {
+    return pending.get();
+  }
+
+  /**
+   * Stop the worker. Pending tasks are not run.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(worker);
+  }
+
+  void cancelled() {
+    pending.decrementAndGet();
+  }
+
+  void expired() {
+    pending.decrementAndGet();
+  }
+
+  private void run() {
+    while (!closed) {
+      final long deadline = tickNanos * (tick + 1);
+
+      for (long now = System.nanoTime() - startTime; now < deadline && !closed;
+           now = System.nanoTime() - startTime) {
+        LockSupport.parkNanos(this, deadline - now);
+      }
+
+      if (closed) {
+        break;
+      }
+
+      transferScheduled();
+      buckets[(int) (tick & mask)].expire();
+
+      tick++;
+    }
+  }
+
+  private void transferScheduled() {
+    for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+      final Timeout timeout = scheduled.poll();
+      if (timeout == null) {
+        return;
+      }
+
+      if (timeout.isCancelled()) {
+        continue;
+      }
+
+      final long due = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (due - tick) / buckets.length;
+
+      // A task already overdue goes in the current bucket.
+      buckets[(int) (Math.max(due, tick) & mask)].add(timeout);
+    }
+  }
+
+  /**
+   * A doubly-linked list of the timeouts hashed to one slot of the wheel.
+   */
+  final class Bucket {
+    private Timeout head;
+
+    private Timeout tail;
+
+    void add(final Timeout timeout) {
+      timeout.bucket = this;
+
+      if (head == null) {
+        head = timeout;
+        tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    /**
+     * Run the timeouts due in this revolution, and count one down for the remainder.
+     */
+    void expire() {
+      Timeout timeout = head;
+
+      while (timeout != null) {
+        final Timeout next = timeout.next;
+
+        if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+
+          try {
+            timeout.expire();
+          } catch (RuntimeException | Error e) {
+            LOGGER.log(System.Logger.Level.WARNING, "timeout task failed", e);
+          }
+        } else if (timeout.isCancelled()) {
+          remove(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+
+        timeout = next;
+      }
+    }
+
+    void remove(final Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+
+      if (timeout.prev != null) {
+        timeout.prev.next = timeout.next;
+      } else {
+        head = timeout.next;
+      }
+
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      } else {
+        tail = timeout.prev;
+      }
+
+      timeout.next = null;
+      timeout.prev = null;
+      timeout.bucket = null;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.github.exbotanical.mug.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test BoundedCache")
+class BoundedCacheTest {
+
+  @DisplayName("Test cache retrieves stored values and counts hits and misses")
+  @Test
+  void shouldCacheValues() {
+    final BoundedCache<String, Integer> cache = new BoundedCache<>(4);
+
+    assertNull(cache.get("a"));
+    cache.put("a", 1);
+    assertEquals(1, cache.get("a"));
+    assertEquals(1, cache.get("a"));
+
+    final CacheStats stats = cache.stats();
+    assertEquals(2, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(0, stats.evictions());
+    assertEquals(1, stats.size());
+  }
+
+  @DisplayName("Test cache never exceeds its capacity")
+  @Test
+  void shouldBoundSize() {
+    final BoundedCache<Integer, Integer> cache = new BoundedCache<>(8);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, i);
+    }
+
+    assertEquals(8, cache.size());
+    assertEquals(992, cache.stats().evictions());
+  }
+
+  @DisplayName("Test cache evicts one-off entries before frequently read entries")
+  @Test
+  void shouldRetainFrequentlyReadEntries() {
+    final BoundedCache<String, Integer> cache = new BoundedCache<>(4);
+
+    cache.put("hot", 0);
+
+    for (int i = 0; i < 100; i++) {
+      assertNotNull(cache.get("hot"));
+      cache.put("cold" + i, i);
+    }
+
+    assertEquals(0, cache.get("hot"));
+  }
+
+  @DisplayName("Test zero capacity disables the cache")
+  @Test
+  void shouldDisableCache() {
+    final BoundedCache<String, Integer> cache = new BoundedCache<>(0);
+
+    cache.put("a", 1);
+
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @DisplayName("Test clear removes all entries")
+  @Test
+  void shouldClear() {
+    final BoundedCache<String, Integer> cache = new BoundedCache<>(4);
+
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.clear();
+
+    assertNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(0, cache.size());
+  }
+
+  @DisplayName("Test cache remains bounded under concurrent writers")
+  @Test
+  void shouldBoundSizeConcurrently() throws InterruptedException {
+    final int capacity = 64;
+    final BoundedCache<String, Integer> cache = new BoundedCache<>(capacity);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+
+    for (int t = 0; t < 8; t++) {
+      final int id = t;
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+          cache.put(id + "/" + i, i);
+          cache.get(id + "/" + (i / 2));
+        }
+      });
+
+      threads.add(thread);
+      thread.start();
+    }
+
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(cache.size() <= capacity,
+        String.format("expected at most %d entries but found %d", capacity, cache.size()));
+  }
+}
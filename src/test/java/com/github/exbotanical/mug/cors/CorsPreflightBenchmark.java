@@ -0,0 +1,196 @@
+package com.github.exbotanical.mug.cors;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import com.github.exbotanical.mug.router.middleware.Middleware;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of Preflight requests answered entirely within the CORS middleware
+ * against that of Preflight requests which, having been answered, fall through to the Router - as
+ * `Cors.use` formerly did - and so incur route resolution and the route's middleware.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorsPreflightBenchmark {
+  private final PreflightExchange exchange = new PreflightExchange();
+
+  private HttpHandler shortCircuit;
+
+  private HttpHandler fallThrough;
+
+  /**
+   * Wrap a Router, whose route has a couple of middleware, in CORS middleware each way.
+   */
+  @Setup
+  public void setUp() {
+    final Middleware middleware = next -> (exchange, context) -> {
+      exchange.getResponseHeaders().set("X-Request-Id", "1");
+      next.handle(exchange, context);
+    };
+
+    final Router router = new Router();
+    router.register(List.of(Method.GET, Method.PUT), "/api/users/:id", (exchange, context) -> {
+      exchange.sendResponseHeaders(Status.OK.value, -1);
+    }, List.of(middleware, middleware));
+
+    final Cors.Builder builder = new Cors.Builder()
+        .allowedOrigins("https://app.example.com", "https://*.tenants.example.com")
+        .allowedMethods(Method.GET, Method.PUT)
+        .allowedHeaders("Content-Type", "X-Request-Id")
+        .maxAge(600);
+
+    shortCircuit = builder.build().use(router);
+
+    // A Preflight answered by the CORS middleware, then handed to the Router regardless.
+    final HttpHandler respondThenRoute = exchange -> {
+      exchange.sendResponseHeaders(Status.NO_CONTENT.value, -1);
+      router.handle(exchange);
+    };
+    fallThrough = builder.useOptionsPassthrough(true).build().use(respondThenRoute);
+  }
+
+  @Benchmark
+  public int shortCircuit() throws Exception {
+    shortCircuit.handle(exchange.reset());
+    return exchange.responses;
+  }
+
+  @Benchmark
+  public int fallThrough() throws Exception {
+    fallThrough.handle(exchange.reset());
+    return exchange.responses;
+  }
+
+  /**
+   * A minimal HttpExchange bearing a Preflight request, reused across invocations.
+   */
+  static final class PreflightExchange extends HttpExchange {
+    private final Headers requestHeaders = new Headers();
+
+    private final URI uri = URI.create("/api/users/1");
+
+    private Headers responseHeaders;
+
+    private int responses;
+
+    PreflightExchange() {
+      requestHeaders.set("Origin", "https://acme.tenants.example.com");
+      requestHeaders.set("Access-Control-Request-Method", "PUT");
+      requestHeaders.set("Access-Control-Request-Headers", "content-type, x-request-id");
+    }
+
+    PreflightExchange reset() {
+      responseHeaders = new Headers();
+      return this;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+      return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+      return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+      return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+      return "OPTIONS";
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+      return InputStream.nullInputStream();
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+      return OutputStream.nullOutputStream();
+    }
+
+    @Override
+    public void sendResponseHeaders(final int code, final long length) {
+      // The server would reject a second response; here it is merely counted.
+      responses++;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+      return null;
+    }
+
+    @Override
+    public int getResponseCode() {
+      return -1;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+      return null;
+    }
+
+    @Override
+    public String getProtocol() {
+      return "HTTP/1.1";
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+      return null;
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+    }
+
+    @Override
+    public void setStreams(final InputStream i, final OutputStream o) {
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+      return null;
+    }
+  }
+}
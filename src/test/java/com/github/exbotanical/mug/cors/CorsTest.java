@@ -1,17 +1,27 @@
 package com.github.exbotanical.mug.cors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.github.exbotanical.mug.cache.CacheStats;
 import com.github.exbotanical.mug.constant.Method;
 import com.github.exbotanical.mug.constant.Status;
 import com.github.exbotanical.mug.router.TestUtils.ExchangeMockFactory;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -19,6 +29,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
 /**
@@ -492,6 +503,22 @@ class CorsTest {
             }));
   }
 
+  @DisplayName("Test validate requested headers in place")
+  @Test
+  void shouldValidateRequestedHeaders() {
+    final Cors cors = new Cors.Builder()
+        .allowedHeaders("X-Test-1", "x-test-2")
+        .build();
+
+    assertTrue(cors.areHeadersAllowed((String) null));
+    assertTrue(cors.areHeadersAllowed(""));
+    assertTrue(cors.areHeadersAllowed("x-test-1"));
+    assertTrue(cors.areHeadersAllowed("X-TEST-2, x-Test-1"));
+    assertFalse(cors.areHeadersAllowed("x-test-1,x-test-3"));
+    assertFalse(cors.areHeadersAllowed("x-test"));
+    assertFalse(cors.areHeadersAllowed("x-test-1:x-test-2"));
+  }
+
   @DisplayName("Test validate allowed origins")
   @TestFactory
   Stream<DynamicTest> shouldValidateAllowedOrigins() {
@@ -520,8 +547,43 @@ class CorsTest {
                 "baz.com", true,
                 "http://foo.com/", true,
                 "https://bar.com", true,
-                "http://baz.com", true))
+                "http://baz.com", true)),
+
+        new OriginTestCase(
+            "CaseInsensitiveOrigin",
+            new Cors.Builder()
+                .allowedOrigins("http://Foo.com", "http://bar.com")
+                .build(),
+            Map.of(
+                "http://foo.com", true,
+                "HTTP://FOO.COM", true,
+                "http://BAR.com", true,
+                "null", true,
+                "http://qux.com", false)),
 
+        new OriginTestCase(
+            "SubdomainPatternOrigin",
+            new Cors.Builder()
+                .allowedOrigins(
+                    "https://*.example.com",
+                    "http://*.api.example.com:8080",
+                    "https://example.com")
+                .build(),
+            Map.ofEntries(
+                Map.entry("https://a.example.com", true),
+                Map.entry("https://a.b.example.com", true),
+                Map.entry("https://A.Example.COM", true),
+                Map.entry("https://example.com", true),
+                Map.entry("http://v1.api.example.com:8080", true),
+                Map.entry("http://a.example.com", false),
+                Map.entry("https://a.example.com:8443", false),
+                Map.entry("http://v1.api.example.com", false),
+                Map.entry("http://v1.api.example.com:80", false),
+                Map.entry("https://.example.com", false),
+                Map.entry("https://aexample.com", false),
+                Map.entry("https://a.example.com.evil.com", false),
+                Map.entry("https://a.example.org", false),
+                Map.entry("example.com", false)))
     );
 
     return testCases.stream()
@@ -531,8 +593,144 @@ class CorsTest {
               // Test each origin and eval against the expected result.
               for (final Entry<String, Boolean> entry : testCase.tests.entrySet()) {
                 final boolean actual = testCase.cors.isOriginAllowed(entry.getKey());
-                assertEquals(entry.getValue(), actual);
+                assertEquals(entry.getValue(), actual, entry.getKey());
               }
             }));
   }
+
+  @DisplayName("Test reject malformed origin patterns")
+  @Test
+  void shouldRejectMalformedOriginPatterns() {
+    for (final String pattern : List.of(
+        "*.example.com", "https://a.*.example.com", "https://*example.com", "https://*.")) {
+      assertThrows(IllegalArgumentException.class,
+          () -> new Cors.Builder().allowedOrigins(pattern).build(),
+          pattern);
+    }
+  }
+
+  @DisplayName("Test answer Preflight requests without invoking the handler")
+  @Test
+  void shouldShortCircuitPreflightRequests() throws IOException {
+    final HttpHandler handler = mock(HttpHandler.class);
+    final HttpExchange exchangeMock = preflightExchange("http://foo.com", "GET", null);
+
+    new Cors.Builder().build().use(handler).handle(exchangeMock);
+
+    verify(exchangeMock).sendResponseHeaders(Status.NO_CONTENT.value, -1);
+    verify(exchangeMock).close();
+    verifyNoInteractions(handler);
+  }
+
+  @DisplayName("Test pass Preflight requests through to the handler")
+  @Test
+  void shouldPassThroughPreflightRequests() throws IOException {
+    final HttpHandler handler = mock(HttpHandler.class);
+    final HttpExchange exchangeMock = preflightExchange("http://foo.com", "GET", null);
+
+    new Cors.Builder().useOptionsPassthrough(true).build().use(handler).handle(exchangeMock);
+
+    verify(handler).handle(exchangeMock);
+    verify(exchangeMock, never()).sendResponseHeaders(anyInt(), anyLong());
+    verify(exchangeMock, never()).close();
+    assertEquals(List.of("*"),
+        exchangeMock.getResponseHeaders().get(CommonHeader.ALLOW_ORIGINS.value));
+  }
+
+  @DisplayName("Test cache Preflight outcomes")
+  @Test
+  void shouldCachePreflightOutcomes() throws IOException {
+    final Cors cors = new Cors.Builder()
+        .allowedOrigins("http://foo.com")
+        .allowedMethods(Method.PUT)
+        .allowedHeaders("X-Test")
+        .maxAge(10)
+        .build();
+
+    final Headers first = preflight(cors, "http://foo.com", "PUT", "x-test");
+    for (int i = 0; i < 2; i++) {
+      assertEquals(first, preflight(cors, "http://foo.com", "PUT", "x-test"));
+    }
+
+    assertEquals(List.of("http://foo.com"), first.get(CommonHeader.ALLOW_ORIGINS.value));
+    assertEquals(List.of("PUT"), first.get(CommonHeader.ALLOW_METHODS.value));
+    assertEquals(List.of("10"), first.get(CommonHeader.MAX_AGE.value));
+
+    // Downstream handlers may still append to any header.
+    first.add(CommonHeader.VARY.value, "Accept-Encoding");
+    assertEquals(2, first.get(CommonHeader.VARY.value).size());
+    first.add(CommonHeader.ALLOW_METHODS.value, "GET");
+    assertEquals(List.of("PUT", "GET"), first.get(CommonHeader.ALLOW_METHODS.value));
+
+    // Denied outcomes are cached too, and carry only the Vary headers.
+    final Headers denied = preflight(cors, "http://bar.com", "PUT", "x-test");
+    assertEquals(denied, preflight(cors, "http://bar.com", "PUT", "x-test"));
+    assertNull(denied.get(CommonHeader.ALLOW_ORIGINS.value));
+    assertEquals(
+        List.of("Origin, Access-Control-Request-Method, Access-Control-Request-Headers"),
+        denied.get(CommonHeader.VARY.value));
+
+    final CacheStats stats = cors.preflightCacheStats();
+    assertEquals(3, stats.hits());
+    assertEquals(2, stats.misses());
+    assertEquals(2, stats.size());
+    assertEquals(0.6, stats.hitRatio(), 1e-9);
+  }
+
+  @DisplayName("Test disable the Preflight cache")
+  @Test
+  void shouldDisablePreflightCache() throws IOException {
+    final Cors cors = new Cors.Builder()
+        .allowedOrigins("http://foo.com")
+        .preflightCacheCapacity(0)
+        .build();
+
+    for (int i = 0; i < 2; i++) {
+      assertEquals(List.of("http://foo.com"),
+          preflight(cors, "http://foo.com", "GET", null).get(CommonHeader.ALLOW_ORIGINS.value));
+    }
+
+    assertEquals(0, cors.preflightCacheStats().hits());
+    assertEquals(0, cors.preflightCacheStats().size());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> new Cors.Builder().preflightCacheCapacity(-1).build());
+  }
+
+  /**
+   * Send a Preflight request through the given Cors middleware.
+   *
+   * @return The response headers.
+   */
+  private Headers preflight(
+      final Cors cors, final String origin, final String method, final String headers)
+      throws IOException {
+    final HttpExchange exchangeMock = preflightExchange(origin, method, headers);
+
+    cors.use(testHandler).handle(exchangeMock);
+
+    return exchangeMock.getResponseHeaders();
+  }
+
+  /**
+   * Build a mock HttpExchange containing a Preflight request.
+   */
+  private HttpExchange preflightExchange(
+      final String origin, final String method, final String headers) {
+    final HttpExchange exchangeMock =
+        ExchangeMockFactory.build("http://test.com/", Method.OPTIONS);
+
+    final Headers reqHeaders = new Headers();
+    reqHeaders.set(CommonHeader.ORIGIN.value, origin);
+    reqHeaders.set(CommonHeader.REQUEST_METHOD.value, method);
+    if (headers != null) {
+      reqHeaders.set(CommonHeader.REQUEST_HEADERS.value, headers);
+    }
+
+    final Headers resHeaders = new Headers();
+    when(exchangeMock.getRequestHeaders()).thenReturn(reqHeaders);
+    when(exchangeMock.getResponseHeaders()).thenReturn(resHeaders);
+
+    return exchangeMock;
+  }
 }
@@ -21,9 +21,9 @@ import org.junit.jupiter.api.TestFactory;
  */
 @DisplayName("Test CORS utilities")
 class CorsUtilsTest {
-  @DisplayName("Test deriveHeaders")
+  @DisplayName("Test nextHeader")
   @TestFactory
-  Stream<DynamicTest> shouldDeriveHeaders() {
+  Stream<DynamicTest> shouldParseHeaders() {
     final List<TestCase<List<String>>> testCases = List.of(
         new TestCase<>(
             "WellFormattedHeaders",
@@ -41,6 +41,14 @@ class CorsUtilsTest {
             "PoorlyFormattedHeaders",
             "x- test-1,  x -test-2, x -test -3",
             List.of("x-", "test-1", "x", "-test-2", "x", "-test", "-3")),
+        new TestCase<>(
+            "MixedCaseTabbedHeaders",
+            "\tX-Test-1 ,,X-TEST-2\t",
+            List.of("X-Test-1", "X-TEST-2")),
+        new TestCase<>(
+            "EmptyHeaders",
+            " , ",
+            new ArrayList<>()),
         new TestCase<>(
             "RequestHeadersHeaderNotSet",
             null,
@@ -52,21 +60,17 @@ class CorsUtilsTest {
         .map(testCase -> DynamicTest.dynamicTest(
             testCase.name,
             () -> {
-              // Initialize a mock HttpExchange.
-              HttpExchange exchangeMock =
-                  ExchangeMockFactory.build("http://test.com/", Method.GET);
-
-              // Initialize headers to add to the exchangeMock.
-              Headers reqHeaders = new Headers();
-
-              if (testCase.input != null) {
-                // Set the Access-Control-Request-Headers list on the exchangeMock's request.
-                reqHeaders.set(CommonHeader.REQUEST_HEADERS.value, testCase.input);
+              final String headers = testCase.input;
+              final List<String> actual = new ArrayList<>();
+
+              for (long token = CorsUtils.nextHeader(headers, 0);
+                  token >= 0;
+                  token = CorsUtils.nextHeader(headers, CorsUtils.tokenEnd(token))) {
+                actual.add(headers.substring(
+                    CorsUtils.tokenStart(token), CorsUtils.tokenEnd(token)));
               }
 
-              when(exchangeMock.getRequestHeaders()).thenReturn(reqHeaders);
-
-              assertEquals(testCase.expected, CorsUtils.deriveHeaders(exchangeMock));
+              assertEquals(testCase.expected, actual);
             }));
   }
 
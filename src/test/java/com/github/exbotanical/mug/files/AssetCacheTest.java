@@ -0,0 +1,181 @@
+package com.github.exbotanical.mug.files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import com.github.exbotanical.mug.server.Server;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Test AssetCache")
+class AssetCacheTest {
+  private static final String CSS = "body { color: red; }\n".repeat(50);
+
+  @TempDir
+  Path root;
+
+  @DisplayName("Test files are served from memory, compressed where the client accepts gzip")
+  @Test
+  void shouldNegotiateEncoding() throws Exception {
+    Files.writeString(root.resolve("main.css"), CSS);
+    Files.write(root.resolve("logo.png"), new byte[] {1, 2, 3});
+    Files.write(root.resolve("large.txt"), new byte[4096]);
+
+    try (AssetCache cache = new AssetCache(root, "path", 2048)) {
+      assertEquals(2, cache.size());
+      assertNull(cache.get("logo.png").gzip());
+
+      final Router router = new Router();
+      router.register(List.of(Method.GET, Method.HEAD), "/assets/*path", cache, null);
+
+      final Server server = new Server(0, router);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort() + "/assets/";
+        final HttpClient client = HttpClient.newHttpClient();
+
+        final HttpResponse<byte[]> gzip = client.send(
+            HttpRequest.newBuilder(URI.create(base + "main.css"))
+                .header("Accept-Encoding", "br, gzip;q=0.8").build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals("Accept-Encoding", gzip.headers().firstValue("Vary").orElseThrow());
+        assertTrue(gzip.body().length < CSS.length());
+        assertEquals(CSS, gunzip(gzip.body()));
+
+        final HttpResponse<String> identity = client.send(
+            HttpRequest.newBuilder(URI.create(base + "main.css")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertTrue(identity.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("text/css; charset=utf-8",
+            identity.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(CSS, identity.body());
+
+        final HttpResponse<byte[]> png = client.send(
+            HttpRequest.newBuilder(URI.create(base + "logo.png"))
+                .header("Accept-Encoding", "gzip").build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertTrue(png.headers().firstValue("Content-Encoding").isEmpty());
+        assertArrayEquals(new byte[] {1, 2, 3}, png.body());
+
+        // Served from disk.
+        final HttpResponse<byte[]> large = client.send(
+            HttpRequest.newBuilder(URI.create(base + "large.txt")).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(Status.OK.value, large.statusCode());
+        assertEquals(4096, large.body().length);
+      } finally {
+        server.stop(0);
+      }
+    }
+  }
+
+  @DisplayName("Test files created, modified and deleted are refreshed incrementally")
+  @Test
+  void shouldRefreshOnChange() throws Exception {
+    Files.writeString(root.resolve("a.txt"), "one");
+
+    try (AssetCache cache = new AssetCache(root, "path")) {
+      assertEquals("one", identity(cache, "a.txt"));
+
+      Files.writeString(root.resolve("a.txt"), "two");
+      await(() -> "two".equals(identity(cache, "a.txt")));
+
+      Files.createDirectories(root.resolve("js/lib"));
+      Files.writeString(root.resolve("js/lib/b.js"), "b");
+      await(() -> "b".equals(identity(cache, "js/lib/b.js")));
+
+      Files.writeString(root.resolve("js/lib/c.js"), "c");
+      await(() -> "c".equals(identity(cache, "js/lib/c.js")));
+
+      Files.delete(root.resolve("a.txt"));
+      await(() -> cache.get("a.txt") == null);
+
+      assertNotNull(cache.get("js/lib/b.js"));
+    }
+  }
+
+  @DisplayName("Test symbolic links leading outside of the root are not cached")
+  @Test
+  void shouldNotCacheLinksOutOfRoot() throws Exception {
+    final Path served = Files.createDirectories(root.resolve("public"));
+    Files.writeString(root.resolve("secret.txt"), "secret");
+    Files.writeString(served.resolve("inner.txt"), "inner");
+
+    try {
+      Files.createSymbolicLink(served.resolve("escape.txt"), Path.of("../secret.txt"));
+      Files.createSymbolicLink(served.resolve("alias.txt"), Path.of("inner.txt"));
+    } catch (UnsupportedOperationException | IOException e) {
+      assumeTrue(false, "symbolic links unsupported");
+    }
+
+    try (AssetCache cache = new AssetCache(served, "path")) {
+      assertNull(cache.get("escape.txt"));
+      assertEquals("inner", identity(cache, "alias.txt"));
+
+      Files.createSymbolicLink(served.resolve("late.txt"), Path.of("../secret.txt"));
+      Files.writeString(served.resolve("marker.txt"), "marker");
+      await(() -> cache.get("marker.txt") != null);
+      assertNull(cache.get("late.txt"));
+    }
+  }
+
+  @DisplayName("Test Accept-Encoding negotiation honours names, wildcards and zero qualities")
+  @Test
+  void shouldParseAcceptEncoding() {
+    assertTrue(ContentEncoding.acceptsGzip("gzip"));
+    assertTrue(ContentEncoding.acceptsGzip("deflate, GZIP ;q=0.5"));
+    assertTrue(ContentEncoding.acceptsGzip("br;q=1.0, *"));
+    assertTrue(ContentEncoding.acceptsGzip("gzip;q=0.001"));
+
+    assertFalse(ContentEncoding.acceptsGzip(null));
+    assertFalse(ContentEncoding.acceptsGzip(""));
+    assertFalse(ContentEncoding.acceptsGzip("br, deflate"));
+    assertFalse(ContentEncoding.acceptsGzip("gzip;q=0"));
+    assertFalse(ContentEncoding.acceptsGzip("gzip;q=0.000, *"));
+    assertFalse(ContentEncoding.acceptsGzip("*;q=0"));
+    assertFalse(ContentEncoding.acceptsGzip("x-gzip"));
+  }
+
+  private static String identity(final AssetCache cache, final String path) {
+    final AssetCache.Asset asset = cache.get(path);
+
+    return asset == null ? null : new String(asset.identity(), StandardCharsets.UTF_8);
+  }
+
+  private static String gunzip(final byte[] bytes) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static void await(final BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+      Thread.sleep(50);
+    }
+
+    assertTrue(condition.getAsBoolean());
+  }
+}
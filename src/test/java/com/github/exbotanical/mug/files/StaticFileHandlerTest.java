@@ -0,0 +1,187 @@
+package com.github.exbotanical.mug.files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import com.github.exbotanical.mug.server.Engine;
+import com.github.exbotanical.mug.server.Server;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Test StaticFileHandler")
+class StaticFileHandlerTest {
+  private static final Instant MODIFIED = Instant.parse("2024-03-01T12:00:00Z");
+
+  @TempDir
+  Path root;
+
+  @DisplayName("Test files are served with their length, type and modification time")
+  @TestFactory
+  Stream<DynamicTest> shouldServeFiles() {
+    return Stream.of(Engine.values()).map(engine -> dynamicTest(engine.name(), () -> {
+      final byte[] large = new byte[3 * StaticFileHandler.COPY_BUFFER_SIZE + 17];
+      new Random(1).nextBytes(large);
+
+      Files.writeString(root.resolve("index.html"), "<p>hi</p>");
+      Files.createDirectories(root.resolve("assets"));
+      Files.write(root.resolve("assets/blob.bin"), large);
+      Files.setLastModifiedTime(root.resolve("index.html"), FileTime.from(MODIFIED));
+
+      final Router router = new Router();
+      router.register(List.of(Method.GET, Method.HEAD), "/static/*path",
+          new StaticFileHandler(root, "path"), null);
+
+      final Server server = new Server(0, router, engine);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort() + "/static/";
+        final HttpClient client =
+            HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        final HttpResponse<String> index = client.send(
+            HttpRequest.newBuilder(URI.create(base + "index.html")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(Status.OK.value, index.statusCode());
+        assertEquals("<p>hi</p>", index.body());
+        assertEquals("text/html; charset=utf-8",
+            index.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("Fri, 01 Mar 2024 12:00:00 GMT",
+            index.headers().firstValue("Last-Modified").orElseThrow());
+
+        final HttpResponse<byte[]> blob = client.send(
+            HttpRequest.newBuilder(URI.create(base + "assets/blob.bin")).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(MimeTypes.DEFAULT, blob.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(Long.toString(large.length),
+            blob.headers().firstValue("Content-Length").orElseThrow());
+        assertArrayEquals(large, blob.body());
+
+        final HttpResponse<String> head = client.send(
+            HttpRequest.newBuilder(URI.create(base + "index.html"))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(Status.OK.value, head.statusCode());
+        assertEquals("9", head.headers().firstValue("Content-Length").orElseThrow());
+        assertEquals("", head.body());
+
+        final HttpResponse<String> unmodified = client.send(
+            HttpRequest.newBuilder(URI.create(base + "index.html"))
+                .header("If-Modified-Since", "Fri, 01 Mar 2024 12:00:00 GMT").build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(Status.NOT_MODIFIED.value, unmodified.statusCode());
+
+        final HttpResponse<String> modified = client.send(
+            HttpRequest.newBuilder(URI.create(base + "index.html"))
+                .header("If-Modified-Since", "Thu, 29 Feb 2024 12:00:00 GMT").build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(Status.OK.value, modified.statusCode());
+
+        for (final String missing : List.of("nope.txt", "assets", "assets/")) {
+          assertEquals(Status.NOT_FOUND.value, client.send(
+              HttpRequest.newBuilder(URI.create(base + missing)).build(),
+              HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+      } finally {
+        server.stop(0);
+      }
+    }));
+  }
+
+  @DisplayName("Test paths resolving outside of the root are not found")
+  @Test
+  void shouldConfineToRoot() {
+    final StaticFileHandler handler = new StaticFileHandler(root, "path");
+
+    assertEquals(root.resolve("a/b.txt"), handler.resolve("a/b.txt"));
+    assertEquals(root.resolve("b.txt"), handler.resolve("a/../b.txt"));
+    assertNull(handler.resolve("../secret"));
+    assertNull(handler.resolve("a/../../secret"));
+    assertNull(handler.resolve("/etc/passwd"));
+    assertNull(handler.resolve("a\0b"));
+    assertNull(handler.resolve("."));
+    assertNull(handler.resolve(null));
+  }
+
+  @DisplayName("Test symbolic links leading outside of the root are not followed")
+  @TestFactory
+  Stream<DynamicTest> shouldNotFollowLinksOutOfRoot() throws Exception {
+    final Path served = Files.createDirectories(root.resolve("public"));
+    Files.writeString(root.resolve("secret.txt"), "secret");
+    Files.writeString(served.resolve("inner.txt"), "inner");
+
+    try {
+      Files.createSymbolicLink(served.resolve("escape.txt"), Path.of("../secret.txt"));
+      Files.createSymbolicLink(served.resolve("parent"), root);
+      Files.createSymbolicLink(served.resolve("alias.txt"), Path.of("inner.txt"));
+    } catch (UnsupportedOperationException | IOException e) {
+      assumeTrue(false, "symbolic links unsupported");
+    }
+
+    final StaticFileHandler handler = new StaticFileHandler(served, "path");
+    assertNull(handler.confine(handler.resolve("escape.txt")));
+    assertNull(handler.confine(handler.resolve("parent/secret.txt")));
+    assertNull(handler.confine(handler.resolve("missing.txt")));
+    assertEquals(served.resolve("inner.txt").toRealPath(),
+        handler.confine(handler.resolve("alias.txt")));
+
+    return Stream.of(Engine.values()).map(engine -> dynamicTest(engine.name(), () -> {
+      final Router router = new Router();
+      router.register(List.of(Method.GET), "/static/*path", handler, null);
+
+      final Server server = new Server(0, router, engine);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort() + "/static/";
+        final HttpClient client =
+            HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        for (final String escaping : List.of("escape.txt", "parent/secret.txt")) {
+          assertEquals(Status.NOT_FOUND.value, client.send(
+              HttpRequest.newBuilder(URI.create(base + escaping)).build(),
+              HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+
+        final HttpResponse<String> alias = client.send(
+            HttpRequest.newBuilder(URI.create(base + "alias.txt")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(Status.OK.value, alias.statusCode());
+        assertEquals("inner", alias.body());
+      } finally {
+        server.stop(0);
+      }
+    }));
+  }
+
+  @DisplayName("Test media types are resolved from the file extension")
+  @Test
+  void shouldLookUpMimeTypes() {
+    assertEquals("text/css; charset=utf-8", MimeTypes.lookup("a/b/main.css"));
+    assertEquals("image/png", MimeTypes.lookup("LOGO.PNG"));
+    assertEquals(MimeTypes.DEFAULT, MimeTypes.lookup("Makefile"));
+    assertEquals(MimeTypes.DEFAULT, MimeTypes.lookup("a.d/file"));
+    assertEquals(MimeTypes.DEFAULT, MimeTypes.lookup("archive.unknown"));
+  }
+}
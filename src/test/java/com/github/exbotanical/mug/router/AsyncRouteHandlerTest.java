@@ -0,0 +1,263 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.annotations.Route;
+import com.github.exbotanical.mug.router.middleware.AsyncMiddleware;
+import com.github.exbotanical.mug.router.middleware.Middleware;
+import com.github.exbotanical.mug.server.Engine;
+import com.github.exbotanical.mug.server.ForwardingExchange;
+import com.github.exbotanical.mug.server.Server;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+@DisplayName("Test asynchronous route handlers")
+class AsyncRouteHandlerTest {
+  @DisplayName("Test an async handler frees the server's thread until its stage completes")
+  @TestFactory
+  Stream<DynamicTest> shouldCompleteAsynchronously() {
+    return Stream.of(Engine.values()).map(engine -> dynamicTest(engine.name(), () -> {
+      final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+      final Router router = new Router();
+      router.register(List.of(Method.GET), "/wait", (AsyncRouteHandler) (exchange, context) ->
+          gate.thenRun(() -> respond(exchange, "waited")), null);
+      router.register(List.of(Method.GET), "/release", (exchange, context) -> {
+        gate.complete(null);
+        respond(exchange, "released");
+      }, null);
+      router.register(List.of(Method.GET), "/fail", (AsyncRouteHandler) (exchange, context) ->
+          CompletableFuture.runAsync(() -> {
+            throw new IllegalStateException("failed");
+          }), null);
+
+      // Without an executor, each engine handles requests on its own threads; /release can only
+      // be handled if /wait did not hold on to them.
+      final Server server = new Server(0, router, engine);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort();
+        final HttpClient client = HttpClient.newHttpClient();
+
+        final CompletableFuture<HttpResponse<String>> waited = client.sendAsync(
+            HttpRequest.newBuilder(URI.create(base + "/wait")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        final HttpResponse<String> released = client.send(
+            HttpRequest.newBuilder(URI.create(base + "/release")).build(),
+            HttpResponse.BodyHandlers.ofString());
+
+        assertEquals("released", released.body());
+        assertEquals("waited", waited.get(5, TimeUnit.SECONDS).body());
+
+        final HttpResponse<String> failed = client.send(
+            HttpRequest.newBuilder(URI.create(base + "/fail")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(Status.INTERNAL_SERVER_ERROR.value, failed.statusCode());
+      } finally {
+        server.stop(0);
+      }
+    }));
+  }
+
+  @DisplayName("Test sync and async middlewares and handlers compose in order")
+  @Test
+  void shouldComposeMixedChains() throws IOException {
+    final List<String> events = new ArrayList<>();
+    final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+    final Middleware sync = handler -> (exchange, context) -> {
+      events.add("sync before");
+      handler.handle(exchange, context);
+      events.add("sync after");
+    };
+    final AsyncMiddleware async = handler -> (exchange, context) -> {
+      events.add("async before");
+      return handler.handleAsync(exchange, context)
+          .thenRun(() -> events.add("async after"));
+    };
+    final AsyncRouteHandler handler = (exchange, context) -> {
+      events.add("handler");
+      return gate;
+    };
+
+    final Action action = new Action(handler, List.of(sync, async, sync));
+    final CompletionStage<Void> stage =
+        action.chain().handleAsync(mock(HttpExchange.class), new RouteContext(List.of()));
+
+    assertEquals(List.of("sync before", "async before", "sync before", "handler", "sync after",
+        "sync after"), events);
+
+    gate.complete(null);
+
+    assertEquals("async after", events.get(events.size() - 1));
+    assertSame(null, stage.toCompletableFuture().join());
+  }
+
+  @DisplayName("Test a synchronous chain completes before returning")
+  @Test
+  void shouldCompleteSynchronousChains() throws IOException {
+    final RouteHandler handler = mock(RouteHandler.class);
+    final Middleware middleware = next -> next;
+
+    assertSame(AsyncRouteHandler.COMPLETED, new Action(handler, List.of(middleware)).chain()
+        .handleAsync(mock(HttpExchange.class), new RouteContext(List.of())));
+  }
+
+  @DisplayName("Test a synchronous middleware may invoke an async chain on another thread")
+  @Test
+  void shouldReturnStageFromOtherThread() throws IOException {
+    final CompletableFuture<Void> gate = new CompletableFuture<>();
+    final AsyncRouteHandler handler = (exchange, context) -> gate;
+    final Middleware middleware = next -> (exchange, context) -> CompletableFuture.runAsync(() -> {
+      try {
+        next.handle(exchange, context);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }).join();
+
+    assertSame(gate, new Action(handler, List.of(middleware)).chain()
+        .handleAsync(mock(HttpExchange.class), new RouteContext(List.of())));
+  }
+
+  @DisplayName("Test a synchronous middleware over an async chain is composed once")
+  @Test
+  void shouldComposeSynchronousMiddlewaresOnce() throws IOException {
+    final CompletableFuture<Void> gate = new CompletableFuture<>();
+    final AtomicInteger compositions = new AtomicInteger();
+    final AsyncRouteHandler handler = (exchange, context) -> gate;
+    final Middleware middleware = next -> {
+      compositions.incrementAndGet();
+      return (exchange, context) -> next.handle(new ForwardingExchange(exchange) { }, context);
+    };
+
+    final Action action = new Action(handler, List.of(middleware));
+    final RouteContext context = new RouteContext(List.of());
+
+    assertSame(gate, action.chain().handleAsync(mock(HttpExchange.class), context));
+    assertSame(gate, action.chain().handleAsync(mock(HttpExchange.class), context));
+    assertEquals(1, compositions.get());
+  }
+
+  @DisplayName("Test a stage returned after a synchronous middleware has returned does not leak")
+  @Test
+  void shouldNotLeakLateStages() throws IOException {
+    final CompletableFuture<Void> gate = new CompletableFuture<>();
+    final List<Runnable> deferred = new ArrayList<>();
+    final AsyncRouteHandler handler = (exchange, context) -> gate;
+    final Middleware middleware = next -> (exchange, context) -> deferred.add(() -> {
+      try {
+        next.handle(exchange, context);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    final Action action = new Action(handler, List.of(middleware));
+    final HttpExchange exchange = mock(HttpExchange.class);
+    final RouteContext context = new RouteContext(List.of());
+
+    assertSame(AsyncRouteHandler.COMPLETED, action.chain().handleAsync(exchange, context));
+
+    deferred.get(0).run();
+
+    assertSame(AsyncRouteHandler.COMPLETED, action.chain().handleAsync(exchange, context));
+  }
+
+  @DisplayName("Test the Router closes the exchange only once an async handler's stage completes")
+  @Test
+  void shouldCloseUponCompletion() throws Exception {
+    final CompletableFuture<Void> gate = new CompletableFuture<>();
+    final HttpExchange exchange = mock(HttpExchange.class);
+    when(exchange.getRequestURI()).thenReturn(new URI("http://test.com/async"));
+    when(exchange.getRequestMethod()).thenReturn(Method.GET.toString());
+
+    final Router router = new Router();
+    router.register(List.of(Method.GET), "/async",
+        (AsyncRouteHandler) (ex, context) -> gate, null);
+
+    router.handle(exchange);
+    verify(exchange, never()).close();
+
+    gate.complete(null);
+    verify(exchange).close();
+  }
+
+  @DisplayName("Test `use` registers @Route methods returning a CompletionStage as async handlers")
+  @Test
+  void shouldUseAsyncRoutes() throws Exception {
+    final Router router = new Router();
+    router.use(AsyncRoutes.class);
+    router.use(PrivateAsyncRoutes.class);
+
+    for (final String path : List.of("/generated", "/reflected")) {
+      final Action action = router.trie.search(Method.GET, path).action();
+      assertInstanceOf(AsyncRouteHandler.class, action.handler());
+    }
+
+    assertInstanceOf(AsyncRouteHandler.class, RouteHandlers.bindMethodHandle(new AsyncRoutes(),
+        AsyncRoutes.class.getMethod("handler", HttpExchange.class, RouteContext.class)));
+  }
+
+  private static void respond(final HttpExchange exchange, final String body) {
+    try {
+      final byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+      exchange.sendResponseHeaders(Status.OK.value, bytes.length);
+      exchange.getResponseBody().write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Implements a routes configuration with an asynchronous handler.
+   */
+  public static class AsyncRoutes {
+    @Route(method = Method.GET, path = "/generated")
+    public CompletableFuture<Void> handler(final HttpExchange exchange,
+                                           final RouteContext context) {
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  /**
+   * Implements a routes configuration with an asynchronous handler, registered reflectively.
+   */
+  public static class PrivateAsyncRoutes {
+    private PrivateAsyncRoutes() {
+    }
+
+    @Route(method = Method.GET, path = "/reflected")
+    public CompletionStage<Void> handler(final HttpExchange exchange,
+                                         final RouteContext context) {
+      return AsyncRouteHandler.COMPLETED;
+    }
+  }
+}
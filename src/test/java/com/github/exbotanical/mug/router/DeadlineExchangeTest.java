@@ -0,0 +1,217 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.annotations.Route;
+import com.github.exbotanical.mug.server.Engine;
+import com.github.exbotanical.mug.server.Server;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+@DisplayName("Test route timeouts")
+class DeadlineExchangeTest {
+  @DisplayName("Test handlers exceeding their timeout are answered with 503 and interrupted")
+  @TestFactory
+  Stream<DynamicTest> shouldTimeOut() {
+    return Stream.of(Engine.values()).map(engine -> dynamicTest(engine.name(), () -> {
+      final CountDownLatch interrupted = new CountDownLatch(1);
+      final CompletableFuture<Void> never = new CompletableFuture<>();
+
+      final Router router = new Router();
+      router.setDefaultTimeout(Duration.ofMillis(100));
+
+      router.register(List.of(Method.GET), "/sleep", (exchange, context) -> {
+        try {
+          Thread.sleep(5_000);
+          respond(exchange, "slept");
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+      }, null);
+      router.register(List.of(Method.GET), "/never",
+          (AsyncRouteHandler) (exchange, context) -> never, null);
+      router.register(List.of(Method.GET), "/started", (exchange, context) -> {
+        exchange.sendResponseHeaders(Status.OK.value, 0);
+        sleep(300);
+        exchange.getResponseBody().write("started".getBytes(StandardCharsets.US_ASCII));
+      }, null);
+      router.register(List.of(Method.GET), "/exempt", (exchange, context) -> {
+        sleep(300);
+        respond(exchange, "exempt");
+      }, null, Duration.ZERO);
+      router.register(List.of(Method.GET), "/fast", (exchange, context) -> {
+        respond(exchange, "fast");
+      }, null, Duration.ofSeconds(5));
+
+      final ExecutorService executor = Executors.newCachedThreadPool();
+      final Server server = new Server(0, router, engine);
+      server.setExecutor(executor);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort();
+
+        assertEquals(Status.SERVICE_UNAVAILABLE.value, get(base + "/sleep").statusCode());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(Status.SERVICE_UNAVAILABLE.value, get(base + "/never").statusCode());
+        assertThrows(CancellationException.class, () -> never.get(5, TimeUnit.SECONDS));
+
+        assertEquals("started", get(base + "/started").body());
+        assertEquals("exempt", get(base + "/exempt").body());
+        assertEquals("fast", get(base + "/fast").body());
+      } finally {
+        server.stop(0);
+        executor.shutdownNow();
+      }
+    }));
+  }
+
+  @DisplayName("Test the timeout response excludes headers set by the handler")
+  @TestFactory
+  Stream<DynamicTest> shouldNotSendHandlerHeadersOnTimeout() {
+    return Stream.of(Engine.values()).map(engine -> dynamicTest(engine.name(), () -> {
+      final Router router = new Router();
+      router.setDefaultTimeout(Duration.ofMillis(100));
+
+      router.register(List.of(Method.GET), "/partial", (exchange, context) -> {
+        exchange.getResponseHeaders().set("X-Partial", "true");
+        sleep(300);
+      }, null);
+      router.register(List.of(Method.GET), "/fast", (exchange, context) -> {
+        exchange.getResponseHeaders().set("X-Handler", "true");
+        respond(exchange, "fast");
+      }, null, Duration.ofSeconds(5));
+
+      final ExecutorService executor = Executors.newCachedThreadPool();
+      final Server server = new Server(0, router, engine);
+      server.setExecutor(executor);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort();
+
+        final HttpResponse<String> partial = get(base + "/partial");
+        assertEquals(Status.SERVICE_UNAVAILABLE.value, partial.statusCode());
+        assertTrue(partial.headers().firstValue("X-Partial").isEmpty());
+
+        final HttpResponse<String> fast = get(base + "/fast");
+        assertEquals("fast", fast.body());
+        assertEquals("true", fast.headers().firstValue("X-Handler").orElse(null));
+      } finally {
+        server.stop(0);
+        executor.shutdownNow();
+      }
+    }));
+  }
+
+  @DisplayName("Test handlers run on the engine's own thread are not interrupted")
+  @Test
+  void shouldNotInterruptEngineThreads() throws Exception {
+    final AtomicBoolean interrupted = new AtomicBoolean();
+    final CountDownLatch done = new CountDownLatch(1);
+
+    final Router router = new Router();
+    router.setDefaultTimeout(Duration.ofMillis(100));
+
+    router.register(List.of(Method.GET), "/sleep", (exchange, context) -> {
+      try {
+        Thread.sleep(300);
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      } finally {
+        done.countDown();
+      }
+    }, null);
+    router.register(List.of(Method.GET), "/fast", (exchange, context) -> {
+      respond(exchange, "fast");
+    }, null);
+
+    // Without an executor, the JDK engine runs handlers on its dispatcher thread.
+    final Server server = new Server(0, router, Engine.JDK);
+    server.start();
+
+    try {
+      final String base = "http://localhost:" + server.getAddress().getPort();
+
+      assertEquals(Status.SERVICE_UNAVAILABLE.value, get(base + "/sleep").statusCode());
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+      assertFalse(interrupted.get());
+
+      assertEquals("fast", get(base + "/fast").body());
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @DisplayName("Test `@Route` timeouts are registered with the route")
+  @Test
+  void shouldRegisterRouteTimeouts() {
+    final Router router = new Router();
+    router.use(TimeoutRoutes.class);
+
+    assertEquals(Duration.ofMillis(250),
+        router.trie.search(Method.GET, "/timeout").action().timeout());
+    assertNull(router.trie.search(Method.GET, "/default").action().timeout());
+  }
+
+  private static HttpResponse<String> get(final String uri)
+      throws IOException, InterruptedException {
+    return HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(uri)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static void respond(final HttpExchange exchange, final String body)
+      throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+    exchange.sendResponseHeaders(Status.OK.value, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Implements a routes configuration with timeouts.
+   */
+  public static class TimeoutRoutes {
+    @Route(method = Method.GET, path = "/timeout", timeoutMillis = 250)
+    public void timeout(final HttpExchange exchange, final RouteContext context) {
+    }
+
+    @Route(method = Method.GET, path = "/default")
+    public void fallback(final HttpExchange exchange, final RouteContext context) {
+    }
+  }
+}
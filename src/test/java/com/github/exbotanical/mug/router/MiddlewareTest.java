@@ -0,0 +1,91 @@
+package com.github.exbotanical.mug.router;
+
+import static com.github.exbotanical.mug.router.TestUtils.ExchangeMockFactory;
+import static com.github.exbotanical.mug.router.TestUtils.TestRouter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.router.middleware.Middleware;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test Middleware chains")
+class MiddlewareTest {
+  private TestRouter testRouter;
+
+  @BeforeEach
+  void setUp() {
+    testRouter = new TestRouter();
+  }
+
+  /**
+   * A Middleware that records its invocations and counts how many times it has been composed.
+   */
+  static final class RecordingMiddleware implements Middleware {
+    final String name;
+
+    final List<String> log;
+
+    final AtomicInteger compositions = new AtomicInteger();
+
+    RecordingMiddleware(final String name, final List<String> log) {
+      this.name = name;
+      this.log = log;
+    }
+
+    @Override
+    public RouteHandler handle(final RouteHandler handler) {
+      compositions.incrementAndGet();
+
+      return (exchange, context) -> {
+        log.add("before " + name);
+        handler.handle(exchange, context);
+        log.add("after " + name);
+      };
+    }
+  }
+
+  @DisplayName("Test middlewares are invoked in order around the handler")
+  @Test
+  void shouldInvokeMiddlewaresInOrder() throws IOException {
+    final List<String> log = new ArrayList<>();
+    final RouteHandler handler = (exchange, context) -> log.add("handler");
+
+    testRouter.register(List.of(Method.GET), "/api", handler,
+        List.of(new RecordingMiddleware("mw", log), new RecordingMiddleware("mw2", log)));
+
+    final HttpExchange exchangeMock = ExchangeMockFactory.build("http://test.com/api", Method.GET);
+    assert exchangeMock != null;
+    testRouter.handle(exchangeMock);
+
+    assertEquals(List.of("before mw", "before mw2", "handler", "after mw2", "after mw"), log);
+  }
+
+  @DisplayName("Test middleware chains are composed once per route, not per request")
+  @Test
+  void shouldComposeChainOnce() throws IOException {
+    final List<String> log = new ArrayList<>();
+    final RecordingMiddleware mw = new RecordingMiddleware("mw", log);
+
+    testRouter.register(List.of(Method.GET, Method.POST), "/api", (exchange, context) -> {
+    }, List.of(mw));
+
+    final int composedOnRegister = mw.compositions.get();
+
+    for (int i = 0; i < 5; i++) {
+      final HttpExchange exchangeMock =
+          ExchangeMockFactory.build("http://test.com/api", Method.GET);
+      assert exchangeMock != null;
+      testRouter.handle(exchangeMock);
+    }
+
+    assertEquals(composedOnRegister, mw.compositions.get());
+    assertEquals(10, log.size());
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Unit tests for ParameterLabel.
+ */
+@DisplayName("Test parameter labels")
+class ParameterLabelTest {
+  record TestCase(String name, String label, String key, String value, boolean expected) {
+
+  }
+
+  @DisplayName("Test parse and match")
+  @TestFactory
+  Stream<DynamicTest> shouldParseAndMatch() {
+    final List<TestCase> testInputs = List.of(
+        new TestCase("BasicRegexMatch", ":id[^\\d+$]", "id", "123", true),
+        new TestCase("BasicRegexMismatch", ":id[^\\d+$]", "id", "abc", false),
+        new TestCase("NoRegexMatch", ":name", "name", "anything", true),
+        new TestCase("LiteralRegexMatch", ":kind[(a|b)]", "kind", "b", true),
+        new TestCase("LiteralRegexMismatch", ":kind[(a|b)]", "kind", "c", false),
+        new TestCase("IntTypeMatch", ":id<int>", "id", "-42", true),
+        new TestCase("IntTypeMismatch", ":id<int>", "id", "4x2", false),
+        new TestCase("UuidTypeMatch", ":id<uuid>", "id", "123e4567-e89b-12d3-a456-426614174000",
+            true),
+        new TestCase("UuidTypeMismatch", ":id<uuid>", "id", "123e4567", false),
+        new TestCase("AlnumTypeMatch", ":slug<alnum>", "slug", "abc123", true),
+        new TestCase("AlnumTypeMismatch", ":slug<alnum>", "slug", "abc-123", false),
+        new TestCase("RegexWithAngleBrackets", ":id[(?<n>\\d+)]", "id", "7", true));
+
+    return testInputs.stream()
+        .map(testCase -> DynamicTest.dynamicTest(
+            testCase.name,
+            () -> {
+              final ParameterLabel parameter =
+                  ParameterLabel.parse(testCase.label, new RegexCache());
+
+              assertEquals(testCase.label, parameter.label());
+              assertEquals(testCase.key, parameter.key());
+              assertEquals(testCase.expected, parameter.matches(testCase.value));
+            }));
+  }
+
+  @DisplayName("Test parse shares compiled patterns via the cache")
+  @Test
+  void shouldSharePatterns() {
+    final RegexCache cache = new RegexCache();
+
+    assertEquals(
+        ParameterLabel.parse(":id[^\\d+$]", cache).matcher(),
+        ParameterLabel.parse(":uid[^\\d+$]", cache).matcher());
+    assertEquals(1, cache.state.size());
+  }
+
+  @DisplayName("Test parse resolves built-in types and the wildcard without regular expressions")
+  @Test
+  void shouldNotCompileBuiltInTypes() {
+    final RegexCache cache = new RegexCache();
+
+    assertSame(ParameterType.INT, ParameterLabel.parse(":id<int>", cache).matcher());
+    assertSame(ParameterType.ANY, ParameterLabel.parse(":id", cache).matcher());
+    assertEquals(0, cache.state.size());
+  }
+
+  @DisplayName("Test parse rejects unknown types")
+  @Test
+  void shouldRejectUnknownTypes() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ParameterLabel.parse(":id<integer>", new RegexCache()));
+  }
+
+  @DisplayName("Test isParameter")
+  @Test
+  void shouldDetectParameters() {
+    assertTrue(ParameterLabel.isParameter(":id"));
+    assertFalse(ParameterLabel.isParameter("id"));
+  }
+}
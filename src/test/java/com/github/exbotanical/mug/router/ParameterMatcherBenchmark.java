@@ -0,0 +1,73 @@
+package com.github.exbotanical.mug.router;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-match cost of the built-in parameter type scanners against
+ * `Pattern.matcher().matches()` on the equivalent regular expression, for matching and
+ * mismatching segments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParameterMatcherBenchmark {
+  @Param({"int", "uuid", "alnum"})
+  public String typeName;
+
+  @Param({"true", "false"})
+  public boolean matching;
+
+  private ParameterMatcher scanner;
+
+  private ParameterMatcher regex;
+
+  private String segment;
+
+  /**
+   * Select a segment the type accepts, or one it rejects at its final character.
+   */
+  @Setup
+  public void setUp() {
+    final ParameterType type = ParameterType.of(typeName);
+
+    scanner = type;
+    regex = new PatternMatcher(Pattern.compile(type.regex));
+
+    segment = switch (type) {
+      case INT -> matching ? "1234567890" : "123456789x";
+      case UUID -> matching
+          ? "123e4567-e89b-12d3-a456-426614174000"
+          : "123e4567-e89b-12d3-a456-42661417400x";
+      default -> matching ? "productSku2024" : "productSku202!";
+    };
+
+    if (scanner.matches(segment) != matching || regex.matches(segment) != matching) {
+      throw new IllegalStateException("unexpected match result for " + segment);
+    }
+  }
+
+  @Benchmark
+  public boolean scanner() {
+    return scanner.matches(segment);
+  }
+
+  @Benchmark
+  public boolean regex() {
+    return regex.matches(segment);
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Unit tests for ParameterSiblings.
+ */
+@DisplayName("Test parameter siblings")
+class ParameterSiblingsTest {
+  record TestCase(String name, List<String> labels, String segment, List<Integer> expected) {
+
+  }
+
+  private static ParameterSiblings<String> siblings(final List<String> labels) {
+    final RegexCache cache = new RegexCache();
+    final ParameterSiblings<String> siblings = new ParameterSiblings<>();
+
+    for (final String label : labels) {
+      siblings.add(ParameterLabel.parse(label, cache), label);
+    }
+
+    return siblings;
+  }
+
+  @DisplayName("Test siblings are ordered by specificity, then registration order")
+  @Test
+  void shouldOrderBySpecificity() {
+    final ParameterSiblings<String> siblings = siblings(List.of(
+        ":any", ":a[^a$]", ":slug<slug>", ":id<uuid>", ":b[^b$]", ":n<int>", ":c<alnum>"));
+
+    final List<String> expected = List.of(
+        ":id<uuid>", ":n<int>", ":c<alnum>", ":slug<slug>", ":a[^a$]", ":b[^b$]", ":any");
+
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), siblings.node(i));
+    }
+  }
+
+  @DisplayName("Test match yields each matching sibling in order")
+  @TestFactory
+  Stream<DynamicTest> shouldMatchInOrder() {
+    final List<TestCase> testInputs = List.of(
+        new TestCase("CombinedFirst", List.of(":a[(a)(b)c]", ":x[x(y)]", ":d[\\d+]"), "abc",
+            List.of(0)),
+        new TestCase("CombinedOffsetGroups", List.of(":a[(a)(b)c]", ":x[x(y)]", ":d[\\d+]"), "xy",
+            List.of(1)),
+        new TestCase("CombinedLast", List.of(":a[(a)(b)c]", ":x[x(y)]", ":d[\\d+]"), "12",
+            List.of(2)),
+        new TestCase("CombinedNone", List.of(":a[(a)(b)c]", ":x[x(y)]", ":d[\\d+]"), "zz",
+            List.of()),
+        new TestCase("CombinedOverlapping", List.of(":w[\\p{Lower}+]", ":abc[abc]", ":d[\\d+]"),
+            "abc",
+            List.of(0, 1)),
+        new TestCase("CombinedThenWildcard", List.of(":any", ":w[\\p{Lower}+]", ":abc[abc]"), "abc",
+            List.of(0, 1, 2)),
+        new TestCase("TypedThenCombined", List.of(":w[\\p{Lower}+]", ":abc[abc]", ":s<slug>"),
+            "abc",
+            List.of(0, 1, 2)),
+        new TestCase("Backreference", List.of(":r[(a)\\1]", ":d[\\d+]"), "aa", List.of(0)),
+        new TestCase("DuplicateNamedGroups", List.of(":a[(?<g>a)]", ":b[(?<g>b)]"), "b",
+            List.of(1)));
+
+    return testInputs.stream()
+        .map(testCase -> DynamicTest.dynamicTest(
+            testCase.name,
+            () -> {
+              final ParameterSiblings<String> siblings = siblings(testCase.labels);
+
+              final List<Integer> actual = new ArrayList<>();
+              for (int i = siblings.match(testCase.segment, 0); i >= 0;
+                  i = siblings.match(testCase.segment, i + 1)) {
+                actual.add(i);
+              }
+
+              assertEquals(testCase.expected, actual);
+            }));
+  }
+}
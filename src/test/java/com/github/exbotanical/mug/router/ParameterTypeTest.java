@@ -0,0 +1,52 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Unit tests for ParameterType.
+ */
+@DisplayName("Test built-in parameter types")
+class ParameterTypeTest {
+  static final List<String> INPUTS = List.of(
+      "", "0", "42", "-42", "-", "--1", "4-2", "+1", "007", "abc", "ABC", "abc123", "abc-123",
+      "snake_case", "a b", "a\nb", "a\u2028b",
+      "\u0661\u0662", "\u00e9", // Arabic-Indic digits and a non-ASCII letter.
+      "123e4567-e89b-12d3-a456-426614174000",
+      "123E4567-E89B-12D3-A456-426614174000",
+      "123e4567-e89b-12d3-a456-42661417400",
+      "123e4567-e89b-12d3-a456-4266141740000",
+      "123e4567e89b-12d3-a456-4266141740000",
+      "123g4567-e89b-12d3-a456-426614174000",
+      "123e4567-e89b-12d3-a456_426614174000");
+
+  @DisplayName("Test each type accepts exactly what its regular expression does")
+  @TestFactory
+  Stream<DynamicTest> shouldAgreeWithRegex() {
+    return Stream.of(ParameterType.values())
+        .map(type -> DynamicTest.dynamicTest(
+            type.name(),
+            () -> {
+              final Pattern pattern = Pattern.compile(type.regex);
+
+              for (final String input : INPUTS) {
+                assertEquals(pattern.matcher(input).matches(), type.matches(input), input);
+              }
+            }));
+  }
+
+  @DisplayName("Test of")
+  @Test
+  void shouldResolveByLabel() {
+    assertEquals(ParameterType.UUID, ParameterType.of("uuid"));
+    assertNull(ParameterType.of("UUID"));
+  }
+}
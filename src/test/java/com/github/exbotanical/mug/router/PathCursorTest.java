@@ -0,0 +1,88 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Unit tests for PathCursor and SegmentMap.
+ */
+@DisplayName("Test path cursor")
+class PathCursorTest {
+  record TestCase<T>(String name, String input, T expected) {
+
+  }
+
+  @DisplayName("Test cursor yields non-empty segments")
+  @TestFactory
+  Stream<DynamicTest> shouldYieldSegments() {
+    final List<TestCase<List<String>>> testInputs = List.of(
+        new TestCase<>("Root", "/", List.of()),
+        new TestCase<>("Empty", "", List.of()),
+        new TestCase<>("BasicPath", "test", List.of("test")),
+        new TestCase<>("NestedPath", "/test/path", List.of("test", "path")),
+        new TestCase<>("RepeatedDelimiters", "//test///path//", List.of("test", "path")),
+        new TestCase<>("ParameterPath", "/users/:id[^\\d+$]", List.of("users", ":id[^\\d+$]")));
+
+    return testInputs.stream()
+        .map(testCase -> DynamicTest.dynamicTest(
+            testCase.name,
+            () -> {
+              final List<String> segments = new ArrayList<>();
+              final PathCursor cursor = new PathCursor(testCase.input);
+
+              while (cursor.next()) {
+                segments.add(cursor.segment());
+                assertEquals(cursor.segment().hashCode(), cursor.hash());
+              }
+
+              assertEquals(testCase.expected, segments);
+              assertFalse(cursor.next());
+            }));
+  }
+
+  @DisplayName("Test cursor matches labels by region")
+  @Test
+  void shouldMatchLabel() {
+    final PathCursor cursor = new PathCursor("/api/apis");
+
+    assertTrue(cursor.next());
+    assertTrue(cursor.matches("api"));
+    assertFalse(cursor.matches("apis"));
+
+    assertTrue(cursor.next());
+    assertTrue(cursor.matches("apis"));
+    assertFalse(cursor.matches("api"));
+  }
+
+  @DisplayName("Test SegmentMap retrieves values by label and by cursor")
+  @Test
+  void shouldRetrieveSegmentMapValues() {
+    final SegmentMap<Integer> map = new SegmentMap<>();
+
+    for (int i = 0; i < 100; i++) {
+      map.put("segment" + i, i);
+    }
+    map.put("segment0", -1);
+
+    assertEquals(100, map.size());
+    assertEquals(-1, map.get("segment0"));
+    assertEquals(99, map.get("segment99"));
+    assertNull(map.get("segment100"));
+
+    final PathCursor cursor = new PathCursor("/segment42/segment100");
+    assertTrue(cursor.next());
+    assertEquals(42, map.get(cursor));
+    assertTrue(cursor.next());
+    assertNull(map.get(cursor));
+  }
+}
@@ -0,0 +1,102 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the cursor-based path tokenizer against the former `String.split` implementation of
+ * `PathUtils.expandPath`, both in isolation and as part of an uncached PathTrie search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathTokenizerBenchmark {
+  @Param({"short", "deep", "params"})
+  public String shape;
+
+  private String path;
+
+  private PathTrie trie;
+
+  /**
+   * Register a route for each path shape and select the search path for this trial.
+   */
+  @Setup
+  public void setUp() {
+    final RouteHandler handler = (exchange, context) -> {
+    };
+
+    // Disable the search result cache so every search walks the trie.
+    trie = new PathTrie(0);
+    trie.insert(List.of(Method.GET), "/api", handler, new ArrayList<>());
+    trie.insert(List.of(Method.GET), "/api/v1/org/team/project/resource/item/detail", handler,
+        new ArrayList<>());
+    trie.insert(List.of(Method.GET), "/users/:id[^\\d+$]/posts/:post/comments/:comment", handler,
+        new ArrayList<>());
+
+    path = switch (shape) {
+      case "short" -> "/api";
+      case "deep" -> "/api/v1/org/team/project/resource/item/detail/";
+      default -> "/users/123/posts/hello-world/comments/456";
+    };
+  }
+
+  /**
+   * The former implementation of `PathUtils.expandPath`.
+   */
+  static List<String> splitPath(final String path) {
+    final List<String> r = new ArrayList<>();
+
+    for (final String str : path.split("/")) {
+      if (!"".equals(str)) {
+        r.add(str);
+      }
+    }
+
+    return r;
+  }
+
+  /**
+   * Tokenize the path by splitting it into substrings.
+   */
+  @Benchmark
+  public void split(final Blackhole bh) {
+    for (final String segment : splitPath(path)) {
+      bh.consume(segment);
+    }
+  }
+
+  /**
+   * Tokenize the path by walking a PathCursor over it.
+   */
+  @Benchmark
+  public void cursor(final Blackhole bh) {
+    final PathCursor cursor = new PathCursor(path);
+
+    while (cursor.next()) {
+      bh.consume(cursor.hash());
+    }
+  }
+
+  @Benchmark
+  public SearchResult search() {
+    return trie.search(Method.GET, path);
+  }
+}
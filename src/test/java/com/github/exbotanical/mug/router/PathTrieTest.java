@@ -5,11 +5,15 @@ import static com.github.exbotanical.mug.router.TestUtils.SearchQuery;
 import static com.github.exbotanical.mug.router.TestUtils.TestCase;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.github.exbotanical.mug.cache.BoundedCache;
 import com.github.exbotanical.mug.constant.Method;
 import com.github.exbotanical.mug.constant.Path;
 import com.github.exbotanical.mug.router.middleware.Middleware;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
@@ -156,17 +160,231 @@ class PathTrieTest {
 
     );
 
+    return Arrays.stream(RouteTreeType.values())
+        .flatMap(treeType -> {
+          final PathTrie trie = new PathTrie(treeType, BoundedCache.DEFAULT_CAPACITY);
+          for (final RouteRecord record : records) {
+            trie.insert(record.methods(), record.path(), record.handler(), new ArrayList<>());
+          }
+
+          return testCases.stream()
+              .map(
+                  testCase -> DynamicTest.dynamicTest(
+                      treeType + "/" + testCase.name(),
+                      () -> assertEquals(testCase.expected(),
+                          trie.search(testCase.input().method(),
+                              testCase.input().path()))));
+        });
+  }
+
+  @DisplayName("Test insert invalidates cached search results")
+  @Test
+  void shouldInvalidateCachedSearchResults() throws Exception {
+    final RouteHandler testHandler = (exchange, context) -> {
+    };
+    final RouteHandler testHandler2 = (exchange, context) -> {
+    };
+
     final PathTrie trie = new PathTrie();
-    for (final RouteRecord record : records) {
-      trie.insert(record.methods(), record.path(), record.handler(), new ArrayList<>());
+    trie.insert(List.of(Method.GET), "/test", testHandler, new ArrayList<>());
+
+    // Resolve (and cache) an equivalent, but not identical, path.
+    assertSame(testHandler, trie.search(Method.GET, "/test/").action().handler());
+    assertSame(testHandler, trie.search(Method.GET, "/test/").action().handler());
+    assertEquals(1, trie.cacheStats().hits());
+
+    trie.insert(List.of(Method.GET), "/test", testHandler2, new ArrayList<>());
+
+    assertSame(testHandler2, trie.search(Method.GET, "/test/").action().handler());
+  }
+
+  @DisplayName("Test search result cache is bounded")
+  @Test
+  void shouldBoundSearchResultCache() throws Exception {
+    final RouteHandler testHandler = (exchange, context) -> {
+    };
+
+    final PathTrie trie = new PathTrie(16);
+    trie.insert(List.of(Method.GET), "/users/:id", testHandler, new ArrayList<>());
+
+    for (int i = 0; i < 1000; i++) {
+      trie.search(Method.GET, "/users/" + i);
+    }
+
+    assertEquals(16, trie.cacheStats().size());
+    assertEquals(1000 - 16, trie.cacheStats().evictions());
+  }
+
+  @DisplayName("Test misses resolve to shared results and are not cached")
+  @Test
+  void shouldNotCacheMisses() {
+    final RouteHandler testHandler = (exchange, context) -> {
+    };
+
+    final PathTrie trie = new PathTrie();
+    trie.insert(List.of(Method.GET), "/users/:id<int>", testHandler, new ArrayList<>());
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(SearchResult.NOT_FOUND, trie.search(Method.GET, "/admin/" + i));
+      assertSame(SearchResult.NOT_FOUND, trie.search(Method.GET, "/users/x" + i));
+      assertSame(SearchResult.METHOD_NOT_ALLOWED, trie.search(Method.POST, "/users/" + i));
     }
 
-    return testCases.stream()
-        .map(
-            testCase -> DynamicTest.dynamicTest(
-                testCase.name(),
-                () -> assertEquals(testCase.expected(),
-                    trie.search(testCase.input().method(),
-                        testCase.input().path()))));
+    assertEquals(0, trie.cacheStats().size());
+  }
+
+  @DisplayName("Test sibling parameters are tried after static children, by specificity")
+  @TestFactory
+  Stream<DynamicTest> shouldOrderSiblingParameters() {
+    final RouteHandler staticHandler = (exchange, context) -> {
+    };
+    final RouteHandler uuidHandler = (exchange, context) -> {
+    };
+    final RouteHandler intHandler = (exchange, context) -> {
+    };
+    final RouteHandler regexHandler = (exchange, context) -> {
+    };
+    final RouteHandler wildcardHandler = (exchange, context) -> {
+    };
+    final RouteHandler metaHandler = (exchange, context) -> {
+    };
+    final RouteHandler postHandler = (exchange, context) -> {
+    };
+
+    // Registered least specific first, to show that registration order does not decide priority.
+    final List<RouteRecord> records = List.of(
+        new RouteRecord("/files/:name", List.of(Method.GET), wildcardHandler),
+        new RouteRecord("/files/:code[^\\p{Lower}{3}$]", List.of(Method.GET), regexHandler),
+        new RouteRecord("/files/:num<int>", List.of(Method.GET), intHandler),
+        new RouteRecord("/files/:id<uuid>", List.of(Method.GET), uuidHandler),
+        new RouteRecord("/files/new", List.of(Method.GET), staticHandler),
+        new RouteRecord("/files/:name/meta", List.of(Method.GET), metaHandler),
+        new RouteRecord("/items/:id<int>", List.of(Method.GET), intHandler),
+        new RouteRecord("/items/:name", List.of(Method.POST), postHandler));
+
+    final String uuid = "550e8400-e29b-41d4-a716-446655440000";
+
+    final List<TestCase<SearchResult>> testCases = List.of(
+        new TestCase<>("Static", new SearchQuery(Method.GET, "/files/new"),
+            new SearchResult(new Action(staticHandler, List.of()), List.of())),
+        new TestCase<>("Uuid", new SearchQuery(Method.GET, "/files/" + uuid),
+            new SearchResult(new Action(uuidHandler, List.of()),
+                List.of(new Parameter("id", uuid)))),
+        new TestCase<>("Int", new SearchQuery(Method.GET, "/files/42"),
+            new SearchResult(new Action(intHandler, List.of()),
+                List.of(new Parameter("num", "42")))),
+        new TestCase<>("Regex", new SearchQuery(Method.GET, "/files/abc"),
+            new SearchResult(new Action(regexHandler, List.of()),
+                List.of(new Parameter("code", "abc")))),
+        new TestCase<>("Wildcard", new SearchQuery(Method.GET, "/files/readme.txt"),
+            new SearchResult(new Action(wildcardHandler, List.of()),
+                List.of(new Parameter("name", "readme.txt")))),
+        new TestCase<>("BacktrackPastMatchingSibling",
+            new SearchQuery(Method.GET, "/files/42/meta"),
+            new SearchResult(new Action(metaHandler, List.of()),
+                List.of(new Parameter("name", "42")))),
+        new TestCase<>("BacktrackPastStatic", new SearchQuery(Method.GET, "/files/new/meta"),
+            new SearchResult(new Action(metaHandler, List.of()),
+                List.of(new Parameter("name", "new")))),
+        new TestCase<>("BacktrackForMethod", new SearchQuery(Method.POST, "/items/5"),
+            new SearchResult(new Action(postHandler, List.of()),
+                List.of(new Parameter("name", "5")))),
+        new TestCase<>("MethodNotAllowed", new SearchQuery(Method.PUT, "/items/5"),
+            SearchResult.METHOD_NOT_ALLOWED),
+        new TestCase<>("NotFound", new SearchQuery(Method.GET, "/files/42/data"),
+            SearchResult.NOT_FOUND),
+        new TestCase<>("IntermediateNodeNotFound", new SearchQuery(Method.GET, "/files"),
+            SearchResult.NOT_FOUND));
+
+    return Arrays.stream(RouteTreeType.values())
+        .flatMap(treeType -> {
+          final PathTrie trie = new PathTrie(treeType, BoundedCache.DEFAULT_CAPACITY);
+          for (final RouteRecord record : records) {
+            trie.insert(record.methods(), record.path(), record.handler(), new ArrayList<>());
+          }
+
+          return testCases.stream()
+              .map(testCase -> DynamicTest.dynamicTest(
+                  treeType + "/" + testCase.name(),
+                  () -> assertEquals(testCase.expected(),
+                      trie.search(testCase.input().method(), testCase.input().path()))));
+        });
+  }
+
+  @DisplayName("Test catch-all routes capture the remainder of the path, with lowest priority")
+  @TestFactory
+  Stream<DynamicTest> shouldCaptureRemainder() {
+    final RouteHandler staticHandler = (exchange, context) -> {
+    };
+    final RouteHandler paramHandler = (exchange, context) -> {
+    };
+    final RouteHandler catchAllHandler = (exchange, context) -> {
+    };
+
+    final List<RouteRecord> records = List.of(
+        new RouteRecord("/static/*rest", List.of(Method.GET), catchAllHandler),
+        new RouteRecord("/static/index.html", List.of(Method.GET), staticHandler),
+        new RouteRecord("/static/:version<int>", List.of(Method.GET), paramHandler),
+        new RouteRecord("/proxy/:id/*path", List.of(Method.GET), catchAllHandler));
+
+    final List<TestCase<SearchResult>> testCases = List.of(
+        new TestCase<>("Static", new SearchQuery(Method.GET, "/static/index.html"),
+            new SearchResult(new Action(staticHandler, List.of()), List.of())),
+        new TestCase<>("Parameter", new SearchQuery(Method.GET, "/static/2"),
+            new SearchResult(new Action(paramHandler, List.of()),
+                List.of(new Parameter("version", "2")))),
+        new TestCase<>("CatchAll", new SearchQuery(Method.GET, "/static/css/main.css"),
+            new SearchResult(new Action(catchAllHandler, List.of()),
+                List.of(new Parameter("rest", "css/main.css")))),
+        new TestCase<>("CatchAllRaw", new SearchQuery(Method.GET, "//static//css//main.css//"),
+            new SearchResult(new Action(catchAllHandler, List.of()),
+                List.of(new Parameter("rest", "css//main.css")))),
+        new TestCase<>("CatchAllBeneathStatic",
+            new SearchQuery(Method.GET, "/static/index.html/raw"),
+            new SearchResult(new Action(catchAllHandler, List.of()),
+                List.of(new Parameter("rest", "index.html/raw")))),
+        new TestCase<>("CatchAllBeneathParameter", new SearchQuery(Method.GET, "/proxy/7/a/b/c"),
+            new SearchResult(new Action(catchAllHandler, List.of()),
+                List.of(new Parameter("id", "7"), new Parameter("path", "a/b/c")))),
+        new TestCase<>("EmptyRemainder", new SearchQuery(Method.GET, "/static/"),
+            SearchResult.NOT_FOUND),
+        new TestCase<>("MethodNotAllowed", new SearchQuery(Method.POST, "/static/a/b"),
+            SearchResult.METHOD_NOT_ALLOWED));
+
+    return Arrays.stream(RouteTreeType.values())
+        .flatMap(treeType -> {
+          final PathTrie trie = new PathTrie(treeType, BoundedCache.DEFAULT_CAPACITY);
+          for (final RouteRecord record : records) {
+            trie.insert(record.methods(), record.path(), record.handler(), new ArrayList<>());
+          }
+
+          return testCases.stream()
+              .map(testCase -> DynamicTest.dynamicTest(
+                  treeType + "/" + testCase.name(),
+                  () -> assertEquals(testCase.expected(),
+                      trie.search(testCase.input().method(), testCase.input().path()))));
+        });
+  }
+
+  @DisplayName("Test catch-all routes must end the path and not conflict")
+  @Test
+  void shouldRejectMisplacedCatchAll() {
+    final RouteHandler testHandler = (exchange, context) -> {
+    };
+
+    for (final RouteTreeType treeType : RouteTreeType.values()) {
+      final PathTrie trie = new PathTrie(treeType, BoundedCache.DEFAULT_CAPACITY);
+      trie.insert(List.of(Method.GET), "/static/*rest", testHandler, new ArrayList<>());
+
+      assertThrows(IllegalArgumentException.class,
+          () -> trie.insert(List.of(Method.GET), "/files/*rest/more", testHandler,
+              new ArrayList<>()));
+      assertThrows(IllegalArgumentException.class,
+          () -> trie.insert(List.of(Method.GET), "/static/*other", testHandler,
+              new ArrayList<>()));
+      assertDoesNotThrow(
+          () -> trie.insert(List.of(Method.POST), "/static/*rest", testHandler,
+              new ArrayList<>()));
+    }
   }
 }
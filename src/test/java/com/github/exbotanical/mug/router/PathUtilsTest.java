@@ -59,7 +59,9 @@ class PathUtilsTest {
         new TestCase<>("BasicKey", ":id[^\\d+$]", "id"),
         new TestCase<>("BasicKeyEmptyRegex", ":val[]", "val"),
         new TestCase<>("BasicKeyWildcardRegex", ":ex[(.*)]", "ex"),
-        new TestCase<>("BasicKeyNoRegex", ":id", "id")
+        new TestCase<>("BasicKeyNoRegex", ":id", "id"),
+        new TestCase<>("BasicKeyType", ":id<uuid>", "id"),
+        new TestCase<>("BasicKeyRegexWithAngleBrackets", ":id[(?<n>x)]", "id")
 
     );
 
@@ -70,4 +72,37 @@ class PathUtilsTest {
                 testCase.expected,
                 PathUtils.deriveParameterKey(testCase.input))));
   }
+
+  @DisplayName("Test deriveLabelType")
+  @TestFactory
+  Stream<DynamicTest> shouldDeriveLabelType() {
+    final List<TestCase<String>> testInputs = List.of(
+        new TestCase<>("BasicType", ":id<int>", "int"),
+        new TestCase<>("NoType", ":id", null),
+        new TestCase<>("UnterminatedType", ":id<int", null),
+        new TestCase<>("RegexWithAngleBrackets", ":id[(?<n>x)]", null));
+
+    return testInputs.stream()
+        .map(testCase -> DynamicTest.dynamicTest(
+            testCase.name,
+            () -> assertEquals(
+                testCase.expected,
+                PathUtils.deriveLabelType(testCase.input))));
+  }
+
+  @DisplayName("Test remainder")
+  @TestFactory
+  Stream<DynamicTest> shouldExtractRemainder() {
+    final List<TestCase<String>> testInputs = List.of(
+        new TestCase<>("BasicRemainder", "/static/css/main.css", "css/main.css"),
+        new TestCase<>("RawRemainder", "/static/css//main.css", "css//main.css"),
+        new TestCase<>("TrailingDelimiters", "/static/css/main.css//", "css/main.css"));
+
+    return testInputs.stream()
+        .map(testCase -> DynamicTest.dynamicTest(
+            testCase.name,
+            () -> assertEquals(
+                testCase.expected,
+                PathUtils.remainder(testCase.input, "/static/".length()))));
+  }
 }
@@ -0,0 +1,119 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.github.exbotanical.mug.constant.Method;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test RadixTree implementation")
+class RadixTreeTest {
+  private static RouteHandler newHandler() {
+    return (exchange, context) -> {
+    };
+  }
+
+  private static Action newAction(final RouteHandler handler) {
+    return new Action(handler, new ArrayList<>());
+  }
+
+  @DisplayName("Test edges are split where routes diverge")
+  @Test
+  void shouldSplitSharedPrefixes() throws Exception {
+    final RouteHandler use = newHandler();
+    final RouteHandler user = newHandler();
+    final RouteHandler users = newHandler();
+    final RouteHandler usersId = newHandler();
+    final RouteHandler usersMe = newHandler();
+
+    final RadixTree tree = new RadixTree();
+    // Insert longest first so that each subsequent insert splits an existing edge.
+    tree.insert(List.of(Method.GET), "/users/me", newAction(usersMe));
+    tree.insert(List.of(Method.GET), "/users/:id", newAction(usersId));
+    tree.insert(List.of(Method.GET), "/users", newAction(users));
+    tree.insert(List.of(Method.GET), "/user", newAction(user));
+    tree.insert(List.of(Method.GET), "/use", newAction(use));
+
+    assertSame(use, tree.search(Method.GET, "/use").action().handler());
+    assertSame(user, tree.search(Method.GET, "/user").action().handler());
+    assertSame(users, tree.search(Method.GET, "/users").action().handler());
+    assertSame(usersMe, tree.search(Method.GET, "/users/me").action().handler());
+
+    final SearchResult result = tree.search(Method.GET, "/users/mel");
+    assertSame(usersId, result.action().handler());
+    assertEquals(List.of(new Parameter("id", "mel")), result.parameters());
+  }
+
+  @DisplayName("Test redundant delimiters in the search path are ignored")
+  @Test
+  void shouldIgnoreRedundantDelimiters() throws Exception {
+    final RouteHandler handler = newHandler();
+
+    final RadixTree tree = new RadixTree();
+    tree.insert(List.of(Method.GET), "/api/v1/:id/detail", newAction(handler));
+
+    final SearchResult result = tree.search(Method.GET, "//api///v1/42//detail/");
+    assertSame(handler, result.action().handler());
+    assertEquals(List.of(new Parameter("id", "42")), result.parameters());
+  }
+
+  @DisplayName("Test paths ending partway along an edge or at a node without actions are not found")
+  @Test
+  void shouldNotFindPartialPaths() {
+    final RadixTree tree = new RadixTree();
+    tree.insert(List.of(Method.GET), "/api/users", newAction(newHandler()));
+    tree.insert(List.of(Method.GET), "/api/teams", newAction(newHandler()));
+
+    assertSame(SearchResult.NOT_FOUND, tree.search(Method.GET, "/api/user"));
+    assertSame(SearchResult.NOT_FOUND, tree.search(Method.GET, "/api"));
+    assertSame(SearchResult.NOT_FOUND, tree.search(Method.GET, "/api/users/1"));
+    assertSame(SearchResult.NOT_FOUND, tree.search(Method.GET, "/"));
+  }
+
+  @DisplayName("Test a matched path without an action for the method is not allowed")
+  @Test
+  void shouldNotAllowUnregisteredMethod() {
+    final RadixTree tree = new RadixTree();
+    tree.insert(List.of(Method.GET), "/api", newAction(newHandler()));
+
+    assertSame(SearchResult.METHOD_NOT_ALLOWED, tree.search(Method.POST, "/api"));
+  }
+
+  @DisplayName("Test static edges take precedence over parameters, falling back when they fail")
+  @Test
+  void shouldBacktrackFromStaticToParameter() throws Exception {
+    final RouteHandler staticHandler = newHandler();
+    final RouteHandler paramHandler = newHandler();
+
+    final RadixTree tree = new RadixTree();
+    tree.insert(List.of(Method.GET), "/files/latest", newAction(staticHandler));
+    tree.insert(List.of(Method.GET), "/files/:name/raw", newAction(paramHandler));
+
+    assertSame(staticHandler, tree.search(Method.GET, "/files/latest").action().handler());
+    assertSame(paramHandler, tree.search(Method.GET, "/files/latest/raw").action().handler());
+  }
+
+  @DisplayName("Test many routes resolve identically to the segment trie")
+  @Test
+  void shouldResolveLikeSegmentTree() throws Exception {
+    final RadixTree radix = new RadixTree();
+    final SegmentTree trie = new SegmentTree();
+
+    for (int i = 0; i < 500; i++) {
+      final String path = String.format("/api/v%d/resource%d/items", i % 3, i);
+      final Action action = newAction(newHandler());
+
+      radix.insert(List.of(Method.GET), path, action);
+      trie.insert(List.of(Method.GET), path, action);
+    }
+
+    for (int i = 0; i < 500; i++) {
+      final String path = String.format("/api/v%d/resource%d/items", i % 3, i);
+
+      assertEquals(trie.search(Method.GET, path), radix.search(Method.GET, path));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.github.exbotanical.mug.router;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of dispatching to an annotated route handler method, bound via
+ * `LambdaMetafactory`, via a bound MethodHandle, and via `Method.invoke` as `Router.use` formerly
+ * did, against a hand-registered lambda.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteDispatchBenchmark {
+  /**
+   * A routes class with a single, trivial handler.
+   */
+  public static class Routes {
+    int requests;
+
+    public void handler(final HttpExchange exchange, final RouteContext context) {
+      requests++;
+    }
+  }
+
+  private final RouteContext context = new RouteContext(List.of());
+
+  private Routes routes;
+
+  private RouteHandler lambda;
+
+  private RouteHandler metafactory;
+
+  private RouteHandler methodHandle;
+
+  private java.lang.reflect.Method method;
+
+  /**
+   * Bind the handler method each way.
+   */
+  @Setup
+  public void setUp() throws Exception {
+    routes = new Routes();
+    method = Routes.class.getDeclaredMethod("handler", HttpExchange.class, RouteContext.class);
+
+    final Routes instance = routes;
+    lambda = instance::handler;
+    metafactory = RouteHandlers.bind(routes, method);
+    methodHandle = RouteHandlers.bindMethodHandle(routes, method);
+  }
+
+  @Benchmark
+  public int lambda() throws Exception {
+    lambda.handle(null, context);
+    return routes.requests;
+  }
+
+  @Benchmark
+  public int metafactory() throws Exception {
+    metafactory.handle(null, context);
+    return routes.requests;
+  }
+
+  @Benchmark
+  public int methodHandle() throws Exception {
+    methodHandle.handle(null, context);
+    return routes.requests;
+  }
+
+  @Benchmark
+  public int reflection() throws Exception {
+    method.invoke(routes, null, context);
+    return routes.requests;
+  }
+}
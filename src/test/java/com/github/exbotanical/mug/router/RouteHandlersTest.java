@@ -0,0 +1,145 @@
+package com.github.exbotanical.mug.router;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Unit tests for RouteHandlers.
+ */
+@DisplayName("Test route handler method binding")
+class RouteHandlersTest {
+  /**
+   * A binding strategy under test.
+   */
+  @FunctionalInterface
+  interface Binder {
+    RouteHandler bind(Object instance, java.lang.reflect.Method method)
+        throws IllegalAccessException;
+  }
+
+  static final List<RouteContext> STATIC_CONTEXTS = new ArrayList<>();
+
+  /**
+   * Route handler methods of varying shapes.
+   */
+  static final class Handlers {
+    final List<RouteContext> contexts = new ArrayList<>();
+
+    public void publicHandler(final HttpExchange exchange, final RouteContext context) {
+      contexts.add(context);
+    }
+
+    private void privateHandler(final HttpExchange exchange, final RouteContext context) {
+      contexts.add(context);
+    }
+
+    public static void staticHandler(final HttpExchange exchange, final RouteContext context) {
+      STATIC_CONTEXTS.add(context);
+    }
+
+    public String valueHandler(final HttpExchange exchange, final RouteContext context) {
+      contexts.add(context);
+      return "ignored";
+    }
+
+    public void ioHandler(final HttpExchange exchange, final RouteContext context)
+        throws IOException {
+      throw new IOException("io");
+    }
+
+    public void checkedHandler(final HttpExchange exchange, final RouteContext context)
+        throws Exception {
+      throw new Exception("checked");
+    }
+  }
+
+  private static java.lang.reflect.Method method(final String name) throws Exception {
+    final java.lang.reflect.Method method =
+        Handlers.class.getDeclaredMethod(name, HttpExchange.class, RouteContext.class);
+    method.setAccessible(true);
+
+    return method;
+  }
+
+  static final List<BinderCase> BINDERS = List.of(
+      new BinderCase("Metafactory", RouteHandlers::bind),
+      new BinderCase("MethodHandle", RouteHandlers::bindMethodHandle));
+
+  record BinderCase(String name, Binder binder) {
+
+  }
+
+  @DisplayName("Test bound handlers invoke the method")
+  @TestFactory
+  Stream<DynamicTest> shouldInvokeMethod() {
+    return BINDERS.stream()
+        .flatMap(binderCase -> Stream.of("publicHandler", "privateHandler", "valueHandler")
+            .map(name -> DynamicTest.dynamicTest(
+                binderCase.name + "/" + name,
+                () -> {
+                  final Handlers instance = new Handlers();
+                  final RouteContext context = new RouteContext(List.of());
+
+                  binderCase.binder.bind(instance, method(name)).handle(null, context);
+
+                  assertEquals(List.of(context), instance.contexts);
+                })));
+  }
+
+  @DisplayName("Test bound handlers invoke static methods")
+  @TestFactory
+  Stream<DynamicTest> shouldInvokeStaticMethod() {
+    return BINDERS.stream()
+        .map(binderCase -> DynamicTest.dynamicTest(
+            binderCase.name,
+            () -> {
+              STATIC_CONTEXTS.clear();
+              final RouteContext context = new RouteContext(List.of());
+
+              binderCase.binder.bind(null, method("staticHandler")).handle(null, context);
+
+              assertEquals(List.of(context), STATIC_CONTEXTS);
+            }));
+  }
+
+  @DisplayName("Test bound handlers propagate exceptions")
+  @TestFactory
+  Stream<DynamicTest> shouldPropagateExceptions() {
+    return BINDERS.stream()
+        .map(binderCase -> DynamicTest.dynamicTest(
+            binderCase.name,
+            () -> {
+              final Handlers instance = new Handlers();
+
+              final IOException io = assertThrows(IOException.class,
+                  () -> binderCase.binder.bind(instance, method("ioHandler")).handle(null, null));
+              assertEquals("io", io.getMessage());
+
+              final UndeclaredThrowableException checked =
+                  assertThrows(UndeclaredThrowableException.class,
+                      () -> binderCase.binder.bind(instance, method("checkedHandler"))
+                          .handle(null, null));
+              assertEquals("checked", checked.getCause().getMessage());
+            }));
+  }
+
+  @DisplayName("Test bind spins the handler in the method's nest, without a MethodHandle")
+  @Test
+  void shouldSpinDirectImplementation() throws Exception {
+    final RouteHandler handler = RouteHandlers.bind(new Handlers(), method("privateHandler"));
+
+    assertSame(Handlers.class.getNestHost(), handler.getClass().getNestHost());
+  }
+}
@@ -0,0 +1,80 @@
+package com.github.exbotanical.mug.router;
+
+import com.github.exbotanical.mug.constant.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares route resolution between the segment trie and the radix tree at increasing route table
+ * sizes. Searches bypass the PathTrie's search result cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteTreeBenchmark {
+  private static final int SEARCHES = 1024;
+
+  @Param({"100", "10000", "100000"})
+  public int routes;
+
+  @Param({"TRIE", "RADIX"})
+  public RouteTreeType treeType;
+
+  private RouteTree tree;
+
+  private String[] paths;
+
+  private int next;
+
+  /**
+   * Register `routes` routes, one in ten of which end in a parameter, and select the paths to
+   * search for.
+   */
+  @Setup
+  public void setUp() {
+    tree = treeType == RouteTreeType.RADIX ? new RadixTree() : new SegmentTree();
+
+    final List<String> searchable = new ArrayList<>();
+    for (int i = 0; i < routes; i++) {
+      final String base = String.format("/api/v%d/service%d/resource%d", i % 4, i / 100, i);
+      final Action action = new Action((exchange, context) -> {
+      }, new ArrayList<>());
+
+      if (i % 10 == 0) {
+        tree.insert(List.of(Method.GET), base + "/:id[^\\d+$]", action);
+        searchable.add(base + "/" + i);
+      } else {
+        tree.insert(List.of(Method.GET), base, action);
+        searchable.add(base);
+      }
+    }
+
+    final Random random = new Random(42);
+    paths = new String[SEARCHES];
+    for (int i = 0; i < SEARCHES; i++) {
+      paths[i] = searchable.get(random.nextInt(searchable.size()));
+    }
+  }
+
+  @Benchmark
+  public SearchResult search() {
+    next = (next + 1) & (SEARCHES - 1);
+    return tree.search(Method.GET, paths[next]);
+  }
+}
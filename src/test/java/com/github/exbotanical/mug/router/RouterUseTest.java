@@ -4,6 +4,8 @@ import static com.github.exbotanical.mug.router.TestUtils.SearchQuery;
 import static com.github.exbotanical.mug.router.TestUtils.TestCase;
 import static com.github.exbotanical.mug.router.TestUtils.TestRouter;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -22,6 +24,7 @@ import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
 /**
@@ -133,6 +136,44 @@ public class RouterUseTest {
             }));
   }
 
+  @DisplayName("Test `use` registers via the RouteRegistrar generated at compile time")
+  @Test
+  void shouldUseGeneratedRegistrar() {
+    assertDoesNotThrow(() -> Class.forName(
+        "com.github.exbotanical.mug.router.RouterUseTest$$TestRoutes" + RouteRegistrar.SUFFIX));
+
+    testRouter.use(TestRoutes.class);
+
+    assertEquals(SearchStatus.FOUND, testRouter.getTrie().search(Method.GET, "/foo/bar").status());
+  }
+
+  @DisplayName("Test `use` falls back to reflection where no RouteRegistrar was generated")
+  @Test
+  void shouldFallBackToReflection() {
+    assertThrows(ClassNotFoundException.class, () -> Class.forName(
+        "com.github.exbotanical.mug.router.RouterUseTest$$PrivateRoutes" + RouteRegistrar.SUFFIX));
+
+    testRouter.use(PrivateRoutes.class);
+
+    assertEquals(SearchStatus.FOUND, testRouter.getTrie().search(Method.GET, "/private").status());
+  }
+
+  @DisplayName("Test nested and flattened routes class names map to distinct registrars")
+  @Test
+  void shouldNotCollideRegistrarNames() {
+    assertDoesNotThrow(() -> Class.forName(
+        "com.github.exbotanical.mug.router.RouterUseTest$$Api$$Users" + RouteRegistrar.SUFFIX));
+    assertDoesNotThrow(() -> Class.forName(
+        "com.github.exbotanical.mug.router.RouterUseTest$$Api_Users" + RouteRegistrar.SUFFIX));
+
+    testRouter.use(Api.Users.class);
+    testRouter.use(Api_Users.class);
+
+    assertEquals(SearchStatus.FOUND, testRouter.getTrie().search(Method.GET, "/nested").status());
+    assertEquals(SearchStatus.FOUND,
+        testRouter.getTrie().search(Method.GET, "/flattened").status());
+  }
+
   /**
    * Container for storing more metadata in TestCase.
    */
@@ -170,4 +211,45 @@ public class RouterUseTest {
       handlerSpy4.handle(exchange, context);
     }
   }
+
+  /**
+   * Implements a routes configuration the RouteProcessor cannot instantiate.
+   */
+  public static class PrivateRoutes {
+    private PrivateRoutes() {
+    }
+
+    @Route(method = Method.GET, path = "/private")
+    public void handler(final HttpExchange exchange, final RouteContext context)
+        throws IOException {
+      handlerSpy.handle(exchange, context);
+    }
+  }
+
+  /**
+   * Encloses a routes configuration whose flattened name matches that of Api_Users.
+   */
+  public static class Api {
+    /**
+     * Implements a nested routes configuration.
+     */
+    public static class Users {
+      @Route(method = Method.GET, path = "/nested")
+      public void handler(final HttpExchange exchange, final RouteContext context)
+          throws IOException {
+        handlerSpy.handle(exchange, context);
+      }
+    }
+  }
+
+  /**
+   * Implements a routes configuration whose flattened name matches that of Api.Users.
+   */
+  public static class Api_Users {
+    @Route(method = Method.GET, path = "/flattened")
+    public void handler(final HttpExchange exchange, final RouteContext context)
+        throws IOException {
+      handlerSpy.handle(exchange, context);
+    }
+  }
 }
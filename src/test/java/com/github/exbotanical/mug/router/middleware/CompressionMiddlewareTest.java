@@ -0,0 +1,159 @@
+package com.github.exbotanical.mug.router.middleware;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import com.github.exbotanical.mug.server.Engine;
+import com.github.exbotanical.mug.server.Server;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+@DisplayName("Test CompressionMiddleware")
+class CompressionMiddlewareTest {
+  private static final String JSON = "{\"key\": \"value\"}\n".repeat(200);
+
+  @DisplayName("Test responses are compressed per the client, content type and size threshold")
+  @TestFactory
+  Stream<DynamicTest> shouldCompress() {
+    return Stream.of(Engine.values()).map(engine -> dynamicTest(engine.name(), () -> {
+      final CompressionMiddleware compression =
+          new CompressionMiddleware.Builder().minSize(256).poolSize(2).build();
+      final List<Middleware> middlewares = List.of(compression);
+
+      final Router router = new Router();
+      router.register(List.of(Method.GET, Method.HEAD), "/fixed/:size", (exchange, context) -> {
+        final byte[] body = JSON.substring(0, Integer.parseInt(context.param("size")))
+            .getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(Status.OK.value, body.length);
+        exchange.getResponseBody().write(body);
+      }, middlewares);
+      router.register(List.of(Method.GET), "/chunked/:size", (exchange, context) -> {
+        final byte[] body = JSON.substring(0, Integer.parseInt(context.param("size")))
+            .getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+        exchange.sendResponseHeaders(Status.OK.value, 0);
+
+        // Write in small pieces, closing the stream as handlers may.
+        try (OutputStream out = exchange.getResponseBody()) {
+          for (int i = 0; i < body.length; i += 100) {
+            out.write(body, i, Math.min(100, body.length - i));
+          }
+        }
+      }, middlewares);
+      router.register(List.of(Method.GET), "/image", (exchange, context) -> {
+        final byte[] body = new byte[1024];
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(Status.OK.value, body.length);
+        exchange.getResponseBody().write(body);
+      }, middlewares);
+
+      final Server server = new Server(0, router, engine);
+      server.start();
+
+      try {
+        final String base = "http://localhost:" + server.getAddress().getPort();
+
+        // Large, of known length.
+        HttpResponse<byte[]> res = get(base + "/fixed/" + JSON.length(), "gzip");
+        assertEquals("gzip", res.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals("Accept-Encoding", res.headers().firstValue("Vary").orElseThrow());
+        assertTrue(res.body().length < JSON.length());
+        assertEquals(JSON, gunzip(res.body()));
+
+        // Below the threshold.
+        res = get(base + "/fixed/100", "gzip");
+        assertTrue(res.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(JSON.substring(0, 100), new String(res.body(), StandardCharsets.US_ASCII));
+
+        // Not accepted by the client.
+        res = get(base + "/fixed/" + JSON.length(), "br");
+        assertTrue(res.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("Accept-Encoding", res.headers().firstValue("Vary").orElseThrow());
+        assertEquals(JSON, new String(res.body(), StandardCharsets.US_ASCII));
+
+        // Large, of unknown length.
+        res = get(base + "/chunked/" + JSON.length(), "gzip");
+        assertEquals("gzip", res.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals(JSON, gunzip(res.body()));
+
+        // Small, of unknown length, is sent with its length once known.
+        res = get(base + "/chunked/200", "gzip");
+        assertTrue(res.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("200", res.headers().firstValue("Content-Length").orElseThrow());
+        assertEquals(JSON.substring(0, 200), new String(res.body(), StandardCharsets.US_ASCII));
+
+        // Not an allowed content type.
+        res = get(base + "/image", "gzip");
+        assertTrue(res.headers().firstValue("Content-Encoding").isEmpty());
+        assertTrue(res.headers().firstValue("Vary").isEmpty());
+        assertEquals(1024, res.body().length);
+
+        // The Deflaters were returned to the pool.
+        assertEquals(1, compression.pool().idle());
+      } finally {
+        server.stop(0);
+      }
+    }));
+  }
+
+  @DisplayName("Test the content-type allowlist")
+  @Test
+  void shouldMatchContentTypes() {
+    final CompressionMiddleware defaults = new CompressionMiddleware.Builder().build();
+    assertTrue(defaults.isCompressible("text/html; charset=utf-8"));
+    assertTrue(defaults.isCompressible("application/ld+json"));
+    assertFalse(defaults.isCompressible("image/png"));
+    assertFalse(defaults.isCompressible(null));
+
+    final CompressionMiddleware custom = new CompressionMiddleware.Builder()
+        .contentTypes("application/json", "Text/*").build();
+    assertTrue(custom.isCompressible("application/JSON ; charset=utf-8"));
+    assertTrue(custom.isCompressible("text/csv"));
+    assertFalse(custom.isCompressible("application/jsonp"));
+    assertFalse(custom.isCompressible("application/xml"));
+  }
+
+  @DisplayName("Test out of range options are rejected")
+  @Test
+  void shouldValidateOptions() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new CompressionMiddleware.Builder().minSize(0).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> new CompressionMiddleware.Builder().level(10).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> new CompressionMiddleware.Builder().poolSize(0).build());
+  }
+
+  private static HttpResponse<byte[]> get(final String uri, final String acceptEncoding)
+      throws IOException, InterruptedException {
+    return HttpClient.newHttpClient().send(
+        HttpRequest.newBuilder(URI.create(uri)).header("Accept-Encoding", acceptEncoding).build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  private static String gunzip(final byte[] body) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package com.github.exbotanical.mug.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.github.exbotanical.mug.constant.Status;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test ConcurrencyLimiter")
+class ConcurrencyLimiterTest {
+
+  @DisplayName("Test the limiter sheds requests in excess of the limit")
+  @Test
+  void shouldShedExcessRequests() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(1)
+        .build();
+
+    final HttpExchange rejected = mock(HttpExchange.class);
+    final AtomicReference<AdmissionStats> during = new AtomicReference<>();
+
+    // While the first request is in flight, issue a second.
+    limiter.doFilter(mock(HttpExchange.class), chain(exchange -> {
+      limiter.doFilter(rejected, chain(inner -> {
+        throw new AssertionError("expected the request to be shed");
+      }));
+      during.set(limiter.stats());
+      exchange.close();
+    }));
+
+    verify(rejected).sendResponseHeaders(Status.SERVICE_UNAVAILABLE.value, -1);
+    verify(rejected).close();
+    assertEquals(1, during.get().inFlight());
+    assertEquals(1, during.get().shed());
+    assertEquals(0, limiter.stats().inFlight());
+  }
+
+  @DisplayName("Test the limiter increases the limit additively while latency is low")
+  @Test
+  void shouldIncreaseLimit() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(2)
+        .maxLimit(3)
+        .build();
+
+    final HttpExchange exchange = mock(HttpExchange.class);
+    for (int i = 0; i < 3; i++) {
+      limiter.doFilter(exchange, chain(HttpExchange::close));
+    }
+
+    // One request in flight exercises half a limit of 2, but not of 3; nor may it exceed the max.
+    assertEquals(3, limiter.stats().limit());
+    verify(exchange, never()).sendResponseHeaders(Status.SERVICE_UNAVAILABLE.value, -1);
+  }
+
+  @DisplayName("Test the limiter decreases the limit multiplicatively when latency is high")
+  @Test
+  void shouldDecreaseLimit() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(10)
+        .minLimit(8)
+        .backoffRatio(0.5)
+        .latencyThreshold(Duration.ofNanos(1))
+        .build();
+
+    final HttpExchange exchange = mock(HttpExchange.class);
+
+    limiter.doFilter(exchange, chain(e -> {
+      Thread.onSpinWait();
+      e.close();
+    }));
+    assertEquals(8, limiter.stats().limit());
+  }
+
+  @DisplayName("Test the limiter decreases the limit at most once per round trip")
+  @Test
+  void shouldDecreaseLimitOncePerRoundTrip() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(16)
+        .backoffRatio(0.5)
+        .latencyThreshold(Duration.ofNanos(1))
+        .build();
+
+    // Four slow requests admitted together complete one after another.
+    limiter.doFilter(mock(HttpExchange.class), nested(limiter, 3));
+    assertEquals(8, limiter.stats().limit());
+
+    // A request admitted after the cut may cut the limit anew.
+    limiter.doFilter(mock(HttpExchange.class), chain(HttpExchange::close));
+    assertEquals(4, limiter.stats().limit());
+  }
+
+  @DisplayName("Test the limiter counts a request in flight until its exchange is closed")
+  @Test
+  void shouldCountUntilClosed() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(1)
+        .build();
+
+    final AtomicReference<HttpExchange> pending = new AtomicReference<>();
+
+    // As an asynchronous handler, return before completing the response.
+    limiter.doFilter(mock(HttpExchange.class), chain(pending::set));
+    assertEquals(1, limiter.stats().inFlight());
+
+    final HttpExchange rejected = mock(HttpExchange.class);
+    limiter.doFilter(rejected, chain(e -> {
+      throw new AssertionError("expected the request to be shed");
+    }));
+    verify(rejected).sendResponseHeaders(Status.SERVICE_UNAVAILABLE.value, -1);
+
+    pending.get().close();
+    pending.get().close();
+    assertEquals(0, limiter.stats().inFlight());
+  }
+
+  @DisplayName("Test the limiter admits requests before they are queued on the executor")
+  @Test
+  void shouldAdmitBeforeExecutor() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(1)
+        .build();
+
+    final List<Runnable> queue = new ArrayList<>();
+    final Executor executor = limiter.admit(queue::add);
+
+    final HttpExchange first = mock(HttpExchange.class);
+    final HttpExchange rejected = mock(HttpExchange.class);
+
+    executor.execute(task(limiter, first, HttpExchange::close));
+    assertEquals(1, queue.size());
+    assertEquals(1, limiter.stats().inFlight());
+
+    // The queued request counts against the limit; the excess is shed without being queued.
+    executor.execute(task(limiter, rejected, e -> {
+      throw new AssertionError("expected the request to be shed");
+    }));
+    assertEquals(1, queue.size());
+    verify(rejected).sendResponseHeaders(Status.SERVICE_UNAVAILABLE.value, -1);
+    assertEquals(1, limiter.stats().shed());
+
+    queue.get(0).run();
+    verify(first).close();
+    assertEquals(0, limiter.stats().inFlight());
+  }
+
+  @DisplayName("Test the limiter releases a request that never reaches the filter")
+  @Test
+  void shouldReleaseUnfilteredRequests() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(1)
+        .build();
+
+    assertNull(limiter.admit(null));
+
+    final Executor executor = limiter.admit(Runnable::run);
+
+    executor.execute(() -> { });
+    assertEquals(0, limiter.stats().inFlight());
+    assertEquals(1, limiter.stats().limit());
+
+    assertThrows(RejectedExecutionException.class, () -> limiter.admit(task -> {
+      throw new RejectedExecutionException();
+    }).execute(() -> { }));
+    assertEquals(0, limiter.stats().inFlight());
+  }
+
+  @DisplayName("Test the limiter leaves the limit as is when a request fails")
+  @Test
+  void shouldIgnoreFailures() {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+        .initialLimit(2)
+        .build();
+
+    assertThrows(IOException.class, () -> limiter.doFilter(mock(HttpExchange.class),
+        chain(e -> {
+          throw new IOException("failed");
+        })));
+
+    assertEquals(2, limiter.stats().limit());
+    assertEquals(0, limiter.stats().inFlight());
+  }
+
+  @DisplayName("Test the builder rejects inconsistent options")
+  @Test
+  void shouldRejectInvalidOptions() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter.Builder().minLimit(0).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter.Builder().initialLimit(2000).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter.Builder().backoffRatio(1).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter.Builder().latencyThreshold(Duration.ZERO).build());
+  }
+
+  private static Filter.Chain chain(final HttpHandler handler) {
+    return new Filter.Chain(List.of(), handler);
+  }
+
+  /**
+   * A chain admitting `depth` further requests through the limiter, one within another, each
+   * closing its exchange once those within it have completed.
+   */
+  private static Filter.Chain nested(final ConcurrencyLimiter limiter, final int depth) {
+    return chain(exchange -> {
+      if (depth > 0) {
+        limiter.doFilter(mock(HttpExchange.class), nested(limiter, depth - 1));
+      }
+
+      exchange.close();
+    });
+  }
+
+  private static Runnable task(final ConcurrencyLimiter limiter, final HttpExchange exchange,
+                               final HttpHandler handler) {
+    return () -> {
+      try {
+        limiter.doFilter(exchange, chain(handler));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+}
@@ -0,0 +1,182 @@
+package com.github.exbotanical.mug.server;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput and latency distribution of 32 concurrent keep-alive clients against a
+ * small, CPU-bound RouteHandler on each Engine. Each client holds one connection, over which it
+ * issues requests back to back, reconnecting only if the server closes it.
+ *
+ * <p>
+ * Throughput mode reports requests per second; SampleTime mode reports the latency percentiles,
+ * p99 included.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class EngineBenchmark {
+  private static final byte[] REQUEST =
+      "GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * The server under test, shared by all clients.
+   */
+  @State(Scope.Benchmark)
+  public static class ServerState {
+    @Param({"JDK", "NIO"})
+    public Engine engine;
+
+    private Server server;
+
+    /**
+     * Start a server with a single route on the engine under test.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      final byte[] body = "hello".getBytes(StandardCharsets.US_ASCII);
+
+      final Router router = new Router();
+      router.register(List.of(Method.GET), "/hello", (exchange, context) -> {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(Status.OK.value, body.length);
+        exchange.getResponseBody().write(body);
+      }, null);
+
+      server = new Server(0, router, engine);
+      server.start();
+    }
+
+    /**
+     * Stop the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      server.stop(0);
+    }
+  }
+
+  /**
+   * A client's keep-alive connection.
+   */
+  @State(Scope.Thread)
+  public static class ClientState {
+    private int port;
+
+    private Socket socket;
+
+    private InputStream in;
+
+    private OutputStream out;
+
+    /**
+     * Record the port of the server under test.
+     */
+    @Setup(Level.Trial)
+    public void setUp(final ServerState server) {
+      port = server.server.getAddress().getPort();
+    }
+
+    /**
+     * Close the connection.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      if (socket != null) {
+        socket.close();
+      }
+    }
+
+    int exchange() throws IOException {
+      if (socket == null) {
+        socket = new Socket("localhost", port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedInputStream(socket.getInputStream());
+        out = socket.getOutputStream();
+      }
+
+      try {
+        out.write(REQUEST);
+        out.flush();
+
+        return readResponse(in);
+      } catch (IOException e) {
+        // The server may close an idle keep-alive connection just as the client reuses it.
+        socket.close();
+        socket = null;
+
+        return exchange();
+      }
+    }
+  }
+
+  /**
+   * Issue a request over the client's connection and await its response.
+   */
+  @Benchmark
+  public int request(final ClientState client) throws IOException {
+    return client.exchange();
+  }
+
+  /**
+   * Read a response with a Content-Length body, returning its status.
+   */
+  private static int readResponse(final InputStream in) throws IOException {
+    final String statusLine = readLine(in);
+    final int status = Integer.parseInt(statusLine.substring(9, 12));
+
+    int length = 0;
+    for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+      if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+        length = Integer.parseInt(line.substring(15).trim());
+      }
+    }
+
+    in.skipNBytes(length);
+
+    return status;
+  }
+
+  private static String readLine(final InputStream in) throws IOException {
+    final StringBuilder line = new StringBuilder();
+
+    for (int c = in.read(); c != '\n'; c = in.read()) {
+      if (c < 0) {
+        throw new IOException("unexpected end of stream");
+      }
+
+      if (c != '\r') {
+        line.append((char) c);
+      }
+    }
+
+    return line.toString();
+  }
+}
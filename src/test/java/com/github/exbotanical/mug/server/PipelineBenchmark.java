@@ -0,0 +1,183 @@
+package com.github.exbotanical.mug.server;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the request throughput of 8 keep-alive clients on the NIO engine, each pipelining
+ * `depth` requests at a time: every operation writes `depth` requests in one go, then reads their
+ * `depth` responses. Throughput is reported in requests, via the `requests` counter, rather than
+ * operations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class PipelineBenchmark {
+  private static final String REQUEST = "GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n";
+
+  /**
+   * The server under test, shared by all clients.
+   */
+  @State(Scope.Benchmark)
+  public static class ServerState {
+    @Param({"1", "8", "32"})
+    public int depth;
+
+    private Server server;
+
+    /**
+     * Start a server with a single route.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      final byte[] body = "hello".getBytes(StandardCharsets.US_ASCII);
+
+      final Router router = new Router();
+      router.register(List.of(Method.GET), "/hello", (exchange, context) -> {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(Status.OK.value, body.length);
+        exchange.getResponseBody().write(body);
+      }, null);
+
+      server = new Server(0, router, Engine.NIO);
+      server.start();
+    }
+
+    /**
+     * Stop the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      server.stop(0);
+    }
+  }
+
+  /**
+   * A client's keep-alive connection, and the number of requests it has completed.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ClientState {
+    public long requests;
+
+    private int depth;
+
+    private byte[] batch;
+
+    private Socket socket;
+
+    private InputStream in;
+
+    private OutputStream out;
+
+    /**
+     * Connect to the server under test.
+     */
+    @Setup(Level.Trial)
+    public void setUp(final ServerState server) throws IOException {
+      depth = server.depth;
+      batch = REQUEST.repeat(depth).getBytes(StandardCharsets.US_ASCII);
+
+      socket = new Socket("localhost", server.server.getAddress().getPort());
+      socket.setTcpNoDelay(true);
+      in = new BufferedInputStream(socket.getInputStream());
+      out = socket.getOutputStream();
+    }
+
+    /**
+     * Reset the request count for the next iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      requests = 0;
+    }
+
+    /**
+     * Close the connection.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      socket.close();
+    }
+  }
+
+  /**
+   * Pipeline a batch of requests over the client's connection and await their responses.
+   */
+  @Benchmark
+  public int pipeline(final ClientState client) throws IOException {
+    client.out.write(client.batch);
+    client.out.flush();
+
+    int status = 0;
+    for (int i = 0; i < client.depth; i++) {
+      status = readResponse(client.in);
+    }
+
+    client.requests += client.depth;
+
+    return status;
+  }
+
+  /**
+   * Read a response with a Content-Length body, returning its status.
+   */
+  private static int readResponse(final InputStream in) throws IOException {
+    final String statusLine = readLine(in);
+    final int status = Integer.parseInt(statusLine.substring(9, 12));
+
+    int length = 0;
+    for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+      if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+        length = Integer.parseInt(line.substring(15).trim());
+      }
+    }
+
+    in.skipNBytes(length);
+
+    return status;
+  }
+
+  private static String readLine(final InputStream in) throws IOException {
+    final StringBuilder line = new StringBuilder();
+
+    for (int c = in.read(); c != '\n'; c = in.read()) {
+      if (c < 0) {
+        throw new IOException("unexpected end of stream");
+      }
+
+      if (c != '\r') {
+        line.append((char) c);
+      }
+    }
+
+    return line.toString();
+  }
+}
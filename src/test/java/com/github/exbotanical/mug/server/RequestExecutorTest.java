@@ -0,0 +1,131 @@
+package com.github.exbotanical.mug.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test RequestExecutor")
+class RequestExecutorTest {
+
+  @DisplayName("Test the executor caps concurrent requests and counts those waiting")
+  @Test
+  void shouldCapConcurrency() throws InterruptedException {
+    assertCapsConcurrency(RequestExecutor.create(2));
+  }
+
+  @DisplayName("Test the executor caps concurrent requests with permits where threads are cheap")
+  @Test
+  void shouldCapConcurrencyWithPermits() throws InterruptedException {
+    // Stand in for virtual threads with an unbounded pool, such that only the permits bound it.
+    assertCapsConcurrency(
+        new RequestExecutor(Executors.newCachedThreadPool(), true, 2, null));
+  }
+
+  @DisplayName("Test the executor rejects a negative maximum")
+  @Test
+  void shouldRejectNegativeMaximum() {
+    assertThrows(IllegalArgumentException.class, () -> RequestExecutor.create(-1));
+  }
+
+  @DisplayName("Test the pinned thread monitor counts only the pinning of its own threads")
+  @Test
+  void shouldCountOnlyOwnThreadsPinned() {
+    final PinnedThreadMonitor monitor = PinnedThreadMonitor.start("mug-request-test-");
+    assumeTrue(monitor != null, "the Flight Recorder is unavailable");
+
+    try {
+      monitor.record("mug-request-test-0", Duration.ofMillis(30));
+      monitor.record("mug-request-test-1", Duration.ofMillis(20));
+      monitor.record("ForkJoinPool-1-worker-1", Duration.ofMillis(40));
+      monitor.record("", Duration.ofMillis(40));
+      monitor.record(null, Duration.ofMillis(40));
+
+      assertEquals(2, monitor.events());
+      assertEquals(Duration.ofMillis(50), monitor.duration());
+    } finally {
+      monitor.close();
+    }
+  }
+
+  @DisplayName("Test the server handles requests on the executor created by `useVirtualThreads`")
+  @Test
+  void shouldServeViaVirtualThreads() throws Exception {
+    final Router router = new Router();
+    router.register(List.of(Method.GET), "/", (exchange, context) -> {
+      exchange.sendResponseHeaders(Status.OK.value, -1);
+    }, null);
+
+    final Server server = new Server(0, router);
+    assertEquals(VirtualThreads.isSupported(), server.useVirtualThreads(4));
+    server.start();
+
+    try {
+      final HttpResponse<Void> response = HttpClient.newHttpClient().send(
+          HttpRequest.newBuilder(
+              URI.create("http://localhost:" + server.getAddress().getPort() + "/")).build(),
+          HttpResponse.BodyHandlers.discarding());
+
+      assertEquals(Status.OK.value, response.statusCode());
+      await(() -> server.executionStats().completed() == 1);
+
+      final ExecutionStats stats = server.executionStats();
+      assertEquals(VirtualThreads.isSupported(), stats.virtualThreads());
+      assertEquals(4, stats.maxConcurrentRequests());
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private static void assertCapsConcurrency(final RequestExecutor executor)
+      throws InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+
+    try {
+      for (int i = 0; i < 4; i++) {
+        executor.execute(() -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+      }
+
+      await(() -> executor.stats().active() == 2 && executor.stats().queued() == 2);
+
+      release.countDown();
+      await(() -> executor.stats().completed() == 4);
+
+      assertEquals(0, executor.stats().active());
+      assertEquals(0, executor.stats().queued());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  private static void await(final BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + 5_000_000_000L;
+
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out awaiting condition");
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.github.exbotanical.mug.server;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of 128 concurrent clients against an I/O-bound RouteHandler, which blocks
+ * for 100ms as if awaiting a downstream service, on platform thread pools of various sizes and on
+ * virtual threads.
+ *
+ * <p>
+ * On runtimes without virtual threads, `virtual` measures the fallback cached platform pool.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(128)
+@State(Scope.Benchmark)
+public class ServerExecutorBenchmark {
+  private static final int LATENCY_MILLIS = 100;
+
+  @Param({"platform-16", "platform-64", "virtual"})
+  public String executor;
+
+  private Server server;
+
+  private ExecutorService platform;
+
+  private HttpClient client;
+
+  private HttpRequest request;
+
+  /**
+   * Start a server with a single, I/O-bound route on the executor under test.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    final Router router = new Router();
+    router.register(List.of(Method.GET), "/io", (exchange, context) -> {
+      try {
+        Thread.sleep(LATENCY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      exchange.sendResponseHeaders(Status.OK.value, -1);
+    }, null);
+
+    server = new Server(0, router);
+
+    if ("virtual".equals(executor)) {
+      server.useVirtualThreads();
+    } else {
+      platform = Executors.newFixedThreadPool(
+          Integer.parseInt(executor.substring("platform-".length())));
+      server.setExecutor(platform);
+    }
+
+    server.start();
+
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    request = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + server.getAddress().getPort() + "/io")).build();
+  }
+
+  /**
+   * Stop the server and release its threads.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    server.stop(0);
+
+    if (platform != null) {
+      platform.shutdownNow();
+    }
+  }
+
+  /**
+   * Issue a request and await its response.
+   */
+  @Benchmark
+  public int request() throws Exception {
+    try {
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (IOException e) {
+      // The server may close an idle keep-alive connection just as the client reuses it.
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.github.exbotanical.mug.server.nio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import com.github.exbotanical.mug.server.Engine;
+import com.github.exbotanical.mug.server.Server;
+import com.github.exbotanical.mug.server.nio.NioHttpServerTest.RawResponse;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test request pipelining")
+class ConnectionTest {
+  private static final int CONCURRENCY = 4;
+
+  private final AtomicInteger counter = new AtomicInteger();
+
+  private final CountDownLatch rendezvous = new CountDownLatch(CONCURRENCY);
+
+  private ExecutorService executor;
+
+  private Server server;
+
+  private int port;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    final Router router = new Router();
+
+    // Respond with the request's `id` after sleeping for `ms`, such that later requests may
+    // complete first.
+    router.register(List.of(Method.GET), "/sleep", (exchange, context) -> {
+      final String[] query = exchange.getRequestURI().getQuery().split("&");
+      try {
+        Thread.sleep(Long.parseLong(query[1].substring("ms=".length())));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      respond(exchange, query[0].substring("id=".length()));
+    }, null);
+
+    // Respond once all CONCURRENCY requests are being handled at once, or time out.
+    router.register(List.of(Method.GET), "/rendezvous", (exchange, context) -> {
+      rendezvous.countDown();
+
+      boolean met;
+      try {
+        met = rendezvous.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        met = false;
+      }
+
+      respond(exchange, met ? "met" : "alone");
+    }, null);
+
+    router.register(List.of(Method.GET), "/counter", (exchange, context) -> {
+      respond(exchange, Integer.toString(counter.get()));
+    }, null);
+
+    router.register(List.of(Method.POST), "/counter", (exchange, context) -> {
+      try {
+        // Give a concurrently dispatched read the chance to overtake the write.
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      respond(exchange, Integer.toString(counter.incrementAndGet()));
+    }, null);
+
+    // Complete the exchange without sending a response.
+    router.register(List.of(Method.GET), "/silent", (exchange, context) -> { }, null);
+
+    executor = Executors.newFixedThreadPool(CONCURRENCY);
+
+    server = new Server(0, router, Engine.NIO);
+    server.setExecutor(executor);
+    server.start();
+    port = server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @DisplayName("Test pipelined responses are written in request order, however they complete")
+  @Test
+  void shouldWriteResponsesInOrder() throws IOException {
+    final StringBuilder requests = new StringBuilder();
+    for (int i = 0; i < Connection.MAX_PIPELINE_DEPTH * 2; i++) {
+      requests.append("GET /sleep?id=").append(i).append("&ms=").append((i * 7) % 20)
+          .append(" HTTP/1.1\r\n\r\n");
+    }
+
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      socket.getOutputStream().write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+
+      for (int i = 0; i < Connection.MAX_PIPELINE_DEPTH * 2; i++) {
+        assertEquals(Integer.toString(i), RawResponse.read(in).body());
+      }
+    }
+  }
+
+  @DisplayName("Test pipelined requests with safe methods are handled concurrently")
+  @Test
+  void shouldHandleSafeRequestsConcurrently() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      socket.getOutputStream().write(
+          "GET /rendezvous HTTP/1.1\r\n\r\n".repeat(CONCURRENCY)
+              .getBytes(StandardCharsets.US_ASCII));
+
+      for (int i = 0; i < CONCURRENCY; i++) {
+        assertEquals("met", RawResponse.read(in).body());
+      }
+    }
+  }
+
+  @DisplayName("Test a pipelined unsafe request is handled apart from those around it")
+  @Test
+  void shouldSerializeUnsafeRequests() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      socket.getOutputStream().write(("GET /counter HTTP/1.1\r\n\r\n"
+          + "POST /counter HTTP/1.1\r\nContent-Length: 0\r\n\r\n"
+          + "GET /counter HTTP/1.1\r\n\r\n"
+          + "POST /counter HTTP/1.1\r\nContent-Length: 0\r\n\r\n"
+          + "GET /counter HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+      for (final String expected : List.of("0", "1", "1", "2", "2")) {
+        assertEquals(expected, RawResponse.read(in).body());
+      }
+    }
+  }
+
+  @DisplayName("Test pipelined requests are answered after the client shuts down its output")
+  @Test
+  void shouldAnswerAfterHalfClose() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      socket.getOutputStream().write(
+          ("GET /sleep?id=a&ms=50 HTTP/1.1\r\n\r\nGET /sleep?id=b&ms=0 HTTP/1.1\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII));
+      socket.shutdownOutput();
+
+      assertEquals("a", RawResponse.read(in).body());
+      assertEquals("b", RawResponse.read(in).body());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @DisplayName("Test a malformed pipelined request is rejected after those before it are answered")
+  @Test
+  void shouldRejectAfterPrecedingResponses() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      socket.getOutputStream().write(
+          ("GET /sleep?id=a&ms=50 HTTP/1.1\r\n\r\nGET / HTTP/2.0\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII));
+
+      assertEquals("a", RawResponse.read(in).body());
+      assertEquals(Status.HTTP_VERSION_NOT_SUPPORTED.value, RawResponse.read(in).status());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @DisplayName("Test an unanswered pipelined request is answered with 500 after those before it")
+  @Test
+  void shouldAnswerUnansweredAfterPrecedingResponses() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      socket.getOutputStream().write(
+          ("GET /sleep?id=a&ms=50 HTTP/1.1\r\n\r\nGET /silent HTTP/1.1\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII));
+
+      assertEquals("a", RawResponse.read(in).body());
+      assertEquals(Status.INTERNAL_SERVER_ERROR.value, RawResponse.read(in).status());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  private static void respond(final HttpExchange exchange, final String body)
+      throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+    exchange.sendResponseHeaders(Status.OK.value, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+}
@@ -0,0 +1,313 @@
+package com.github.exbotanical.mug.server.nio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.exbotanical.mug.constant.Method;
+import com.github.exbotanical.mug.constant.Status;
+import com.github.exbotanical.mug.router.Router;
+import com.github.exbotanical.mug.server.Engine;
+import com.github.exbotanical.mug.server.Server;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test NioHttpServer")
+class NioHttpServerTest {
+  private Server server;
+
+  private int port;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    final Router router = new Router();
+
+    router.register(List.of(Method.GET, Method.HEAD), "/fixed", (exchange, context) -> {
+      final byte[] body = "fixed".getBytes(StandardCharsets.US_ASCII);
+      exchange.sendResponseHeaders(Status.OK.value, body.length);
+      exchange.getResponseBody().write(body);
+    }, null);
+
+    router.register(List.of(Method.GET), "/chunked", (exchange, context) -> {
+      exchange.sendResponseHeaders(Status.OK.value, 0);
+      exchange.getResponseBody().write("a".repeat(40_000).getBytes(StandardCharsets.US_ASCII));
+    }, null);
+
+    router.register(List.of(Method.POST), "/echo", (exchange, context) -> {
+      final byte[] body = exchange.getRequestBody().readAllBytes();
+      exchange.sendResponseHeaders(Status.OK.value, body.length == 0 ? -1 : body.length);
+      if (body.length > 0) {
+        exchange.getResponseBody().write(body);
+      }
+    }, null);
+
+    router.register(List.of(Method.GET), "/throw", (exchange, context) -> {
+      throw new IllegalStateException("boom");
+    }, null);
+
+    router.register(List.of(Method.GET), "/thread", (exchange, context) -> {
+      final byte[] body = Thread.currentThread().getName().getBytes(StandardCharsets.US_ASCII);
+      exchange.sendResponseHeaders(Status.OK.value, body.length);
+      exchange.getResponseBody().write(body);
+    }, null);
+
+    server = new Server(0, router, Engine.NIO);
+    server.start();
+    port = server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @DisplayName("Test requests are served in turn over a single kept-alive connection")
+  @Test
+  void shouldKeepAlive() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+      final OutputStream out = socket.getOutputStream();
+
+      for (int i = 0; i < 3; i++) {
+        send(out, "GET /fixed HTTP/1.1\r\nHost: localhost\r\n\r\n");
+
+        final RawResponse response = RawResponse.read(in);
+        assertEquals(Status.OK.value, response.status);
+        assertEquals("fixed", response.body);
+        assertNull(response.headers.get("connection"));
+      }
+
+      send(out, "POST /echo HTTP/1.1\r\nContent-Length: 4\r\n\r\nping");
+      assertEquals("ping", RawResponse.read(in).body);
+    }
+  }
+
+  @DisplayName("Test a request sent ahead of the previous response is served after it")
+  @Test
+  void shouldServeRequestSentAhead() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+
+      send(socket.getOutputStream(), "GET /fixed HTTP/1.1\r\n\r\n"
+          + "POST /echo HTTP/1.1\r\nContent-Length: 3\r\n\r\nabc");
+
+      assertEquals("fixed", RawResponse.read(in).body);
+      assertEquals("abc", RawResponse.read(in).body);
+    }
+  }
+
+  @DisplayName("Test a response of unknown length spanning several buffers is chunked")
+  @Test
+  void shouldChunkResponse() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      send(socket.getOutputStream(), "GET /chunked HTTP/1.1\r\n\r\n");
+
+      final RawResponse response = RawResponse.read(socket.getInputStream());
+      assertEquals("chunked", response.headers.get("transfer-encoding"));
+      assertEquals(40_000, response.body.length());
+    }
+  }
+
+  @DisplayName("Test a HEAD request is answered with headers alone")
+  @Test
+  void shouldOmitBodyForHead() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+
+      send(socket.getOutputStream(), "HEAD /fixed HTTP/1.1\r\n\r\nGET /fixed HTTP/1.1\r\n\r\n");
+
+      final RawResponse head = RawResponse.read(in, true);
+      assertEquals("5", head.headers.get("content-length"));
+      assertEquals("", head.body);
+
+      assertEquals("fixed", RawResponse.read(in).body);
+    }
+  }
+
+  @DisplayName("Test the connection is closed after the response where the client asks")
+  @Test
+  void shouldCloseOnRequest() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+
+      send(socket.getOutputStream(), "GET /fixed HTTP/1.0\r\n\r\n");
+
+      final RawResponse response = RawResponse.read(in);
+      assertEquals("close", response.headers.get("connection"));
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @DisplayName("Test a malformed request is rejected and the connection closed")
+  @Test
+  void shouldRejectMalformedRequest() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      final InputStream in = socket.getInputStream();
+
+      send(socket.getOutputStream(), "GET / HTTP/2.0\r\n\r\n");
+
+      assertEquals(Status.HTTP_VERSION_NOT_SUPPORTED.value, RawResponse.read(in).status);
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @DisplayName("Test a handler failure is answered with 500 Internal Server Error")
+  @Test
+  void shouldAnswerHandlerFailure() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      send(socket.getOutputStream(), "GET /throw HTTP/1.1\r\n\r\n");
+
+      assertEquals(Status.INTERNAL_SERVER_ERROR.value,
+          RawResponse.read(socket.getInputStream()).status);
+    }
+  }
+
+  @DisplayName("Test the router's fallbacks and HttpClient interoperate with the server")
+  @Test
+  void shouldServeHttpClient() throws Exception {
+    final HttpClient client =
+        HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    final HttpResponse<String> found = client.send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/fixed")).build(),
+        HttpResponse.BodyHandlers.ofString());
+    assertEquals(Status.OK.value, found.statusCode());
+    assertEquals("fixed", found.body());
+
+    final HttpResponse<String> echoed = client.send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/echo"))
+            .POST(HttpRequest.BodyPublishers.ofString("x".repeat(100_000)))
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+    assertEquals(100_000, echoed.body().length());
+
+    final HttpResponse<Void> missing = client.send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/missing")).build(),
+        HttpResponse.BodyHandlers.discarding());
+    assertEquals(Status.NOT_FOUND.value, missing.statusCode());
+  }
+
+  @DisplayName("Test requests are handled on the default pool rather than the I/O workers")
+  @Test
+  void shouldHandleOffIoWorkers() throws IOException {
+    try (Socket socket = new Socket("localhost", port)) {
+      send(socket.getOutputStream(), "GET /thread HTTP/1.1\r\n\r\n");
+
+      assertTrue(RawResponse.read(socket.getInputStream()).body.startsWith("mug-nio-handler-"));
+    }
+  }
+
+  @DisplayName("Test the executor may not be replaced once the server has started")
+  @Test
+  void shouldRejectExecutorAfterStart() {
+    assertThrows(IllegalStateException.class, () -> server.setExecutor(Runnable::run));
+  }
+
+  @DisplayName("Test a request trickled in slower than the request timeout is rejected")
+  @Test
+  void shouldTimeOutSlowRequest() throws Exception {
+    final NioHttpServer slow = new NioHttpServer(1, 1024, 60_000, 500);
+    slow.bind(new InetSocketAddress("localhost", 0), 0);
+    slow.createContext("/", exchange -> {
+      exchange.sendResponseHeaders(Status.OK.value, -1);
+      exchange.close();
+    });
+    slow.start();
+
+    try (Socket socket = new Socket("localhost", slow.getAddress().getPort())) {
+      final InputStream in = socket.getInputStream();
+      final OutputStream out = socket.getOutputStream();
+
+      // Keep the connection active, but never finish the head.
+      send(out, "GET / HTTP/1.1\r\n");
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (in.available() == 0 && System.nanoTime() < deadline) {
+        send(out, "X-Slow: 1\r\n");
+        Thread.sleep(100);
+      }
+
+      assertEquals(Status.REQUEST_TIMEOUT.value, RawResponse.read(in).status);
+      assertEquals(-1, in.read());
+    } finally {
+      slow.stop(0);
+    }
+  }
+
+  private static void send(final OutputStream out, final String raw) throws IOException {
+    out.write(raw.getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+
+  /**
+   * A minimal HTTP/1.1 response reader.
+   */
+  record RawResponse(int status, Map<String, String> headers, String body) {
+    static RawResponse read(final InputStream in) throws IOException {
+      return read(in, false);
+    }
+
+    static RawResponse read(final InputStream in, final boolean head) throws IOException {
+      final String statusLine = readLine(in);
+      final int status = Integer.parseInt(statusLine.substring(9, 12));
+
+      final Map<String, String> headers = new HashMap<>();
+      for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+        final int colon = line.indexOf(':');
+        headers.put(line.substring(0, colon).toLowerCase(), line.substring(colon + 1).trim());
+      }
+
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+      if (head) {
+        return new RawResponse(status, headers, "");
+      }
+
+      if ("chunked".equals(headers.get("transfer-encoding"))) {
+        for (int size = Integer.parseInt(readLine(in), 16); size > 0;
+             size = Integer.parseInt(readLine(in), 16)) {
+          body.write(in.readNBytes(size));
+          readLine(in);
+        }
+
+        readLine(in);
+      } else if (headers.containsKey("content-length")) {
+        body.write(in.readNBytes(Integer.parseInt(headers.get("content-length"))));
+      }
+
+      return new RawResponse(status, headers, body.toString(StandardCharsets.US_ASCII));
+    }
+
+    static String readLine(final InputStream in) throws IOException {
+      final StringBuilder line = new StringBuilder();
+
+      for (int c = in.read(); c != '\n'; c = in.read()) {
+        if (c < 0) {
+          throw new IOException("unexpected end of stream");
+        }
+
+        if (c != '\r') {
+          line.append((char) c);
+        }
+      }
+
+      return line.toString();
+    }
+  }
+}
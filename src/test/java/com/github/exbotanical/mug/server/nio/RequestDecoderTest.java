@@ -0,0 +1,196 @@
+package com.github.exbotanical.mug.server.nio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import com.github.exbotanical.mug.constant.Status;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+@DisplayName("Test RequestDecoder")
+class RequestDecoderTest {
+  private final RequestDecoder decoder = new RequestDecoder(64);
+
+  private final byte[] scratch = new byte[RequestDecoder.MAX_HEAD_SIZE];
+
+  @DisplayName("Test decoding a request without a body")
+  @Test
+  void shouldDecodeRequest() throws MalformedRequestException {
+    final Request request = decoder.decode(
+        bytes("GET /api/x?q=1 HTTP/1.1\r\nHost: a\r\nX-Multi: 1\r\nX-Multi:  2 \r\n\r\n"),
+        scratch);
+
+    assertNotNull(request);
+    assertEquals("GET", request.method());
+    assertEquals("/api/x", request.uri().getPath());
+    assertEquals("q=1", request.uri().getQuery());
+    assertEquals("HTTP/1.1", request.protocol());
+    assertEquals("a", request.headers().getFirst("host"));
+    assertEquals(List.of("1", "2"), request.headers().get("X-Multi"));
+    assertEquals(0, request.bodyLength());
+    assertTrue(request.keepAlive());
+    assertTrue(decoder.isIdle());
+  }
+
+  @DisplayName("Test decoding a request delivered a byte at a time")
+  @Test
+  void shouldDecodeSplitRequest() throws MalformedRequestException {
+    final byte[] raw =
+        "POST / HTTP/1.1\r\nContent-Length: 5\r\n\r\nhello".getBytes(StandardCharsets.US_ASCII);
+    final ByteBuffer in = ByteBuffer.allocate(raw.length);
+
+    Request request = null;
+    for (int i = 0; i < raw.length; i++) {
+      assertNull(request);
+
+      in.put(raw[i]).flip();
+      request = decoder.decode(in, scratch);
+      in.compact();
+    }
+
+    assertNotNull(request);
+    assertEquals("hello", body(request));
+  }
+
+  @DisplayName("Test decoding several requests from one read, leaving the remainder")
+  @Test
+  void shouldDecodeConsecutiveRequests() throws MalformedRequestException {
+    final ByteBuffer in = bytes("GET /a HTTP/1.1\r\n\r\n"
+        + "POST /b HTTP/1.1\r\nContent-Length: 2\r\n\r\nok"
+        + "GET /c HT");
+
+    assertEquals("/a", decoder.decode(in, scratch).uri().getPath());
+
+    final Request second = decoder.decode(in, scratch);
+    assertEquals("/b", second.uri().getPath());
+    assertEquals("ok", body(second));
+
+    assertNull(decoder.decode(in, scratch));
+  }
+
+  @DisplayName("Test decoding a chunked body, discarding trailers")
+  @Test
+  void shouldDecodeChunkedBody() throws MalformedRequestException {
+    final Request request = decoder.decode(bytes("POST / HTTP/1.1\r\n"
+        + "Transfer-Encoding: chunked\r\n\r\n"
+        + "5;ext=1\r\nhello\r\n"
+        + "6\r\n world\r\n"
+        + "0\r\nX-Trailer: t\r\n\r\n"), scratch);
+
+    assertNotNull(request);
+    assertEquals("hello world", body(request));
+    assertTrue(decoder.isIdle());
+
+    // The coding is matched case-insensitively, ignoring surrounding whitespace.
+    assertEquals("ok", body(decoder.decode(bytes("POST / HTTP/1.1\r\n"
+        + "Transfer-Encoding:  Chunked \r\n\r\n"
+        + "2\r\nok\r\n0\r\n\r\n"), scratch)));
+  }
+
+  @DisplayName("Test the keep-alive defaults of each protocol version")
+  @Test
+  void shouldResolveKeepAlive() throws MalformedRequestException {
+    assertFalse(
+        decoder.decode(bytes("GET / HTTP/1.1\r\nConnection: close\r\n\r\n"), scratch)
+            .keepAlive());
+    assertFalse(decoder.decode(bytes("GET / HTTP/1.0\r\n\r\n"), scratch).keepAlive());
+    assertTrue(
+        decoder.decode(bytes("GET / HTTP/1.0\r\nConnection: Keep-Alive\r\n\r\n"), scratch)
+            .keepAlive());
+  }
+
+  @DisplayName("Test a client awaiting 100 Continue is answered once, before its body")
+  @Test
+  void shouldContinue() throws MalformedRequestException {
+    assertNull(decoder.decode(
+        bytes("PUT / HTTP/1.1\r\nExpect: 100-continue\r\nContent-Length: 2\r\n\r\n"), scratch));
+    assertTrue(decoder.shouldContinue());
+    assertFalse(decoder.shouldContinue());
+    assertNotNull(decoder.decode(bytes("ok"), scratch));
+  }
+
+  @DisplayName("Test malformed or oversized requests are rejected with the appropriate status")
+  @TestFactory
+  Stream<DynamicTest> shouldRejectMalformedRequests() {
+    record TestCase(String name, String raw, Status expected) {
+    }
+
+    return Stream.of(
+        new TestCase("no target", "GET HTTP/1.1\r\n\r\n", Status.BAD_REQUEST),
+        new TestCase("bare line feed", "GET / HTTP/1.1\r\nA: 1\nB: 2\r\n\r\n", Status.BAD_REQUEST),
+        new TestCase("space before colon", "GET / HTTP/1.1\r\nA : 1\r\n\r\n", Status.BAD_REQUEST),
+        new TestCase("folded header", "GET / HTTP/1.1\r\nA: 1\r\n 2\r\n\r\n", Status.BAD_REQUEST),
+        new TestCase("bad length", "POST / HTTP/1.1\r\nContent-Length: x\r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("signed length", "POST / HTTP/1.1\r\nContent-Length: +5\r\n\r\nhello",
+            Status.BAD_REQUEST),
+        new TestCase("negative length", "POST / HTTP/1.1\r\nContent-Length: -5\r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("empty length", "POST / HTTP/1.1\r\nContent-Length: \r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("overflowing length",
+            "POST / HTTP/1.1\r\nContent-Length: 99999999999999999999\r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("conflicting lengths",
+            "POST / HTTP/1.1\r\nContent-Length: 1\r\nContent-Length: 2\r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("bad chunk size", "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\nz\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("body too large", "POST / HTTP/1.1\r\nContent-Length: 65\r\n\r\n",
+            Status.REQUEST_ENTITY_TOO_LARGE),
+        new TestCase("chunked body too large",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n41\r\n",
+            Status.REQUEST_ENTITY_TOO_LARGE),
+        new TestCase("unknown transfer encoding",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: gzip\r\n\r\n", Status.NOT_IMPLEMENTED),
+        new TestCase("transfer encoding suffixed with chunked",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: xchunked\r\n\r\n", Status.NOT_IMPLEMENTED),
+        new TestCase("chunked after another transfer encoding",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: gzip, chunked\r\n\r\n",
+            Status.NOT_IMPLEMENTED),
+        new TestCase("chunked twice",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: chunked, chunked\r\n\r\n",
+            Status.NOT_IMPLEMENTED),
+        new TestCase("transfer encoding across field lines",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: gzip\r\nTransfer-Encoding: chunked\r\n\r\n",
+            Status.NOT_IMPLEMENTED),
+        new TestCase("chunked then another transfer encoding field line",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\nTransfer-Encoding: gzip\r\n\r\n",
+            Status.NOT_IMPLEMENTED),
+        new TestCase("both transfer encoding and length",
+            "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\nContent-Length: 5\r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("both length and transfer encoding",
+            "POST / HTTP/1.1\r\nContent-Length: 0\r\nTransfer-Encoding: chunked\r\n\r\n",
+            Status.BAD_REQUEST),
+        new TestCase("HTTP/2", "GET / HTTP/2.0\r\n\r\n", Status.HTTP_VERSION_NOT_SUPPORTED),
+        new TestCase("head too large",
+            "GET / HTTP/1.1\r\nA: " + "a".repeat(RequestDecoder.MAX_HEAD_SIZE) + "\r\n\r\n",
+            Status.REQUEST_HEADER_FIELDS_TOO_LARGE)
+    ).map(test -> dynamicTest(test.name, () -> {
+      final MalformedRequestException e = assertThrows(MalformedRequestException.class,
+          () -> new RequestDecoder(64).decode(bytes(test.raw), scratch));
+
+      assertEquals(test.expected.value, e.status);
+    }));
+  }
+
+  private static ByteBuffer bytes(final String s) {
+    return ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static String body(final Request request) {
+    return new String(request.body(), 0, request.bodyLength(), StandardCharsets.US_ASCII);
+  }
+}
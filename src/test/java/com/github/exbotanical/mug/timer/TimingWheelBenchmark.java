@@ -0,0 +1,84 @@
+package com.github.exbotanical.mug.timer;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of scheduling and then cancelling a request deadline with 50k others in
+ * flight, as a request completing within its timeout would, on a TimingWheel and on a
+ * ScheduledThreadPoolExecutor (a binary heap).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+  private static final int IN_FLIGHT = 50_000;
+
+  private static final Duration DEADLINE = Duration.ofSeconds(30);
+
+  private static final Runnable TASK = () -> { };
+
+  private TimingWheel wheel;
+
+  private ScheduledThreadPoolExecutor executor;
+
+  /**
+   * Start the timers, each with IN_FLIGHT deadlines pending.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    wheel = new TimingWheel("benchmark-wheel", Duration.ofMillis(10), 512);
+    executor = new ScheduledThreadPoolExecutor(1);
+    executor.setRemoveOnCancelPolicy(true);
+
+    for (int i = 0; i < IN_FLIGHT; i++) {
+      wheel.schedule(TASK, DEADLINE.plusMillis(i));
+      executor.schedule(TASK, DEADLINE.toMillis() + i, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stop the timers.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    wheel.close();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Schedule and cancel a deadline on the TimingWheel.
+   */
+  @Benchmark
+  public boolean timingWheel() {
+    return wheel.schedule(TASK, DEADLINE).cancel();
+  }
+
+  /**
+   * Schedule and cancel a deadline on the ScheduledThreadPoolExecutor.
+   */
+  @Benchmark
+  public boolean scheduledExecutor() {
+    final ScheduledFuture<?> future = executor.schedule(TASK, DEADLINE.toMillis(),
+        TimeUnit.MILLISECONDS);
+
+    return future.cancel(false);
+  }
+}
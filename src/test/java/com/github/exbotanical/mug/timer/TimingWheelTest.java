@@ -0,0 +1,107 @@
+package com.github.exbotanical.mug.timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test TimingWheel")
+class TimingWheelTest {
+  @DisplayName("Test tasks run once due, in deadline order, including those many revolutions out")
+  @Test
+  void shouldRunDueTasks() throws InterruptedException {
+    // 8 buckets of 5ms: the wheel revolves every 40ms.
+    try (TimingWheel wheel = new TimingWheel("test-wheel", Duration.ofMillis(5), 8)) {
+      final List<Integer> order = new CopyOnWriteArrayList<>();
+      final CountDownLatch done = new CountDownLatch(3);
+      final long start = System.nanoTime();
+
+      for (final int delay : new int[] {150, 10, 60}) {
+        wheel.schedule(() -> {
+          assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(delay));
+          order.add(delay);
+          done.countDown();
+        }, Duration.ofMillis(delay));
+      }
+
+      assertEquals(3, wheel.pending());
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+      assertEquals(List.of(10, 60, 150), order);
+      assertEquals(0, wheel.pending());
+    }
+  }
+
+  @DisplayName("Test cancelled tasks do not run")
+  @Test
+  void shouldCancel() throws InterruptedException {
+    try (TimingWheel wheel = new TimingWheel("test-wheel", Duration.ofMillis(5), 8)) {
+      final AtomicInteger runs = new AtomicInteger();
+      final CountDownLatch done = new CountDownLatch(1);
+
+      final Timeout cancelled = wheel.schedule(runs::incrementAndGet, Duration.ofMillis(20));
+      final Timeout expired = wheel.schedule(done::countDown, Duration.ofMillis(50));
+
+      assertTrue(cancelled.cancel());
+      assertFalse(cancelled.cancel());
+      assertTrue(cancelled.isCancelled());
+      assertEquals(1, wheel.pending());
+
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+      assertTrue(expired.isExpired());
+      assertFalse(expired.cancel());
+      assertEquals(0, runs.get());
+    }
+  }
+
+  @DisplayName("Test many concurrent timeouts are tracked and cancelled")
+  @Test
+  void shouldTrackManyTimeouts() throws InterruptedException {
+    try (TimingWheel wheel = new TimingWheel("test-wheel", Duration.ofMillis(10), 512)) {
+      final int count = 50_000;
+      final AtomicInteger runs = new AtomicInteger();
+      final Timeout[] timeouts = new Timeout[count];
+
+      for (int i = 0; i < count; i++) {
+        timeouts[i] = wheel.schedule(runs::incrementAndGet, Duration.ofMillis(50 + i % 100));
+      }
+
+      // On a slow machine, some tasks may have run before they could be cancelled.
+      int cancelled = 0;
+      for (int i = 0; i < count; i += 2) {
+        if (timeouts[i].cancel()) {
+          cancelled++;
+        }
+      }
+
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while ((wheel.pending() > 0 || runs.get() < count - cancelled)
+          && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertEquals(0, wheel.pending());
+      assertEquals(count - cancelled, runs.get());
+    }
+  }
+
+  @DisplayName("Test scheduling on a closed wheel fails")
+  @Test
+  void shouldRejectWhenClosed() {
+    final TimingWheel wheel = new TimingWheel("test-wheel", Duration.ofMillis(5), 8);
+    wheel.close();
+
+    assertThrows(IllegalStateException.class,
+        () -> wheel.schedule(() -> { }, Duration.ofMillis(5)));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TimingWheel("test-wheel", Duration.ZERO, 8));
+  }
+}